@@ -0,0 +1,81 @@
+package org.ksa.benchmark;
+
+import org.ksa.dto.ComputerDTO;
+import org.ksa.dto.SshKeyRequestDTO;
+import org.ksa.dto.SshKeyResponseDTO;
+import org.ksa.entity.Computer;
+import org.ksa.entity.SshKey;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixtures shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+    static final String RSA_KEY = "AAAAB3NzaC1yc2EAAAADAQABAAABAQCpX5CN1iSWYvTOxp/XyEWEo6twAMMOJGtwk+1rHkWcxb3WuTSEXOByPAn7pwMrhxPv0fjcF4dKUCH3FhRNOfJkeG3C4cB7A2uGGfTdUUCDrIZY4XsLY9fV2mi/R1rRaS8so/Z3MrTUOZl/T818oEouqinFL7HH4asMVJcw6zV4xpby0gd7vfLlsmP4AEZvaoPpSa5d165bsjsPU8fvljDeHun4E+RqLsJ5Wgtgv3QyQim13VKT/5mGHHlezLonXabJdrxoiM7QT6nKl8dhTaqN52VLYjeIs4vDB+RaFk1F5Vz+YxhRAXqlnm+DDCYPQ/HKI92WPbUb2bzpuXFmx0XL";
+    static final String ED25519_KEY = "AAAAC3NzaC1lZDI1NTE5AAAAIOiKKC7lLUcyvJMo1gjvMr56XvOq814Hhin0OCYFDqT4";
+    static final String ECDSA_256_KEY = "AAAAE2VjZHNhLXNoYTItbmlzdHAyNTYAAAAIbmlzdHAyNTYAAABBBBuBOTczC4UBkpNrsl6kySgw/NgH5TM7Qv7vcprJkaNfTspaJtLwstkYtZcVUhdXoBZ6F70UKzoOMw1sPTx4iOo=";
+
+    private BenchmarkData() {
+    }
+
+    static Computer computer() {
+        return Computer.builder()
+                .id(1L)
+                .type("laptop")
+                .maker("ASUS")
+                .model("X507UA")
+                .language("日本語")
+                .colors(new ArrayList<>(Arrays.asList("black", "silver", "blue")))
+                .build();
+    }
+
+    static ComputerDTO computerDto() {
+        return ComputerDTO.builder()
+                .type("laptop")
+                .maker("ASUS")
+                .model("X507UA")
+                .language("日本語")
+                .colors(ComputerDTO.ColorsWrapper.builder()
+                        .color(new ArrayList<>(Arrays.asList("black", "silver", "blue")))
+                        .build())
+                .build();
+    }
+
+    static SshKey sshKey(long id) {
+        return SshKey.builder()
+                .id(id)
+                .serverType("build-server")
+                .serverName("jenkins")
+                .type("ssh-ed25519")
+                .publicKey(ED25519_KEY)
+                .comment("happy@isr")
+                .build();
+    }
+
+    static SshKeyRequestDTO.SshKeyDTO sshKeyDto() {
+        return SshKeyRequestDTO.SshKeyDTO.builder()
+                .type("ssh-ed25519")
+                .publicKey(ED25519_KEY)
+                .comment("happy@isr")
+                .build();
+    }
+
+    static List<SshKeyResponseDTO> sshKeyResponses(int size) {
+        List<SshKeyResponseDTO> keys = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            keys.add(SshKeyResponseDTO.builder()
+                    .id((long) i)
+                    .type("ssh-ed25519")
+                    .publicKey(ED25519_KEY)
+                    .comment("user" + i + "@isr")
+                    .serverType("build-server")
+                    .serverName("jenkins")
+                    .build());
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,62 @@
+package org.ksa.benchmark;
+
+import org.ksa.dto.ComputerDTO;
+import org.ksa.dto.SshKeyRequestDTO;
+import org.ksa.dto.SshKeyResponseDTO;
+import org.ksa.entity.Computer;
+import org.ksa.entity.SshKey;
+import org.ksa.mapper.ComputerMapper;
+import org.ksa.mapper.SshKeyMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link ComputerMapper} and {@link SshKeyMapper} conversions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class MapperBenchmark {
+
+    private Computer computer;
+    private ComputerDTO computerDTO;
+    private SshKey sshKey;
+    private SshKeyRequestDTO.SshKeyDTO sshKeyDTO;
+
+    @Setup
+    public void setUp() {
+        computer = BenchmarkData.computer();
+        computerDTO = BenchmarkData.computerDto();
+        sshKey = BenchmarkData.sshKey(1L);
+        sshKeyDTO = BenchmarkData.sshKeyDto();
+    }
+
+    @Benchmark
+    public ComputerDTO computerToDto() {
+        return ComputerMapper.mapToComputerDto(computer);
+    }
+
+    @Benchmark
+    public Computer dtoToComputer() {
+        return ComputerMapper.mapToComputer(computerDTO);
+    }
+
+    @Benchmark
+    public void updateComputerFromDto(Blackhole blackhole) {
+        Computer target = BenchmarkData.computer();
+        ComputerMapper.updateEntityFromDTO(computerDTO, target);
+        blackhole.consume(target);
+    }
+
+    @Benchmark
+    public SshKeyResponseDTO sshKeyToResponseDto() {
+        return SshKeyMapper.mapToResponseDto(sshKey);
+    }
+
+    @Benchmark
+    public SshKey dtoToSshKey() {
+        return SshKeyMapper.mapToSshKey(sshKeyDTO, "build-server", "jenkins");
+    }
+}
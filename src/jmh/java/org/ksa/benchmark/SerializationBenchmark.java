@@ -0,0 +1,73 @@
+package org.ksa.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import org.ksa.dto.ComputerDTO;
+import org.ksa.dto.SshKeyResponseDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for JSON and XML serialization of the response DTOs.
+ * <p>
+ * Writers are created once, as Spring's message converters do.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private ObjectWriter computerJsonWriter;
+    private ObjectWriter computerXmlWriter;
+    private ObjectWriter sshKeyListJsonWriter;
+    private ComputerDTO computerDTO;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper jsonMapper = new ObjectMapper();
+        XmlMapper xmlMapper = new XmlMapper();
+
+        computerJsonWriter = jsonMapper.writerFor(ComputerDTO.class);
+        computerXmlWriter = xmlMapper.writerFor(ComputerDTO.class);
+        sshKeyListJsonWriter = jsonMapper.writerFor(
+                jsonMapper.getTypeFactory().constructCollectionType(List.class, SshKeyResponseDTO.class));
+
+        computerDTO = BenchmarkData.computerDto();
+    }
+
+    /**
+     * SSH key list of a parameterized size, kept separate so only the list benchmark is expanded.
+     */
+    @State(Scope.Benchmark)
+    public static class SshKeyList {
+
+        @Param({"1", "10", "100", "1000"})
+        public int size;
+
+        List<SshKeyResponseDTO> keys;
+
+        @Setup
+        public void setUp() {
+            keys = BenchmarkData.sshKeyResponses(size);
+        }
+    }
+
+    @Benchmark
+    public byte[] computerToJson() throws JsonProcessingException {
+        return computerJsonWriter.writeValueAsBytes(computerDTO);
+    }
+
+    @Benchmark
+    public byte[] computerToXml() throws JsonProcessingException {
+        return computerXmlWriter.writeValueAsBytes(computerDTO);
+    }
+
+    @Benchmark
+    public byte[] sshKeyListToJson(SshKeyList sshKeyList) throws JsonProcessingException {
+        return sshKeyListJsonWriter.writeValueAsBytes(sshKeyList.keys);
+    }
+}
@@ -0,0 +1,52 @@
+package org.ksa.benchmark;
+
+import org.ksa.config.SshKeyTypeConfig;
+import org.ksa.validator.SshKeyTypeRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for SSH key validation as performed by {@code SshKeyServiceImpl.validateSshKey}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class SshKeyValidationBenchmark {
+
+    @Param({"ssh-rsa", "ssh-ed25519", "ecdsa-sha2-nistp256"})
+    public String type;
+
+    private SshKeyTypeRegistry registry;
+    private String publicKey;
+
+    @Setup
+    public void setUp() {
+        SshKeyTypeConfig config = new SshKeyTypeConfig();
+        registry = new SshKeyTypeRegistry(Arrays.asList(
+                config.rsaKeyValidator(),
+                config.ed25519KeyValidator(),
+                config.ecdsaNistp256KeyValidator(),
+                config.ecdsaNistp384KeyValidator(),
+                config.ecdsaNistp521KeyValidator(),
+                config.skEd25519KeyValidator(),
+                config.skEcdsaKeyValidator()));
+
+        switch (type) {
+            case "ssh-rsa":
+                publicKey = BenchmarkData.RSA_KEY;
+                break;
+            case "ssh-ed25519":
+                publicKey = BenchmarkData.ED25519_KEY;
+                break;
+            default:
+                publicKey = BenchmarkData.ECDSA_256_KEY;
+        }
+    }
+
+    @Benchmark
+    public void validate() {
+        registry.validate(type, publicKey);
+    }
+}
@@ -0,0 +1,246 @@
+package org.ksa.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load test of {@code ComputerController} and {@code SshKeyController}.
+ * <p>
+ * Boots the full application against an embedded H2 database in MySQL mode, seeds the configured
+ * dataset and drives a mixed read/write workload at a fixed rate. The test fails when any operation
+ * exceeds the configured p50, p99 or p99.9 latency budget or the error budget.
+ * <p>
+ * All settings are in {@code application-loadtest.properties} and can be overridden with system properties.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ApiLoadTest {
+
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${loadtest.dataset.computers}")
+    private long computers;
+
+    @Value("${loadtest.dataset.ssh-keys}")
+    private long sshKeys;
+
+    @Value("${loadtest.dataset.servers}")
+    private long servers;
+
+    @Value("${loadtest.rate}")
+    private int rate;
+
+    @Value("${loadtest.workers}")
+    private int workers;
+
+    @Value("${loadtest.warmup-seconds}")
+    private int warmupSeconds;
+
+    @Value("${loadtest.duration-seconds}")
+    private int durationSeconds;
+
+    @Value("${loadtest.mix.get-computer}")
+    private int getComputerWeight;
+
+    @Value("${loadtest.mix.get-ssh-keys}")
+    private int getSshKeysWeight;
+
+    @Value("${loadtest.mix.get-ssh-key}")
+    private int getSshKeyWeight;
+
+    @Value("${loadtest.mix.add-ssh-key}")
+    private int addSshKeyWeight;
+
+    @Value("${loadtest.mix.update-computer}")
+    private int updateComputerWeight;
+
+    @Value("${loadtest.budget.p50-ms}")
+    private double p50BudgetMs;
+
+    @Value("${loadtest.budget.p99-ms}")
+    private double p99BudgetMs;
+
+    @Value("${loadtest.budget.p999-ms}")
+    private double p999BudgetMs;
+
+    @Value("${loadtest.budget.max-error-rate}")
+    private double maxErrorRate;
+
+    @Value("${loadtest.report-dir}")
+    private String reportDir;
+
+    private HttpClient httpClient;
+    private String baseUrl;
+
+    @BeforeAll
+    void seed() {
+        DatasetSeeder seeder = new DatasetSeeder(jdbcTemplate);
+        seeder.seedComputers(computers);
+        seeder.seedSshKeys(sshKeys, servers);
+
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        baseUrl = "http://localhost:" + port;
+    }
+
+    /**
+     * Runs the mixed workload and verifies the latency and error budgets of every operation.
+     */
+    @Test
+    void mixedWorkload_WithinLatencyBudgets() throws Exception {
+        FixedRateLoadGenerator generator = new FixedRateLoadGenerator()
+                .operation("get-computer", getComputerWeight, this::getComputer)
+                .operation("get-ssh-keys", getSshKeysWeight, this::getSshKeys)
+                .operation("get-ssh-key", getSshKeyWeight, this::getSshKey)
+                .operation("add-ssh-key", addSshKeyWeight, this::addSshKey)
+                .operation("update-computer", updateComputerWeight, this::updateComputer);
+
+        generator.run(rate, warmupSeconds, TimeUnit.SECONDS, workers);
+        Map<String, FixedRateLoadGenerator.Result> results =
+                generator.run(rate, durationSeconds, TimeUnit.SECONDS, workers);
+
+        List<String> violations = new ArrayList<>();
+        for (FixedRateLoadGenerator.Result result : results.values()) {
+            report(result);
+            Histogram histogram = result.getHistogram();
+            checkBudget(violations, result.getName(), "p50", histogram.getValueAtPercentile(50), p50BudgetMs);
+            checkBudget(violations, result.getName(), "p99", histogram.getValueAtPercentile(99), p99BudgetMs);
+            checkBudget(violations, result.getName(), "p99.9", histogram.getValueAtPercentile(99.9), p999BudgetMs);
+
+            double errorRate = result.getCount() == 0 ? 0 : (double) result.getErrors() / result.getCount();
+            if (errorRate > maxErrorRate) {
+                violations.add(String.format("%s error rate %.4f exceeds budget %.4f", result.getName(), errorRate, maxErrorRate));
+            }
+        }
+
+        assertTrue(violations.isEmpty(), "Load test budgets exceeded:\n" + String.join("\n", violations));
+    }
+
+    private boolean getComputer() throws Exception {
+        long n = random(computers);
+        return send(get("/computers/" + DatasetSeeder.maker(n) + "/" + DatasetSeeder.model(n))) == 200;
+    }
+
+    private boolean getSshKeys() throws Exception {
+        long server = random(servers);
+        return send(get(keysPath(server))) == 200;
+    }
+
+    private boolean getSshKey() throws Exception {
+        long server = random(servers);
+        return send(get(keysPath(server) + "/" + (random(sshKeys) + 1))) == 200;
+    }
+
+    private boolean addSshKey() throws Exception {
+        long server = random(servers);
+        String body = "{\"ssh-key\":{\"type\":\"ssh-ed25519\",\"public\":\"" + randomEd25519Key()
+                + "\",\"comment\":\"loadtest\"}}";
+        return send(json(keysPath(server)).POST(HttpRequest.BodyPublishers.ofString(body))) == 201;
+    }
+
+    private boolean updateComputer() throws Exception {
+        long n = random(computers);
+        String body = "{\"type\":\"laptop\",\"maker\":\"" + DatasetSeeder.maker(n) + "\",\"model\":\""
+                + DatasetSeeder.model(n) + "\",\"language\":\"English\",\"colors\":{\"color\":[\"black\",\"silver\"]}}";
+        String path = "/computers/" + DatasetSeeder.maker(n) + "/" + DatasetSeeder.model(n);
+        return send(json(path).PUT(HttpRequest.BodyPublishers.ofString(body))) == 200;
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .GET();
+    }
+
+    private HttpRequest.Builder json(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Accept", "application/json")
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    private int send(HttpRequest.Builder request) throws Exception {
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static String keysPath(long server) {
+        return "/" + DatasetSeeder.serverType(server) + "/" + DatasetSeeder.serverName(server) + "/authorized_keys";
+    }
+
+    private static long random(long bound) {
+        return ThreadLocalRandom.current().nextLong(bound);
+    }
+
+    private static String randomEd25519Key() {
+        byte[] type = "ssh-ed25519".getBytes();
+        byte[] key = new byte[32];
+        ThreadLocalRandom.current().nextBytes(key);
+
+        ByteBuffer blob = ByteBuffer.allocate(8 + type.length + key.length);
+        blob.putInt(type.length).put(type).putInt(key.length).put(key);
+        return Base64.getEncoder().encodeToString(blob.array());
+    }
+
+    private static void checkBudget(List<String> violations, String operation, String percentile,
+                                    long valueNanos, double budgetMs) {
+        double valueMs = (double) valueNanos / NANOS_PER_MILLI;
+        if (valueMs > budgetMs) {
+            violations.add(String.format("%s %s latency %.2f ms exceeds budget %.2f ms", operation, percentile, valueMs, budgetMs));
+        }
+    }
+
+    private void report(FixedRateLoadGenerator.Result result) throws IOException {
+        Histogram histogram = result.getHistogram();
+        System.out.printf("%-16s count=%d errors=%d p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms%n",
+                result.getName(), result.getCount(), result.getErrors(),
+                (double) histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                (double) histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                (double) histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                (double) histogram.getMaxValue() / NANOS_PER_MILLI);
+
+        File dir = new File(reportDir);
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Cannot create report directory " + dir);
+        }
+        try (PrintStream out = new PrintStream(new FileOutputStream(new File(dir, result.getName() + ".hgrm")))) {
+            histogram.outputPercentileDistribution(out, (double) NANOS_PER_MILLI);
+        }
+    }
+}
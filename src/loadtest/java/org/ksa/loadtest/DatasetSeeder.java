@@ -0,0 +1,98 @@
+package org.ksa.loadtest;
+
+import org.ksa.mapper.ColorDictionary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds the load test dataset with batched JDBC inserts, bypassing JPA.
+ * <p>
+ * Computers are named {@code maker-<n / 100>/model-<n>}, and SSH keys are spread over servers named
+ * {@code type-<n % 10>/server-<n>}.
+ */
+public class DatasetSeeder {
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final String[] COLORS = {"black", "silver", "white", "blue", "red"};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DatasetSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    static String maker(long n) {
+        return "maker-" + (n / 100);
+    }
+
+    static String model(long n) {
+        return "model-" + n;
+    }
+
+    static String serverType(long server) {
+        return "type-" + (server % 10);
+    }
+
+    static String serverName(long server) {
+        return "server-" + server;
+    }
+
+    /**
+     * Inserts computers with two colors each.
+     *
+     * @param count number of computers
+     */
+    public void seedComputers(long count) {
+        List<Object[]> computers = new ArrayList<>(BATCH_SIZE);
+        for (long n = 0; n < count; n++) {
+            computers.add(new Object[]{"laptop", maker(n), model(n), "English"});
+            if (computers.size() == BATCH_SIZE || n == count - 1) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO computers (type, maker, model, language) VALUES (?, ?, ?, ?)", computers);
+                computers.clear();
+            }
+        }
+
+        int even = colorCode(COLORS[0]);
+        int odd = colorCode(COLORS[1]);
+        int third = colorCode(COLORS[2]);
+        jdbcTemplate.update("UPDATE computers SET color_codes = CASE WHEN MOD(id, 6) = 0 THEN ? "
+                        + "WHEN MOD(id, 2) = 0 THEN ? WHEN MOD(id, 3) = 0 THEN ? ELSE ? END",
+                ColorDictionary.pack(even, third), ColorDictionary.pack(even), ColorDictionary.pack(odd, third),
+                ColorDictionary.pack(odd));
+    }
+
+    /**
+     * Returns the dictionary code of a color, adding it if needed.
+     */
+    private int colorCode(String name) {
+        List<Integer> codes = jdbcTemplate.queryForList("SELECT id FROM colors WHERE name = ?", Integer.class, name);
+        if (codes.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO colors (name) VALUES (?)", name);
+            codes = jdbcTemplate.queryForList("SELECT id FROM colors WHERE name = ?", Integer.class, name);
+        }
+        return codes.get(0);
+    }
+
+    /**
+     * Inserts SSH keys spread round-robin over the given number of servers.
+     *
+     * @param count   number of keys
+     * @param servers number of distinct servers
+     */
+    public void seedSshKeys(long count, long servers) {
+        List<Object[]> keys = new ArrayList<>(BATCH_SIZE);
+        for (long n = 0; n < count; n++) {
+            long server = n % servers;
+            keys.add(new Object[]{serverType(server), serverName(server), "ssh-ed25519",
+                    "AAAAC3NzaC1lZDI1NTE5AAAAI" + n, "user" + n + "@loadtest"});
+            if (keys.size() == BATCH_SIZE || n == count - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO ssh_keys (server_type, server_name, key_type, public_key, comment) "
+                        + "VALUES (?, ?, ?, ?, ?)", keys);
+                keys.clear();
+            }
+        }
+    }
+}
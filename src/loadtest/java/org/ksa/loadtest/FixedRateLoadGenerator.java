@@ -0,0 +1,185 @@
+package org.ksa.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator issuing operations at a fixed rate.
+ * <p>
+ * Every operation is assigned an intended start time on a fixed schedule, and its latency is
+ * measured from that time rather than from the moment a worker picked it up. Slow responses
+ * therefore show up as queueing delay for the following operations instead of silently lowering
+ * the request rate (no coordinated omission).
+ */
+public class FixedRateLoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final List<WeightedOperation> operations = new ArrayList<>();
+    private int totalWeight;
+
+    /**
+     * Operation issued by the generator.
+     */
+    @FunctionalInterface
+    public interface Operation {
+
+        /**
+         * Executes the operation.
+         *
+         * @return {@code true} if the operation succeeded
+         * @throws Exception if the operation failed
+         */
+        boolean execute() throws Exception;
+    }
+
+    /**
+     * Latency and error statistics for a single operation.
+     */
+    public static class Result {
+
+        private final String name;
+        private final Histogram histogram;
+        private final long errors;
+
+        Result(String name, Histogram histogram, long errors) {
+            this.name = name;
+            this.histogram = histogram;
+            this.errors = errors;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Histogram getHistogram() {
+            return histogram;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getCount() {
+            return histogram.getTotalCount();
+        }
+    }
+
+    private static class WeightedOperation {
+
+        private final String name;
+        private final int weight;
+        private final Operation operation;
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+        private final LongAdder errors = new LongAdder();
+
+        WeightedOperation(String name, int weight, Operation operation) {
+            this.name = name;
+            this.weight = weight;
+            this.operation = operation;
+        }
+    }
+
+    /**
+     * Registers an operation in the workload mix.
+     *
+     * @param name      operation name used in reports
+     * @param weight    relative share of the operation in the mix
+     * @param operation operation to execute
+     * @return this generator
+     */
+    public FixedRateLoadGenerator operation(String name, int weight, Operation operation) {
+        if (weight > 0) {
+            operations.add(new WeightedOperation(name, weight, operation));
+            totalWeight += weight;
+        }
+        return this;
+    }
+
+    /**
+     * Runs the workload at the given rate.
+     *
+     * @param ratePerSecond operations issued per second
+     * @param duration      duration of the run
+     * @param unit          time unit of the duration
+     * @param workers       number of worker threads executing operations
+     * @return statistics per operation, in registration order
+     * @throws InterruptedException if interrupted while waiting for outstanding operations
+     */
+    public Map<String, Result> run(int ratePerSecond, long duration, TimeUnit unit, int workers)
+            throws InterruptedException {
+        if (operations.isEmpty()) {
+            throw new IllegalStateException("No operations registered");
+        }
+        for (WeightedOperation op : operations) {
+            op.recorder.reset();
+            op.errors.reset();
+        }
+
+        ExecutorService executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>());
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long durationNanos = unit.toNanos(duration);
+        long start = System.nanoTime();
+
+        try {
+            for (long i = 0; i * intervalNanos < durationNanos; i++) {
+                long intendedStart = start + i * intervalNanos;
+                long wait;
+                while ((wait = intendedStart - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                WeightedOperation op = pick();
+                executor.execute(() -> execute(op, intendedStart));
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (WeightedOperation op : operations) {
+            results.put(op.name, new Result(op.name, op.recorder.getIntervalHistogram(), op.errors.sum()));
+        }
+        return results;
+    }
+
+    private void execute(WeightedOperation op, long intendedStart) {
+        boolean success = false;
+        try {
+            success = op.operation.execute();
+        } catch (Exception ex) {
+            success = false;
+        } finally {
+            long latency = System.nanoTime() - intendedStart;
+            op.recorder.recordValue(Math.min(latency, HIGHEST_TRACKABLE_NANOS));
+            if (!success) {
+                op.errors.increment();
+            }
+        }
+    }
+
+    private WeightedOperation pick() {
+        int value = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (WeightedOperation op : operations) {
+            value -= op.weight;
+            if (value < 0) {
+                return op;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+}
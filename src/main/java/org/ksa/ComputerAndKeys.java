@@ -2,6 +2,7 @@ package org.ksa;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 /**
  * Main application class for Computer and Keys.
@@ -9,12 +10,19 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 @SpringBootApplication
 public class ComputerAndKeys {
 
+    /**
+     * Maximum number of recorded startup steps, enough for a full context refresh.
+     */
+    private static final int STARTUP_STEP_CAPACITY = 10000;
+
     /**
      * Entry point for the Spring Boot Application.
      *
      * @param args arguments passed to the application
      */
     public static void main(String[] args) {
-        SpringApplication.run(ComputerAndKeys.class, args);
+        SpringApplication application = new SpringApplication(ComputerAndKeys.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+        application.run(args);
     }
-}
\ No newline at end of file
+}
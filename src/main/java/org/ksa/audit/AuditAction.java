@@ -0,0 +1,10 @@
+package org.ksa.audit;
+
+/**
+ * Changes to SSH keys recorded in the audit log.
+ */
+public enum AuditAction {
+    ADD,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,30 @@
+package org.ksa.audit;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Audit record of one change to an SSH key.
+ * <p>
+ * The sequence number is assigned by {@link AuditLog} when the event is written.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEvent {
+
+    private long seq;
+    private Instant timestamp;
+    private AuditAction action;
+    private String actor;
+    private String serverType;
+    private String serverName;
+    private Long keyId;
+    private String keyType;
+    private String fingerprint;
+}
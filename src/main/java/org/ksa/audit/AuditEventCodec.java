@@ -0,0 +1,51 @@
+package org.ksa.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+
+/**
+ * Encodes audit events as JSON lines, the format of the audit log segments.
+ */
+public final class AuditEventCodec {
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private AuditEventCodec() {
+    }
+
+    /**
+     * Encodes an event as one line, including the trailing newline.
+     *
+     * @param event event to encode
+     * @return UTF-8 bytes of the line
+     */
+    public static byte[] encode(AuditEvent event) {
+        try {
+            byte[] json = MAPPER.writeValueAsBytes(event);
+            byte[] line = new byte[json.length + 1];
+            System.arraycopy(json, 0, line, 0, json.length);
+            line[json.length] = '\n';
+            return line;
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not encode audit event " + event, ex);
+        }
+    }
+
+    /**
+     * Decodes one line of a segment.
+     *
+     * @param line line without the trailing newline
+     * @return the decoded event
+     * @throws IOException if the line is not a valid event
+     */
+    public static AuditEvent decode(String line) throws IOException {
+        return MAPPER.readValue(line, AuditEvent.class);
+    }
+}
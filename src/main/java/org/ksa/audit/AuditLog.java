@@ -0,0 +1,414 @@
+package org.ksa.audit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Append-only audit log on local disk.
+ * <p>
+ * Events are handed over through a bounded ring buffer and written by a single thread. The writer takes all
+ * events available at once, appends them as JSON lines and calls {@code fsync} once per batch (group commit),
+ * so the cost of a sync is shared by all events arriving while the previous one runs. Segments are rotated by
+ * size and named after the sequence number of their first event. On start, a partially written last line is
+ * truncated and numbering continues after the last complete event.
+ * <p>
+ * Nothing is dropped to keep up: publishers {@link #tryReserve() reserve} room in the buffer before the change
+ * commits and fail if the buffer stays full, and a failed write is retried, after recovering the last segment,
+ * until it succeeds. While writes fail the buffer fills up, so changes are refused rather than left unrecorded.
+ */
+@Slf4j
+public class AuditLog {
+
+    static final String SEGMENT_PREFIX = "audit-";
+    static final String SEGMENT_SUFFIX = ".log";
+
+    private static final int TAIL_BYTES = 64 * 1024;
+    private static final long POLL_MILLIS = 100;
+    private static final long RETRY_MILLIS = 1000;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final int maxBatch;
+    private final long offerTimeoutMillis;
+    private final boolean enabled;
+
+    private final BlockingQueue<AuditEvent> buffer;
+    private final Semaphore slots;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder syncs = new LongAdder();
+
+    private volatile boolean running;
+    private volatile boolean writeFailing;
+    private Thread writer;
+
+    private FileChannel channel;
+    private long segmentSize;
+    private long nextSeq = 1;
+
+    /**
+     * Constructor for {@code AuditLog}.
+     *
+     * @param directory          directory of the segment files
+     * @param bufferCapacity     capacity of the ring buffer between publishers and the writer
+     * @param maxBatch           maximum number of events written per sync
+     * @param segmentBytes       size after which a new segment is started
+     * @param offerTimeoutMillis time a publisher waits for space in a full buffer before giving up
+     * @param enabled            whether events are recorded
+     */
+    public AuditLog(Path directory, int bufferCapacity, int maxBatch, long segmentBytes,
+                    long offerTimeoutMillis, boolean enabled) {
+        this.directory = directory;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.slots = new Semaphore(bufferCapacity);
+        this.maxBatch = maxBatch;
+        this.segmentBytes = segmentBytes;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Recovers the last segment and starts the writer thread.
+     *
+     * @throws IOException if the directory or the last segment cannot be read
+     */
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        recover();
+
+        running = true;
+        writer = new Thread(this::writeLoop, "audit-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Audit log writing to {} from sequence {}", directory.toAbsolutePath(), nextSeq);
+    }
+
+    /**
+     * Stops the writer after it has written all buffered events.
+     *
+     * @throws InterruptedException if interrupted while waiting for the writer
+     */
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    /**
+     * Hands an event over to the writer, reserving room for it first.
+     *
+     * @param event event to record
+     * @return {@code true} if the event was buffered, {@code false} if it was dropped
+     */
+    public boolean append(AuditEvent event) {
+        if (!enabled) {
+            return false;
+        }
+        if (!tryReserve()) {
+            dropped.increment();
+            log.error("Audit buffer full, dropped event {}", event);
+            return false;
+        }
+        appendReserved(event);
+        return true;
+    }
+
+    /**
+     * Reserves room in the buffer for one event, waiting up to the offer timeout while it is full.
+     * <p>
+     * A reservation is followed by {@link #appendReserved(AuditEvent)} or {@link #release()}.
+     *
+     * @return {@code true} if room was reserved, or the log is disabled
+     */
+    public boolean tryReserve() {
+        if (!enabled) {
+            return true;
+        }
+        try {
+            return slots.tryAcquire(offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Reserves room in the buffer for one event, waiting as long as the writer runs.
+     *
+     * @return {@code true} if room was reserved, or the log is disabled; {@code false} if the writer stopped
+     */
+    public boolean reserve() {
+        if (!enabled) {
+            return true;
+        }
+        try {
+            while (!slots.tryAcquire(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!running) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Hands an event over to the writer in the room reserved for it; never waits.
+     *
+     * @param event event to record
+     */
+    public void appendReserved(AuditEvent event) {
+        if (enabled) {
+            buffer.add(event);
+        }
+    }
+
+    /**
+     * Gives up a reservation whose event will not be recorded, such as that of a rolled back change.
+     */
+    public void release() {
+        if (enabled) {
+            slots.release();
+        }
+    }
+
+    /**
+     * Tells whether events are being written.
+     *
+     * @return {@code false} while the writer is not running or its last write failed
+     */
+    public boolean isHealthy() {
+        return !enabled || (running && writer != null && writer.isAlive() && !writeFailing);
+    }
+
+    public int getBuffered() {
+        return buffer.size();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getSyncs() {
+        return syncs.sum();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Lists the segments of a log directory in sequence order.
+     *
+     * @param directory directory of the segment files
+     * @return paths of the segments, empty if the directory does not exist
+     * @throws IOException if the directory cannot be listed
+     */
+    static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    /**
+     * Returns the sequence number of the first event of a segment, taken from its name.
+     *
+     * @param segment path of the segment
+     * @return sequence number of the first event
+     */
+    static long firstSeq(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static Path segmentPath(Path directory, long firstSeq) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX));
+    }
+
+    private void writeLoop() {
+        List<AuditEvent> batch = new ArrayList<>(maxBatch);
+        while (running || !buffer.isEmpty()) {
+            AuditEvent first;
+            try {
+                first = buffer.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            buffer.drainTo(batch, maxBatch - 1);
+            slots.release(batch.size());
+            writeUntilDone(batch);
+            batch.clear();
+        }
+        closeSegment();
+    }
+
+    private void writeUntilDone(List<AuditEvent> batch) {
+        long start = nextSeq;
+        boolean failed = false;
+        while (true) {
+            try {
+                if (failed) {
+                    // Drop a torn line and skip the events that reached the disk before the failure
+                    recover();
+                    int done = (int) Math.max(0, Math.min(batch.size(), nextSeq - start));
+                    batch.subList(0, done).clear();
+                    written.add(done);
+                    start = nextSeq;
+                }
+                write(batch);
+                if (writeFailing) {
+                    writeFailing = false;
+                    log.info("Audit log writes recovered");
+                }
+                return;
+            } catch (IOException | RuntimeException ex) {
+                failed = true;
+                writeFailing = true;
+                nextSeq = start;
+                closeSegment();
+                log.error("Could not write {} audit events, retrying in {} ms", batch.size(), RETRY_MILLIS, ex);
+            }
+            if (!running) {
+                dropped.add(batch.size());
+                log.error("Audit log stopped with {} unwritten events", batch.size());
+                return;
+            }
+            try {
+                Thread.sleep(RETRY_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                dropped.add(batch.size());
+                return;
+            }
+        }
+    }
+
+    private void write(List<AuditEvent> batch) throws IOException {
+        ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        for (AuditEvent event : batch) {
+            event.setSeq(nextSeq);
+            byte[] line = AuditEventCodec.encode(event);
+
+            long size = segmentSize + pending.size();
+            if (channel == null || (size > 0 && size + line.length > segmentBytes)) {
+                flush(pending);
+                rotate(nextSeq);
+            }
+            pending.write(line);
+            nextSeq++;
+        }
+        flush(pending);
+        written.add(batch.size());
+    }
+
+    private void flush(ByteArrayOutputStream pending) throws IOException {
+        if (pending.size() == 0) {
+            return;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(pending.toByteArray());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        channel.force(false);
+        syncs.increment();
+        segmentSize += pending.size();
+        pending.reset();
+    }
+
+    private void rotate(long firstSeq) throws IOException {
+        closeSegment();
+        channel = FileChannel.open(segmentPath(directory, firstSeq),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentSize = channel.size();
+    }
+
+    private void closeSegment() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            log.warn("Could not close audit segment", ex);
+        }
+        channel = null;
+    }
+
+    private void recover() throws IOException {
+        List<Path> segments = listSegments(directory);
+        if (segments.isEmpty()) {
+            return;
+        }
+        Path last = segments.get(segments.size() - 1);
+        nextSeq = firstSeq(last);
+
+        try (FileChannel file = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = file.size();
+            int tailLength = (int) Math.min(size, TAIL_BYTES);
+            ByteBuffer tail = ByteBuffer.allocate(tailLength);
+            file.read(tail, size - tailLength);
+            byte[] bytes = tail.array();
+
+            int end = lastIndexOf(bytes, tailLength - 1);
+            long validSize = end < 0 ? size - tailLength : size - tailLength + end + 1;
+            if (validSize < size) {
+                log.warn("Truncating partially written audit event in {}", last);
+                file.truncate(validSize);
+                file.force(true);
+            }
+            if (end >= 0) {
+                int start = lastIndexOf(bytes, end - 1) + 1;
+                String line = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+                nextSeq = AuditEventCodec.decode(line).getSeq() + 1;
+            }
+        }
+        channel = FileChannel.open(last, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentSize = channel.size();
+    }
+
+    private static int lastIndexOf(byte[] bytes, int from) {
+        for (int i = from; i >= 0; i--) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,70 @@
+package org.ksa.audit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Reads the segments written by {@link AuditLog}.
+ * <p>
+ * Segments entirely before the requested sequence number are skipped by name, so replaying from a recent
+ * position does not scan the whole log.
+ */
+@Slf4j
+public class AuditLogReader {
+
+    private final Path directory;
+
+    /**
+     * Constructor for {@code AuditLogReader}.
+     *
+     * @param directory directory of the segment files
+     */
+    public AuditLogReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Passes the matching events to the consumer in sequence order.
+     *
+     * @param fromSeq  first sequence number to read
+     * @param filter   predicate selecting the events
+     * @param consumer consumer of the selected events
+     * @return number of events passed to the consumer
+     * @throws IOException if a segment cannot be read
+     */
+    public long read(long fromSeq, Predicate<AuditEvent> filter, Consumer<AuditEvent> consumer) throws IOException {
+        List<Path> segments = AuditLog.listSegments(directory);
+        long count = 0;
+
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && AuditLog.firstSeq(segments.get(i + 1)) <= fromSeq) {
+                continue;
+            }
+            try (BufferedReader reader = Files.newBufferedReader(segments.get(i), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    AuditEvent event;
+                    try {
+                        event = AuditEventCodec.decode(line);
+                    } catch (IOException ex) {
+                        log.warn("Skipping unreadable audit line in {}", segments.get(i));
+                        continue;
+                    }
+                    if (event.getSeq() >= fromSeq && filter.test(event)) {
+                        consumer.accept(event);
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+}
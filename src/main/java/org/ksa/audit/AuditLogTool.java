@@ -0,0 +1,82 @@
+package org.ksa.audit;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.function.Predicate;
+
+/**
+ * Command line tool to query and replay the audit log.
+ * <p>
+ * Prints the matching events as JSON lines to standard output, e.g. to feed them into another system:
+ * <pre>
+ * java -cp app.jar -Dloader.main=org.ksa.audit.AuditLogTool org.springframework.boot.loader.PropertiesLauncher \
+ *     --dir audit --server build-server/jenkins --action DELETE --since 2026-01-01T00:00:00Z
+ * </pre>
+ * Options: {@code --dir}, {@code --from-seq}, {@code --since}, {@code --until}, {@code --server type/name},
+ * {@code --action}, {@code --actor}, {@code --fingerprint}.
+ */
+public final class AuditLogTool {
+
+    private AuditLogTool() {
+    }
+
+    /**
+     * Entry point of the tool.
+     *
+     * @param args command line options
+     * @throws IOException if the log cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        String dir = "audit";
+        long fromSeq = 0;
+        Predicate<AuditEvent> filter = event -> true;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--dir":
+                    dir = value;
+                    break;
+                case "--from-seq":
+                    fromSeq = Long.parseLong(value);
+                    break;
+                case "--since":
+                    Instant since = Instant.parse(value);
+                    filter = filter.and(event -> !event.getTimestamp().isBefore(since));
+                    break;
+                case "--until":
+                    Instant until = Instant.parse(value);
+                    filter = filter.and(event -> event.getTimestamp().isBefore(until));
+                    break;
+                case "--server":
+                    String[] server = value.split("/", 2);
+                    filter = filter.and(event -> server[0].equals(event.getServerType())
+                            && (server.length == 1 || server[1].equals(event.getServerName())));
+                    break;
+                case "--action":
+                    AuditAction action = AuditAction.valueOf(value.toUpperCase());
+                    filter = filter.and(event -> action == event.getAction());
+                    break;
+                case "--actor":
+                    filter = filter.and(event -> value.equals(event.getActor()));
+                    break;
+                case "--fingerprint":
+                    filter = filter.and(event -> value.equals(event.getFingerprint()));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        PrintStream out = new PrintStream(System.out, false, StandardCharsets.UTF_8.name());
+        long count = new AuditLogReader(Paths.get(dir)).read(fromSeq, filter, event -> {
+            byte[] line = AuditEventCodec.encode(event);
+            out.write(line, 0, line.length);
+        });
+        out.flush();
+        System.err.println(count + " events");
+    }
+}
@@ -0,0 +1,144 @@
+package org.ksa.audit;
+
+import org.ksa.entity.SshKey;
+import org.ksa.exception.ServiceOverloadedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.ksa.constants.ErrorMessages.AUDIT_LOG_UNAVAILABLE;
+
+/**
+ * Publishes SSH key changes to the {@link AuditLog}.
+ * <p>
+ * Inside a transaction, room for the event is reserved in the log's buffer before commit and the event is
+ * handed over after it, so rolled back changes are not recorded and the request never waits for the disk. If
+ * the buffer stays full, the commit fails with a 503 rather than leaving the change unrecorded. Without a
+ * transaction, as with the embedded store, the change is already applied, so the publisher waits for room.
+ * The actor is the client's API key, recorded as a hash, or its IP address; the fingerprint is the OpenSSH
+ * SHA-256 fingerprint of the key.
+ */
+@Component
+public class AuditPublisher {
+
+    private static final int ACTOR_HASH_LENGTH = 16;
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final AuditLog auditLog;
+    private final String apiKeyHeader;
+
+    /**
+     * Constructor for {@code AuditPublisher}.
+     *
+     * @param auditLog     log receiving the events
+     * @param apiKeyHeader header identifying a client instead of its IP address
+     */
+    public AuditPublisher(AuditLog auditLog,
+                          @Value("${app.rate-limit.api-key-header:X-API-Key}") String apiKeyHeader) {
+        this.auditLog = auditLog;
+        this.apiKeyHeader = apiKeyHeader;
+    }
+
+    /**
+     * Records a change to an SSH key once the current transaction commits.
+     *
+     * @param action  kind of change
+     * @param sshKey  key after the change, or before it for deletions
+     * @throws ServiceOverloadedException if the log cannot take the event, from the commit inside a transaction
+     */
+    public void publish(AuditAction action, SshKey sshKey) {
+        AuditEvent event = AuditEvent.builder()
+                .timestamp(Instant.now())
+                .action(action)
+                .actor(currentActor())
+                .serverType(sshKey.getServerType())
+                .serverName(sshKey.getServerName())
+                .keyId(sshKey.getId())
+                .keyType(sshKey.getType())
+                .fingerprint(fingerprint(sshKey.getPublicKey()))
+                .build();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean reserved;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    if (!auditLog.tryReserve()) {
+                        throw new ServiceOverloadedException(AUDIT_LOG_UNAVAILABLE, RETRY_AFTER_SECONDS);
+                    }
+                    reserved = true;
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (!reserved) {
+                        return;
+                    }
+                    if (status == STATUS_COMMITTED) {
+                        auditLog.appendReserved(event);
+                    } else {
+                        auditLog.release();
+                    }
+                }
+            });
+        } else {
+            if (!auditLog.reserve()) {
+                throw new ServiceOverloadedException(AUDIT_LOG_UNAVAILABLE, RETRY_AFTER_SECONDS);
+            }
+            auditLog.appendReserved(event);
+        }
+    }
+
+    /**
+     * Computes the OpenSSH SHA-256 fingerprint of a public key.
+     *
+     * @param publicKey base64-encoded key blob
+     * @return the fingerprint, e.g. {@code SHA256:Pf/B2cWAzlf5STOw1b20vvbOxTQ2BM7+NKRucRwvuJA}
+     */
+    public static String fingerprint(String publicKey) {
+        try {
+            byte[] blob = Base64.getDecoder().decode(publicKey);
+            return "SHA256:" + Base64.getEncoder().withoutPadding().encodeToString(sha256(blob));
+        } catch (IllegalArgumentException ex) {
+            return "SHA256:invalid";
+        }
+    }
+
+    private String currentActor() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return "system";
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        String apiKey = request.getHeader(apiKeyHeader);
+        if (apiKey != null && !apiKey.isEmpty()) {
+            StringBuilder hex = new StringBuilder("key:");
+            byte[] hash = sha256(apiKey.getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < ACTOR_HASH_LENGTH / 2; i++) {
+                hex.append(String.format("%02x", hash[i]));
+            }
+            return hex.toString();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static byte[] sha256(byte[] input) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(input);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
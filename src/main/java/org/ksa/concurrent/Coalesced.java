@@ -0,0 +1,19 @@
+package org.ksa.concurrent;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read method whose concurrent invocations with equal arguments share a single execution.
+ * <p>
+ * Handled by {@link CoalescingAspect}, which runs outside the transaction, so only the leading
+ * invocation opens a transaction and queries the database.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesced {
+}
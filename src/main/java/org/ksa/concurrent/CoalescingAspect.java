@@ -0,0 +1,109 @@
+package org.ksa.concurrent;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aspect coalescing concurrent invocations of {@link Coalesced} methods with equal arguments.
+ * <p>
+ * Ordered before the transaction interceptor, so waiting callers never hold a transaction or a connection.
+ * Waiting callers get a copy of the shared result, made by a JSON round trip of the declared return type, so
+ * no caller sees another one's changes to it. After an {@link InvalidatesCoalesced} write commits, in-flight
+ * loads take no new callers.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CoalescingAspect {
+
+    private final SingleFlight<List<Object>, Object> singleFlight;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor for {@code CoalescingAspect}.
+     *
+     * @param objectMapper  mapper copying shared results
+     * @param maxWaitMillis maximum time a caller waits for an in-flight invocation before invoking itself
+     */
+    public CoalescingAspect(ObjectMapper objectMapper,
+                            @Value("${app.single-flight.max-wait-ms:2000}") long maxWaitMillis) {
+        this.objectMapper = objectMapper;
+        this.singleFlight = new SingleFlight<>(maxWaitMillis);
+    }
+
+    /**
+     * Runs the invocation through the single-flight, keyed by method and arguments.
+     *
+     * @param joinPoint intercepted invocation
+     * @return result of the shared invocation
+     * @throws Throwable exception thrown by the shared invocation
+     */
+    @Around("@annotation(org.ksa.concurrent.Coalesced)")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object[] args = joinPoint.getArgs();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        List<Object> key = new ArrayList<>(args.length + 1);
+        key.add(method);
+        key.addAll(Arrays.asList(args));
+        JavaType resultType = objectMapper.constructType(method.getGenericReturnType());
+
+        try {
+            return singleFlight.execute(key, () -> {
+                try {
+                    return joinPoint.proceed();
+                } catch (RuntimeException | Error ex) {
+                    throw ex;
+                } catch (Throwable ex) {
+                    throw new UndeclaredThrowableException(ex);
+                }
+            }, result -> objectMapper.convertValue(result, resultType));
+        } catch (UndeclaredThrowableException ex) {
+            throw ex.getUndeclaredThrowable();
+        }
+    }
+
+    int waitingCount() {
+        return singleFlight.waitingCount();
+    }
+
+    /**
+     * Stops in-flight loads from taking new callers once the write commits, or at once outside a transaction.
+     *
+     * @param joinPoint intercepted write
+     * @return result of the write
+     * @throws Throwable exception thrown by the write
+     */
+    @Around("@annotation(org.ksa.concurrent.InvalidatesCoalesced)")
+    public Object invalidate(ProceedingJoinPoint joinPoint) throws Throwable {
+        try {
+            return joinPoint.proceed();
+        } finally {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        singleFlight.invalidate();
+                    }
+                });
+            } else {
+                singleFlight.invalidate();
+            }
+        }
+    }
+}
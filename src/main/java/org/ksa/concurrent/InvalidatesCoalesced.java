@@ -0,0 +1,19 @@
+package org.ksa.concurrent;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a write method whose change must be visible to {@link Coalesced} reads started after it returns.
+ * <p>
+ * Handled by {@link CoalescingAspect}: once the change commits, loads already in flight no longer take new
+ * callers, so a client reading its own write never joins a load that started before the write committed.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface InvalidatesCoalesced {
+}
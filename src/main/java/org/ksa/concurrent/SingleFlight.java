@@ -0,0 +1,126 @@
+package org.ksa.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Coalesces concurrent loads of the same key into a single in-flight load.
+ * <p>
+ * The first caller for a key (the leader) runs the loader; callers arriving while it runs wait for its
+ * result instead of loading again. Failures are propagated to every waiting caller. Waiting is bounded:
+ * a caller that waits longer than the configured time runs the loader itself. Each waiting caller gets its own
+ * copy of the result. {@link #invalidate()} stops in-flight loads from taking new callers, for callers that
+ * must see a change made after those loads started.
+ *
+ * @param <K> key type
+ * @param <V> result type
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long maxWaitMillis;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    /**
+     * Constructor for {@code SingleFlight}.
+     *
+     * @param maxWaitMillis maximum time a caller waits for an in-flight load before loading itself
+     */
+    public SingleFlight(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * Returns the result of the in-flight load for the key, or runs the loader if there is none.
+     *
+     * @param key    key identifying the load
+     * @param loader loader producing the result
+     * @return the loaded result
+     */
+    public V execute(K key, Supplier<V> loader) {
+        return execute(key, loader, UnaryOperator.identity());
+    }
+
+    /**
+     * Returns a copy of the result of the in-flight load for the key, or runs the loader if there is none.
+     *
+     * @param key    key identifying the load
+     * @param loader loader producing the result
+     * @param copy   copies the shared result for a waiting caller
+     * @return the loaded result, or a copy of it
+     */
+    public V execute(K key, Supplier<V> loader, UnaryOperator<V> copy) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+
+        if (existing != null) {
+            return copy.apply(await(existing, loader));
+        }
+
+        try {
+            V result = loader.get();
+            future.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Returns the number of loads currently in flight.
+     *
+     * @return number of in-flight keys
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Returns the number of callers waiting for an in-flight load.
+     *
+     * @return number of waiting callers
+     */
+    public int waitingCount() {
+        return waiting.get();
+    }
+
+    /**
+     * Lets the loads in flight finish for their current callers, but makes later callers start a new load.
+     */
+    public void invalidate() {
+        inFlight.clear();
+    }
+
+    private V await(CompletableFuture<V> existing, Supplier<V> loader) {
+        waiting.incrementAndGet();
+        try {
+            return existing.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            return loader.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for in-flight load", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+}
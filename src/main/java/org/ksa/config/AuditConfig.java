@@ -0,0 +1,80 @@
+package org.ksa.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.ksa.audit.AuditLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * Configuration class for the SSH key audit log.
+ */
+@Configuration
+public class AuditConfig {
+
+    /**
+     * Creates the audit log and starts its writer thread.
+     *
+     * @param directory          directory of the segment files
+     * @param bufferCapacity     capacity of the ring buffer
+     * @param maxBatch           maximum number of events written per sync
+     * @param segmentBytes       size after which a new segment is started
+     * @param offerTimeoutMillis time a request waits for space in a full buffer
+     * @param enabled            whether events are recorded
+     * @return the configured {@link AuditLog}
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public AuditLog auditLog(
+            @Value("${app.audit.dir:audit}") String directory,
+            @Value("${app.audit.buffer-capacity:8192}") int bufferCapacity,
+            @Value("${app.audit.max-batch:512}") int maxBatch,
+            @Value("${app.audit.segment-bytes:67108864}") long segmentBytes,
+            @Value("${app.audit.offer-timeout-ms:100}") long offerTimeoutMillis,
+            @Value("${app.audit.enabled:true}") boolean enabled) {
+        return new AuditLog(Paths.get(directory), bufferCapacity, maxBatch, segmentBytes, offerTimeoutMillis, enabled);
+    }
+
+    /**
+     * Publishes the buffered, written and dropped events and the number of syncs.
+     *
+     * @param auditLog audit log to observe
+     * @return a {@link MeterBinder} registering the audit log meters
+     */
+    @Bean
+    public MeterBinder auditLogMetrics(AuditLog auditLog) {
+        return registry -> {
+            Gauge.builder("audit.buffered", auditLog, AuditLog::getBuffered)
+                    .description("Audit events waiting for the writer")
+                    .register(registry);
+            FunctionCounter.builder("audit.written", auditLog, AuditLog::getWritten)
+                    .description("Audit events written and synced")
+                    .register(registry);
+            FunctionCounter.builder("audit.dropped", auditLog, AuditLog::getDropped)
+                    .description("Audit events appended without room in the buffer, or unwritten at shutdown")
+                    .register(registry);
+            FunctionCounter.builder("audit.syncs", auditLog, AuditLog::getSyncs)
+                    .description("Group commits to disk")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Reports the audit log DOWN while its writer is stopped or failing, so changes are being refused.
+     *
+     * @param auditLog audit log to observe
+     * @return a {@link HealthIndicator} for the audit log
+     */
+    @Bean
+    public HealthIndicator auditLogHealthIndicator(AuditLog auditLog) {
+        return () -> (auditLog.isHealthy() ? Health.up() : Health.down())
+                .withDetail("buffered", auditLog.getBuffered())
+                .withDetail("dropped", auditLog.getDropped())
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package org.ksa.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.ksa.limiter.AimdLimiter;
+import org.ksa.limiter.ConcurrencyLimitInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration class for adaptive concurrency limiting of the controllers.
+ * <p>
+ * Actuator and API documentation endpoints are not limited, so health checks keep answering under load.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.concurrency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    private final AimdLimiter readLimiter;
+    private final AimdLimiter writeLimiter;
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructor for {@code ConcurrencyLimitConfig}.
+     *
+     * @param readInitialLimit  initial concurrency limit for reads
+     * @param readMinLimit      lower bound of the read limit
+     * @param readMaxLimit      upper bound of the read limit
+     * @param readLatencyMs     read latency above which the read limit backs off
+     * @param writeInitialLimit initial concurrency limit for writes
+     * @param writeMinLimit     lower bound of the write limit
+     * @param writeMaxLimit     upper bound of the write limit
+     * @param writeLatencyMs    write latency above which the write limit backs off
+     * @param backoffRatio      factor applied to a limit on overload
+     * @param retryAfterSeconds value of the {@code Retry-After} header on rejection
+     */
+    public ConcurrencyLimitConfig(
+            @Value("${app.concurrency.read.initial-limit:50}") int readInitialLimit,
+            @Value("${app.concurrency.read.min-limit:5}") int readMinLimit,
+            @Value("${app.concurrency.read.max-limit:500}") int readMaxLimit,
+            @Value("${app.concurrency.read.latency-threshold-ms:100}") long readLatencyMs,
+            @Value("${app.concurrency.write.initial-limit:20}") int writeInitialLimit,
+            @Value("${app.concurrency.write.min-limit:2}") int writeMinLimit,
+            @Value("${app.concurrency.write.max-limit:200}") int writeMaxLimit,
+            @Value("${app.concurrency.write.latency-threshold-ms:250}") long writeLatencyMs,
+            @Value("${app.concurrency.backoff-ratio:0.9}") double backoffRatio,
+            @Value("${app.concurrency.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.readLimiter = new AimdLimiter("read", readInitialLimit, readMinLimit, readMaxLimit, readLatencyMs, backoffRatio);
+        this.writeLimiter = new AimdLimiter("write", writeInitialLimit, writeMinLimit, writeMaxLimit, writeLatencyMs, backoffRatio);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Publishes the limit, in-flight requests and rejections of both limiters.
+     *
+     * @return a {@link MeterBinder} registering the limiter meters
+     */
+    @Bean
+    public MeterBinder concurrencyLimiterMetrics() {
+        return registry -> {
+            for (AimdLimiter limiter : new AimdLimiter[]{readLimiter, writeLimiter}) {
+                Gauge.builder("concurrency.limit", limiter, AimdLimiter::getLimit)
+                        .description("Current adaptive concurrency limit")
+                        .tag("group", limiter.getName())
+                        .register(registry);
+                Gauge.builder("concurrency.inflight", limiter, AimdLimiter::getInFlight)
+                        .description("Requests currently admitted")
+                        .tag("group", limiter.getName())
+                        .register(registry);
+                FunctionCounter.builder("concurrency.rejected", limiter, AimdLimiter::getRejected)
+                        .description("Requests rejected with 503")
+                        .tag("group", limiter.getName())
+                        .register(registry);
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(readLimiter, writeLimiter, retryAfterSeconds))
+                .addPathPatterns("/**")
+                .excludePathPatterns("/actuator/**", "/swagger-ui/**", "/swagger-ui.html", "/v3/api-docs/**", "/error");
+    }
+}
@@ -0,0 +1,70 @@
+package org.ksa.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.ksa.embedded.EmbeddedStore;
+import org.ksa.outbox.ChangeJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.nio.file.Paths;
+
+/**
+ * Configuration class for the embedded storage used instead of MySQL ({@code embedded} profile).
+ */
+@Configuration
+@Profile("embedded")
+public class EmbeddedStoreConfig {
+
+    /**
+     * Recovers the embedded store from its snapshot and write-ahead log.
+     *
+     * @param changeJournal           journal receiving the change events
+     * @param objectMapper            mapper encoding the change events
+     * @param directory               directory of the log and snapshot files
+     * @param fsync                   whether each write is forced to disk before it is acknowledged
+     * @param snapshotIntervalSeconds interval between snapshots if anything changed
+     * @param snapshotLogBytes        log size after which a snapshot is taken right away
+     * @return the opened {@link EmbeddedStore}
+     */
+    @Bean(initMethod = "open", destroyMethod = "close")
+    public EmbeddedStore embeddedStore(
+            ChangeJournal changeJournal,
+            ObjectMapper objectMapper,
+            @Value("${app.embedded.dir:data}") String directory,
+            @Value("${app.embedded.fsync:true}") boolean fsync,
+            @Value("${app.embedded.snapshot-interval-seconds:300}") long snapshotIntervalSeconds,
+            @Value("${app.embedded.snapshot-log-bytes:67108864}") long snapshotLogBytes) {
+        return new EmbeddedStore(Paths.get(directory), fsync, snapshotIntervalSeconds, snapshotLogBytes,
+                changeJournal, objectMapper);
+    }
+
+    /**
+     * Publishes the number of records, the log size and the number of snapshots.
+     *
+     * @param embeddedStore store to observe
+     * @return a {@link MeterBinder} registering the embedded store meters
+     */
+    @Bean
+    public MeterBinder embeddedStoreMetrics(EmbeddedStore embeddedStore) {
+        return registry -> {
+            Gauge.builder("embedded.computers", embeddedStore, EmbeddedStore::getComputerCount)
+                    .description("Computers in the embedded store")
+                    .register(registry);
+            Gauge.builder("embedded.ssh.keys", embeddedStore, EmbeddedStore::getSshKeyCount)
+                    .description("SSH keys in the embedded store")
+                    .register(registry);
+            Gauge.builder("embedded.log.bytes", embeddedStore, EmbeddedStore::getLogBytes)
+                    .description("Size of the write-ahead log since the last snapshot")
+                    .baseUnit("bytes")
+                    .register(registry);
+            FunctionCounter.builder("embedded.snapshots", embeddedStore, EmbeddedStore::getSnapshots)
+                    .description("Snapshots written")
+                    .register(registry);
+        };
+    }
+}
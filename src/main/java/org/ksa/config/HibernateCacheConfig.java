@@ -0,0 +1,88 @@
+package org.ksa.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.ksa.entity.Computer;
+import org.ksa.entity.SshKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+
+/**
+ * Configuration class for the Hibernate second-level and query caches.
+ * <p>
+ * Regions are created programmatically so their sizes and time-to-live can be set through properties.
+ * Region statistics are published by the Hibernate metrics binder ({@code hibernate.second.level.cache.*}).
+ * Skipped when the second-level cache is disabled.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.cache.use_second_level_cache", havingValue = "true")
+public class HibernateCacheConfig {
+
+    public static final String COMPUTER_REGION = Computer.class.getName();
+    public static final String SSH_KEY_REGION = SshKey.class.getName();
+    public static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    /**
+     * Creates the JCache manager holding the Hibernate cache regions.
+     *
+     * @param computerMaxEntries maximum number of cached computers
+     * @param sshKeyMaxEntries   maximum number of cached SSH keys
+     * @param queryMaxEntries    maximum number of cached query results
+     * @param ttlSeconds         time-to-live of entity and query entries
+     * @return a configured {@link CacheManager}
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${app.cache.computer.max-entries:10000}") long computerMaxEntries,
+            @Value("${app.cache.ssh-key.max-entries:100000}") long sshKeyMaxEntries,
+            @Value("${app.cache.query.max-entries:10000}") long queryMaxEntries,
+            @Value("${app.cache.ttl-seconds:3600}") long ttlSeconds) {
+        CacheManager cacheManager = Caching.getCachingProvider(EhcacheCachingProvider.class.getName())
+                .getCacheManager();
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+
+        createRegion(cacheManager, COMPUTER_REGION, computerMaxEntries, ttl);
+        createRegion(cacheManager, SSH_KEY_REGION, sshKeyMaxEntries, ttl);
+        createRegion(cacheManager, QUERY_RESULTS_REGION, queryMaxEntries, ttl);
+
+        // Update timestamps must outlive every cached query result, so they never expire
+        createRegion(cacheManager, UPDATE_TIMESTAMPS_REGION, Math.max(queryMaxEntries, 1000), null);
+
+        return cacheManager;
+    }
+
+    /**
+     * Passes the cache manager to Hibernate.
+     *
+     * @param hibernateCacheManager JCache manager holding the regions
+     * @return a {@link HibernatePropertiesCustomizer} registering the cache manager
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, long maxEntries, Duration ttl) {
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries));
+        if (ttl != null) {
+            builder = builder.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(ttl));
+        }
+
+        if (cacheManager.getCache(name) == null) {
+            cacheManager.createCache(name, Eh107Configuration.fromEhcacheCacheConfiguration(builder));
+        }
+    }
+}
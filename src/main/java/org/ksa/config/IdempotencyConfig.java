@@ -0,0 +1,95 @@
+package org.ksa.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.ksa.idempotency.IdempotencyFilter;
+import org.ksa.idempotency.IdempotencyStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration class for idempotent retries of the POST endpoints.
+ * <p>
+ * A servlet filter is used rather than an interceptor, because the response body has to be captured after
+ * the message converters wrote it. It runs before the limiter interceptors, so a replay takes no rate limit
+ * token or concurrency slot, while a rejected first attempt gives its key up and can be retried.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    /**
+     * Creates the store of recorded responses.
+     *
+     * @param maxEntries maximum number of keys kept
+     * @param ttlSeconds time a key is kept after its response was recorded
+     * @return a new {@link IdempotencyStore}
+     */
+    @Bean
+    public IdempotencyStore idempotencyStore(
+            @Value("${app.idempotency.max-entries:10000}") int maxEntries,
+            @Value("${app.idempotency.ttl-seconds:86400}") long ttlSeconds) {
+        return new IdempotencyStore(maxEntries, TimeUnit.SECONDS.toMillis(ttlSeconds), System::currentTimeMillis);
+    }
+
+    /**
+     * Registers the idempotency filter for the computer and SSH key creation endpoints and batches.
+     *
+     * @param idempotencyStore store of recorded responses
+     * @param objectMapper     mapper writing error responses
+     * @param header           name of the idempotency key header
+     * @param apiKeyHeader     header identifying a client instead of its IP address
+     * @param waitTimeoutMs    time a duplicate waits for the request holding its key
+     * @param maxBodyBytes     largest response body that is recorded
+     * @param maxRequestBytes  largest request body that is accepted
+     * @return the filter registration
+     */
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(
+            IdempotencyStore idempotencyStore,
+            ObjectMapper objectMapper,
+            @Value("${app.idempotency.header:Idempotency-Key}") String header,
+            @Value("${app.rate-limit.api-key-header:X-API-Key}") String apiKeyHeader,
+            @Value("${app.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs,
+            @Value("${app.idempotency.max-body-bytes:65536}") int maxBodyBytes,
+            @Value("${app.idempotency.max-request-bytes:1048576}") int maxRequestBytes) {
+        IdempotencyFilter filter = new IdempotencyFilter(idempotencyStore,
+                Arrays.asList("/computers", "/*/*/authorized_keys", "/batch"),
+                header, apiKeyHeader, waitTimeoutMs, maxBodyBytes, maxRequestBytes, objectMapper);
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+
+    /**
+     * Publishes the stored keys, replayed responses and rejected duplicates.
+     *
+     * @param idempotencyStore  store of recorded responses
+     * @param idempotencyFilter registration of the idempotency filter
+     * @return a {@link MeterBinder} registering the idempotency meters
+     */
+    @Bean
+    public MeterBinder idempotencyMetrics(IdempotencyStore idempotencyStore,
+                                          FilterRegistrationBean<IdempotencyFilter> idempotencyFilter) {
+        IdempotencyFilter filter = idempotencyFilter.getFilter();
+        return registry -> {
+            Gauge.builder("idempotency.keys", idempotencyStore, IdempotencyStore::size)
+                    .description("Idempotency keys held in the store")
+                    .register(registry);
+            FunctionCounter.builder("idempotency.replayed", filter, IdempotencyFilter::getReplayed)
+                    .description("Requests answered with a recorded response")
+                    .register(registry);
+            FunctionCounter.builder("idempotency.rejected", filter, IdempotencyFilter::getRejected)
+                    .description("Requests rejected with 409 or 422 for a reused key")
+                    .register(registry);
+        };
+    }
+}
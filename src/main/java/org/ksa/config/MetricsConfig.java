@@ -0,0 +1,27 @@
+package org.ksa.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for application metrics.
+ * <p>
+ * Controller timers ({@code http.server.requests}), repository timers ({@code spring.data.repository.invocations}),
+ * HikariCP and Hibernate metrics are registered by Spring Boot. This class enables {@code @Timed} on the services.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Enables {@link io.micrometer.core.annotation.Timed} on Spring beans.
+     *
+     * @param meterRegistry registry to publish timers to
+     * @return a configured {@link TimedAspect}
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,121 @@
+package org.ksa.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.ksa.outbox.ChangeJournal;
+import org.ksa.outbox.OutboxRelay;
+import org.ksa.outbox.OutboxWriter;
+import org.ksa.repository.OutboxEventRepository;
+import org.ksa.shard.ShardRouter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Paths;
+
+/**
+ * Configuration class for the transactional outbox and the change journal.
+ * <p>
+ * The outbox is off unless {@code app.outbox.enabled=true}, as its rows are only ever deleted by a relay. The
+ * journal is local to an instance, so only one instance may run the relay: with several, changes would be split
+ * across their journals and {@code /changes} offsets would depend on the instance answering. With the outbox on,
+ * every instance writes outbox rows to the shared database, and the one instance with
+ * {@code app.outbox.relay.enabled=true} opens the journal, relays the rows of all instances and serves
+ * {@code /changes}.
+ */
+@Configuration
+public class OutboxConfig {
+
+    /**
+     * Creates the writer storing change events in the outbox, or discarding them while it is disabled.
+     *
+     * @param outboxEventRepository repository of the outbox rows
+     * @param objectMapper          mapper encoding the payloads
+     * @param outboxRelay           relay to wake up after commit, if this instance runs it
+     * @param enabled               whether the outbox is enabled
+     * @return the {@link OutboxWriter}
+     */
+    @Bean
+    @Profile("!embedded")
+    public OutboxWriter outboxWriter(OutboxEventRepository outboxEventRepository,
+                                     ObjectMapper objectMapper,
+                                     ObjectProvider<OutboxRelay> outboxRelay,
+                                     @Value("${app.outbox.enabled:false}") boolean enabled) {
+        return new OutboxWriter(outboxEventRepository, objectMapper, outboxRelay, enabled);
+    }
+
+    /**
+     * Opens the change journal on the relay instance.
+     *
+     * @param directory    directory of the journal segments
+     * @param segmentBytes size of each segment file
+     * @return the opened {@link ChangeJournal}
+     */
+    @Bean(initMethod = "open", destroyMethod = "close")
+    @ConditionalOnProperty(name = {"app.outbox.enabled", "app.outbox.relay.enabled"}, havingValue = "true")
+    public ChangeJournal changeJournal(
+            @Value("${app.outbox.journal.dir:journal}") String directory,
+            @Value("${app.outbox.journal.segment-bytes:67108864}") int segmentBytes) {
+        return new ChangeJournal(Paths.get(directory), segmentBytes);
+    }
+
+    /**
+     * Starts the relay moving outbox rows into the journal, on the one instance where it is enabled. Not used
+     * with the {@code embedded} profile, where the embedded store appends to the journal itself.
+     *
+     * @param outboxEventRepository repository of the outbox rows
+     * @param transactionManager    transaction manager for the relay transactions
+     * @param changeJournal         journal receiving the events
+     * @param objectMapper          mapper encoding the journal entries
+     * @param shardRouter           shards holding outbox rows, if sharding is enabled
+     * @param batchSize             maximum number of events relayed per flush
+     * @param intervalMillis        polling interval when not woken up by a commit
+     * @return the started {@link OutboxRelay}
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @Profile("!embedded")
+    @ConditionalOnProperty(name = {"app.outbox.enabled", "app.outbox.relay.enabled"}, havingValue = "true")
+    public OutboxRelay outboxRelay(OutboxEventRepository outboxEventRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   ChangeJournal changeJournal,
+                                   ObjectMapper objectMapper,
+                                   ObjectProvider<ShardRouter> shardRouter,
+                                   @Value("${app.outbox.relay.batch-size:500}") int batchSize,
+                                   @Value("${app.outbox.relay.interval-ms:1000}") long intervalMillis) {
+        ShardRouter router = shardRouter.getIfAvailable();
+        return new OutboxRelay(outboxEventRepository, new TransactionTemplate(transactionManager),
+                changeJournal, objectMapper, router == null ? 1 : router.getShardCount(), batchSize, intervalMillis);
+    }
+
+    /**
+     * Publishes the journal size and the number of relayed events.
+     *
+     * @param changeJournal change journal to observe, if opened
+     * @param outboxRelay   relay to observe, if enabled
+     * @return a {@link MeterBinder} registering the outbox meters
+     */
+    @Bean
+    public MeterBinder outboxMetrics(ObjectProvider<ChangeJournal> changeJournal,
+                                     ObjectProvider<OutboxRelay> outboxRelay) {
+        return registry -> {
+            changeJournal.ifAvailable(journal -> {
+                Gauge.builder("outbox.journal.end.offset", journal, ChangeJournal::getEndOffset)
+                        .description("Offset after the last journal entry")
+                        .register(registry);
+                Gauge.builder("outbox.journal.segments", journal, ChangeJournal::getSegmentCount)
+                        .description("Journal segment files")
+                        .register(registry);
+            });
+            outboxRelay.ifAvailable(relay -> FunctionCounter.builder("outbox.relayed", relay, OutboxRelay::getRelayed)
+                    .description("Outbox events appended to the journal")
+                    .register(registry));
+        };
+    }
+}
@@ -0,0 +1,135 @@
+package org.ksa.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.ksa.limiter.RateLimitInterceptor;
+import org.ksa.limiter.TokenBucketRateLimiter;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration class for per-client rate limiting of the controllers.
+ * <p>
+ * Computers, SSH keys, batches, search and the change feed are separate route groups with their own limits.
+ * A batch takes one token for up to a hundred operations, so its group is much smaller. Rate limiting runs
+ * before concurrency limiting, so throttled clients are rejected without taking a concurrency slot.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig implements WebMvcConfigurer, DisposableBean {
+
+    private final TokenBucketRateLimiter computerLimiter;
+    private final TokenBucketRateLimiter sshKeyLimiter;
+    private final TokenBucketRateLimiter batchLimiter;
+    private final TokenBucketRateLimiter searchLimiter;
+    private final TokenBucketRateLimiter changeLimiter;
+    private final List<TokenBucketRateLimiter> limiters;
+    private final String apiKeyHeader;
+    private final ScheduledExecutorService evictionScheduler;
+
+    /**
+     * Constructor for {@code RateLimitConfig}.
+     *
+     * @param computerCapacity        burst size per client for computer endpoints
+     * @param computerRefillPerSecond sustained requests per second per client for computer endpoints
+     * @param sshKeyCapacity          burst size per client for SSH key endpoints
+     * @param sshKeyRefillPerSecond   sustained requests per second per client for SSH key endpoints
+     * @param batchCapacity           burst size per client for batches
+     * @param batchRefillPerSecond    sustained batches per second per client
+     * @param searchCapacity          burst size per client for search
+     * @param searchRefillPerSecond   sustained searches per second per client
+     * @param changeCapacity          burst size per client for the change feed
+     * @param changeRefillPerSecond   sustained change feed reads per second per client
+     * @param maxClients              maximum number of clients tracked per route group
+     * @param evictionIntervalSeconds interval between evictions of idle clients
+     * @param apiKeyHeader            header identifying a client instead of its IP address
+     */
+    public RateLimitConfig(
+            @Value("${app.rate-limit.computers.capacity:100}") int computerCapacity,
+            @Value("${app.rate-limit.computers.refill-per-second:50}") double computerRefillPerSecond,
+            @Value("${app.rate-limit.ssh-keys.capacity:50}") int sshKeyCapacity,
+            @Value("${app.rate-limit.ssh-keys.refill-per-second:20}") double sshKeyRefillPerSecond,
+            @Value("${app.rate-limit.batch.capacity:5}") int batchCapacity,
+            @Value("${app.rate-limit.batch.refill-per-second:1}") double batchRefillPerSecond,
+            @Value("${app.rate-limit.search.capacity:50}") int searchCapacity,
+            @Value("${app.rate-limit.search.refill-per-second:20}") double searchRefillPerSecond,
+            @Value("${app.rate-limit.changes.capacity:20}") int changeCapacity,
+            @Value("${app.rate-limit.changes.refill-per-second:10}") double changeRefillPerSecond,
+            @Value("${app.rate-limit.max-clients:100000}") int maxClients,
+            @Value("${app.rate-limit.eviction-interval-seconds:60}") long evictionIntervalSeconds,
+            @Value("${app.rate-limit.api-key-header:X-API-Key}") String apiKeyHeader) {
+        this.computerLimiter = new TokenBucketRateLimiter("computers", computerCapacity, computerRefillPerSecond, maxClients);
+        this.sshKeyLimiter = new TokenBucketRateLimiter("ssh-keys", sshKeyCapacity, sshKeyRefillPerSecond, maxClients);
+        this.batchLimiter = new TokenBucketRateLimiter("batch", batchCapacity, batchRefillPerSecond, maxClients);
+        this.searchLimiter = new TokenBucketRateLimiter("search", searchCapacity, searchRefillPerSecond, maxClients);
+        this.changeLimiter = new TokenBucketRateLimiter("changes", changeCapacity, changeRefillPerSecond, maxClients);
+        this.limiters = Arrays.asList(computerLimiter, sshKeyLimiter, batchLimiter, searchLimiter, changeLimiter);
+        this.apiKeyHeader = apiKeyHeader;
+
+        this.evictionScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictionScheduler.scheduleWithFixedDelay(() -> limiters.forEach(TokenBucketRateLimiter::evictIdle),
+                evictionIntervalSeconds, evictionIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Publishes the tracked clients and rejections of every route group.
+     *
+     * @return a {@link MeterBinder} registering the rate limiter meters
+     */
+    @Bean
+    public MeterBinder rateLimiterMetrics() {
+        return registry -> {
+            for (TokenBucketRateLimiter limiter : limiters) {
+                Gauge.builder("rate.limit.clients", limiter, TokenBucketRateLimiter::getClientCount)
+                        .description("Clients with a rate limit bucket")
+                        .tag("group", limiter.getName())
+                        .register(registry);
+                FunctionCounter.builder("rate.limit.rejected", limiter, TokenBucketRateLimiter::getRejected)
+                        .description("Requests rejected with 429")
+                        .tag("group", limiter.getName())
+                        .register(registry);
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RateLimitInterceptor(computerLimiter, apiKeyHeader))
+                .addPathPatterns("/computers", "/computers/**")
+                .order(Ordered.HIGHEST_PRECEDENCE);
+        registry.addInterceptor(new RateLimitInterceptor(sshKeyLimiter, apiKeyHeader))
+                .addPathPatterns("/*/*/authorized_keys", "/*/*/authorized_keys/**")
+                .order(Ordered.HIGHEST_PRECEDENCE);
+        registry.addInterceptor(new RateLimitInterceptor(batchLimiter, apiKeyHeader))
+                .addPathPatterns("/batch")
+                .order(Ordered.HIGHEST_PRECEDENCE);
+        registry.addInterceptor(new RateLimitInterceptor(searchLimiter, apiKeyHeader))
+                .addPathPatterns("/search")
+                .order(Ordered.HIGHEST_PRECEDENCE);
+        registry.addInterceptor(new RateLimitInterceptor(changeLimiter, apiKeyHeader))
+                .addPathPatterns("/changes")
+                .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+
+    @Override
+    public void destroy() {
+        evictionScheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,114 @@
+package org.ksa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.ksa.datasource.ReadWriteRoutingDataSource;
+import org.ksa.datasource.ReplicaLagMonitor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration class routing read-only transactions to a MySQL replica.
+ * <p>
+ * Enabled only when {@code app.datasource.replica.jdbc-url} is set; otherwise Spring Boot configures the single
+ * primary data source from {@code spring.datasource.*} as usual.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "jdbc-url")
+public class ReplicaRoutingConfig {
+
+    /**
+     * Defines the primary connection pool from {@code spring.datasource.*}.
+     *
+     * @param properties standard data source properties
+     * @return primary {@link HikariDataSource}
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Defines the replica connection pool from {@code app.datasource.replica.*}.
+     *
+     * @return replica {@link HikariDataSource}
+     */
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * Defines the monitor deciding whether the replica is fresh enough to serve reads.
+     *
+     * @param replica             replica data source
+     * @param lagQuery            query returning the replication lag
+     * @param lagColumn           column holding the lag in seconds
+     * @param maxLagSeconds       maximum tolerated lag
+     * @param checkIntervalMillis interval between two lag checks
+     * @return a configured {@link ReplicaLagMonitor}
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${app.datasource.routing.lag-query:SHOW REPLICA STATUS}") String lagQuery,
+            @Value("${app.datasource.routing.lag-column:Seconds_Behind_Source}") String lagColumn,
+            @Value("${app.datasource.routing.max-lag-seconds:5}") long maxLagSeconds,
+            @Value("${app.datasource.routing.check-interval-ms:1000}") long checkIntervalMillis) {
+        return new ReplicaLagMonitor(replica, lagQuery, lagColumn, maxLagSeconds, checkIntervalMillis);
+    }
+
+    /**
+     * Publishes the replica lag and availability as gauges.
+     *
+     * @param replicaLagMonitor replica availability monitor
+     * @return a {@link MeterBinder} registering the replica gauges
+     */
+    @Bean
+    public MeterBinder replicaLagMetrics(ReplicaLagMonitor replicaLagMonitor) {
+        return registry -> {
+            Gauge.builder("datasource.replica.lag", replicaLagMonitor, ReplicaLagMonitor::getLagSeconds)
+                    .description("Last measured replication lag, -1 if unknown")
+                    .baseUnit("seconds")
+                    .register(registry);
+            Gauge.builder("datasource.replica.available", replicaLagMonitor, m -> m.isReplicaAvailable() ? 1 : 0)
+                    .description("Whether read-only transactions are routed to the replica")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Defines the data source used by JPA, routing each transaction to the primary or the replica.
+     *
+     * @param primary           primary data source
+     * @param replica           replica data source
+     * @param replicaLagMonitor replica availability monitor
+     * @return lazy routing {@link DataSource}
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, replicaLagMonitor);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
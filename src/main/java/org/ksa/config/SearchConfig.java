@@ -0,0 +1,42 @@
+package org.ksa.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.ksa.search.SearchIndex;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the full-text search index.
+ */
+@Configuration
+public class SearchConfig {
+
+    /**
+     * Creates the empty search index; the search service fills it when the context starts.
+     *
+     * @return a new {@link SearchIndex}
+     */
+    @Bean
+    public SearchIndex searchIndex() {
+        return new SearchIndex();
+    }
+
+    /**
+     * Publishes the number of indexed documents and distinct terms.
+     *
+     * @param searchIndex search index to observe
+     * @return a {@link MeterBinder} registering the search index meters
+     */
+    @Bean
+    public MeterBinder searchIndexMetrics(SearchIndex searchIndex) {
+        return registry -> {
+            Gauge.builder("search.documents", searchIndex, SearchIndex::getDocumentCount)
+                    .description("Computers and SSH keys in the search index")
+                    .register(registry);
+            Gauge.builder("search.terms", searchIndex, SearchIndex::getTermCount)
+                    .description("Distinct terms in the search index")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,139 @@
+package org.ksa.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.ksa.shard.ShardRing;
+import org.ksa.shard.ShardRouter;
+import org.ksa.shard.ShardRoutingAspect;
+import org.ksa.shard.ShardRoutingDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration class spreading SSH keys over several databases.
+ * <p>
+ * Enabled only when {@code app.sharding.shards[0].jdbc-url} is set. Shard {@code 0} is the database from
+ * {@code spring.datasource.*}, which also holds the computers; shard {@code n} is
+ * {@code app.sharding.shards[n-1]}. Cannot be combined with read replicas.
+ */
+@Configuration
+@Profile("!embedded")
+@ConditionalOnProperty(prefix = "app.sharding.shards[0]", name = "jdbc-url")
+public class ShardingConfig {
+
+    /**
+     * Defines the shard connection pools and the ring assigning servers to them.
+     *
+     * @param properties   standard data source properties of shard {@code 0}
+     * @param environment  environment holding the shard list and pinned server types
+     * @param virtualNodes virtual nodes per shard on the ring
+     * @param idStride     distance between two IDs generated by the same shard
+     * @return a configured {@link ShardRouter}
+     */
+    @Bean(destroyMethod = "close")
+    public ShardRouter shardRouter(DataSourceProperties properties,
+                                   Environment environment,
+                                   @Value("${app.sharding.virtual-nodes:128}") int virtualNodes,
+                                   @Value("${app.sharding.id-stride:16}") int idStride) {
+        Binder binder = Binder.get(environment);
+        List<HikariConfig> configs = new ArrayList<>();
+        HikariConfig primary = binder.bind("spring.datasource.hikari", HikariConfig.class).orElseGet(HikariConfig::new);
+        primary.setJdbcUrl(properties.determineUrl());
+        primary.setUsername(properties.determineUsername());
+        primary.setPassword(properties.determinePassword());
+        configs.add(primary);
+        configs.addAll(binder.bind("app.sharding.shards", Bindable.listOf(HikariConfig.class)).get());
+        Map<String, Integer> pinned = binder.bind("app.sharding.pinned", Bindable.mapOf(String.class, Integer.class))
+                .orElse(Collections.emptyMap());
+
+        List<HikariDataSource> shards = new ArrayList<>(configs.size());
+        for (int shard = 0; shard < configs.size(); shard++) {
+            HikariConfig config = configs.get(shard);
+            config.setPoolName("shard-" + shard);
+            if (config.getJdbcUrl().startsWith("jdbc:mysql:")) {
+                // Each shard generates its own residue of IDs, so IDs stay unique across shards
+                config.setConnectionInitSql("SET SESSION auto_increment_increment = " + idStride
+                        + ", auto_increment_offset = " + (shard + 1));
+            }
+            shards.add(new HikariDataSource(config));
+        }
+        return new ShardRouter(new ShardRing(shards.size(), virtualNodes, pinned), shards, idStride);
+    }
+
+    /**
+     * Defines the data source used by JPA, routing each transaction to the shard selected for it.
+     *
+     * @param shardRouter router holding the shard data sources
+     * @return lazy routing {@link DataSource}
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRouter shardRouter) {
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(shardRouter.getDataSources());
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Selects the shard of SSH key service methods.
+     *
+     * @param shardRouter router mapping servers and SSH key IDs to shards
+     * @return the {@link ShardRoutingAspect}
+     */
+    @Bean
+    public ShardRoutingAspect shardRoutingAspect(ShardRouter shardRouter) {
+        return new ShardRoutingAspect(shardRouter);
+    }
+
+    /**
+     * Publishes the number of shards, how SSH key IDs were located and the shard connection pools.
+     *
+     * @param shardRouter router to observe
+     * @return a {@link MeterBinder} registering the sharding meters
+     */
+    @Bean
+    public MeterBinder shardingMetrics(ShardRouter shardRouter) {
+        return registry -> {
+            for (DataSource shard : shardRouter.getDataSources()) {
+                HikariDataSource pool = (HikariDataSource) shard;
+                if (pool.getMetricsTrackerFactory() == null) {
+                    pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                }
+            }
+            Gauge.builder("sharding.shards", shardRouter, ShardRouter::getShardCount)
+                    .description("Configured shards")
+                    .register(registry);
+            FunctionCounter.builder("sharding.key.lookups", shardRouter, ShardRouter::getOriginLookups)
+                    .description("SSH key IDs located by shard")
+                    .tag("result", "origin")
+                    .register(registry);
+            FunctionCounter.builder("sharding.key.lookups", shardRouter, ShardRouter::getScatterLookups)
+                    .description("SSH key IDs located by shard")
+                    .tag("result", "scatter")
+                    .register(registry);
+            FunctionCounter.builder("sharding.key.lookups", shardRouter, ShardRouter::getMissedLookups)
+                    .description("SSH key IDs located by shard")
+                    .tag("result", "missed")
+                    .register(registry);
+        };
+    }
+}
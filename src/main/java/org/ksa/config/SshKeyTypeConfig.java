@@ -0,0 +1,49 @@
+package org.ksa.config;
+
+import org.ksa.validator.*;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class declaring the supported SSH key types.
+ * <p>
+ * Each {@link SshKeyTypeValidator} bean is registered in the {@link SshKeyTypeRegistry}.
+ */
+@Configuration
+public class SshKeyTypeConfig {
+
+    @Bean
+    public SshKeyTypeValidator rsaKeyValidator() {
+        return new RsaKeyValidator();
+    }
+
+    @Bean
+    public SshKeyTypeValidator ed25519KeyValidator() {
+        return new Ed25519KeyValidator();
+    }
+
+    @Bean
+    public SshKeyTypeValidator ecdsaNistp256KeyValidator() {
+        return new EcdsaKeyValidator("nistp256", 32);
+    }
+
+    @Bean
+    public SshKeyTypeValidator ecdsaNistp384KeyValidator() {
+        return new EcdsaKeyValidator("nistp384", 48);
+    }
+
+    @Bean
+    public SshKeyTypeValidator ecdsaNistp521KeyValidator() {
+        return new EcdsaKeyValidator("nistp521", 66);
+    }
+
+    @Bean
+    public SshKeyTypeValidator skEd25519KeyValidator() {
+        return new SkEd25519KeyValidator();
+    }
+
+    @Bean
+    public SshKeyTypeValidator skEcdsaKeyValidator() {
+        return new SkEcdsaKeyValidator();
+    }
+}
@@ -0,0 +1,34 @@
+package org.ksa.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * Configuration class for the startup-optimized mode ({@code startup} profile).
+ * <p>
+ * With lazy initialization enabled, the data source and entity manager factory are still created during
+ * startup, so the deferred JPA bootstrap overlaps with the rest of the context instead of delaying the
+ * first request.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "spring.main", name = "lazy-initialization", havingValue = "true")
+public class StartupConfig {
+
+    /**
+     * Keeps the persistence beans eager when lazy initialization is enabled.
+     *
+     * @return a {@link LazyInitializationExcludeFilter} matching the data source and entity manager factory
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter persistenceEagerInitialization() {
+        return (beanName, beanDefinition, beanType) -> DataSource.class.isAssignableFrom(beanType)
+                || EntityManagerFactory.class.isAssignableFrom(beanType)
+                || AbstractEntityManagerFactoryBean.class.isAssignableFrom(beanType);
+    }
+}
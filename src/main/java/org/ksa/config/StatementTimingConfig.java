@@ -0,0 +1,83 @@
+package org.ksa.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.ksa.datasource.StatementBudget;
+import org.ksa.datasource.StatementTimingFilter;
+import org.ksa.datasource.StatementTrackingPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+
+/**
+ * Configuration class for the per-request SQL statement count and time.
+ * <p>
+ * The filter runs first, so the time covers every other filter, and the {@code Server-Timing} header is added
+ * when the idempotency filter copies a recorded body out. Checking requests against the statement budget keeps
+ * each statement and its shape, so it is only enabled by default in the {@code dev} profile.
+ */
+@Configuration
+@Profile("!embedded")
+@ConditionalOnProperty(prefix = "app.sql.timing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StatementTimingConfig {
+
+    /**
+     * Wraps the data source used by JPA so its statements are recorded.
+     *
+     * @return a new {@link StatementTrackingPostProcessor}
+     */
+    @Bean
+    public static StatementTrackingPostProcessor statementTrackingPostProcessor() {
+        return new StatementTrackingPostProcessor();
+    }
+
+    /**
+     * Registers the statement timing filter for every request.
+     *
+     * @param detection     whether requests are checked against the budget
+     * @param maxStatements most statements a request may run
+     * @param maxRepeats    most runs of one statement shape in a request
+     * @return the filter registration
+     */
+    @Bean
+    public FilterRegistrationBean<StatementTimingFilter> statementTimingFilter(
+            @Value("${app.sql.detection.enabled:false}") boolean detection,
+            @Value("${app.sql.detection.max-statements:20}") int maxStatements,
+            @Value("${app.sql.detection.max-repeats:5}") int maxRepeats) {
+        StatementBudget budget = detection ? new StatementBudget(maxStatements, maxRepeats) : null;
+        FilterRegistrationBean<StatementTimingFilter> registration =
+                new FilterRegistrationBean<>(new StatementTimingFilter(budget));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    /**
+     * Publishes the statements run by requests and the requests flagged by the budget.
+     *
+     * @param statementTimingFilter registration of the statement timing filter
+     * @return a {@link MeterBinder} registering the statement meters
+     */
+    @Bean
+    public MeterBinder statementTimingMetrics(FilterRegistrationBean<StatementTimingFilter> statementTimingFilter) {
+        StatementTimingFilter filter = statementTimingFilter.getFilter();
+        return registry -> {
+            FunctionCounter.builder("sql.request.statements", filter, StatementTimingFilter::getStatements)
+                    .description("SQL statements run by HTTP requests")
+                    .register(registry);
+            // Prometheus keeps the first description of a name for its HELP line; /actuator/metrics shows both
+            FunctionCounter.builder("sql.request.flagged", filter, StatementTimingFilter::getOverBudget)
+                    .description("Requests exceeding the statement budget")
+                    .tag("reason", "budget")
+                    .register(registry);
+            FunctionCounter.builder("sql.request.flagged", filter, StatementTimingFilter::getRepeated)
+                    .description("Requests running one statement shape more often than allowed")
+                    .tag("reason", "repeat")
+                    .register(registry);
+        };
+    }
+}
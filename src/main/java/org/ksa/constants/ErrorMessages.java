@@ -21,6 +21,37 @@ public class ErrorMessages {
     public static final String SSH_KEY_ALREADY_EXISTS = "SSH key already exists";
     public static final String SSH_KEY_INVALID_RSA = "The content of the public key is invalid for the type 'ssh-rsa'";
     public static final String SSH_KEY_INVALID_ED25519 = "The content of the public key is invalid for the type 'ed25519'";
+    public static final String SSH_KEY_INVALID_FOR_TYPE = "The content of the public key is invalid for the type '%s'";
+    public static final String SSH_KEY_TYPE_UNSUPPORTED = "Unsupported SSH key type '%s'";
+
+    // Change journal errors
+    public static final String CHANGE_OFFSET_INVALID = "Offset %d is not the start of a change";
+
+    // Batch errors
+    public static final String BATCH_OPERATION_INCOMPLETE = "Operation %d (%s) requires %s";
+    public static final String BATCH_SPANS_SHARDS = "Atomic batch operations span several shards";
+    public static final String BATCH_ATOMIC_UNSUPPORTED = "Atomic batches are not supported by the embedded store";
+
+    // Patch errors
+    public static final String PATCH_NOT_AN_OBJECT = "A merge patch must be a JSON object";
+    public static final String PATCH_FIELD_UNKNOWN = "Field '%s' cannot be patched";
+    public static final String PATCH_FIELD_INVALID = "Field '%s' must be %s";
+    public static final String PATCH_KEY_TYPE_AND_CONTENT = "Fields 'type' and 'public' must be patched together";
+    public static final String PATCH_PRECONDITION_INVALID = "If-Match must be '*' or a version ETag";
+    public static final String PATCH_VERSIONS_UNSUPPORTED = "Conditional patches are not supported by the embedded store";
+    public static final String VERSION_CONFLICT = "The resource was changed since version %d";
+    public static final String DATA_CONFLICT = "The change conflicts with existing data";
+
+    // Load-related errors
+    public static final String SERVICE_OVERLOADED = "Service overloaded, retry later";
+    public static final String RATE_LIMIT_EXCEEDED = "Rate limit exceeded, retry later";
+    public static final String AUDIT_LOG_UNAVAILABLE = "Audit log unavailable, retry later";
+
+    // Idempotency errors
+    public static final String IDEMPOTENCY_KEY_INVALID = "Idempotency key must be 1 to %d characters long";
+    public static final String IDEMPOTENCY_KEY_REUSED = "Idempotency key was already used for a different request";
+    public static final String IDEMPOTENCY_KEY_IN_PROGRESS = "A request with this idempotency key is still in progress";
+    public static final String IDEMPOTENCY_BODY_TOO_LARGE = "Request body must not be larger than %d bytes";
 
     // Validation messages
     public static final String VALIDATION_TYPE_REQUIRED = "Type is required";
@@ -28,4 +59,8 @@ public class ErrorMessages {
     public static final String VALIDATION_MODEL_REQUIRED = "Model is required";
     public static final String VALIDATION_SSH_KEY_TYPE_REQUIRED = "SSH key type is required";
     public static final String VALIDATION_PUBLIC_KEY_REQUIRED = "Public key is required";
+    public static final String VALIDATION_TOO_MANY_COLORS = "At most 200 colors per computer";
+    public static final String VALIDATION_BATCH_OPERATION_REQUIRED = "Operation is required";
+    public static final String VALIDATION_BATCH_OPERATIONS_REQUIRED = "Operations are required";
+    public static final String VALIDATION_BATCH_TOO_LARGE = "At most 100 operations per batch";
 }
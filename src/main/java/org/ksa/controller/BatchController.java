@@ -0,0 +1,62 @@
+package org.ksa.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.ksa.dto.BatchRequestDTO;
+import org.ksa.dto.BatchResponseDTO;
+import org.ksa.dto.BatchResultDTO;
+import org.ksa.service.BatchService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import java.util.List;
+
+/**
+ * REST controller running several computer and SSH key operations in one request.
+ */
+@RestController
+@RequestMapping("/batch")
+@AllArgsConstructor
+@Tag(name = "Batch", description = "API for running several operations in one request")
+public class BatchController {
+
+    private final BatchService batchService;
+
+    /**
+     * Runs a batch of operations in order.
+     * <p>
+     * POST /batch
+     *
+     * @param request operations and whether to apply all or none of them
+     * @return 200 with the outcome of each operation, or the status of the failed operation if an atomic
+     * batch was rolled back
+     */
+    @PostMapping(
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Operation(
+            summary = "Run a batch",
+            description = "Runs computer and SSH key operations in order, all or nothing if the batch is atomic"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch ran"),
+            @ApiResponse(responseCode = "400", description = "Invalid batch, or an operation failed validation")
+    })
+    public ResponseEntity<BatchResponseDTO> execute(@Valid @RequestBody BatchRequestDTO request) {
+        BatchResponseDTO response = batchService.execute(request);
+        if (response.isCommitted()) {
+            return ResponseEntity.ok(response);
+        }
+        List<BatchResultDTO> results = response.getResults();
+        return ResponseEntity.status(results.get(results.size() - 1).getStatus()).body(response);
+    }
+}
@@ -0,0 +1,61 @@
+package org.ksa.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.ksa.dto.ChangeBatchDTO;
+import org.ksa.service.ChangeService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for consuming the change journal.
+ * Consumers store the returned {@code nextOffset} and continue from it. Mapped only on the instance relaying the
+ * outbox, the one with the journal.
+ */
+@RestController
+@RequestMapping("/changes")
+@AllArgsConstructor
+@ConditionalOnProperty(name = {"app.outbox.enabled", "app.outbox.relay.enabled"}, havingValue = "true")
+@Tag(name = "Changes", description = "API for following computer and SSH key changes")
+public class ChangeController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final ChangeService changeService;
+
+    /**
+     * Retrieves changes starting at an offset.
+     * <p>
+     * GET /changes?offset={offset}&amp;limit={limit}
+     *
+     * @param offset offset of the first change, 0 for the beginning of the journal
+     * @param limit  maximum number of changes, at most 1000
+     * @return the changes and the offset to continue from
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Get changes",
+            description = "Retrieves computer and SSH key changes in commit order, starting at the given offset"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400")
+    })
+    public ResponseEntity<ChangeBatchDTO> getChanges(
+            @Parameter(description = "Offset of the first change")
+            @RequestParam(defaultValue = "0") long offset,
+
+            @Parameter(description = "Maximum number of changes")
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(changeService.getChanges(offset, Math.max(1, Math.min(limit, MAX_LIMIT))));
+    }
+}
@@ -7,9 +7,13 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.AllArgsConstructor;
 import org.ksa.dto.ComputerDTO;
+import org.ksa.dto.ComputerSuggestionDTO;
+import org.ksa.dto.VersionedDTO;
 import org.ksa.service.ComputerService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -30,6 +34,8 @@ import java.util.List;
 @Tag(name = "Computers", description = "API for managing computer information")
 public class ComputerController {
 
+    private static final int MAX_SUGGESTIONS = 50;
+
     private final ComputerService computerService;
 
     /**
@@ -100,6 +106,35 @@ public class ComputerController {
         return ResponseEntity.ok(computers);
     }
 
+    /**
+     * Suggests makers and {@code maker/model} pairs for type-ahead, served from memory.
+     * <p>
+     * GET /computers/suggest?prefix={prefix}&amp;limit={limit}
+     *
+     * @param prefix beginning of a maker, or of a maker, a slash and a model; case is ignored
+     * @param limit  maximum number of suggestions, at most 50
+     * @return matching suggestions in alphabetical order
+     */
+    @GetMapping(
+            path = "/suggest",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Operation(
+            summary = "Suggest makers and models",
+            description = "Returns makers and maker/model pairs starting with the prefix, ignoring case"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Suggestions in alphabetical order")
+    })
+    public ResponseEntity<List<ComputerSuggestionDTO>> suggestComputers(
+            @Parameter(description = "Beginning of a maker, or of maker/model (e.g., as, ASUS/X5)")
+            @RequestParam(defaultValue = "") String prefix,
+
+            @Parameter(description = "Maximum number of suggestions")
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(computerService.suggestComputers(prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS))));
+    }
+
     /**
      * Creates a new computer.
      * <p>
@@ -147,6 +182,47 @@ public class ComputerController {
         return ResponseEntity.ok(updated);
     }
 
+    /**
+     * Patches a computer record by maker and model with a JSON merge patch, in one update statement.
+     * <p>
+     * PATCH /computers/{maker}/{model}
+     *
+     * @param maker   manufacturer of the computer
+     * @param model   model of the computer
+     * @param ifMatch optional ETag of the version to patch
+     * @param prefer  optional {@code return=minimal} preference
+     * @param patch   fields to set, {@code null} to remove optional ones
+     * @return the patched {@link ComputerDTO}, or no content if a minimal return is preferred, with its ETag
+     */
+    @PatchMapping(
+            path = "/{maker}/{model}",
+            consumes = {PatchResponses.MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Operation(summary = "Patch computer", description = "Updates the given fields of an existing computer")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Computer patched"),
+            @ApiResponse(responseCode = "204", description = "Computer patched, with Prefer: return=minimal"),
+            @ApiResponse(responseCode = "400", description = "Invalid patch"),
+            @ApiResponse(responseCode = "404", description = "Computer not found"),
+            @ApiResponse(responseCode = "412", description = "Computer changed since the If-Match version")
+    })
+    public ResponseEntity<ComputerDTO> patchComputer(
+            @PathVariable String maker,
+            @PathVariable String model,
+
+            @Parameter(description = "ETag of the version to patch, e.g. \"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+
+            @Parameter(description = "return=minimal for an empty 204 response")
+            @RequestHeader(value = "Prefer", required = false) String prefer,
+
+            @RequestBody JsonNode patch) {
+        VersionedDTO<ComputerDTO> patched = computerService.patchComputer(maker, model, patch,
+                PatchResponses.requiredVersion(ifMatch));
+        return PatchResponses.of(patched, prefer);
+    }
+
     /**
      * Deletes a computer record by maker and model.
      * <p>
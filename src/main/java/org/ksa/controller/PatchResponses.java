@@ -0,0 +1,67 @@
+package org.ksa.controller;
+
+import org.ksa.dto.VersionedDTO;
+import org.ksa.exception.InvalidPatchException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.ksa.constants.ErrorMessages.PATCH_PRECONDITION_INVALID;
+
+/**
+ * Conditional request and response handling shared by the {@code PATCH} endpoints.
+ * <p>
+ * The ETag of a resource is its version as a strong entity tag, e.g. {@code "3"}.
+ */
+final class PatchResponses {
+
+    /** Media type of a JSON merge patch (RFC 7396). */
+    static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final Pattern VERSION_TAG = Pattern.compile("\"(\\d{1,18})\"");
+
+    private PatchResponses() {
+    }
+
+    /**
+     * Reads the version an {@code If-Match} header requires.
+     *
+     * @param ifMatch header value, may be {@code null}
+     * @return the required version, or {@code null} if the header is absent or {@code *}
+     * @throws InvalidPatchException if the header is neither {@code *} nor a single version ETag
+     */
+    static Long requiredVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Matcher matcher = VERSION_TAG.matcher(ifMatch.trim());
+        if (!matcher.matches()) {
+            throw new InvalidPatchException(PATCH_PRECONDITION_INVALID);
+        }
+        return Long.valueOf(matcher.group(1));
+    }
+
+    /**
+     * Builds the response to a successful patch: {@code 204} if the client prefers a minimal return, otherwise
+     * {@code 200} with the new representation. The ETag is set when the store keeps versions.
+     *
+     * @param patched patched representation and version
+     * @param prefer  {@code Prefer} header, may be {@code null}
+     * @param <T>     type of the representation
+     * @return the response
+     */
+    static <T> ResponseEntity<T> of(VersionedDTO<T> patched, String prefer) {
+        boolean minimal = prefer != null && prefer.replace(" ", "").contains("return=minimal");
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(minimal ? HttpStatus.NO_CONTENT : HttpStatus.OK);
+        if (patched.getVersion() != null) {
+            response.eTag("\"" + patched.getVersion() + "\"");
+        }
+        if (minimal) {
+            return response.header(PREFERENCE_APPLIED, "return=minimal").build();
+        }
+        return response.body(patched.getBody());
+    }
+}
@@ -0,0 +1,67 @@
+package org.ksa.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.ksa.dto.SearchResultsDTO;
+import org.ksa.search.SearchDocumentType;
+import org.ksa.service.SearchService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for full-text search over computers and SSH keys.
+ */
+@RestController
+@RequestMapping("/search")
+@AllArgsConstructor
+@Tag(name = "Search", description = "API for finding computers and SSH keys by text")
+public class SearchController {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final SearchService searchService;
+
+    /**
+     * Searches computers by maker, model, type and colors, and SSH keys by comment and server name.
+     * <p>
+     * GET /search?q={query}&amp;type={type}&amp;offset={offset}&amp;limit={limit}
+     *
+     * @param query  search terms; every term must match, case is ignored
+     * @param type   {@code COMPUTER} or {@code SSH_KEY} to return only one kind of record
+     * @param offset number of results to skip
+     * @param limit  maximum number of results, at most 100
+     * @return the page of results, most relevant first
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Search computers and SSH keys",
+            description = "Returns the records containing every search term, most relevant first"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400")
+    })
+    public ResponseEntity<SearchResultsDTO> search(
+            @Parameter(description = "Search terms (e.g., happy@isr)", required = true)
+            @RequestParam("q") String query,
+
+            @Parameter(description = "Kind of records to return")
+            @RequestParam(required = false) SearchDocumentType type,
+
+            @Parameter(description = "Number of results to skip")
+            @RequestParam(defaultValue = "0") int offset,
+
+            @Parameter(description = "Maximum number of results")
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(searchService.search(query, type, Math.max(0, offset),
+                Math.max(1, Math.min(limit, MAX_LIMIT))));
+    }
+}
@@ -5,10 +5,13 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.AllArgsConstructor;
 import org.ksa.dto.SshKeyRequestDTO;
 import org.ksa.dto.SshKeyResponseDTO;
+import org.ksa.dto.VersionedDTO;
 import org.ksa.service.SshKeyService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -153,6 +156,54 @@ public class SshKeyController {
         return ResponseEntity.ok(updated);
     }
 
+    /**
+     * Patches an SSH key by ID for specific server with a JSON merge patch, in one update statement.
+     * <p>
+     * PATCH /{server-type}/{server-name}/authorized_keys/{id}
+     *
+     * @param serverType type of the server
+     * @param serverName name of the server
+     * @param id         ID of the SSH key to patch
+     * @param ifMatch    optional ETag of the version to patch
+     * @param prefer     optional {@code return=minimal} preference
+     * @param patch      fields to set, {@code null} to remove the comment
+     * @return the patched {@link SshKeyResponseDTO}, or no content if a minimal return is preferred, with its ETag
+     */
+    @PatchMapping(
+            path = "/{id}",
+            consumes = {PatchResponses.MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Operation(
+            summary = "Patch SSH key",
+            description = "Updates the given fields of an existing SSH key"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Key patched successfully"),
+            @ApiResponse(responseCode = "204", description = "Key patched, with Prefer: return=minimal"),
+            @ApiResponse(responseCode = "400", description = "Invalid patch"),
+            @ApiResponse(responseCode = "404", description = "Key not found"),
+            @ApiResponse(responseCode = "412", description = "Key changed since the If-Match version")
+    })
+    public ResponseEntity<SshKeyResponseDTO> patchSshKey(
+            @PathVariable String serverType,
+            @PathVariable String serverName,
+
+            @Parameter(description = "SSH key ID", required = true)
+            @PathVariable Long id,
+
+            @Parameter(description = "ETag of the version to patch, e.g. \"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+
+            @Parameter(description = "return=minimal for an empty 204 response")
+            @RequestHeader(value = "Prefer", required = false) String prefer,
+
+            @RequestBody JsonNode patch) {
+        VersionedDTO<SshKeyResponseDTO> patched = sshKeyService.patchSshKey(id, patch,
+                PatchResponses.requiredVersion(ifMatch));
+        return PatchResponses.of(patched, prefer);
+    }
+
     /**
      * Deletes an SSH key by ID for specific server.
      * <p>
@@ -0,0 +1,9 @@
+package org.ksa.datasource;
+
+/**
+ * Target database of a connection routed by {@link ReadWriteRoutingDataSource}.
+ */
+public enum DataSourceRole {
+    PRIMARY,
+    REPLICA
+}
@@ -0,0 +1,124 @@
+package org.ksa.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically measures the replication lag of the replica.
+ * <p>
+ * The replica is considered available only while the lag query succeeds and reports a lag within the
+ * configured limit. When the lag query is empty, only connectivity is checked.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final String lagQuery;
+    private final String lagColumn;
+    private final long maxLagSeconds;
+    private final long checkIntervalMillis;
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean replicaAvailable;
+    private volatile long lagSeconds = -1;
+
+    /**
+     * Constructor for {@code ReplicaLagMonitor}.
+     *
+     * @param replica             replica data source
+     * @param lagQuery            query returning the replication lag (e.g., {@code SHOW REPLICA STATUS})
+     * @param lagColumn           column of the lag query holding the lag in seconds
+     * @param maxLagSeconds       maximum lag tolerated before falling back to the primary
+     * @param checkIntervalMillis interval between two checks
+     */
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, String lagColumn,
+                             long maxLagSeconds, long checkIntervalMillis) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+        this.maxLagSeconds = maxLagSeconds;
+        this.checkIntervalMillis = checkIntervalMillis;
+    }
+
+    /**
+     * Runs a first check and schedules the periodic checks.
+     */
+    public void start() {
+        check();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, checkIntervalMillis, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic checks.
+     */
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Measures the replication lag and updates the availability of the replica.
+     */
+    public void check() {
+        boolean wasAvailable = replicaAvailable;
+        try {
+            lagSeconds = measureLagSeconds();
+            replicaAvailable = lagSeconds >= 0 && lagSeconds <= maxLagSeconds;
+        } catch (RuntimeException ex) {
+            lagSeconds = -1;
+            replicaAvailable = false;
+            log.debug("Replica lag check failed", ex);
+        }
+
+        if (replicaAvailable && !wasAvailable) {
+            log.info("Replica available (lag: {}s)", lagSeconds);
+        } else if (!replicaAvailable && wasAvailable) {
+            log.warn("Replica unavailable, routing read-only traffic to primary (lag: {}s, max: {}s)", lagSeconds, maxLagSeconds);
+        }
+    }
+
+    /**
+     * Checks if read-only traffic may be routed to the replica.
+     *
+     * @return {@code true} if the replica is reachable and within the lag limit
+     */
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    /**
+     * Returns the last measured replication lag.
+     *
+     * @return lag in seconds, or {@code -1} if unknown
+     */
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+
+    private long measureLagSeconds() {
+        if (lagQuery == null || lagQuery.trim().isEmpty()) {
+            replicaJdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            return 0;
+        }
+
+        Long lag = replicaJdbcTemplate.query(lagQuery, rs -> {
+            if (!rs.next()) {
+                return null;
+            }
+            String value = rs.getString(lagColumn);
+            return value != null ? Long.parseLong(value.trim()) : null;
+        });
+        return lag != null ? lag : -1;
+    }
+}
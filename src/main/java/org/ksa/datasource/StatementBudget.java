@@ -0,0 +1,63 @@
+package org.ksa.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Limits on the statements of one unit of work, such as a request, flagging the usual N+1 symptoms: too many
+ * statements overall, or the same statement shape run once per row.
+ */
+public class StatementBudget {
+
+    private final int maxStatements;
+    private final int maxRepeats;
+
+    /**
+     * Constructor for {@code StatementBudget}.
+     *
+     * @param maxStatements most statements allowed
+     * @param maxRepeats    most runs of one statement shape allowed
+     */
+    public StatementBudget(int maxStatements, int maxRepeats) {
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+    }
+
+    /**
+     * Describes every limit the statements exceed. Repeated shapes are only known for a detailed scope.
+     *
+     * @param stats statements to check
+     * @return one message per exceeded limit, empty if none is
+     */
+    public List<String> violations(StatementStats stats) {
+        List<String> violations = new ArrayList<>();
+        if (stats.getCount() > maxStatements) {
+            violations.add(String.format("%d statements exceed the budget of %d", stats.getCount(), maxStatements));
+        }
+        for (Map.Entry<String, Integer> shape : stats.getShapes().entrySet()) {
+            if (shape.getValue() > maxRepeats) {
+                violations.add(String.format("%d runs of: %s", shape.getValue(), shape.getKey()));
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Tells whether the statements exceed the overall budget.
+     *
+     * @param stats statements to check
+     * @return {@code true} if there are more than the budget allows
+     */
+    public boolean isOverBudget(StatementStats stats) {
+        return stats.getCount() > maxStatements;
+    }
+
+    public int getMaxStatements() {
+        return maxStatements;
+    }
+
+    public int getMaxRepeats() {
+        return maxRepeats;
+    }
+}
@@ -0,0 +1,145 @@
+package org.ksa.datasource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Statements run by the current thread through a {@link StatementTrackingDataSource}, between {@link #begin(boolean)}
+ * and {@link #end()}.
+ * <p>
+ * Scopes nest: a statement counts towards every open scope of the thread, so a test can capture part of a request
+ * while the request is measured as a whole. A detailed scope also keeps each statement and groups them by shape,
+ * the SQL with its literals and {@code IN} lists collapsed, so the same query run once per row shows up as one
+ * shape repeated. Not thread-safe; a scope is only used by the thread that began it.
+ */
+public final class StatementStats {
+
+    private static final ThreadLocal<StatementStats> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final StatementStats parent;
+    private final boolean detailed;
+    private final List<String> statements;
+    private final Map<String, Integer> shapes;
+    private int count;
+    private long nanos;
+    private boolean ended;
+
+    private StatementStats(StatementStats parent, boolean detailed) {
+        this.parent = parent;
+        this.detailed = detailed;
+        this.statements = detailed ? new ArrayList<>() : Collections.emptyList();
+        this.shapes = detailed ? new LinkedHashMap<>() : Collections.emptyMap();
+    }
+
+    /**
+     * Opens a scope on the current thread, to be closed with {@link #end()} in a {@code finally} block.
+     *
+     * @param detailed whether to keep each statement and its shape, not only the count and time
+     * @return the new scope
+     */
+    public static StatementStats begin(boolean detailed) {
+        StatementStats stats = new StatementStats(CURRENT.get(), detailed);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Returns the innermost open scope of the current thread.
+     *
+     * @return the scope, or {@code null} if none is open
+     */
+    public static StatementStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Closes this scope, making its parent current again. Its counts stay readable.
+     */
+    public void end() {
+        if (ended) {
+            return;
+        }
+        ended = true;
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+
+    /**
+     * Records a statement in the current scope and its parents; does nothing outside a scope.
+     *
+     * @param sql   SQL of the statement
+     * @param nanos time taken to execute it
+     */
+    static void record(String sql, long nanos) {
+        for (StatementStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.add(sql, nanos);
+        }
+    }
+
+    /**
+     * Normalizes SQL so that runs of the same query with different values compare equal.
+     *
+     * @param sql SQL of a statement
+     * @return the SQL with literals replaced by {@code ?}, {@code IN} lists collapsed and whitespace squeezed
+     */
+    public static String shapeOf(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim().toLowerCase();
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public boolean isDetailed() {
+        return detailed;
+    }
+
+    /**
+     * Returns the statements in the order they ran, lower-cased; empty unless the scope is detailed.
+     *
+     * @return the recorded statements
+     */
+    public List<String> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    /**
+     * Returns how often each statement shape ran, in order of first use; empty unless the scope is detailed.
+     *
+     * @return run count per shape
+     */
+    public Map<String, Integer> getShapes() {
+        return Collections.unmodifiableMap(shapes);
+    }
+
+    private void add(String sql, long elapsed) {
+        count++;
+        nanos += elapsed;
+        if (detailed) {
+            statements.add(sql == null ? "" : sql.toLowerCase());
+            shapes.merge(shapeOf(sql), 1, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.ksa.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filter measuring the SQL statements of each request, reported in a {@code Server-Timing} header and in request
+ * attributes for the access log.
+ * <p>
+ * The header is added just before the response body starts, since headers cannot follow it, so statements run
+ * while the body streams are left out of it but not out of the attributes. With a {@link StatementBudget}, a
+ * request running more statements than the budget, or one statement shape too often, is logged and counted.
+ */
+@Slf4j
+public class StatementTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+    public static final String STATEMENTS_ATTRIBUTE = "sql.statements";
+    public static final String MILLIS_ATTRIBUTE = "sql.millis";
+
+    private final StatementBudget budget;
+
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder overBudget = new LongAdder();
+    private final LongAdder repeated = new LongAdder();
+
+    /**
+     * Constructor for {@code StatementTimingFilter}.
+     *
+     * @param budget limits flagging a request, or {@code null} to only measure
+     */
+    public StatementTimingFilter(StatementBudget budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        StatementStats stats = StatementStats.begin(budget != null);
+        ServerTimingResponse wrapper = new ServerTimingResponse(response, stats);
+        try {
+            chain.doFilter(request, wrapper);
+        } finally {
+            stats.end();
+            wrapper.addServerTiming();
+            request.setAttribute(STATEMENTS_ATTRIBUTE, stats.getCount());
+            request.setAttribute(MILLIS_ATTRIBUTE, millis(stats));
+            statements.add(stats.getCount());
+            if (budget != null) {
+                check(request, stats);
+            }
+        }
+    }
+
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    public long getOverBudget() {
+        return overBudget.sum();
+    }
+
+    public long getRepeated() {
+        return repeated.sum();
+    }
+
+    private void check(HttpServletRequest request, StatementStats stats) {
+        List<String> violations = budget.violations(stats);
+        if (violations.isEmpty()) {
+            return;
+        }
+        boolean tooMany = budget.isOverBudget(stats);
+        if (tooMany) {
+            overBudget.increment();
+        }
+        // Every other violation is a repeated shape
+        if (violations.size() > (tooMany ? 1 : 0)) {
+            repeated.increment();
+        }
+        log.warn("{} {} ran {} statements in {} ms: {}", request.getMethod(), request.getRequestURI(),
+                stats.getCount(), millis(stats), String.join("; ", violations));
+    }
+
+    private static String millis(StatementStats stats) {
+        return String.format(Locale.ROOT, "%.1f", stats.getNanos() / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    /**
+     * Response adding the {@code Server-Timing} header before anything can commit it.
+     */
+    private static final class ServerTimingResponse extends HttpServletResponseWrapper {
+
+        private final StatementStats stats;
+        private boolean added;
+
+        private ServerTimingResponse(HttpServletResponse response, StatementStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        void addServerTiming() {
+            if (added || isCommitted()) {
+                return;
+            }
+            added = true;
+            addHeader(SERVER_TIMING_HEADER,
+                    String.format(Locale.ROOT, "db;dur=%s;desc=\"%d statement%s\"", millis(stats), stats.getCount(),
+                            stats.getCount() == 1 ? "" : "s"));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addServerTiming();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addServerTiming();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addServerTiming();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addServerTiming();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addServerTiming();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addServerTiming();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.ksa.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Data source recording every statement executed on its connections in the thread's {@link StatementStats}.
+ * <p>
+ * Each {@code execute*} call counts as one statement, with the time it took; a JDBC batch counts once, like the
+ * round trip it is. Statements are only wrapped while the thread has a scope open, so background work such as the
+ * outbox relay runs on the plain connection objects.
+ */
+public class StatementTrackingDataSource extends DelegatingDataSource {
+
+    /**
+     * Constructor for {@code StatementTrackingDataSource}.
+     *
+     * @param targetDataSource data source whose statements are recorded
+     */
+    public StatementTrackingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return track(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return track(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private static Connection track(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(StatementTrackingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                break;
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = StatementTrackingDataSource.invoke(proxy, target, method, args);
+            if (!(result instanceof Statement) || StatementStats.current() == null) {
+                return result;
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+            Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                    : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+            return Proxy.newProxyInstance(StatementTrackingDataSource.class.getClassLoader(),
+                    new Class<?>[]{type}, new StatementHandler((Statement) result, sql));
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String preparedSql;
+        private String batchSql;
+
+        private StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("addBatch") && args != null && args.length == 1 && batchSql == null) {
+                batchSql = (String) args[0];
+            }
+            if (!name.startsWith("execute")) {
+                return StatementTrackingDataSource.invoke(proxy, target, method, args);
+            }
+
+            String sql;
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                sql = (String) args[0];
+            } else if (preparedSql != null) {
+                sql = preparedSql;
+            } else {
+                sql = batchSql;
+            }
+            if (name.endsWith("Batch")) {
+                batchSql = null;
+            }
+            long start = System.nanoTime();
+            try {
+                return StatementTrackingDataSource.invoke(proxy, target, method, args);
+            } finally {
+                StatementStats.record(sql, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.ksa.datasource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the {@code dataSource} bean, the one JPA and the repositories use, in a {@link StatementTrackingDataSource}.
+ * <p>
+ * Only that bean is wrapped: the primary, replica and shard data sources behind a routing {@code dataSource} would
+ * otherwise record each statement twice.
+ */
+public class StatementTrackingPostProcessor implements BeanPostProcessor {
+
+    static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource
+                && !(bean instanceof StatementTrackingDataSource)) {
+            return new StatementTrackingDataSource((DataSource) bean);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,84 @@
+package org.ksa.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+import static org.ksa.constants.ErrorMessages.VALIDATION_BATCH_OPERATION_REQUIRED;
+
+/**
+ * DTO representing one operation of a batch, with the fields its {@link Type} needs.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Operation of a batch")
+public class BatchOperationDTO {
+
+    /**
+     * Operations available in a batch, each calling the service method of the same name.
+     */
+    public enum Type {
+        /**
+         * Creates {@code computer}.
+         */
+        CREATE_COMPUTER,
+        /**
+         * Replaces the computer {@code maker}/{@code model} with {@code computer}.
+         */
+        UPDATE_COMPUTER,
+        /**
+         * Deletes the computer {@code maker}/{@code model}.
+         */
+        DELETE_COMPUTER,
+        /**
+         * Adds {@code ssh-key} to the server {@code serverType}/{@code serverName}.
+         */
+        ADD_SSH_KEY,
+        /**
+         * Replaces the SSH key {@code id} with {@code ssh-key}.
+         */
+        UPDATE_SSH_KEY,
+        /**
+         * Deletes the SSH key {@code id}.
+         */
+        DELETE_SSH_KEY
+    }
+
+    @NotNull(message = VALIDATION_BATCH_OPERATION_REQUIRED)
+    @Schema(description = "Operation", example = "ADD_SSH_KEY")
+    private Type op;
+
+    @Schema(description = "Maker of the computer to update or delete", example = "ASUS")
+    private String maker;
+
+    @Schema(description = "Model of the computer to update or delete", example = "X507UA")
+    private String model;
+
+    @Schema(description = "Type of the server receiving the SSH key", example = "build-server")
+    private String serverType;
+
+    @Schema(description = "Name of the server receiving the SSH key", example = "jenkins")
+    private String serverName;
+
+    @Schema(description = "ID of the SSH key to update or delete")
+    private Long id;
+
+    @Valid
+    @Schema(description = "Computer to create, or its new state")
+    private ComputerDTO computer;
+
+    @Valid
+    @JsonProperty("ssh-key")
+    @Schema(description = "SSH key to add, or its new state")
+    private SshKeyRequestDTO.SshKeyDTO sshKey;
+}
@@ -0,0 +1,39 @@
+package org.ksa.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+import static org.ksa.constants.ErrorMessages.VALIDATION_BATCH_OPERATIONS_REQUIRED;
+import static org.ksa.constants.ErrorMessages.VALIDATION_BATCH_TOO_LARGE;
+
+/**
+ * Request DTO for running several operations in one call.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Batch of operations")
+public class BatchRequestDTO {
+
+    public static final int MAX_OPERATIONS = 100;
+
+    @Builder.Default
+    @Schema(description = "Apply all operations or none in a single transaction; "
+            + "otherwise each operation is applied on its own", example = "true")
+    private boolean atomic = true;
+
+    @Valid
+    @NotEmpty(message = VALIDATION_BATCH_OPERATIONS_REQUIRED)
+    @Size(max = MAX_OPERATIONS, message = VALIDATION_BATCH_TOO_LARGE)
+    @Schema(description = "Operations, applied in order")
+    private List<BatchOperationDTO> operations;
+}
@@ -0,0 +1,26 @@
+package org.ksa.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for a batch: the outcome of each operation that ran.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of a batch")
+public class BatchResponseDTO {
+
+    @Schema(description = "False if an atomic batch was rolled back, so none of its operations were applied")
+    private boolean committed;
+
+    @Schema(description = "Outcome of each operation that ran, in order; an atomic batch stops at the first failure")
+    private List<BatchResultDTO> results;
+}
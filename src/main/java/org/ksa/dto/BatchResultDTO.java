@@ -0,0 +1,37 @@
+package org.ksa.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO representing the outcome of one batch operation, as the matching single endpoint would report it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Outcome of a batch operation")
+public class BatchResultDTO {
+
+    @Schema(description = "Position of the operation in the batch", example = "0")
+    private int index;
+
+    @Schema(description = "HTTP status of the operation", example = "201")
+    private int status;
+
+    @Schema(description = "Created or updated computer")
+    private ComputerDTO computer;
+
+    @JsonProperty("ssh-key")
+    @Schema(description = "Added or updated SSH key")
+    private SshKeyResponseDTO sshKey;
+
+    @Schema(description = "Error message of a failed operation")
+    private String error;
+}
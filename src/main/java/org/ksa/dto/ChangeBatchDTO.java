@@ -0,0 +1,29 @@
+package org.ksa.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO representing a page of the change journal.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Page of change journal entries")
+public class ChangeBatchDTO {
+
+    @Schema(description = "Entries starting at the requested offset")
+    private List<ChangeDTO> changes;
+
+    @Schema(description = "Offset to request next", example = "1234")
+    private long nextOffset;
+
+    @Schema(description = "Offset after the last entry currently in the journal", example = "5678")
+    private long endOffset;
+}
@@ -0,0 +1,26 @@
+package org.ksa.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO representing one entry of the change journal.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Change journal entry")
+public class ChangeDTO {
+
+    @Schema(description = "Journal offset of the entry", example = "0")
+    private long offset;
+
+    @JsonRawValue
+    @Schema(description = "Change event: outboxId, aggregateType, aggregateId, changeType, createdAt and payload")
+    private String event;
+}
@@ -10,7 +10,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
 import java.util.List;
 
 import static org.ksa.constants.ErrorMessages.*;
@@ -46,6 +48,7 @@ public class ComputerDTO {
     @Schema(description = "Display language", example = "日本語")
     private String language;
 
+    @Valid
     @JacksonXmlProperty(localName = "colors")
     @JsonProperty("colors")
     @Schema(description = "Available colors")
@@ -60,6 +63,10 @@ public class ComputerDTO {
     @AllArgsConstructor
     public static class ColorsWrapper {
 
+        /** Most colors of a computer, so their packed codes always fit the column. */
+        public static final int MAX_COLORS = 200;
+
+        @Size(max = MAX_COLORS, message = VALIDATION_TOO_MANY_COLORS)
         @JacksonXmlElementWrapper(useWrapping = false)
         @JacksonXmlProperty(localName = "color")
         @JsonProperty("color")
@@ -0,0 +1,24 @@
+package org.ksa.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO representing one type-ahead suggestion: a maker, or a maker and one of its models.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Maker or maker and model suggestion")
+public class ComputerSuggestionDTO {
+
+    @Schema(description = "Computer manufacturer", example = "ASUS")
+    private String maker;
+
+    @Schema(description = "Computer model, absent for maker suggestions", example = "X507UA")
+    private String model;
+}
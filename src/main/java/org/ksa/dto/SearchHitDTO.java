@@ -0,0 +1,33 @@
+package org.ksa.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.ksa.search.SearchDocumentType;
+
+/**
+ * DTO representing one search result: a computer or an SSH key with its relevance.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Search result")
+public class SearchHitDTO {
+
+    @Schema(description = "Kind of record", example = "SSH_KEY")
+    private SearchDocumentType type;
+
+    @Schema(description = "Relevance, higher is better", example = "2.31")
+    private double score;
+
+    @Schema(description = "Matching computer, for COMPUTER results")
+    private ComputerDTO computer;
+
+    @Schema(description = "Matching SSH key, for SSH_KEY results")
+    private SshKeyResponseDTO sshKey;
+}
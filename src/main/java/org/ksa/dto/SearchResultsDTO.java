@@ -0,0 +1,32 @@
+package org.ksa.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO representing one page of search results.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Page of search results")
+public class SearchResultsDTO {
+
+    @Schema(description = "Number of matching records", example = "42")
+    private int total;
+
+    @Schema(description = "Position of the first result of the page", example = "0")
+    private int offset;
+
+    @Schema(description = "Maximum number of results of the page", example = "20")
+    private int limit;
+
+    @Schema(description = "Results, most relevant first")
+    private List<SearchHitDTO> hits;
+}
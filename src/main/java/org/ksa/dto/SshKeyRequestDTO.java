@@ -9,7 +9,6 @@ import lombok.NoArgsConstructor;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
-import javax.validation.constraints.Pattern;
 
 import static org.ksa.constants.ErrorMessages.VALIDATION_PUBLIC_KEY_REQUIRED;
 import static org.ksa.constants.ErrorMessages.VALIDATION_SSH_KEY_TYPE_REQUIRED;
@@ -39,8 +38,7 @@ public class SshKeyRequestDTO {
     public static class SshKeyDTO {
 
         @NotBlank(message = VALIDATION_SSH_KEY_TYPE_REQUIRED)
-        @Pattern(regexp = "^(ssh-rsa|ssh-ed25519)$")
-        @Schema(description = "SSH key type", example = "ssh-ed25519")
+        @Schema(description = "SSH key type (e.g., ssh-rsa, ssh-ed25519, ecdsa-sha2-nistp256, sk-ssh-ed25519@openssh.com)", example = "ssh-ed25519")
         private String type;
 
         @NotBlank(message = VALIDATION_PUBLIC_KEY_REQUIRED)
@@ -0,0 +1,19 @@
+package org.ksa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Representation of a resource together with its version, which is sent as its ETag rather than in the body.
+ *
+ * @param <T> type of the representation
+ */
+@Data
+@AllArgsConstructor
+public class VersionedDTO<T> {
+
+    private T body;
+
+    /** Version of the resource, {@code null} if the store does not keep versions. */
+    private Long version;
+}
@@ -0,0 +1,636 @@
+package org.ksa.embedded;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.ksa.entity.Computer;
+import org.ksa.entity.OutboxEvent;
+import org.ksa.entity.SshKey;
+import org.ksa.mapper.ComputerMapper;
+import org.ksa.mapper.SshKeyMapper;
+import org.ksa.outbox.AggregateType;
+import org.ksa.outbox.ChangeEventCodec;
+import org.ksa.outbox.ChangeJournal;
+import org.ksa.outbox.ChangeType;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process storage of computers and SSH keys for deployments without a database.
+ * <p>
+ * All records are held in memory, indexed by maker and model and by server type and server name. Stored
+ * records are never modified, so lookups read the concurrent maps without locking. Writes are serialized: each
+ * change is appended to the {@link WriteAheadLog} (and forced to disk if configured) before it becomes visible.
+ * A snapshot of all records is written periodically, after which the log files it covers are deleted. On
+ * start the latest snapshot is loaded and the log is replayed on top of it.
+ * <p>
+ * Every change is also appended to the {@link ChangeJournal}, with the LSN of its log record as outbox ID. Log
+ * records that did not reach the journal before a crash are appended during recovery.
+ * <p>
+ * Returned records are shared and must not be modified; copy them with {@link #copyOf(Computer)} and
+ * {@link #copyOf(SshKey)}.
+ */
+@Slf4j
+public class EmbeddedStore implements Closeable {
+
+    private final Path directory;
+    private final boolean fsync;
+    private final long snapshotIntervalSeconds;
+    private final long snapshotLogBytes;
+    private final ChangeJournal changeJournal;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Map<String, Computer>> computersByMaker = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Computer> computersById = new ConcurrentSkipListMap<>();
+    private final Map<String, Map<String, List<SshKey>>> sshKeysByServer = new ConcurrentHashMap<>();
+    private final Map<Long, SshKey> sshKeysById = new ConcurrentHashMap<>();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final StoreRecords records = new StoreRecords();
+    private final AtomicBoolean snapshotRunning = new AtomicBoolean();
+    private final AtomicBoolean snapshotQueued = new AtomicBoolean();
+    private final LongAdder snapshots = new LongAdder();
+
+    private WriteAheadLog writeAheadLog;
+    private ScheduledExecutorService scheduler;
+    private volatile long lsn;
+    private volatile long snapshotLsn;
+    private long nextComputerId = 1;
+    private long nextSshKeyId = 1;
+    private boolean journalFailed;
+
+    /**
+     * Constructor for {@code EmbeddedStore}.
+     *
+     * @param directory               directory of the log and snapshot files
+     * @param fsync                   whether each write is forced to disk before it is acknowledged
+     * @param snapshotIntervalSeconds interval between snapshots if anything changed
+     * @param snapshotLogBytes        log size after which a snapshot is taken right away
+     * @param changeJournal           journal receiving the change events, or {@code null}
+     * @param objectMapper            mapper encoding the change events
+     */
+    public EmbeddedStore(Path directory, boolean fsync, long snapshotIntervalSeconds, long snapshotLogBytes,
+                         ChangeJournal changeJournal, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.fsync = fsync;
+        this.snapshotIntervalSeconds = snapshotIntervalSeconds;
+        this.snapshotLogBytes = snapshotLogBytes;
+        this.changeJournal = changeJournal;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Loads the latest snapshot, replays the write-ahead log and starts taking periodic snapshots.
+     *
+     * @throws IOException if the files cannot be read
+     */
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        long start = System.nanoTime();
+
+        StoreSnapshotFile snapshot = StoreSnapshotFile.readLatest(directory, record -> apply(record, false));
+        if (snapshot != null) {
+            lsn = snapshot.getLsn();
+            snapshotLsn = lsn;
+            nextComputerId = Math.max(nextComputerId, snapshot.getNextComputerId());
+            nextSshKeyId = Math.max(nextSshKeyId, snapshot.getNextSshKeyId());
+        }
+        long journaledLsn = changeJournal == null ? Long.MAX_VALUE : changeJournal.lastOutboxId();
+
+        writeAheadLog = new WriteAheadLog(directory, fsync);
+        writeAheadLog.recover((recordLsn, record) -> {
+            if (recordLsn > lsn) {
+                lsn = recordLsn;
+                apply(record, recordLsn > journaledLsn);
+            }
+        }, lsn + 1);
+
+        log.info("Embedded store recovered {} computers and {} SSH keys up to LSN {} in {} ms",
+                computersById.size(), sshKeysById.size(), lsn, (System.nanoTime() - start) / 1_000_000);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "embedded-store-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, snapshotIntervalSeconds, snapshotIntervalSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the snapshots, writes a final snapshot and closes the log.
+     *
+     * @throws IOException if the final snapshot or the log cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                scheduler.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (writeAheadLog != null) {
+            try {
+                snapshot();
+            } finally {
+                writeAheadLog.close();
+            }
+        }
+    }
+
+    /**
+     * Finds a computer by maker and model.
+     *
+     * @param maker manufacturer of the computer
+     * @param model model name of the computer
+     * @return the computer, or {@code null}
+     */
+    public Computer findComputer(String maker, String model) {
+        Map<String, Computer> models = computersByMaker.get(maker);
+        return models == null ? null : models.get(model);
+    }
+
+    /**
+     * Checks if a computer of the maker exists.
+     *
+     * @param maker manufacturer of the computer
+     * @return {@code true} if at least one computer exists
+     */
+    public boolean existsByMaker(String maker) {
+        Map<String, Computer> models = computersByMaker.get(maker);
+        return models != null && !models.isEmpty();
+    }
+
+    /**
+     * Returns all computers in ID order.
+     *
+     * @return the computers
+     */
+    public List<Computer> findAllComputers() {
+        return new ArrayList<>(computersById.values());
+    }
+
+    /**
+     * Returns all SSH keys.
+     *
+     * @return the SSH keys
+     */
+    public List<SshKey> findAllSshKeys() {
+        return new ArrayList<>(sshKeysById.values());
+    }
+
+    /**
+     * Finds an SSH key by ID.
+     *
+     * @param id ID of the SSH key
+     * @return the SSH key, or {@code null}
+     */
+    public SshKey findSshKey(long id) {
+        return sshKeysById.get(id);
+    }
+
+    /**
+     * Returns the SSH keys of a server in ID order.
+     *
+     * @param serverType type of the server
+     * @param serverName name of the server
+     * @return the SSH keys
+     */
+    public List<SshKey> findSshKeys(String serverType, String serverName) {
+        Map<String, List<SshKey>> servers = sshKeysByServer.get(serverType);
+        List<SshKey> keys = servers == null ? null : servers.get(serverName);
+        return keys == null ? Collections.emptyList() : keys;
+    }
+
+    /**
+     * Stores a new computer with the next ID.
+     *
+     * @param computer the computer to store
+     * @return the stored computer, or {@code null} if the maker and model are taken
+     */
+    public Computer insertComputer(Computer computer) {
+        writeLock.lock();
+        try {
+            if (findComputer(computer.getMaker(), computer.getModel()) != null) {
+                return null;
+            }
+            Computer stored = copyOf(computer);
+            stored.setId(nextComputerId);
+            write(records.putComputer(stored));
+            return stored;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces a stored computer.
+     *
+     * @param computer the computer with the ID of the stored one
+     * @return the stored computer
+     * @throws DataIntegrityViolationException if another computer has the same maker and model
+     */
+    public Computer updateComputer(Computer computer) {
+        writeLock.lock();
+        try {
+            Computer existing = findComputer(computer.getMaker(), computer.getModel());
+            if (existing != null && !existing.getId().equals(computer.getId())) {
+                throw new DataIntegrityViolationException("Duplicate maker and model " + computer.getMaker()
+                        + "/" + computer.getModel());
+            }
+            Computer stored = copyOf(computer);
+            write(records.putComputer(stored));
+            return stored;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes a computer.
+     *
+     * @param id ID of the computer
+     */
+    public void deleteComputer(long id) {
+        writeLock.lock();
+        try {
+            if (computersById.containsKey(id)) {
+                write(records.delete(StoreRecords.DELETE_COMPUTER, id));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Stores a new SSH key with the next ID.
+     *
+     * @param sshKey the SSH key to store
+     * @return the stored SSH key, or {@code null} if the server already has the public key
+     */
+    public SshKey insertSshKey(SshKey sshKey) {
+        writeLock.lock();
+        try {
+            if (containsPublicKey(sshKey, null)) {
+                return null;
+            }
+            SshKey stored = copyOf(sshKey);
+            stored.setId(nextSshKeyId);
+            write(records.putSshKey(stored));
+            return stored;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces a stored SSH key.
+     *
+     * @param sshKey the SSH key with the ID of the stored one
+     * @return the stored SSH key
+     * @throws DataIntegrityViolationException if another key of the server has the same public key
+     */
+    public SshKey updateSshKey(SshKey sshKey) {
+        writeLock.lock();
+        try {
+            if (containsPublicKey(sshKey, sshKey.getId())) {
+                throw new DataIntegrityViolationException("Duplicate public key for server "
+                        + sshKey.getServerType() + "/" + sshKey.getServerName());
+            }
+            SshKey stored = copyOf(sshKey);
+            write(records.putSshKey(stored));
+            return stored;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes an SSH key.
+     *
+     * @param id ID of the SSH key
+     * @return the deleted SSH key, or {@code null} if it does not exist
+     */
+    public SshKey deleteSshKey(long id) {
+        writeLock.lock();
+        try {
+            SshKey existing = sshKeysById.get(id);
+            if (existing != null) {
+                write(records.delete(StoreRecords.DELETE_SSH_KEY, id));
+            }
+            return existing;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes all records to a new snapshot and deletes the log files it covers. Writes continue while the
+     * snapshot file is written.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void snapshot() throws IOException {
+        if (!snapshotRunning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long at;
+            long computerId;
+            long sshKeyId;
+            List<Computer> computers;
+            List<SshKey> sshKeys;
+            writeLock.lock();
+            try {
+                at = lsn;
+                if (at == snapshotLsn) {
+                    return;
+                }
+                computers = new ArrayList<>(computersById.values());
+                sshKeys = new ArrayList<>(sshKeysById.values());
+                computerId = nextComputerId;
+                sshKeyId = nextSshKeyId;
+                writeAheadLog.roll(at + 1);
+            } finally {
+                writeLock.unlock();
+            }
+
+            long start = System.nanoTime();
+            sshKeys.sort(Comparator.comparing(SshKey::getId));
+            StoreRecords encoder = new StoreRecords();
+            StoreSnapshotFile.write(directory, at, computerId, sshKeyId, () -> new Iterator<ByteBuffer>() {
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < computers.size() + sshKeys.size();
+                }
+
+                @Override
+                public ByteBuffer next() {
+                    int i = index++;
+                    return i < computers.size()
+                            ? encoder.putComputer(computers.get(i))
+                            : encoder.putSshKey(sshKeys.get(i - computers.size()));
+                }
+            });
+            writeAheadLog.deleteUpTo(at);
+            snapshotLsn = at;
+            snapshots.increment();
+            log.info("Wrote snapshot of {} computers and {} SSH keys at LSN {} in {} ms", computers.size(),
+                    sshKeys.size(), at, (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            snapshotRunning.set(false);
+        }
+    }
+
+    public int getComputerCount() {
+        return computersById.size();
+    }
+
+    public int getSshKeyCount() {
+        return sshKeysById.size();
+    }
+
+    public long getLsn() {
+        return lsn;
+    }
+
+    public long getLogBytes() {
+        return writeAheadLog == null ? 0 : writeAheadLog.size();
+    }
+
+    public long getSnapshots() {
+        return snapshots.sum();
+    }
+
+    /**
+     * Copies a computer so it can be modified.
+     *
+     * @param computer the computer to copy
+     * @return a modifiable copy
+     */
+    public static Computer copyOf(Computer computer) {
+        return Computer.builder()
+                .id(computer.getId())
+                .type(computer.getType())
+                .maker(computer.getMaker())
+                .model(computer.getModel())
+                .language(computer.getLanguage())
+                .colors(computer.getColors() == null ? Collections.emptyList()
+                        : Collections.unmodifiableList(new ArrayList<>(computer.getColors())))
+                .build();
+    }
+
+    /**
+     * Copies an SSH key so it can be modified.
+     *
+     * @param sshKey the SSH key to copy
+     * @return a modifiable copy
+     */
+    public static SshKey copyOf(SshKey sshKey) {
+        return SshKey.builder()
+                .id(sshKey.getId())
+                .serverType(sshKey.getServerType())
+                .serverName(sshKey.getServerName())
+                .type(sshKey.getType())
+                .publicKey(sshKey.getPublicKey())
+                .comment(sshKey.getComment())
+                .build();
+    }
+
+    /**
+     * Logs a record, applies it and journals the change. Must hold the write lock.
+     */
+    private void write(ByteBuffer record) {
+        long recordLsn = lsn + 1;
+        try {
+            writeAheadLog.append(recordLsn, record.duplicate());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write to the write-ahead log", ex);
+        }
+        lsn = recordLsn;
+        try {
+            apply(record, true);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        if (writeAheadLog.size() > snapshotLogBytes && scheduler != null && !scheduler.isShutdown()
+                && snapshotQueued.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                snapshotQueued.set(false);
+                snapshotQuietly();
+            });
+        }
+    }
+
+    /**
+     * Applies a record to the indexes and, if requested, appends the change to the journal.
+     */
+    private void apply(ByteBuffer record, boolean journal) throws IOException {
+        byte operation = record.get();
+        switch (operation) {
+            case StoreRecords.PUT_COMPUTER: {
+                Computer computer = StoreRecords.readComputer(record);
+                Computer previous = computersById.put(computer.getId(), computer);
+                computersByMaker.computeIfAbsent(computer.getMaker(), maker -> new ConcurrentHashMap<>())
+                        .put(computer.getModel(), computer);
+                if (previous != null && !(previous.getMaker().equals(computer.getMaker())
+                        && previous.getModel().equals(computer.getModel()))) {
+                    removeFromMaker(previous);
+                }
+                nextComputerId = Math.max(nextComputerId, computer.getId() + 1);
+                if (journal) {
+                    journal(AggregateType.COMPUTER, computerId(computer),
+                            previous == null ? ChangeType.CREATED : ChangeType.UPDATED,
+                            ComputerMapper.mapToComputerDto(computer));
+                }
+                break;
+            }
+            case StoreRecords.DELETE_COMPUTER: {
+                Computer previous = computersById.remove(record.getLong());
+                if (previous != null) {
+                    removeFromMaker(previous);
+                    if (journal) {
+                        journal(AggregateType.COMPUTER, computerId(previous), ChangeType.DELETED,
+                                ComputerMapper.mapToComputerDto(previous));
+                    }
+                }
+                break;
+            }
+            case StoreRecords.PUT_SSH_KEY: {
+                SshKey sshKey = StoreRecords.readSshKey(record);
+                SshKey previous = sshKeysById.put(sshKey.getId(), sshKey);
+                if (previous != null) {
+                    removeFromServer(previous);
+                }
+                addToServer(sshKey);
+                nextSshKeyId = Math.max(nextSshKeyId, sshKey.getId() + 1);
+                if (journal) {
+                    journal(AggregateType.SSH_KEY, String.valueOf(sshKey.getId()),
+                            previous == null ? ChangeType.CREATED : ChangeType.UPDATED,
+                            SshKeyMapper.mapToResponseDto(sshKey));
+                }
+                break;
+            }
+            case StoreRecords.DELETE_SSH_KEY: {
+                SshKey previous = sshKeysById.remove(record.getLong());
+                if (previous != null) {
+                    removeFromServer(previous);
+                    if (journal) {
+                        journal(AggregateType.SSH_KEY, String.valueOf(previous.getId()), ChangeType.DELETED,
+                                SshKeyMapper.mapToResponseDto(previous));
+                    }
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unknown record type " + operation);
+        }
+    }
+
+    private void removeFromMaker(Computer computer) {
+        computersByMaker.computeIfPresent(computer.getMaker(), (maker, models) -> {
+            models.remove(computer.getModel(), computer);
+            return models.isEmpty() ? null : models;
+        });
+    }
+
+    private void addToServer(SshKey sshKey) {
+        Map<String, List<SshKey>> servers = sshKeysByServer.computeIfAbsent(sshKey.getServerType(),
+                type -> new ConcurrentHashMap<>());
+        List<SshKey> keys = servers.getOrDefault(sshKey.getServerName(), Collections.emptyList());
+        List<SshKey> updated = new ArrayList<>(keys.size() + 1);
+        updated.addAll(keys);
+        int index = updated.size();
+        while (index > 0 && updated.get(index - 1).getId() > sshKey.getId()) {
+            index--;
+        }
+        updated.add(index, sshKey);
+        servers.put(sshKey.getServerName(), Collections.unmodifiableList(updated));
+    }
+
+    private void removeFromServer(SshKey sshKey) {
+        Map<String, List<SshKey>> servers = sshKeysByServer.get(sshKey.getServerType());
+        if (servers == null) {
+            return;
+        }
+        servers.computeIfPresent(sshKey.getServerName(), (name, keys) -> {
+            List<SshKey> updated = new ArrayList<>(keys);
+            updated.removeIf(key -> key.getId().equals(sshKey.getId()));
+            return updated.isEmpty() ? null : Collections.unmodifiableList(updated);
+        });
+        sshKeysByServer.computeIfPresent(sshKey.getServerType(), (type, names) -> names.isEmpty() ? null : names);
+    }
+
+    private boolean containsPublicKey(SshKey sshKey, Long ignoredId) {
+        for (SshKey existing : findSshKeys(sshKey.getServerType(), sshKey.getServerName())) {
+            if (existing.getPublicKey().equals(sshKey.getPublicKey()) && !existing.getId().equals(ignoredId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Appends a change to the journal. The log stays the source of truth: after a failed append no further
+     * changes are journaled, and all of them are appended from the log on the next start.
+     */
+    private void journal(AggregateType aggregateType, String aggregateId, ChangeType changeType, Object payload) {
+        if (changeJournal == null || journalFailed) {
+            return;
+        }
+        try {
+            OutboxEvent event = OutboxEvent.builder()
+                    .id(lsn)
+                    .aggregateType(aggregateType)
+                    .aggregateId(aggregateId)
+                    .changeType(changeType)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .createdAt(Instant.now())
+                    .build();
+            byte[] entry = ChangeEventCodec.encode(objectMapper, event);
+            changeJournal.reserve(ChangeJournal.entrySize(entry.length));
+            changeJournal.append(lsn, entry);
+            changeJournal.flush();
+        } catch (IOException | RuntimeException ex) {
+            journalFailed = true;
+            log.error("Could not append LSN {} to the change journal, journaling stops until restart", lsn, ex);
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException ex) {
+            log.error("Could not write snapshot", ex);
+        }
+    }
+
+    private static String computerId(Computer computer) {
+        return computer.getMaker() + "/" + computer.getModel();
+    }
+}
@@ -0,0 +1,143 @@
+package org.ksa.embedded;
+
+import org.ksa.entity.Computer;
+import org.ksa.entity.SshKey;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Binary encoding of the records in the write-ahead log and in snapshots.
+ * <p>
+ * A record starts with its operation byte followed by the fields of the operation. Text is written as its
+ * UTF-8 byte count ({@code -1} for {@code null}) followed by the bytes.
+ */
+final class StoreRecords {
+
+    static final byte PUT_COMPUTER = 1;
+    static final byte DELETE_COMPUTER = 2;
+    static final byte PUT_SSH_KEY = 3;
+    static final byte DELETE_SSH_KEY = 4;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(512);
+
+    ByteBuffer putComputer(Computer computer) {
+        buffer.clear();
+        put(PUT_COMPUTER);
+        putLong(computer.getId());
+        putString(computer.getType());
+        putString(computer.getMaker());
+        putString(computer.getModel());
+        putString(computer.getLanguage());
+        List<String> colors = computer.getColors();
+        putInt(colors.size());
+        for (String color : colors) {
+            putString(color);
+        }
+        return buffer.flip();
+    }
+
+    ByteBuffer putSshKey(SshKey sshKey) {
+        buffer.clear();
+        put(PUT_SSH_KEY);
+        putLong(sshKey.getId());
+        putString(sshKey.getServerType());
+        putString(sshKey.getServerName());
+        putString(sshKey.getType());
+        putString(sshKey.getPublicKey());
+        putString(sshKey.getComment());
+        return buffer.flip();
+    }
+
+    ByteBuffer delete(byte operation, long id) {
+        buffer.clear();
+        put(operation);
+        putLong(id);
+        return buffer.flip();
+    }
+
+    static Computer readComputer(ByteBuffer record) throws IOException {
+        try {
+            Computer computer = Computer.builder()
+                    .id(record.getLong())
+                    .type(getString(record))
+                    .maker(getString(record))
+                    .model(getString(record))
+                    .language(getString(record))
+                    .build();
+            int count = record.getInt();
+            List<String> colors = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                colors.add(getString(record));
+            }
+            computer.setColors(Collections.unmodifiableList(colors));
+            return computer;
+        } catch (BufferUnderflowException | IllegalArgumentException ex) {
+            throw new IOException("Malformed computer record", ex);
+        }
+    }
+
+    static SshKey readSshKey(ByteBuffer record) throws IOException {
+        try {
+            return SshKey.builder()
+                    .id(record.getLong())
+                    .serverType(getString(record))
+                    .serverName(getString(record))
+                    .type(getString(record))
+                    .publicKey(getString(record))
+                    .comment(getString(record))
+                    .build();
+        } catch (BufferUnderflowException | IllegalArgumentException ex) {
+            throw new IOException("Malformed SSH key record", ex);
+        }
+    }
+
+    private static String getString(ByteBuffer record) {
+        int length = record.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void put(byte value) {
+        ensureCapacity(1);
+        buffer.put(value);
+    }
+
+    private void putInt(int value) {
+        ensureCapacity(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    private void putLong(long value) {
+        ensureCapacity(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        ensureCapacity(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private void ensureCapacity(int needed) {
+        if (buffer.remaining() < needed) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+            buffer.flip();
+            buffer = larger.put(buffer);
+        }
+    }
+}
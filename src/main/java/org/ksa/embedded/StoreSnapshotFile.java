@@ -0,0 +1,196 @@
+package org.ksa.embedded;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshot of the {@link EmbeddedStore}, written and read through memory mappings.
+ * <p>
+ * The file starts with {@code [magic][long lsn][long next computer ID][long next SSH key ID][long records]},
+ * followed by records framed as {@code [int length][int crc32][record]}. It is written under a temporary name
+ * and renamed once complete, so a snapshot file is either whole or absent. The file is mapped in windows, so
+ * its size is not limited by the size of a single mapping.
+ */
+final class StoreSnapshotFile {
+
+    /**
+     * Receives the records of a snapshot.
+     */
+    @FunctionalInterface
+    interface RecordHandler {
+
+        void record(ByteBuffer record) throws IOException;
+    }
+
+    private static final byte[] MAGIC = "CKEMBD01".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_BYTES = MAGIC.length + 4 * Long.BYTES;
+    private static final int FRAME_BYTES = 2 * Integer.BYTES;
+    private static final int WINDOW_BYTES = 64 * 1024 * 1024;
+    private static final String FILE_PREFIX = "snapshot-";
+    private static final String FILE_SUFFIX = ".dat";
+
+    private final long lsn;
+    private final long nextComputerId;
+    private final long nextSshKeyId;
+
+    private StoreSnapshotFile(long lsn, long nextComputerId, long nextSshKeyId) {
+        this.lsn = lsn;
+        this.nextComputerId = nextComputerId;
+        this.nextSshKeyId = nextSshKeyId;
+    }
+
+    long getLsn() {
+        return lsn;
+    }
+
+    long getNextComputerId() {
+        return nextComputerId;
+    }
+
+    long getNextSshKeyId() {
+        return nextSshKeyId;
+    }
+
+    /**
+     * Writes a snapshot and deletes older snapshots.
+     *
+     * @param directory      directory of the snapshots
+     * @param lsn            LSN of the last record included
+     * @param nextComputerId next computer ID to assign
+     * @param nextSshKeyId   next SSH key ID to assign
+     * @param records        encoded records; each buffer is consumed before the next one is requested
+     * @throws IOException if the snapshot cannot be written
+     */
+    static void write(Path directory, long lsn, long nextComputerId, long nextSshKeyId, Iterable<ByteBuffer> records)
+            throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", FILE_PREFIX, lsn, FILE_SUFFIX));
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_WRITE, 0, WINDOW_BYTES);
+            MappedByteBuffer window = head;
+            long windowStart = 0;
+            window.position(HEADER_BYTES);
+
+            long count = 0;
+            for (ByteBuffer record : records) {
+                int frame = FRAME_BYTES + record.remaining();
+                if (window.remaining() < frame) {
+                    window.force();
+                    windowStart += window.position();
+                    window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, Math.max(WINDOW_BYTES, frame));
+                }
+                crc.reset();
+                crc.update(record.duplicate());
+                window.putInt(record.remaining()).putInt((int) crc.getValue()).put(record);
+                count++;
+            }
+
+            ByteBuffer header = head.duplicate();
+            header.clear();
+            header.put(MAGIC).putLong(lsn).putLong(nextComputerId).putLong(nextSshKeyId).putLong(count);
+            window.force();
+            head.force();
+            channel.truncate(windowStart + window.position());
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        for (Path older : listFiles(directory)) {
+            if (!older.equals(file)) {
+                Files.delete(older);
+            }
+        }
+    }
+
+    /**
+     * Reads the latest snapshot.
+     *
+     * @param directory directory of the snapshots
+     * @param handler   receiver of the records
+     * @return the snapshot header, or {@code null} if there is no snapshot
+     * @throws IOException if the snapshot is corrupted
+     */
+    static StoreSnapshotFile readLatest(Path directory, RecordHandler handler) throws IOException {
+        List<Path> files = listFiles(directory);
+        if (files.isEmpty()) {
+            return null;
+        }
+        Path file = files.get(files.size() - 1);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Snapshot " + file + " is truncated");
+            }
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, WINDOW_BYTES));
+            long windowStart = 0;
+            byte[] magic = new byte[MAGIC.length];
+            window.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException(file + " is not a snapshot");
+            }
+            StoreSnapshotFile snapshot = new StoreSnapshotFile(window.getLong(), window.getLong(), window.getLong());
+            long count = window.getLong();
+
+            CRC32 crc = new CRC32();
+            for (long i = 0; i < count; i++) {
+                long position = windowStart + window.position();
+                if (window.remaining() < FRAME_BYTES || window.remaining() < FRAME_BYTES + window.getInt(window.position())) {
+                    if (position + FRAME_BYTES > size) {
+                        throw new IOException("Snapshot " + file + " is truncated");
+                    }
+                    windowStart = position;
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(size - windowStart,
+                            Math.max(WINDOW_BYTES, FRAME_BYTES + (long) readInt(channel, windowStart))));
+                }
+                int length = window.getInt();
+                int expectedCrc = window.getInt();
+                if (length < 0 || window.remaining() < length) {
+                    throw new IOException("Snapshot " + file + " is truncated");
+                }
+                ByteBuffer record = window.slice();
+                record.limit(length);
+                crc.reset();
+                crc.update(record.duplicate());
+                if ((int) crc.getValue() != expectedCrc) {
+                    throw new IOException("Snapshot " + file + " is corrupted at offset " + position);
+                }
+                handler.record(record);
+                window.position(window.position() + length);
+            }
+            return snapshot;
+        }
+    }
+
+    private static int readInt(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of snapshot");
+            }
+        }
+        return buffer.getInt(0);
+    }
+
+    private static List<Path> listFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        return files;
+    }
+}
@@ -0,0 +1,216 @@
+package org.ksa.embedded;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log of the {@link EmbeddedStore}.
+ * <p>
+ * Each record is framed as {@code [int length][int crc32][long lsn][record]}, where the CRC covers the LSN and
+ * the record. The log is split into files named after the first LSN they may contain; a new file is started
+ * whenever a snapshot is taken, so files entirely covered by a snapshot can be deleted.
+ */
+@Slf4j
+class WriteAheadLog implements Closeable {
+
+    /**
+     * Receives the records found during recovery.
+     */
+    @FunctionalInterface
+    interface RecordHandler {
+
+        void record(long lsn, ByteBuffer record) throws IOException;
+    }
+
+    static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    private static final String FILE_PREFIX = "wal-";
+    private static final String FILE_SUFFIX = ".log";
+
+    private final Path directory;
+    private final boolean fsync;
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private long fileStartLsn;
+    private final AtomicLong bytes = new AtomicLong();
+
+    WriteAheadLog(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Passes all valid records to the handler in order, truncates a partially written record at the end of
+     * the log and opens the last file for appending.
+     *
+     * @param handler receiver of the records
+     * @param nextLsn LSN of the next record if the log is empty
+     * @throws IOException if the log cannot be read
+     */
+    void recover(RecordHandler handler, long nextLsn) throws IOException {
+        List<Path> files = listFiles(directory);
+        for (Path file : files) {
+            long validBytes = replay(file, handler);
+            bytes.addAndGet(validBytes);
+            if (validBytes < Files.size(file)) {
+                log.warn("Truncating write-ahead log {} after {} valid bytes", file.getFileName(), validBytes);
+                try (FileChannel truncate = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    truncate.truncate(validBytes);
+                    truncate.force(true);
+                }
+            }
+        }
+        if (files.isEmpty()) {
+            roll(nextLsn);
+        } else {
+            Path last = files.get(files.size() - 1);
+            fileStartLsn = startLsn(last);
+            channel = FileChannel.open(last, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+    }
+
+    /**
+     * Appends a record and, if configured, forces it to disk.
+     *
+     * @param lsn    LSN of the record
+     * @param record encoded record
+     * @throws IOException if the record cannot be written
+     */
+    void append(long lsn, ByteBuffer record) throws IOException {
+        crc.reset();
+        header.clear().putLong(HEADER_BYTES - Long.BYTES, lsn);
+        crc.update(header.array(), HEADER_BYTES - Long.BYTES, Long.BYTES);
+        crc.update(record.duplicate());
+        header.putInt(0, record.remaining()).putInt(Integer.BYTES, (int) crc.getValue());
+
+        ByteBuffer[] frame = {header, record};
+        long remaining = HEADER_BYTES + record.remaining();
+        bytes.addAndGet(remaining);
+        while (remaining > 0) {
+            remaining -= channel.write(frame);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Starts a new file for the records from the given LSN on.
+     *
+     * @param startLsn LSN of the next record
+     * @throws IOException if the file cannot be created
+     */
+    void roll(long startLsn) throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+        }
+        fileStartLsn = startLsn;
+        channel = FileChannel.open(directory.resolve(String.format("%s%020d%s", FILE_PREFIX, startLsn, FILE_SUFFIX)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Deletes the files that only contain records up to the given LSN.
+     *
+     * @param lsn LSN covered by a snapshot
+     * @throws IOException if a file cannot be deleted
+     */
+    void deleteUpTo(long lsn) throws IOException {
+        for (Path file : listFiles(directory)) {
+            long start = startLsn(file);
+            if (start <= lsn && start < fileStartLsn) {
+                long size = Files.size(file);
+                Files.delete(file);
+                bytes.addAndGet(-size);
+            }
+        }
+    }
+
+    /**
+     * Returns the size of all log files.
+     *
+     * @return size in bytes
+     */
+    long size() {
+        return bytes.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private static long replay(Path file, RecordHandler handler) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = in.size();
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            ByteBuffer record = ByteBuffer.allocate(512);
+            CRC32 crc = new CRC32();
+            while (position + HEADER_BYTES <= size) {
+                header.clear();
+                readFully(in, header, position);
+                int length = header.getInt(0);
+                if (length <= 0 || position + HEADER_BYTES + length > size) {
+                    break;
+                }
+                if (record.capacity() < length) {
+                    record = ByteBuffer.allocate(length);
+                }
+                record.clear().limit(length);
+                readFully(in, record, position + HEADER_BYTES);
+
+                crc.reset();
+                crc.update(header.array(), HEADER_BYTES - Long.BYTES, Long.BYTES);
+                crc.update(record.duplicate());
+                if ((int) crc.getValue() != header.getInt(Integer.BYTES)) {
+                    break;
+                }
+                handler.record(header.getLong(HEADER_BYTES - Long.BYTES), record);
+                position += HEADER_BYTES + length;
+            }
+            return position;
+        }
+    }
+
+    private static void readFully(FileChannel in, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of write-ahead log");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static List<Path> listFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        return files;
+    }
+
+    private static long startLsn(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+    }
+}
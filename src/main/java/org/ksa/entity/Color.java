@@ -0,0 +1,30 @@
+package org.ksa.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * Entity for a color name in the dictionary of color codes.
+ * <p>
+ * Rows are read and inserted by the {@link org.ksa.mapper.ColorDictionary} with plain JDBC; the entity maps the
+ * table so Hibernate creates and validates it. Rows are never updated or removed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "colors", uniqueConstraints = @UniqueConstraint(name = "uk_color_name", columnNames = "name"))
+public class Color {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+}
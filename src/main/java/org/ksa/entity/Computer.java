@@ -4,6 +4,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.ksa.mapper.ColorCodesConverter;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -11,12 +16,20 @@ import java.util.List;
 
 /**
  * Entity for computer record in the database.
+ * <p>
+ * Colors are kept in the row as codes of the {@link org.ksa.mapper.ColorDictionary}, so reading a computer
+ * needs no join and its cache entry holds no separate collection. Updates only set the columns that changed,
+ * so an update that keeps the colors leaves their column alone. The version is raised by every update and
+ * served as the ETag of the computer.
  */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
 @Table(name = "computers", uniqueConstraints = @UniqueConstraint(name = "uk_maker_model", columnNames = {"maker", "model"}),
         indexes = @Index(name = "idx_maker_model", columnList = "maker ,model"))
 public class Computer {
@@ -37,9 +50,13 @@ public class Computer {
     @Column(name = "language")
     private String language;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "computer_colors", joinColumns = @JoinColumn(name = "computer_id"))
-    @Column(name = "color")
+    @Convert(converter = ColorCodesConverter.class)
+    @Column(name = "color_codes", length = 1024)
     @Builder.Default
     private List<String> colors = new ArrayList<>();
+
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
@@ -4,17 +4,24 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import javax.persistence.*;
 
 /**
  * Entity for SSH key record in the database.
+ * <p>
+ * The version is raised by every update and served as the ETag of the key.
  */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "ssh_keys", uniqueConstraints = @UniqueConstraint(name = "uk_server_type_name_public",
         columnNames = {"server_type", "server_name", "public_key"}),
         indexes = @Index(name = "idx_server_type_name", columnList = "server_type,server_name"))
@@ -38,4 +45,9 @@ public class SshKey {
 
     @Column(name = "comment")
     private String comment;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
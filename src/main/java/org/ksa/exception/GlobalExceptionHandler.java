@@ -1,5 +1,10 @@
 package org.ksa.exception;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -7,12 +12,19 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.time.LocalDateTime;
 
+import static org.ksa.constants.ErrorMessages.DATA_CONFLICT;
+
 /**
  * Global exception handler for REST controllers.
  */
 @RestControllerAdvice
+@AllArgsConstructor
 public class GlobalExceptionHandler {
 
+    private static final String EXCEPTIONS_METRIC = "api.exceptions";
+
+    private final MeterRegistry meterRegistry;
+
     /**
      * Handles {@link ComputerNotFoundException} and returns a 404 Not Found response.
      *
@@ -21,6 +33,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(ComputerNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleComputerNotFound(ComputerNotFoundException ex) {
+        countException(ex, HttpStatus.NOT_FOUND);
         ErrorResponse error = ErrorResponse.builder()
                 .timestamp(LocalDateTime.now())
                 .status(HttpStatus.NOT_FOUND.value())
@@ -39,6 +52,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(InvalidMakerException.class)
     public ResponseEntity<ErrorResponse> handleInvalidMaker(InvalidMakerException ex) {
+        countException(ex, HttpStatus.FORBIDDEN);
         ErrorResponse error = ErrorResponse.builder()
                 .timestamp(LocalDateTime.now())
                 .status(HttpStatus.FORBIDDEN.value())
@@ -57,6 +71,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(InvalidSshKeyException.class)
     public ResponseEntity<ErrorResponse> handleInvalidSshKey(InvalidSshKeyException ex) {
+        countException(ex, HttpStatus.BAD_REQUEST);
         ErrorResponse error = ErrorResponse.builder()
                 .timestamp(LocalDateTime.now())
                 .status(HttpStatus.BAD_REQUEST.value())
@@ -66,4 +81,175 @@ public class GlobalExceptionHandler {
 
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
+
+    /**
+     * Handles {@link InvalidChangeOffsetException} and returns a 400 Bad Request response.
+     *
+     * @param ex exception thrown when a change journal offset is invalid
+     * @return a structured error response with status 400
+     */
+    @ExceptionHandler(InvalidChangeOffsetException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidChangeOffset(InvalidChangeOffsetException ex) {
+        countException(ex, HttpStatus.BAD_REQUEST);
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error("Bad Request")
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    /**
+     * Handles {@link InvalidBatchException} and returns a 400 Bad Request response.
+     *
+     * @param ex exception thrown when a batch cannot be run as requested
+     * @return a structured error response with status 400
+     */
+    @ExceptionHandler(InvalidBatchException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidBatch(InvalidBatchException ex) {
+        countException(ex, HttpStatus.BAD_REQUEST);
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error("Bad Request")
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    /**
+     * Handles {@link InvalidPatchException} and returns a 400 Bad Request response.
+     *
+     * @param ex exception thrown when a merge patch cannot be applied
+     * @return a structured error response with status 400
+     */
+    @ExceptionHandler(InvalidPatchException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidPatch(InvalidPatchException ex) {
+        countException(ex, HttpStatus.BAD_REQUEST);
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error("Bad Request")
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    /**
+     * Handles {@link VersionConflictException} and returns a 412 Precondition Failed response.
+     *
+     * @param ex exception thrown when {@code If-Match} names another version than the stored one
+     * @return a structured error response with status 412
+     */
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<ErrorResponse> handleVersionConflict(VersionConflictException ex) {
+        countException(ex, HttpStatus.PRECONDITION_FAILED);
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.PRECONDITION_FAILED.value())
+                .error("Precondition Failed")
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+
+    /**
+     * Handles {@link IllegalArgumentException} and returns a 400 Bad Request response.
+     *
+     * @param ex exception thrown when a computer with the same maker and model already exists
+     * @return a structured error response with status 400
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgument(IllegalArgumentException ex) {
+        countException(ex, HttpStatus.BAD_REQUEST);
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error("Bad Request")
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    /**
+     * Handles {@link DataIntegrityViolationException} and returns a 409 Conflict response.
+     *
+     * @param ex exception thrown when a write breaks a unique constraint, such as a concurrent duplicate
+     * @return a structured error response with status 409
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        countException(ex, HttpStatus.CONFLICT);
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.CONFLICT.value())
+                .error("Conflict")
+                .message(DATA_CONFLICT)
+                .build();
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    /**
+     * Handles {@link ServiceOverloadedException} and returns a 503 Service Unavailable response.
+     *
+     * @param ex exception thrown when the request is shed under load
+     * @return a structured error response with status 503 and a {@code Retry-After} header
+     */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleServiceOverloaded(ServiceOverloadedException ex) {
+        countException(ex, HttpStatus.SERVICE_UNAVAILABLE);
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error("Service Unavailable")
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    /**
+     * Handles {@link RateLimitExceededException} and returns a 429 Too Many Requests response.
+     *
+     * @param ex exception thrown when the client exceeds its rate limit
+     * @return a structured error response with status 429 and a {@code Retry-After} header
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceeded(RateLimitExceededException ex) {
+        countException(ex, HttpStatus.TOO_MANY_REQUESTS);
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error("Too Many Requests")
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    /**
+     * Increments the counter of handled exceptions for the given exception type.
+     *
+     * @param ex     handled exception
+     * @param status HTTP status returned for the exception
+     */
+    private void countException(Exception ex, HttpStatus status) {
+        Counter.builder(EXCEPTIONS_METRIC)
+                .description("Exceptions mapped to error responses")
+                .tag("exception", ex.getClass().getSimpleName())
+                .tag("status", String.valueOf(status.value()))
+                .register(meterRegistry)
+                .increment();
+    }
 }
@@ -0,0 +1,16 @@
+package org.ksa.exception;
+
+/**
+ * Exception thrown when a batch cannot be run as requested.
+ */
+public class InvalidBatchException extends RuntimeException {
+
+    /**
+     * Constructor for {@code InvalidBatchException}.
+     *
+     * @param message detail message for the exception
+     */
+    public InvalidBatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package org.ksa.exception;
+
+/**
+ * Exception thrown when a change journal offset is not the start of an entry.
+ */
+public class InvalidChangeOffsetException extends RuntimeException {
+
+    /**
+     * Constructor for {@code InvalidChangeOffsetException}.
+     *
+     * @param message detail message for the exception
+     */
+    public InvalidChangeOffsetException(String message) {
+        super(message);
+    }
+}
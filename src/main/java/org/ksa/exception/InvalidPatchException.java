@@ -0,0 +1,16 @@
+package org.ksa.exception;
+
+/**
+ * Exception thrown when a merge patch cannot be applied.
+ */
+public class InvalidPatchException extends RuntimeException {
+
+    /**
+     * Constructor for {@code InvalidPatchException}.
+     *
+     * @param message detail message for the exception
+     */
+    public InvalidPatchException(String message) {
+        super(message);
+    }
+}
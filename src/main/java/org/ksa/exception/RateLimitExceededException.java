@@ -0,0 +1,24 @@
+package org.ksa.exception;
+
+/**
+ * Exception thrown when a client exceeds its request rate limit.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructor for {@code RateLimitExceededException}.
+     *
+     * @param message           detail message for the exception
+     * @param retryAfterSeconds seconds after which the client may retry
+     */
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,24 @@
+package org.ksa.exception;
+
+/**
+ * Exception thrown when a request is rejected because the service is overloaded.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructor for {@code ServiceOverloadedException}.
+     *
+     * @param message           detail message for the exception
+     * @param retryAfterSeconds seconds after which the client may retry
+     */
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
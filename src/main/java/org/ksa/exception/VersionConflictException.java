@@ -0,0 +1,16 @@
+package org.ksa.exception;
+
+/**
+ * Exception thrown when a conditional update names a version other than the stored one.
+ */
+public class VersionConflictException extends RuntimeException {
+
+    /**
+     * Constructor for {@code VersionConflictException}.
+     *
+     * @param message detail message for the exception
+     */
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
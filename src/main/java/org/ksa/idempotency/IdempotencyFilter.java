@@ -0,0 +1,318 @@
+package org.ksa.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.ksa.exception.ErrorResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.ksa.constants.ErrorMessages.*;
+
+/**
+ * Filter replaying the original response to POST requests retried with the same {@code Idempotency-Key}.
+ * <p>
+ * The key is scoped to the client, identified like the rate limiter does. The first request runs normally
+ * and its status, content type and body are kept in the {@link IdempotencyStore}; a retry gets them back
+ * with an {@code Idempotent-Replayed: true} header and never reaches the controller. A duplicate arriving
+ * while the first request still runs waits for its response. Reusing a key for a different request is
+ * rejected with 422. Responses that a retry could change (429 and 5xx) are not kept.
+ * <p>
+ * The request body is buffered to fingerprint it, so bodies larger than the configured cap are rejected
+ * with 413 before anything is read past it.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final List<String> pathPatterns;
+    private final String keyHeader;
+    private final String apiKeyHeader;
+    private final long waitTimeoutMillis;
+    private final int maxBodyBytes;
+    private final int maxRequestBytes;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Constructor for {@code IdempotencyFilter}.
+     *
+     * @param store             store of the recorded responses
+     * @param pathPatterns      POST endpoints accepting the key
+     * @param keyHeader         name of the idempotency key header
+     * @param apiKeyHeader      header identifying a client instead of its IP address
+     * @param waitTimeoutMillis time a duplicate waits for the request holding its key
+     * @param maxBodyBytes      largest response body that is recorded
+     * @param maxRequestBytes   largest request body that is accepted
+     * @param objectMapper      mapper writing error responses
+     */
+    public IdempotencyFilter(IdempotencyStore store, List<String> pathPatterns, String keyHeader, String apiKeyHeader,
+                             long waitTimeoutMillis, int maxBodyBytes, int maxRequestBytes, ObjectMapper objectMapper) {
+        this.store = store;
+        this.pathPatterns = pathPatterns;
+        this.keyHeader = keyHeader;
+        this.apiKeyHeader = apiKeyHeader;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.maxBodyBytes = maxBodyBytes;
+        this.maxRequestBytes = maxRequestBytes;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod()) || request.getHeader(keyHeader) == null) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return pathPatterns.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(keyHeader);
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, String.format(IDEMPOTENCY_KEY_INVALID, MAX_KEY_LENGTH));
+            return;
+        }
+        byte[] body = request.getContentLengthLong() > maxRequestBytes ? null
+                : readBody(request.getInputStream(), maxRequestBytes);
+        if (body == null) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE,
+                    String.format(IDEMPOTENCY_BODY_TOO_LARGE, maxRequestBytes));
+            return;
+        }
+        CachedBodyRequest cached = new CachedBodyRequest(request, body);
+        String fingerprint = fingerprint(cached);
+        String key = clientKey(request) + " " + idempotencyKey;
+
+        while (true) {
+            IdempotencyStore.Entry entry = new IdempotencyStore.Entry(fingerprint);
+            IdempotencyStore.Entry current = store.claim(key, entry);
+            if (current == entry) {
+                execute(cached, response, chain, key, entry);
+                return;
+            }
+            if (!current.getFingerprint().equals(fingerprint)) {
+                rejected.increment();
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, IDEMPOTENCY_KEY_REUSED);
+                return;
+            }
+
+            IdempotencyStore.StoredResponse stored;
+            try {
+                stored = current.await(waitTimeoutMillis);
+            } catch (TimeoutException ex) {
+                rejected.increment();
+                writeError(response, HttpStatus.CONFLICT, IDEMPOTENCY_KEY_IN_PROGRESS);
+                return;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(ex);
+            }
+            if (stored != null) {
+                replayed.increment();
+                replay(response, stored);
+                return;
+            }
+            // The first request gave the key up, so this one runs instead
+        }
+    }
+
+    public long getReplayed() {
+        return replayed.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                         String key, IdempotencyStore.Entry entry) throws ServletException, IOException {
+        RecordingResponse wrapper = new RecordingResponse(response);
+        boolean recorded = false;
+        try {
+            chain.doFilter(request, wrapper);
+            int status = wrapper.getStatus();
+            if (!wrapper.errorSent && status < 500 && status != HttpStatus.TOO_MANY_REQUESTS.value()
+                    && wrapper.getContentSize() <= maxBodyBytes) {
+                store.complete(entry, new IdempotencyStore.StoredResponse(status, wrapper.getContentType(),
+                        wrapper.getContentAsByteArray()));
+                recorded = true;
+            }
+        } finally {
+            if (!recorded) {
+                store.release(key, entry);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static void replay(HttpServletResponse response, IdempotencyStore.StoredResponse stored)
+            throws IOException {
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+
+    /**
+     * Reads a request body, stopping as soon as it goes past the cap.
+     *
+     * @param input    stream of the request body
+     * @param maxBytes largest body accepted
+     * @return the body, or {@code null} if it is larger than {@code maxBytes}
+     */
+    private static byte[] readBody(InputStream input, int maxBytes) throws IOException {
+        byte[] body = input.readNBytes(maxBytes);
+        return body.length == maxBytes && input.read() != -1 ? null : body;
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(message)
+                .build();
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(apiKeyHeader);
+        if (apiKey != null && !apiKey.isEmpty()) {
+            return "key:" + apiKey;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * Hashes the method, target and body, so a key reused for another request is detected.
+     */
+    private static String fingerprint(CachedBodyRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "?" + request.getQueryString() + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            digest.update(request.body);
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Response noting errors sent to the container, whose body is only rendered after this filter returns.
+     */
+    private static final class RecordingResponse extends ContentCachingResponseWrapper {
+
+        private boolean errorSent;
+
+        private RecordingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void sendError(int status) throws IOException {
+            errorSent = true;
+            super.sendError(status);
+        }
+
+        @Override
+        public void sendError(int status, String message) throws IOException {
+            errorSent = true;
+            super.sendError(status, message);
+        }
+    }
+
+    /**
+     * Request whose body is read once up front, so it can be hashed and still be read by the controller.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // The whole body is already in memory, so it is available at once
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException ex) {
+                        readListener.onError(ex);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding == null ? StandardCharsets.UTF_8.name() : encoding));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package org.ksa.idempotency;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory store of the responses to requests carrying an idempotency key.
+ * <p>
+ * The first request with a key claims it with a pending {@link Entry}; duplicates arriving while it runs
+ * wait for its response instead of running again. Completed entries expire after the TTL. When the store
+ * is full the oldest entries are dropped, so at worst a very old retry runs a second time.
+ */
+public class IdempotencyStore {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    /**
+     * Response recorded for an idempotency key.
+     */
+    public static final class StoredResponse {
+
+        private final int status;
+        private final String contentType;
+        private final byte[] body;
+
+        /**
+         * Constructor for {@code StoredResponse}.
+         *
+         * @param status      HTTP status
+         * @param contentType content type, may be {@code null}
+         * @param body        response body
+         */
+        public StoredResponse(int status, String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+
+    /**
+     * Claim on an idempotency key: pending while the first request runs, then holding its response.
+     */
+    public static final class Entry {
+
+        private final String fingerprint;
+        private final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+        private volatile long expiresAt;
+
+        /**
+         * Constructor for {@code Entry}.
+         *
+         * @param fingerprint hash of the request the key was first used for
+         */
+        public Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        /**
+         * Waits for the response of the request holding the key.
+         *
+         * @param timeoutMillis maximum time to wait
+         * @return the response, or {@code null} if the request gave the key up
+         * @throws TimeoutException     if the request is still running after the timeout
+         * @throws InterruptedException if the waiting thread is interrupted
+         */
+        public StoredResponse await(long timeoutMillis) throws TimeoutException, InterruptedException {
+            try {
+                return response.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException ex) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Constructor for {@code IdempotencyStore}.
+     *
+     * @param maxEntries maximum number of keys kept
+     * @param ttlMillis  time a key is kept after its request was received or completed
+     * @param clock      source of the current time in milliseconds
+     */
+    public IdempotencyStore(int maxEntries, long ttlMillis, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Claims a key unless a live entry already holds it.
+     *
+     * @param key   client and idempotency key
+     * @param entry new pending entry of the caller
+     * @return {@code entry} if the caller now holds the key, otherwise the entry holding it
+     */
+    public synchronized Entry claim(String key, Entry entry) {
+        long now = clock.getAsLong();
+        Iterator<Entry> oldest = entries.values().iterator();
+        while (oldest.hasNext()) {
+            Entry candidate = oldest.next();
+            if (candidate.expiresAt > now && entries.size() < maxEntries) {
+                break;
+            }
+            oldest.remove();
+        }
+
+        Entry current = entries.get(key);
+        if (current != null && current.expiresAt > now) {
+            return current;
+        }
+        entry.expiresAt = now + ttlMillis;
+        entries.remove(key);
+        entries.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * Records the response of the request holding a key and wakes up waiting duplicates.
+     *
+     * @param entry    entry returned by {@link #claim(String, Entry)} to the caller
+     * @param response response to replay for the key
+     */
+    public void complete(Entry entry, StoredResponse response) {
+        entry.expiresAt = clock.getAsLong() + ttlMillis;
+        entry.response.complete(response);
+    }
+
+    /**
+     * Gives a key up without a response, so the next request with it runs again.
+     *
+     * @param key   client and idempotency key
+     * @param entry entry returned by {@link #claim(String, Entry)} to the caller
+     */
+    public void release(String key, Entry entry) {
+        synchronized (this) {
+            entries.remove(key, entry);
+        }
+        entry.response.complete(null);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
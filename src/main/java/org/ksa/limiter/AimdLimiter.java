@@ -0,0 +1,94 @@
+package org.ksa.limiter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptive concurrency limiter using additive increase, multiplicative decrease (AIMD).
+ * <p>
+ * The limit grows by one for every request completing within the latency threshold while the limiter is at
+ * least half utilized, and shrinks by the backoff ratio for every request exceeding the threshold or failing.
+ * Requests above the limit are rejected immediately instead of queueing.
+ */
+public class AimdLimiter {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Constructor for {@code AimdLimiter}.
+     *
+     * @param name               name of the limiter, used in metrics
+     * @param initialLimit       initial concurrency limit
+     * @param minLimit           lower bound of the limit
+     * @param maxLimit           upper bound of the limit
+     * @param latencyThresholdMs latency above which a request counts as a sign of overload
+     * @param backoffRatio       factor applied to the limit on overload, between 0 and 1
+     */
+    public AimdLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                       long latencyThresholdMs, double backoffRatio) {
+        if (minLimit < 1 || minLimit > maxLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Invalid limits for concurrency limiter " + name);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+        this.backoffRatio = backoffRatio;
+        this.limit = new AtomicInteger(Math.max(minLimit, Math.min(maxLimit, initialLimit)));
+    }
+
+    /**
+     * Tries to admit a request.
+     *
+     * @return {@code true} if the request is admitted and {@link #release} must be called on completion
+     */
+    public boolean tryAcquire() {
+        if (inFlight.incrementAndGet() > limit.get()) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Releases an admitted request and adjusts the limit.
+     *
+     * @param latencyNanos latency of the request
+     * @param failed       whether the request failed with a server error
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int current = inFlight.getAndDecrement();
+
+        if (failed || latencyNanos > latencyThresholdNanos) {
+            limit.updateAndGet(value -> Math.max(minLimit, (int) (value * backoffRatio)));
+        } else if (current * 2 >= limit.get()) {
+            limit.updateAndGet(value -> Math.min(maxLimit, value + 1));
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,68 @@
+package org.ksa.limiter;
+
+import org.ksa.exception.ServiceOverloadedException;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static org.ksa.constants.ErrorMessages.SERVICE_OVERLOADED;
+
+/**
+ * Interceptor admitting controller requests through separate read and write {@link AimdLimiter}s.
+ * <p>
+ * {@code GET} and {@code HEAD} requests use the read limiter, all other methods the write limiter.
+ * Rejected requests fail fast with {@link ServiceOverloadedException}.
+ */
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String LIMITER_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".limiter";
+    private static final String START_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".start";
+
+    private final AimdLimiter readLimiter;
+    private final AimdLimiter writeLimiter;
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructor for {@code ConcurrencyLimitInterceptor}.
+     *
+     * @param readLimiter       limiter for read requests
+     * @param writeLimiter      limiter for write requests
+     * @param retryAfterSeconds value of the {@code Retry-After} header on rejection
+     */
+    public ConcurrencyLimitInterceptor(AimdLimiter readLimiter, AimdLimiter writeLimiter, long retryAfterSeconds) {
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        AimdLimiter limiter = isRead(request) ? readLimiter : writeLimiter;
+        if (!limiter.tryAcquire()) {
+            throw new ServiceOverloadedException(SERVICE_OVERLOADED, retryAfterSeconds);
+        }
+
+        request.setAttribute(LIMITER_ATTRIBUTE, limiter);
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        AimdLimiter limiter = (AimdLimiter) request.getAttribute(LIMITER_ATTRIBUTE);
+        if (limiter == null) {
+            return;
+        }
+
+        long latency = System.nanoTime() - (Long) request.getAttribute(START_ATTRIBUTE);
+        limiter.release(latency, response.getStatus() >= 500);
+        request.removeAttribute(LIMITER_ATTRIBUTE);
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method);
+    }
+}
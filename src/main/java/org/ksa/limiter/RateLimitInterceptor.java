@@ -0,0 +1,65 @@
+package org.ksa.limiter;
+
+import org.ksa.exception.RateLimitExceededException;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+import static org.ksa.constants.ErrorMessages.RATE_LIMIT_EXCEEDED;
+
+/**
+ * Interceptor applying a {@link TokenBucketRateLimiter} to the requests of one route group.
+ * <p>
+ * Clients are identified by the API key header if present, otherwise by source IP. Every response carries
+ * the {@code RateLimit-Limit}, {@code RateLimit-Remaining} and {@code RateLimit-Reset} headers.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    public static final String LIMIT_HEADER = "RateLimit-Limit";
+    public static final String REMAINING_HEADER = "RateLimit-Remaining";
+    public static final String RESET_HEADER = "RateLimit-Reset";
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final String apiKeyHeader;
+
+    /**
+     * Constructor for {@code RateLimitInterceptor}.
+     *
+     * @param rateLimiter  limiter of the route group
+     * @param apiKeyHeader name of the header carrying the client's API key
+     */
+    public RateLimitInterceptor(TokenBucketRateLimiter rateLimiter, String apiKeyHeader) {
+        this.rateLimiter = rateLimiter;
+        this.apiKeyHeader = apiKeyHeader;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        TokenBucketRateLimiter.Decision decision = rateLimiter.tryAcquire(clientKey(request));
+        long resetSeconds = toSeconds(decision.getWaitNanos());
+
+        response.setHeader(LIMIT_HEADER, String.valueOf(rateLimiter.getCapacity()));
+        response.setHeader(REMAINING_HEADER, String.valueOf(decision.getRemaining()));
+        response.setHeader(RESET_HEADER, String.valueOf(resetSeconds));
+
+        if (!decision.isAllowed()) {
+            throw new RateLimitExceededException(RATE_LIMIT_EXCEEDED, resetSeconds);
+        }
+        return true;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(apiKeyHeader);
+        if (apiKey != null && !apiKey.isEmpty()) {
+            return "key:" + apiKey;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static long toSeconds(long nanos) {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        return Math.max(1, (nanos + second - 1) / second);
+    }
+}
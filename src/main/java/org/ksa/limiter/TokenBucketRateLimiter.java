@@ -0,0 +1,162 @@
+package org.ksa.limiter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-client token bucket rate limiter.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the theoretical arrival time of the next request
+ * (generic cell rate algorithm), so admitting a request is one map lookup and one compare-and-set.
+ * A bucket whose arrival time lies in the past is full and equivalent to a new one, which makes evicting
+ * idle clients safe. The number of tracked clients is bounded; clients arriving while the map is full share
+ * a fixed set of striped overflow buckets.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final int OVERFLOW_STRIPES = 64;
+
+    private final String name;
+    private final int capacity;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxClients;
+
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong[] overflow = new AtomicLong[OVERFLOW_STRIPES];
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Result of a rate limit check.
+     */
+    public static final class Decision {
+
+        private final boolean allowed;
+        private final long remaining;
+        private final long waitNanos;
+
+        private Decision(boolean allowed, long remaining, long waitNanos) {
+            this.allowed = allowed;
+            this.remaining = remaining;
+            this.waitNanos = waitNanos;
+        }
+
+        /**
+         * Checks if the request is allowed.
+         *
+         * @return {@code true} if a token was consumed
+         */
+        public boolean isAllowed() {
+            return allowed;
+        }
+
+        /**
+         * Returns the tokens left in the bucket after this request.
+         *
+         * @return remaining tokens
+         */
+        public long getRemaining() {
+            return remaining;
+        }
+
+        /**
+         * Returns the time until the next token if rejected, or until the bucket is full if allowed.
+         *
+         * @return wait time in nanoseconds
+         */
+        public long getWaitNanos() {
+            return waitNanos;
+        }
+    }
+
+    /**
+     * Constructor for {@code TokenBucketRateLimiter}.
+     *
+     * @param name            name of the route group, used in metrics
+     * @param capacity        bucket size, i.e. the allowed burst
+     * @param refillPerSecond tokens added per second
+     * @param maxClients      maximum number of clients with a dedicated bucket
+     */
+    public TokenBucketRateLimiter(String name, int capacity, double refillPerSecond, int maxClients) {
+        if (capacity < 1 || refillPerSecond <= 0 || maxClients < 1) {
+            throw new IllegalArgumentException("Invalid rate limit for " + name);
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+        this.burstNanos = intervalNanos * capacity;
+        this.maxClients = maxClients;
+
+        long now = System.nanoTime();
+        for (int i = 0; i < OVERFLOW_STRIPES; i++) {
+            overflow[i] = new AtomicLong(now);
+        }
+    }
+
+    /**
+     * Tries to consume a token from the client's bucket.
+     *
+     * @param clientKey key identifying the client
+     * @return the {@link Decision} for the request
+     */
+    public Decision tryAcquire(String clientKey) {
+        long now = System.nanoTime();
+        AtomicLong bucket = bucketFor(clientKey, now);
+
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + intervalNanos;
+            long allowedAt = next - burstNanos;
+
+            if (allowedAt - now > 0) {
+                rejected.increment();
+                return new Decision(false, 0, allowedAt - now);
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return new Decision(true, (now - allowedAt) / intervalNanos, next - now);
+            }
+        }
+    }
+
+    /**
+     * Removes the buckets of clients that have been idle long enough for their bucket to refill.
+     *
+     * @return number of evicted buckets
+     */
+    public int evictIdle() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        return before - buckets.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getClientCount() {
+        return buckets.size();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private AtomicLong bucketFor(String clientKey, long now) {
+        AtomicLong bucket = buckets.get(clientKey);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxClients) {
+            return overflow[(clientKey.hashCode() & Integer.MAX_VALUE) % OVERFLOW_STRIPES];
+        }
+        return buckets.computeIfAbsent(clientKey, key -> new AtomicLong(now));
+    }
+}
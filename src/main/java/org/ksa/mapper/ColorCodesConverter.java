@@ -0,0 +1,39 @@
+package org.ksa.mapper;
+
+import org.ksa.entity.Computer;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.util.List;
+
+/**
+ * Stores the colors of a {@link Computer} in one column, as codes packed by the {@link ColorDictionary}.
+ * <p>
+ * Hibernate creates the converter through Spring, which injects the dictionary. The list is treated as an
+ * immutable value: a change is only detected when it is replaced with {@code setColors}, never when it is
+ * modified in place.
+ */
+@Converter
+public class ColorCodesConverter implements AttributeConverter<List<String>, byte[]> {
+
+    private final ColorDictionary colorDictionary;
+
+    /**
+     * Constructor for {@code ColorCodesConverter}.
+     *
+     * @param colorDictionary dictionary of color codes
+     */
+    public ColorCodesConverter(ColorDictionary colorDictionary) {
+        this.colorDictionary = colorDictionary;
+    }
+
+    @Override
+    public byte[] convertToDatabaseColumn(List<String> colors) {
+        return colorDictionary.encode(colors);
+    }
+
+    @Override
+    public List<String> convertToEntityAttribute(byte[] encoded) {
+        return colorDictionary.decode(encoded);
+    }
+}
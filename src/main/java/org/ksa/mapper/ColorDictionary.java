@@ -0,0 +1,234 @@
+package org.ksa.mapper;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary giving each distinct color name a small integer code, so a computer stores its colors as one
+ * packed array of codes instead of one row per color.
+ * <p>
+ * The {@code colors} table only ever grows, so the whole dictionary is kept in memory for good and every decoded
+ * list shares the same {@link String} instance per name. A code missing from memory, written by another
+ * instance, reloads the table. A new name is inserted on a connection of its own that commits at once: the
+ * entry outlives a rollback of the caller's transaction, which is harmless, and Hibernate's session is never
+ * re-entered while it flushes or loads a computer.
+ * <p>
+ * With a read replica the table is always read and written on the primary: a read-only transaction would
+ * otherwise reload from a replica that has not caught up with a freshly added name and fail to decode it.
+ */
+@Component
+@Profile("!embedded")
+public class ColorDictionary {
+
+    /** Code of a {@code null} color; the identity column starts at {@code 1}. */
+    static final int NULL_CODE = 0;
+
+    private static final String SELECT_SQL = "SELECT id, name FROM colors";
+    private static final String INSERT_SQL = "INSERT INTO colors (name) VALUES (?)";
+
+    private final DataSource dataSource;
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[1];
+
+    /**
+     * Constructor for {@code ColorDictionary}.
+     *
+     * @param dataSource database holding the {@code colors} table
+     */
+    public ColorDictionary(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Constructor for {@code ColorDictionary} bypassing replica routing when it is configured.
+     *
+     * @param dataSource        application data source
+     * @param primaryDataSource primary pool, available only when a read replica is configured
+     */
+    @Autowired
+    public ColorDictionary(DataSource dataSource,
+                           @Qualifier("primaryDataSource") ObjectProvider<DataSource> primaryDataSource) {
+        this(primaryDataSource.getIfAvailable(() -> dataSource));
+    }
+
+    /**
+     * Encodes colors in order, adding unknown names to the dictionary.
+     *
+     * @param colors color names, may contain {@code null}
+     * @return the packed codes, or {@code null} for no colors
+     */
+    public byte[] encode(List<String> colors) {
+        if (colors == null || colors.isEmpty()) {
+            return null;
+        }
+        int[] values = new int[colors.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = codeOf(colors.get(i));
+        }
+        return pack(values);
+    }
+
+    /**
+     * Decodes packed codes into the shared color names.
+     *
+     * @param encoded packed codes, may be {@code null}
+     * @return a new mutable list of the colors, empty for {@code null}
+     * @throws IllegalStateException if a code is not in the dictionary
+     */
+    public List<String> decode(byte[] encoded) {
+        if (encoded == null) {
+            return new ArrayList<>();
+        }
+        int[] values = unpack(encoded);
+        List<String> colors = new ArrayList<>(values.length);
+        String[] current = names;
+        for (int code : values) {
+            if (code == NULL_CODE) {
+                colors.add(null);
+                continue;
+            }
+            if (code >= current.length || current[code] == null) {
+                current = reload();
+            }
+            if (code >= current.length || current[code] == null) {
+                throw new IllegalStateException("Unknown color code " + code);
+            }
+            colors.add(current[code]);
+        }
+        return colors;
+    }
+
+    public int size() {
+        return codes.size();
+    }
+
+    /**
+     * Packs codes as unsigned variable-length integers, one byte each below {@code 128}.
+     *
+     * @param codes color codes
+     * @return the packed codes
+     */
+    public static byte[] pack(int... codes) {
+        byte[] buffer = new byte[codes.length * 5];
+        int length = 0;
+        for (int code : codes) {
+            int value = code;
+            while ((value & ~0x7F) != 0) {
+                buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[length++] = (byte) value;
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Reverses {@link #pack(int...)}.
+     *
+     * @param encoded packed codes
+     * @return the color codes
+     * @throws IllegalStateException if the last code is truncated
+     */
+    static int[] unpack(byte[] encoded) {
+        int[] codes = new int[encoded.length];
+        int count = 0;
+        int value = 0;
+        int shift = 0;
+        for (byte b : encoded) {
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                codes[count++] = value;
+                value = 0;
+                shift = 0;
+            } else {
+                shift += 7;
+            }
+        }
+        if (shift != 0) {
+            throw new IllegalStateException("Truncated color codes");
+        }
+        return Arrays.copyOf(codes, count);
+    }
+
+    private int codeOf(String name) {
+        if (name == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(name);
+        return code != null ? code : register(name);
+    }
+
+    private synchronized int register(String name) {
+        Integer code = codes.get(name);
+        if (code == null) {
+            reload();
+            code = codes.get(name);
+        }
+        if (code != null) {
+            return code;
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+                insert.setString(1, name);
+                insert.executeUpdate();
+            } catch (SQLIntegrityConstraintViolationException ex) {
+                // Inserted by another instance in the meantime, so its code is read below
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+        reload();
+        code = codes.get(name);
+        if (code == null) {
+            throw new IllegalStateException("Color " + name + " was not added to the dictionary");
+        }
+        return code;
+    }
+
+    private synchronized String[] reload() {
+        List<String> loaded = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(SELECT_SQL);
+             ResultSet resultSet = select.executeQuery()) {
+            while (resultSet.next()) {
+                int code = resultSet.getInt(1);
+                while (loaded.size() <= code) {
+                    loaded.add(null);
+                }
+                loaded.set(code, resultSet.getString(2));
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+
+        String[] previous = names;
+        String[] current = loaded.toArray(new String[Math.max(loaded.size(), previous.length)]);
+        for (int code = 1; code < current.length; code++) {
+            if (code < previous.length && previous[code] != null) {
+                // Keep the instances already handed out
+                current[code] = previous[code];
+            } else if (current[code] != null) {
+                codes.putIfAbsent(current[code], code);
+            }
+        }
+        names = current;
+        return current;
+    }
+}
@@ -1,9 +1,19 @@
 package org.ksa.mapper;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import org.ksa.dto.ComputerDTO;
 import org.ksa.entity.Computer;
+import org.ksa.exception.InvalidPatchException;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.ksa.constants.ErrorMessages.*;
+
 /**
  * Mapper class for converting between {@link Computer} entities and {@link ComputerDTO} objects.
  */
@@ -32,6 +42,54 @@ public class ComputerMapper {
                 .build();
     }
 
+    /**
+     * Builds {@link ComputerDTO}s from projected rows of {@code id, type, maker, model, language, colors, version}.
+     * <p>
+     * The colors were decoded by the {@link ColorCodesConverter}; they are copied, as a cached query result
+     * hands out the same list each time.
+     *
+     * @param rows projected rows, one per computer
+     * @return the corresponding DTOs
+     */
+    @SuppressWarnings("unchecked")
+    public static List<ComputerDTO> mapRowsToComputerDtos(List<Object[]> rows) {
+        List<ComputerDTO> computers = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            List<String> colors = (List<String>) row[5];
+            computers.add(ComputerDTO.builder()
+                    .type((String) row[1])
+                    .maker((String) row[2])
+                    .model((String) row[3])
+                    .language((String) row[4])
+                    .colors(ComputerDTO.ColorsWrapper.builder()
+                            .color(colors == null ? new ArrayList<>() : new ArrayList<>(colors))
+                            .build())
+                    .build());
+        }
+        return computers;
+    }
+
+    /**
+     * Builds a detached {@link Computer} from a projected row, laid out as for
+     * {@link #mapRowsToComputerDtos(List)}.
+     *
+     * @param row projected row of one computer
+     * @return the computer, including its version
+     */
+    @SuppressWarnings("unchecked")
+    public static Computer mapRowToComputer(Object[] row) {
+        List<String> colors = (List<String>) row[5];
+        return Computer.builder()
+                .id((Long) row[0])
+                .type((String) row[1])
+                .maker((String) row[2])
+                .model((String) row[3])
+                .language((String) row[4])
+                .colors(colors == null ? new ArrayList<>() : new ArrayList<>(colors))
+                .version((Long) row[6])
+                .build();
+    }
+
     /**
      * Converts a {@link ComputerDTO} to a {@link Computer} entity.
      *
@@ -53,6 +111,8 @@ public class ComputerMapper {
     
     /**
      * Updates an existing {@link Computer} entity with values from {@link ComputerDTO}.
+     * <p>
+     * Colors are replaced only when the list differs, element by element and in order, from the stored one.
      *
      * @param computerDTO source DTO
      * @param computer    target entity to update
@@ -78,8 +138,141 @@ public class ComputerMapper {
             computer.setLanguage(computerDTO.getLanguage());
         }
 
-        if (computerDTO.getColors() != null && computerDTO.getColors().getColor() != null) {
-            computer.setColors(computerDTO.getColors().getColor());
+        // Only a different list is set, so unchanged colors are neither re-encoded nor written
+        if (computerDTO.getColors() != null && computerDTO.getColors().getColor() != null
+                && !computerDTO.getColors().getColor().equals(computer.getColors())) {
+            computer.setColors(new ArrayList<>(computerDTO.getColors().getColor()));
+        }
+    }
+
+    /**
+     * Translates a JSON merge patch (RFC 7396) of a computer into the attributes it changes.
+     * <p>
+     * Type, maker and model can be replaced but not removed, language can be removed with {@code null}, and
+     * colors are replaced by a {@code colors.color} array or cleared with {@code null}. Members naming nothing in
+     * {@link ComputerDTO} are rejected rather than ignored.
+     *
+     * @param patch merge patch document
+     * @return new values by entity attribute, in patch order; empty if the patch changes nothing
+     * @throws InvalidPatchException if the patch is not an object or sets a field to a value it cannot have
+     */
+    public static Map<String, Object> mapPatchToChanges(JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new InvalidPatchException(PATCH_NOT_AN_OBJECT);
+        }
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode value = field.getValue();
+            switch (field.getKey()) {
+                case "type":
+                    changes.put("type", requiredText(value, VALIDATION_TYPE_REQUIRED));
+                    break;
+                case "maker":
+                    changes.put("maker", requiredText(value, VALIDATION_MAKER_REQUIRED));
+                    break;
+                case "model":
+                    changes.put("model", requiredText(value, VALIDATION_MODEL_REQUIRED));
+                    break;
+                case "language":
+                    if (!value.isNull() && !value.isTextual()) {
+                        throw new InvalidPatchException(String.format(PATCH_FIELD_INVALID, "language", "text or null"));
+                    }
+                    changes.put("language", value.isNull() ? null : value.textValue());
+                    break;
+                case "colors":
+                    List<String> colors = patchColors(value);
+                    if (colors != null) {
+                        changes.put("colors", colors);
+                    }
+                    break;
+                default:
+                    throw new InvalidPatchException(String.format(PATCH_FIELD_UNKNOWN, field.getKey()));
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Applies changes from {@link #mapPatchToChanges(JsonNode)} to a computer.
+     *
+     * @param changes  new values by entity attribute
+     * @param computer target entity to update
+     */
+    @SuppressWarnings("unchecked")
+    public static void applyChanges(Map<String, Object> changes, Computer computer) {
+        changes.forEach((attribute, value) -> {
+            switch (attribute) {
+                case "type":
+                    computer.setType((String) value);
+                    break;
+                case "maker":
+                    computer.setMaker((String) value);
+                    break;
+                case "model":
+                    computer.setModel((String) value);
+                    break;
+                case "language":
+                    computer.setLanguage((String) value);
+                    break;
+                case "colors":
+                    computer.setColors(new ArrayList<>((List<String>) value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown computer attribute " + attribute);
+            }
+        });
+    }
+
+    private static String requiredText(JsonNode value, String message) {
+        if (!value.isTextual() || value.textValue().trim().isEmpty()) {
+            throw new InvalidPatchException(message);
+        }
+        return value.textValue();
+    }
+
+    /**
+     * Merges the {@code colors} member of a patch.
+     *
+     * @return the new colors, empty to clear them, or {@code null} if they are left as they are
+     */
+    private static List<String> patchColors(JsonNode value) {
+        if (value.isNull()) {
+            return new ArrayList<>();
+        }
+        if (!value.isObject()) {
+            throw new InvalidPatchException(String.format(PATCH_FIELD_INVALID, "colors", "an object or null"));
+        }
+        Iterator<String> names = value.fieldNames();
+        while (names.hasNext()) {
+            String name = names.next();
+            if (!name.equals("color")) {
+                throw new InvalidPatchException(String.format(PATCH_FIELD_UNKNOWN, "colors." + name));
+            }
+        }
+
+        JsonNode color = value.get("color");
+        if (color == null) {
+            return null;
+        }
+        if (color.isNull()) {
+            return new ArrayList<>();
+        }
+        if (!color.isArray()) {
+            throw new InvalidPatchException(String.format(PATCH_FIELD_INVALID, "colors.color", "an array or null"));
+        }
+        if (color.size() > ComputerDTO.ColorsWrapper.MAX_COLORS) {
+            throw new InvalidPatchException(VALIDATION_TOO_MANY_COLORS);
+        }
+        List<String> colors = new ArrayList<>(color.size());
+        for (JsonNode element : color) {
+            if (!element.isNull() && !element.isTextual()) {
+                throw new InvalidPatchException(String.format(PATCH_FIELD_INVALID, "colors.color", "an array of text"));
+            }
+            colors.add(element.isNull() ? null : element.textValue());
         }
+        return colors;
     }
 }
@@ -1,10 +1,18 @@
 package org.ksa.mapper;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import org.ksa.dto.SshKeyRequestDTO;
 import org.ksa.dto.SshKeyResponseDTO;
 import org.ksa.entity.SshKey;
+import org.ksa.exception.InvalidPatchException;
 import org.springframework.stereotype.Component;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.ksa.constants.ErrorMessages.*;
+
 /**
  * Mapper class for converting between {@link SshKey} entities and their corresponding DTO.
  */
@@ -73,4 +81,98 @@ public class SshKeyMapper {
             sshKey.setComment(sshKeyDto.getComment());
         }
     }
+
+    /**
+     * Builds a detached {@link SshKey} from a projected row of
+     * {@code id, serverType, serverName, type, publicKey, comment, version}.
+     *
+     * @param row projected row of one key
+     * @return the key, including its version
+     */
+    public static SshKey mapRowToSshKey(Object[] row) {
+        return SshKey.builder()
+                .id((Long) row[0])
+                .serverType((String) row[1])
+                .serverName((String) row[2])
+                .type((String) row[3])
+                .publicKey((String) row[4])
+                .comment((String) row[5])
+                .version((Long) row[6])
+                .build();
+    }
+
+    /**
+     * Translates a JSON merge patch (RFC 7396) of an SSH key, as laid out in {@link SshKeyResponseDTO}, into the
+     * attributes it changes.
+     * <p>
+     * The type and public key can be replaced, together so the key can be validated, but not removed. The
+     * comment can be removed with {@code null}. The ID and server cannot be patched.
+     *
+     * @param patch merge patch document
+     * @return new values by entity attribute, in patch order; empty if the patch changes nothing
+     * @throws InvalidPatchException if the patch is not an object or sets a field to a value it cannot have
+     */
+    public static Map<String, Object> mapPatchToChanges(JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new InvalidPatchException(PATCH_NOT_AN_OBJECT);
+        }
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode value = field.getValue();
+            switch (field.getKey()) {
+                case "type":
+                    changes.put("type", requiredText(value, VALIDATION_SSH_KEY_TYPE_REQUIRED));
+                    break;
+                case "public":
+                    changes.put("publicKey", requiredText(value, VALIDATION_PUBLIC_KEY_REQUIRED));
+                    break;
+                case "comment":
+                    if (!value.isNull() && !value.isTextual()) {
+                        throw new InvalidPatchException(String.format(PATCH_FIELD_INVALID, "comment", "text or null"));
+                    }
+                    changes.put("comment", value.isNull() ? null : value.textValue());
+                    break;
+                default:
+                    throw new InvalidPatchException(String.format(PATCH_FIELD_UNKNOWN, field.getKey()));
+            }
+        }
+        if (changes.containsKey("type") != changes.containsKey("publicKey")) {
+            throw new InvalidPatchException(PATCH_KEY_TYPE_AND_CONTENT);
+        }
+        return changes;
+    }
+
+    /**
+     * Applies changes from {@link #mapPatchToChanges(JsonNode)} to an SSH key.
+     *
+     * @param changes new values by entity attribute
+     * @param sshKey  target entity to update
+     */
+    public static void applyChanges(Map<String, Object> changes, SshKey sshKey) {
+        changes.forEach((attribute, value) -> {
+            switch (attribute) {
+                case "type":
+                    sshKey.setType((String) value);
+                    break;
+                case "publicKey":
+                    sshKey.setPublicKey((String) value);
+                    break;
+                case "comment":
+                    sshKey.setComment((String) value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown SSH key attribute " + attribute);
+            }
+        });
+    }
+
+    private static String requiredText(JsonNode value, String message) {
+        if (!value.isTextual() || value.textValue().trim().isEmpty()) {
+            throw new InvalidPatchException(message);
+        }
+        return value.textValue();
+    }
 }
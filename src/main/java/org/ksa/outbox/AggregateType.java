@@ -0,0 +1,9 @@
+package org.ksa.outbox;
+
+/**
+ * Kinds of records whose changes are published through the outbox.
+ */
+public enum AggregateType {
+    COMPUTER,
+    SSH_KEY
+}
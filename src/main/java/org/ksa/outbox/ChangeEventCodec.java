@@ -0,0 +1,35 @@
+package org.ksa.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.ksa.entity.OutboxEvent;
+
+import java.io.IOException;
+
+/**
+ * Encodes change events as the JSON entries of the {@link ChangeJournal}.
+ */
+public final class ChangeEventCodec {
+
+    private ChangeEventCodec() {
+    }
+
+    /**
+     * Encodes a change event.
+     *
+     * @param objectMapper mapper producing the JSON
+     * @param event        event with its ID and JSON payload
+     * @return UTF-8 JSON of the journal entry
+     * @throws IOException if the payload is not valid JSON
+     */
+    public static byte[] encode(ObjectMapper objectMapper, OutboxEvent event) throws IOException {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("outboxId", event.getId());
+        node.put("aggregateType", event.getAggregateType().name());
+        node.put("aggregateId", event.getAggregateId());
+        node.put("changeType", event.getChangeType().name());
+        node.put("createdAt", event.getCreatedAt().toString());
+        node.set("payload", objectMapper.readTree(event.getPayload()));
+        return objectMapper.writeValueAsBytes(node);
+    }
+}
@@ -0,0 +1,285 @@
+package org.ksa.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of change events in memory-mapped segment files.
+ * <p>
+ * Entries are addressed by their byte offset in the journal, which stays valid forever, so a consumer can
+ * resume from the offset it stored. Each entry is {@code [length][crc32][outboxId][payload]}; the length is
+ * written last and a zero length marks the end of the written data. Segments are preallocated, named after the
+ * offset of their first entry and continue exactly where the previous one ended.
+ * <p>
+ * There is a single writer. Readers in the same process never read past the end offset published by the
+ * writer after each entry.
+ */
+@Slf4j
+public class ChangeJournal implements Closeable {
+
+    static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final ConcurrentSkipListMap<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+
+    private long activeBase;
+    private MappedByteBuffer active;
+    private volatile long endOffset;
+
+    /**
+     * Constructor for {@code ChangeJournal}.
+     *
+     * @param directory    directory of the segment files
+     * @param segmentBytes size of each segment file
+     */
+    public ChangeJournal(Path directory, int segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Maps the existing segments and finds the end of the written data.
+     *
+     * @throws IOException if the segments cannot be mapped
+     */
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path segment : stream) {
+                String name = segment.getFileName().toString();
+                long base = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                segments.put(base, map(segment));
+            }
+        }
+        if (segments.isEmpty()) {
+            roll(0);
+            return;
+        }
+        Map.Entry<Long, MappedByteBuffer> last = segments.lastEntry();
+        activeBase = last.getKey();
+        active = last.getValue();
+
+        int position = 0;
+        while (isValidEntry(active, position)) {
+            position += entrySize(entryLength(active, position));
+        }
+        if (position + Integer.BYTES <= active.capacity() && active.getInt(position) != 0) {
+            log.warn("Discarding partially written journal entry at offset {}", activeBase + position);
+            for (int i = position; i < active.capacity(); i++) {
+                active.put(i, (byte) 0);
+            }
+            active.force();
+        }
+        active.position(position);
+        endOffset = activeBase + position;
+    }
+
+    /**
+     * Starts a new segment if the given number of bytes does not fit in the current one, so that a batch of
+     * entries is written to a single segment.
+     *
+     * @param bytes total size of the entries about to be appended, see {@link #entrySize(int)}
+     * @throws IOException if a new segment cannot be created
+     */
+    public void reserve(int bytes) throws IOException {
+        if (bytes <= segmentBytes && active.remaining() < bytes + Integer.BYTES) {
+            roll(endOffset);
+        }
+    }
+
+    /**
+     * Appends an entry.
+     *
+     * @param outboxId ID of the relayed outbox row
+     * @param payload  encoded change event
+     * @return offset of the new entry
+     * @throws IOException if a new segment cannot be created
+     */
+    public long append(long outboxId, byte[] payload) throws IOException {
+        int size = entrySize(payload.length);
+        if (size + Integer.BYTES > segmentBytes) {
+            throw new IllegalArgumentException("Journal entry of " + size + " bytes exceeds the segment size");
+        }
+        if (active.remaining() < size + Integer.BYTES) {
+            roll(endOffset);
+        }
+        int position = active.position();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        active.putInt(position + Integer.BYTES, (int) crc.getValue());
+        active.putLong(position + 2 * Integer.BYTES, outboxId);
+        ByteBuffer body = active.duplicate();
+        body.position(position + HEADER_BYTES);
+        body.put(payload);
+        active.putInt(position, payload.length);
+        active.position(position + size);
+
+        long offset = activeBase + position;
+        endOffset = offset + size;
+        return offset;
+    }
+
+    /**
+     * Writes the appended entries of the current segment to disk.
+     */
+    public void flush() {
+        active.force();
+    }
+
+    /**
+     * Reads entries starting at an offset.
+     *
+     * @param offset     offset of the first entry, as returned by {@link #append} or {@link JournalEntry#getNextOffset()}
+     * @param maxEntries maximum number of entries to read
+     * @return the entries, empty if the offset is at the end of the journal
+     * @throws IllegalArgumentException if the offset is not the start of an entry
+     */
+    public List<JournalEntry> read(long offset, int maxEntries) {
+        List<JournalEntry> entries = new ArrayList<>();
+        long end = endOffset;
+        if (offset < 0 || offset > end) {
+            throw new IllegalArgumentException("Offset " + offset + " is outside the journal");
+        }
+        long current = offset;
+        while (entries.size() < maxEntries && current < end) {
+            Map.Entry<Long, MappedByteBuffer> segment = segments.floorEntry(current);
+            ByteBuffer buffer = segment.getValue().duplicate();
+            int position = (int) (current - segment.getKey());
+
+            int length = entryLength(buffer, position);
+            if (length <= 0) {
+                throw new IllegalArgumentException("Offset " + offset + " is not the start of a journal entry");
+            }
+            byte[] payload = new byte[length];
+            buffer.position(position + HEADER_BYTES);
+            buffer.get(payload);
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+                throw new IllegalArgumentException("Offset " + offset + " is not the start of a journal entry");
+            }
+            long next = current + entrySize(length);
+            entries.add(new JournalEntry(current, next, buffer.getLong(position + 2 * Integer.BYTES), payload));
+            current = next;
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the outbox IDs of the last entries of the current segment.
+     *
+     * @param count maximum number of IDs
+     * @return outbox IDs in journal order
+     */
+    public List<Long> lastOutboxIds(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (JournalEntry entry : read(activeBase, Integer.MAX_VALUE)) {
+            ids.add(entry.getOutboxId());
+        }
+        return ids.subList(Math.max(0, ids.size() - count), ids.size());
+    }
+
+    /**
+     * Returns the outbox ID of the last entry in the journal.
+     *
+     * @return the outbox ID, or {@code 0} if the journal is empty
+     */
+    public long lastOutboxId() {
+        for (Long base : segments.descendingKeySet()) {
+            List<JournalEntry> entries = read(base, Integer.MAX_VALUE);
+            if (!entries.isEmpty()) {
+                return entries.get(entries.size() - 1).getOutboxId();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the size of an entry with the given payload size.
+     *
+     * @param payloadBytes payload size
+     * @return entry size including the header
+     */
+    public static int entrySize(int payloadBytes) {
+        return HEADER_BYTES + payloadBytes;
+    }
+
+    public long getEndOffset() {
+        return endOffset;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() {
+        if (active != null) {
+            active.force();
+        }
+        segments.clear();
+    }
+
+    private void roll(long base) throws IOException {
+        if (active != null) {
+            active.force();
+        }
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, base, SEGMENT_SUFFIX));
+        MappedByteBuffer segment = map(path);
+        segments.put(base, segment);
+        activeBase = base;
+        active = segment;
+        endOffset = base;
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), segmentBytes));
+        }
+    }
+
+    private static boolean isValidEntry(ByteBuffer buffer, int position) {
+        int length = entryLength(buffer, position);
+        if (length == 0) {
+            return false;
+        }
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(position + HEADER_BYTES);
+        payload.limit(position + HEADER_BYTES + length);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue() == buffer.getInt(position + Integer.BYTES);
+    }
+
+    private static int entryLength(ByteBuffer buffer, int position) {
+        if (position + HEADER_BYTES > buffer.capacity()) {
+            return 0;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || position + HEADER_BYTES + length > buffer.capacity()) {
+            return 0;
+        }
+        return length;
+    }
+}
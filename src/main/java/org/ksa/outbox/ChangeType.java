@@ -0,0 +1,10 @@
+package org.ksa.outbox;
+
+/**
+ * Kinds of changes published through the outbox.
+ */
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
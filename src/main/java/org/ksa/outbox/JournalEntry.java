@@ -0,0 +1,43 @@
+package org.ksa.outbox;
+
+/**
+ * Entry read from the {@link ChangeJournal}.
+ */
+public class JournalEntry {
+
+    private final long offset;
+    private final long nextOffset;
+    private final long outboxId;
+    private final byte[] payload;
+
+    /**
+     * Constructor for {@code JournalEntry}.
+     *
+     * @param offset     journal offset of the entry
+     * @param nextOffset journal offset of the following entry
+     * @param outboxId   ID of the outbox row the entry was relayed from
+     * @param payload    encoded change event
+     */
+    public JournalEntry(long offset, long nextOffset, long outboxId, byte[] payload) {
+        this.offset = offset;
+        this.nextOffset = nextOffset;
+        this.outboxId = outboxId;
+        this.payload = payload;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getNextOffset() {
+        return nextOffset;
+    }
+
+    public long getOutboxId() {
+        return outboxId;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+}
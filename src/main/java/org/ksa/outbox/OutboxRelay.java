@@ -0,0 +1,184 @@
+package org.ksa.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.ksa.entity.OutboxEvent;
+import org.ksa.repository.OutboxEventRepository;
+import org.ksa.shard.ShardContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Moves outbox events into the {@link ChangeJournal}.
+ * <p>
+ * A single thread reads the oldest outbox rows, appends them to the journal, flushes it and then deletes the
+ * rows. If the rows cannot be deleted after they were journaled, for example because the process stopped in
+ * between, their IDs are remembered (on restart: read back from the end of the journal) and they are deleted
+ * without being journaled again, so each event appears in the journal exactly once. Only one instance should
+ * run the relay.
+ * <p>
+ * With sharding, every shard holds the outbox rows of its own transactions; the relay moves one batch per shard
+ * in turn, selecting the shard through {@link ShardContext}. Outbox IDs are unique across shards.
+ */
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeJournal changeJournal;
+    private final ObjectMapper objectMapper;
+    private final int shards;
+    private final int batchSize;
+    private final long intervalMillis;
+
+    private final Semaphore signal = new Semaphore(0);
+    private final Set<Long> journaled = new HashSet<>();
+    private final LongAdder relayed = new LongAdder();
+
+    private volatile boolean running;
+    private Thread relay;
+
+    /**
+     * Constructor for {@code OutboxRelay}.
+     *
+     * @param outboxEventRepository repository of the outbox rows
+     * @param transactionTemplate   template for the read and delete transactions
+     * @param changeJournal         journal receiving the events
+     * @param objectMapper          mapper encoding the journal entries
+     * @param shards                number of shards holding outbox rows
+     * @param batchSize             maximum number of events relayed per flush
+     * @param intervalMillis        polling interval when not woken up by a commit
+     */
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, TransactionTemplate transactionTemplate,
+                       ChangeJournal changeJournal, ObjectMapper objectMapper, int shards, int batchSize,
+                       long intervalMillis) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.changeJournal = changeJournal;
+        this.objectMapper = objectMapper;
+        this.shards = shards;
+        this.batchSize = batchSize;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Starts the relay thread.
+     */
+    public void start() {
+        journaled.addAll(changeJournal.lastOutboxIds(batchSize));
+        running = true;
+        relay = new Thread(this::relayLoop, "outbox-relay");
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    /**
+     * Stops the relay thread.
+     *
+     * @throws InterruptedException if interrupted while waiting for the thread
+     */
+    public void stop() throws InterruptedException {
+        running = false;
+        signal.release();
+        if (relay != null) {
+            relay.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    /**
+     * Wakes the relay up after a commit added outbox rows.
+     */
+    public void wakeUp() {
+        signal.release();
+    }
+
+    public long getRelayed() {
+        return relayed.sum();
+    }
+
+    /**
+     * Relays one batch of outbox events from every shard.
+     *
+     * @return number of outbox rows processed
+     * @throws IOException if the journal cannot be extended
+     */
+    int relayOnce() throws IOException {
+        int processed = 0;
+        for (int shard = 0; shard < shards; shard++) {
+            Integer previous = ShardContext.set(shard);
+            try {
+                processed = Math.max(processed, relayBatch());
+            } finally {
+                ShardContext.restore(previous);
+            }
+        }
+        return processed;
+    }
+
+    private int relayBatch() throws IOException {
+        List<OutboxEvent> batch = transactionTemplate.execute(status ->
+                outboxEventRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize)));
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = new ArrayList<>(batch.size());
+        List<byte[]> entries = new ArrayList<>(batch.size());
+        int bytes = 0;
+        for (OutboxEvent event : batch) {
+            ids.add(event.getId());
+            if (!journaled.contains(event.getId())) {
+                byte[] entry = ChangeEventCodec.encode(objectMapper, event);
+                entries.add(entry);
+                bytes += ChangeJournal.entrySize(entry.length);
+            } else {
+                entries.add(null);
+            }
+        }
+
+        changeJournal.reserve(bytes);
+        for (int i = 0; i < batch.size(); i++) {
+            if (entries.get(i) != null) {
+                changeJournal.append(ids.get(i), entries.get(i));
+                journaled.add(ids.get(i));
+                relayed.increment();
+            }
+        }
+        changeJournal.flush();
+
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.deleteAllByIdInBatch(ids));
+        journaled.clear();
+        return batch.size();
+    }
+
+    private void relayLoop() {
+        while (running) {
+            try {
+                if (relayOnce() < batchSize) {
+                    signal.tryAcquire(intervalMillis, TimeUnit.MILLISECONDS);
+                    signal.drainPermits();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException ex) {
+                log.error("Outbox relay failed, retrying", ex);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(intervalMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
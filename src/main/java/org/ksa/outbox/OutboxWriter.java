@@ -0,0 +1,79 @@
+package org.ksa.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.ksa.entity.OutboxEvent;
+import org.ksa.repository.OutboxEventRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+
+/**
+ * Writes change events to the transactional outbox.
+ * <p>
+ * Must be called inside the transaction making the change, so the event is stored if and only if the change
+ * commits. After commit the {@link OutboxRelay} is woken up to move the event to the journal. When the outbox
+ * is disabled nothing is stored, since no relay would ever drain the rows.
+ */
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<OutboxRelay> outboxRelay;
+    private final boolean enabled;
+
+    /**
+     * Constructor for {@code OutboxWriter}.
+     *
+     * @param outboxEventRepository repository of the outbox rows
+     * @param objectMapper          mapper encoding the payloads
+     * @param outboxRelay           relay to wake up after commit, if this instance runs it
+     * @param enabled               whether events are stored at all
+     */
+    public OutboxWriter(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper,
+                        ObjectProvider<OutboxRelay> outboxRelay, boolean enabled) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.outboxRelay = outboxRelay;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Stores a change event in the outbox.
+     *
+     * @param aggregateType kind of the changed record
+     * @param aggregateId   identifier of the changed record
+     * @param changeType    kind of change
+     * @param payload       state of the record after the change, or before it for deletions
+     */
+    public void record(AggregateType aggregateType, String aggregateId, ChangeType changeType, Object payload) {
+        if (!enabled) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not encode outbox payload for " + aggregateId, ex);
+        }
+
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .changeType(changeType)
+                .payload(json)
+                .createdAt(Instant.now())
+                .build());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    outboxRelay.ifAvailable(OutboxRelay::wakeUp);
+                }
+            });
+        }
+    }
+}
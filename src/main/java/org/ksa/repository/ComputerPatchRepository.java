@@ -0,0 +1,22 @@
+package org.ksa.repository;
+
+import org.ksa.entity.Computer;
+
+import java.util.Map;
+
+/**
+ * Repository fragment patching a {@link Computer} without loading it.
+ */
+public interface ComputerPatchRepository {
+
+    /**
+     * Sets the given attributes of a computer and raises its version, in one update statement.
+     *
+     * @param maker   manufacturer of the computer
+     * @param model   model name of computer
+     * @param changes new values by attribute name; must not be empty
+     * @param version version the computer must still have, or {@code null} for any
+     * @return {@code true} if the computer was updated, {@code false} if it does not exist or has another version
+     */
+    boolean patch(String maker, String model, Map<String, Object> changes, Long version);
+}
@@ -0,0 +1,25 @@
+package org.ksa.repository;
+
+import org.ksa.entity.Computer;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Implementation of {@link ComputerPatchRepository}, picked up by Spring Data for {@link ComputerRepository}.
+ */
+public class ComputerPatchRepositoryImpl implements ComputerPatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public boolean patch(String maker, String model, Map<String, Object> changes, Long version) {
+        Map<String, Object> key = new LinkedHashMap<>();
+        key.put("maker", maker);
+        key.put("model", model);
+        return PatchStatement.execute(entityManager, Computer.class, key, changes, version) > 0;
+    }
+}
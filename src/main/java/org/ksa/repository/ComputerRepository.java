@@ -1,14 +1,22 @@
 package org.ksa.repository;
 
 import org.ksa.entity.Computer;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
+
 /**
  * Repository interface for accessing and managing {@link Computer} entities.
  */
-public interface ComputerRepository extends JpaRepository<Computer, Long> {
+public interface ComputerRepository extends JpaRepository<Computer, Long>, ComputerPatchRepository {
 
     /**
      * Find a computer by maker and model.
@@ -19,14 +27,55 @@ public interface ComputerRepository extends JpaRepository<Computer, Long> {
      * @param model model name of computer
      * @return an {@link Optional} containing the matching computer.
      */
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
     Optional<Computer> findByMakerAndModel(String maker, String model);
 
+    /**
+     * Projects a computer without loading the entity.
+     * <p>
+     * GET /computers/{maker}/{model} endpoint; the row is
+     * {@code id, type, maker, model, language, colors, version}, with the colors decoded from their codes.
+     *
+     * @param maker manufacturer of the computer
+     * @param model model name of computer
+     * @return the row of the matching computer, empty if there is none
+     */
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query("SELECT c.id, c.type, c.maker, c.model, c.language, c.colors, c.version FROM Computer c "
+            + "WHERE c.maker = :maker AND c.model = :model")
+    List<Object[]> findRowsByMakerAndModel(@Param("maker") String maker, @Param("model") String model);
+
+    /**
+     * Projects every computer without loading the entities.
+     * <p>
+     * GET /computers endpoint; rows are laid out as in {@link #findRowsByMakerAndModel(String, String)}.
+     *
+     * @return the rows of all computers, ordered by ID
+     */
+    @Query("SELECT c.id, c.type, c.maker, c.model, c.language, c.colors, c.version FROM Computer c ORDER BY c.id")
+    List<Object[]> findAllRows();
+
+    /**
+     * Projects a page of computers following an ID, without loading the entities.
+     * <p>
+     * Used to build the search index at startup; rows are laid out as in
+     * {@link #findRowsByMakerAndModel(String, String)}.
+     *
+     * @param afterId  ID of the last computer of the previous page, {@code 0} for the first page
+     * @param pageable size of the page; its offset must be {@code 0}
+     * @return the rows of the computers with a higher ID, ordered by ID
+     */
+    @Query("SELECT c.id, c.type, c.maker, c.model, c.language, c.colors, c.version FROM Computer c "
+            + "WHERE c.id > :afterId ORDER BY c.id")
+    List<Object[]> findRowsAfter(@Param("afterId") long afterId, Pageable pageable);
+
     /**
      * Check if computer exists.
      *
      * @param maker manufacturer to check
      * @return {@code true} if at least 1 computer exists, otherwise {@code false}
      */
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
     boolean existsByMaker(String maker);
 
     /**
@@ -36,5 +85,16 @@ public interface ComputerRepository extends JpaRepository<Computer, Long> {
      * @param model model name of computer
      * @return {@code true} if matching computer exists, otherwise {@code false}
      */
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
     boolean existsByMakerAndModel(String maker, String model);
+
+    /**
+     * Lists the maker and model of every computer, without loading the entities.
+     * <p>
+     * Used to build the suggestion index at startup.
+     *
+     * @return maker and model pairs
+     */
+    @Query("SELECT c.maker, c.model FROM Computer c")
+    List<Object[]> findAllMakersAndModels();
 }
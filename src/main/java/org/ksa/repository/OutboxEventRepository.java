@@ -0,0 +1,21 @@
+package org.ksa.repository;
+
+import org.ksa.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+/**
+ * Repository interface for accessing and managing {@link OutboxEvent} entities.
+ */
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Retrieves the oldest outbox events.
+     *
+     * @param pageable maximum number of events
+     * @return outbox events ordered by ID
+     */
+    List<OutboxEvent> findAllByOrderByIdAsc(Pageable pageable);
+}
@@ -0,0 +1,60 @@
+package org.ksa.repository;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.TypedParameterValue;
+import org.hibernate.persister.entity.EntityPersister;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Runs a merge patch as one JPQL bulk update of the patched attributes, raising the version and, if one is
+ * given, only matching the row while it still has that version.
+ * <p>
+ * Values are bound with the Hibernate type of their attribute, so converted attributes such as the colors of a
+ * computer go through their converter and a list is never expanded into a parameter list. Like every bulk
+ * update, it evicts the entity's second-level cache region and invalidates cached queries on its table.
+ */
+final class PatchStatement {
+
+    private PatchStatement() {
+    }
+
+    /**
+     * Updates the row of an entity matching a key.
+     *
+     * @param entityManager entity manager of the current transaction
+     * @param entityClass   patched entity
+     * @param key           values identifying the row, by attribute
+     * @param changes       new values, by attribute; must not be empty
+     * @param version       version the row must still have, or {@code null} for any
+     * @return number of rows updated, {@code 0} if none matches the key and version
+     */
+    static int execute(EntityManager entityManager, Class<?> entityClass, Map<String, Object> key,
+                       Map<String, Object> changes, Long version) {
+        StringJoiner assignments = new StringJoiner(", ");
+        changes.keySet().forEach(attribute -> assignments.add("e." + attribute + " = :set_" + attribute));
+        assignments.add("e.version = e.version + 1");
+        StringJoiner conditions = new StringJoiner(" AND ");
+        key.keySet().forEach(attribute -> conditions.add("e." + attribute + " = :key_" + attribute));
+        if (version != null) {
+            conditions.add("e.version = :version");
+        }
+        String jpql = "UPDATE " + entityClass.getSimpleName() + " e SET " + assignments + " WHERE " + conditions;
+
+        EntityPersister persister = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getMetamodel()
+                .entityPersister(entityClass);
+        Query query = entityManager.createQuery(jpql);
+        changes.forEach((attribute, value) -> query.setParameter("set_" + attribute,
+                new TypedParameterValue(persister.getPropertyType(attribute), value)));
+        key.forEach((attribute, value) -> query.setParameter("key_" + attribute, value));
+        if (version != null) {
+            query.setParameter("version", version);
+        }
+        return query.executeUpdate();
+    }
+}
@@ -0,0 +1,21 @@
+package org.ksa.repository;
+
+import org.ksa.entity.SshKey;
+
+import java.util.Map;
+
+/**
+ * Repository fragment patching an {@link SshKey} without loading it.
+ */
+public interface SshKeyPatchRepository {
+
+    /**
+     * Sets the given attributes of an SSH key and raises its version, in one update statement.
+     *
+     * @param id      ID of the SSH key
+     * @param changes new values by attribute name; must not be empty
+     * @param version version the key must still have, or {@code null} for any
+     * @return {@code true} if the key was updated, {@code false} if it does not exist or has another version
+     */
+    boolean patch(Long id, Map<String, Object> changes, Long version);
+}
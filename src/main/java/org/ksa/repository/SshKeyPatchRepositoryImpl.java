@@ -0,0 +1,21 @@
+package org.ksa.repository;
+
+import org.ksa.entity.SshKey;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Map;
+
+/**
+ * Implementation of {@link SshKeyPatchRepository}, picked up by Spring Data for {@link SshKeyRepository}.
+ */
+public class SshKeyPatchRepositoryImpl implements SshKeyPatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public boolean patch(Long id, Map<String, Object> changes, Long version) {
+        return PatchStatement.execute(entityManager, SshKey.class, Map.of("id", id), changes, version) > 0;
+    }
+}
@@ -1,14 +1,23 @@
 package org.ksa.repository;
 
+import org.ksa.dto.SshKeyResponseDTO;
 import org.ksa.entity.SshKey;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
 
 /**
  * Repository interface for accessing and managing {@link SshKey} entities.
  */
-public interface SshKeyRepository extends JpaRepository<SshKey, Long> {
+public interface SshKeyRepository extends JpaRepository<SshKey, Long>, SshKeyPatchRepository {
 
     /**
      * Checks if SSH key exists for the given server type, server name and public key.
@@ -18,14 +27,55 @@ public interface SshKeyRepository extends JpaRepository<SshKey, Long> {
      * @param publicKey  public key to check
      * @return {@code true} if a matching SSH key exists, otherwise {@code false}
      */
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
     boolean existsByServerTypeAndServerNameAndPublicKey(String serverType, String serverName, String publicKey);
 
     /**
-     * Retrieves all SSH key associated with the given servertype and server name.
+     * Projects an SSH key straight into its response DTO, without loading the entity.
+     *
+     * @param id ID of the SSH key
+     * @return an {@link Optional} containing the matching key
+     */
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query("SELECT new org.ksa.dto.SshKeyResponseDTO(k.id, k.type, k.publicKey, k.comment, k.serverType, k.serverName) "
+            + "FROM SshKey k WHERE k.id = :id")
+    Optional<SshKeyResponseDTO> findResponseById(@Param("id") Long id);
+
+    /**
+     * Projects an SSH key without loading the entity, to read it back after a patch.
+     * <p>
+     * The row is {@code id, serverType, serverName, type, publicKey, comment, version}.
+     *
+     * @param id ID of the SSH key
+     * @return the row of the matching key, empty if there is none
+     */
+    @Query("SELECT k.id, k.serverType, k.serverName, k.type, k.publicKey, k.comment, k.version "
+            + "FROM SshKey k WHERE k.id = :id")
+    List<Object[]> findRowById(@Param("id") Long id);
+
+    /**
+     * Projects a page of SSH keys following an ID, without loading the entities.
+     * <p>
+     * Used to build the search index at startup; rows are laid out as in {@link #findRowById(Long)}.
+     *
+     * @param afterId  ID of the last key of the previous page, {@code 0} for the first page
+     * @param pageable size of the page; its offset must be {@code 0}
+     * @return the rows of the keys with a higher ID, ordered by ID
+     */
+    @Query("SELECT k.id, k.serverType, k.serverName, k.type, k.publicKey, k.comment, k.version "
+            + "FROM SshKey k WHERE k.id > :afterId ORDER BY k.id")
+    List<Object[]> findRowsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Projects the SSH keys of a server straight into response DTOs, without loading the entities.
      *
      * @param serverType type of the server
      * @param serverName name of the server
-     * @return list of matching {@link SshKey} entities
+     * @return list of matching {@link SshKeyResponseDTO} objects
      */
-    List<SshKey> findByServerTypeAndServerName(String serverType, String serverName);
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query("SELECT new org.ksa.dto.SshKeyResponseDTO(k.id, k.type, k.publicKey, k.comment, k.serverType, k.serverName) "
+            + "FROM SshKey k WHERE k.serverType = :serverType AND k.serverName = :serverName")
+    List<SshKeyResponseDTO> findResponsesByServerTypeAndServerName(@Param("serverType") String serverType,
+                                                                   @Param("serverName") String serverName);
 }
@@ -0,0 +1,9 @@
+package org.ksa.search;
+
+/**
+ * Kinds of records indexed by the {@link SearchIndex}.
+ */
+public enum SearchDocumentType {
+    COMPUTER,
+    SSH_KEY
+}
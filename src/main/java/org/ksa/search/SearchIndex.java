@@ -0,0 +1,530 @@
+package org.ksa.search;
+
+import org.ksa.dto.ComputerDTO;
+import org.ksa.dto.SearchHitDTO;
+import org.ksa.dto.SearchResultsDTO;
+import org.ksa.dto.SshKeyResponseDTO;
+import org.ksa.entity.Computer;
+import org.ksa.entity.SshKey;
+import org.ksa.mapper.ComputerMapper;
+import org.ksa.mapper.SshKeyMapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * In-process full-text index over computers and SSH keys.
+ * <p>
+ * Computers are indexed by maker, model, type and colors, SSH keys by comment and server name. Text is split
+ * into runs of letters and digits and lower-cased, so {@code happy@isr} becomes {@code happy} and
+ * {@code isr}. Every term has a posting list of document numbers and term frequencies in two {@code int}
+ * arrays, sorted by document number: new documents get the next number, so adding one only appends.
+ * <p>
+ * A search matches the documents containing all query terms, walking the shortest posting list and
+ * binary-searching the others, and ranks them with BM25. Changes made inside a transaction are applied
+ * after commit. A full rebuild takes the records in chunks, then posts chunks of documents in parallel and
+ * concatenates the chunk postings in order; it also runs when removed documents leave too many unused numbers
+ * behind.
+ */
+public class SearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int CHUNK_SIZE = 4096;
+    private static final int MIN_COMPACTION_GAP = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State();
+    private final List<Rebuild> rebuilds = new ArrayList<>();
+
+    /**
+     * Replaces the indexed records, building the new index in parallel.
+     *
+     * @param computers all computers
+     * @param sshKeys   all SSH keys
+     */
+    public void rebuild(Collection<Computer> computers, Collection<SshKey> sshKeys) {
+        Rebuild rebuild = startRebuild();
+        rebuild.addComputers(computers);
+        rebuild.addSshKeys(sshKeys);
+        rebuild.finish();
+    }
+
+    /**
+     * Starts replacing the indexed records with records added in chunks, so the caller never holds all of them.
+     * The current index keeps serving searches until {@link Rebuild#finish()}. Changes applied in the meantime
+     * are queued and replayed on the new index, so a record read before it changed is not left stale.
+     *
+     * @return the rebuild to add the records to
+     */
+    public Rebuild startRebuild() {
+        Rebuild rebuild = new Rebuild();
+        lock.writeLock().lock();
+        try {
+            rebuilds.add(rebuild);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return rebuild;
+    }
+
+    /**
+     * Adds or replaces a computer, after commit when called inside a transaction.
+     *
+     * @param computer the computer, with its ID
+     */
+    public void indexComputer(Computer computer) {
+        Document document = document(computer);
+        afterCommit(() -> write(current -> current.index(document)));
+    }
+
+    /**
+     * Adds or replaces an SSH key, after commit when called inside a transaction.
+     *
+     * @param sshKey the SSH key, with its ID
+     */
+    public void indexSshKey(SshKey sshKey) {
+        Document document = document(sshKey);
+        afterCommit(() -> write(current -> current.index(document)));
+    }
+
+    /**
+     * Removes a record, after commit when called inside a transaction.
+     *
+     * @param type kind of record
+     * @param id   ID of the record
+     */
+    public void remove(SearchDocumentType type, long id) {
+        afterCommit(() -> write(current -> current.remove(type, id)));
+    }
+
+    /**
+     * Finds the records containing every term of a query.
+     *
+     * @param query  search terms
+     * @param type   kind of records to return, or {@code null} for all
+     * @param offset number of results to skip
+     * @param limit  maximum number of results
+     * @return the page of results, most relevant first
+     */
+    public SearchResultsDTO search(String query, SearchDocumentType type, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+
+        lock.readLock().lock();
+        try {
+            State current = state;
+            int[] matches = new int[0];
+            double[] scores = new double[0];
+            int total = 0;
+
+            Postings[] lists = new Postings[terms.size()];
+            boolean allPresent = !terms.isEmpty();
+            for (int i = 0; i < lists.length && allPresent; i++) {
+                lists[i] = current.postings.get(terms.get(i));
+                allPresent = lists[i] != null;
+            }
+            if (allPresent) {
+                Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+                double[] idf = new double[lists.length];
+                for (int i = 0; i < lists.length; i++) {
+                    idf[i] = Math.log(1 + (current.live - lists[i].size + 0.5) / (lists[i].size + 0.5));
+                }
+                double averageLength = Math.max(1.0, (double) current.totalLength / Math.max(1, current.live));
+
+                matches = new int[lists[0].size];
+                scores = new double[lists[0].size];
+                int[] cursors = new int[lists.length];
+                for (int i = 0; i < lists[0].size; i++) {
+                    int doc = lists[0].docs[i];
+                    Document document = current.documents.get(doc);
+                    if (type != null && document.type != type) {
+                        continue;
+                    }
+                    double norm = K1 * (1 - B + B * document.length / averageLength);
+                    double score = idf[0] * bm25(lists[0].frequencies[i], norm);
+                    boolean matched = true;
+                    for (int j = 1; j < lists.length && matched; j++) {
+                        int found = Arrays.binarySearch(lists[j].docs, cursors[j], lists[j].size, doc);
+                        matched = found >= 0;
+                        cursors[j] = matched ? found : -found - 1;
+                        if (matched) {
+                            score += idf[j] * bm25(lists[j].frequencies[found], norm);
+                        }
+                    }
+                    if (matched) {
+                        matches[total] = doc;
+                        scores[total++] = score;
+                    }
+                }
+            }
+
+            List<SearchHitDTO> hits = new ArrayList<>();
+            for (int index : top(scores, total, offset, limit)) {
+                Document document = current.documents.get(matches[index]);
+                hits.add(SearchHitDTO.builder()
+                        .type(document.type)
+                        .score(scores[index])
+                        .computer(document.type == SearchDocumentType.COMPUTER ? (ComputerDTO) document.payload : null)
+                        .sshKey(document.type == SearchDocumentType.SSH_KEY ? (SshKeyResponseDTO) document.payload : null)
+                        .build());
+            }
+            return SearchResultsDTO.builder()
+                    .total(total)
+                    .offset(offset)
+                    .limit(limit)
+                    .hits(hits)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getDocumentCount() {
+        lock.readLock().lock();
+        try {
+            return state.live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getTermCount() {
+        lock.readLock().lock();
+        try {
+            return state.postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into lower-cased runs of letters and digits.
+     *
+     * @param text text to split, may be {@code null}
+     * @return the terms in order of appearance
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private void write(Consumer<State> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(state);
+            rebuilds.forEach(rebuild -> rebuild.changes.add(change));
+            if (state.documents.size() - state.live > Math.max(MIN_COMPACTION_GAP, state.live)) {
+                state = build(state.documents.stream().filter(document -> document != null)
+                        .collect(Collectors.toList()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Numbers the documents in order and posts them in parallel chunks.
+     */
+    private static State build(List<Document> documents) {
+        int chunks = (documents.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        List<Map<String, Postings>> partials = IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> {
+                    Map<String, Postings> partial = new HashMap<>();
+                    int end = Math.min(documents.size(), (chunk + 1) * CHUNK_SIZE);
+                    for (int doc = chunk * CHUNK_SIZE; doc < end; doc++) {
+                        documents.get(doc).post(partial, doc);
+                    }
+                    return partial;
+                })
+                .collect(Collectors.toList());
+
+        State built = new State();
+        for (Map<String, Postings> partial : partials) {
+            partial.forEach((term, postings) -> built.postings.merge(term, postings, Postings::addAll));
+        }
+        documents.forEach(built::number);
+        return built;
+    }
+
+    /**
+     * Returns the indexes of the results on a page, by descending score and then ascending position.
+     */
+    private static List<Integer> top(double[] scores, int total, int offset, int limit) {
+        int wanted = (int) Math.min(total, (long) offset + limit);
+        if (offset >= wanted) {
+            return Collections.emptyList();
+        }
+        Comparator<Integer> better = Comparator.<Integer>comparingDouble(index -> scores[index]).reversed()
+                .thenComparingInt(index -> index);
+        PriorityQueue<Integer> worstFirst = new PriorityQueue<>(wanted, better.reversed());
+        for (int index = 0; index < total; index++) {
+            if (worstFirst.size() < wanted) {
+                worstFirst.add(index);
+            } else if (better.compare(index, worstFirst.peek()) < 0) {
+                worstFirst.poll();
+                worstFirst.add(index);
+            }
+        }
+        List<Integer> ranked = new ArrayList<>(worstFirst);
+        ranked.sort(better);
+        return ranked.subList(offset, wanted);
+    }
+
+    private static double bm25(int frequency, double norm) {
+        return frequency * (K1 + 1) / (frequency + norm);
+    }
+
+    private static Document document(Computer computer) {
+        ComputerDTO payload = ComputerMapper.mapToComputerDto(computer);
+        List<String> text = new ArrayList<>();
+        if (computer.getColors() != null) {
+            payload.getColors().setColor(new ArrayList<>(computer.getColors()));
+            text.addAll(computer.getColors());
+        }
+        text.add(computer.getMaker());
+        text.add(computer.getModel());
+        text.add(computer.getType());
+        return new Document(SearchDocumentType.COMPUTER, computer.getId(), payload, text);
+    }
+
+    private static Document document(SshKey sshKey) {
+        return new Document(SearchDocumentType.SSH_KEY, sshKey.getId(), SshKeyMapper.mapToResponseDto(sshKey),
+                Arrays.asList(sshKey.getComment(), sshKey.getServerName()));
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    /**
+     * Records of a rebuild, kept as documents, and the changes applied since it started; chunks may be added
+     * from several threads.
+     */
+    public final class Rebuild {
+
+        private final List<Document> documents = new ArrayList<>();
+        private final List<Consumer<State>> changes = new ArrayList<>();
+
+        private Rebuild() {
+        }
+
+        /**
+         * Adds a chunk of computers.
+         *
+         * @param computers computers, with their IDs
+         */
+        public void addComputers(Collection<Computer> computers) {
+            add(computers.parallelStream().map(SearchIndex::document).collect(Collectors.toList()));
+        }
+
+        /**
+         * Adds a chunk of SSH keys.
+         *
+         * @param sshKeys SSH keys, with their IDs
+         */
+        public void addSshKeys(Collection<SshKey> sshKeys) {
+            add(sshKeys.parallelStream().map(SearchIndex::document).collect(Collectors.toList()));
+        }
+
+        /**
+         * Builds the index from the added records in parallel, replays the changes applied since the rebuild
+         * started and replaces the current index.
+         */
+        public void finish() {
+            State built;
+            synchronized (this) {
+                built = build(documents);
+            }
+
+            lock.writeLock().lock();
+            try {
+                if (rebuilds.remove(this)) {
+                    changes.forEach(change -> change.accept(built));
+                    state = built;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Abandons the rebuild, keeping the current index.
+         */
+        public void cancel() {
+            lock.writeLock().lock();
+            try {
+                rebuilds.remove(this);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private synchronized void add(List<Document> chunk) {
+            documents.addAll(chunk);
+        }
+    }
+
+    /**
+     * Indexed record with its distinct terms and their frequencies.
+     */
+    private static final class Document {
+
+        private final SearchDocumentType type;
+        private final long id;
+        private final Object payload;
+        private final String[] terms;
+        private final int[] frequencies;
+        private final int length;
+
+        private Document(SearchDocumentType type, long id, Object payload, List<String> fields) {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            int length = 0;
+            for (String field : fields) {
+                for (String term : tokenize(field)) {
+                    counts.merge(term, 1, Integer::sum);
+                    length++;
+                }
+            }
+            this.type = type;
+            this.id = id;
+            this.payload = payload;
+            this.terms = counts.keySet().toArray(new String[0]);
+            this.frequencies = counts.values().stream().mapToInt(Integer::intValue).toArray();
+            this.length = length;
+        }
+
+        private void post(Map<String, Postings> postings, int doc) {
+            for (int i = 0; i < terms.length; i++) {
+                postings.computeIfAbsent(terms[i], term -> new Postings()).add(doc, frequencies[i]);
+            }
+        }
+    }
+
+    /**
+     * Documents containing a term, in ascending document number, with the term frequency in each.
+     */
+    private static final class Postings {
+
+        private int[] docs = new int[2];
+        private int[] frequencies = new int[2];
+        private int size;
+
+        private void add(int doc, int frequency) {
+            ensureCapacity(size + 1);
+            docs[size] = doc;
+            frequencies[size++] = frequency;
+        }
+
+        private Postings addAll(Postings other) {
+            ensureCapacity(size + other.size);
+            System.arraycopy(other.docs, 0, docs, size, other.size);
+            System.arraycopy(other.frequencies, 0, frequencies, size, other.size);
+            size += other.size;
+            return this;
+        }
+
+        private void remove(int doc) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index >= 0) {
+                System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+                System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+                size--;
+            }
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > docs.length) {
+                int grown = Math.max(capacity, docs.length + (docs.length >> 1));
+                docs = Arrays.copyOf(docs, grown);
+                frequencies = Arrays.copyOf(frequencies, grown);
+            }
+        }
+    }
+
+    /**
+     * Posting lists and documents by number; removed documents leave {@code null} behind.
+     */
+    private static final class State {
+
+        private final Map<String, Postings> postings = new HashMap<>();
+        private final List<Document> documents = new ArrayList<>();
+        private final Map<Long, Integer> computers = new HashMap<>();
+        private final Map<Long, Integer> sshKeys = new HashMap<>();
+        private int live;
+        private long totalLength;
+
+        private int number(Document document) {
+            int doc = documents.size();
+            documents.add(document);
+            numbers(document.type).put(document.id, doc);
+            live++;
+            totalLength += document.length;
+            return doc;
+        }
+
+        private void index(Document document) {
+            remove(document.type, document.id);
+            document.post(postings, number(document));
+        }
+
+        private void remove(SearchDocumentType type, long id) {
+            Integer doc = numbers(type).remove(id);
+            if (doc == null) {
+                return;
+            }
+            Document document = documents.set(doc, null);
+            for (String term : document.terms) {
+                Postings list = postings.get(term);
+                list.remove(doc);
+                if (list.size == 0) {
+                    postings.remove(term);
+                }
+            }
+            live--;
+            totalLength -= document.length;
+        }
+
+        private Map<Long, Integer> numbers(SearchDocumentType type) {
+            return type == SearchDocumentType.COMPUTER ? computers : sshKeys;
+        }
+    }
+}
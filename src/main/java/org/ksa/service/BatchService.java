@@ -0,0 +1,18 @@
+package org.ksa.service;
+
+import org.ksa.dto.BatchRequestDTO;
+import org.ksa.dto.BatchResponseDTO;
+
+/**
+ * Service interface for running several computer and SSH key operations in one call.
+ */
+public interface BatchService {
+
+    /**
+     * Runs the operations of a batch in order.
+     *
+     * @param request operations and whether to apply all or none of them
+     * @return the outcome of each operation that ran
+     */
+    BatchResponseDTO execute(BatchRequestDTO request);
+}
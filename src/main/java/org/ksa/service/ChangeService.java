@@ -0,0 +1,18 @@
+package org.ksa.service;
+
+import org.ksa.dto.ChangeBatchDTO;
+
+/**
+ * Service interface for reading the change journal.
+ */
+public interface ChangeService {
+
+    /**
+     * Retrieves journal entries starting at an offset.
+     *
+     * @param offset offset of the first entry
+     * @param limit  maximum number of entries
+     * @return the entries and the offset to continue from
+     */
+    ChangeBatchDTO getChanges(long offset, int limit);
+}
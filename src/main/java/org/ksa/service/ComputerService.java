@@ -1,6 +1,9 @@
 package org.ksa.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import org.ksa.dto.ComputerDTO;
+import org.ksa.dto.ComputerSuggestionDTO;
+import org.ksa.dto.VersionedDTO;
 import org.ksa.entity.Computer;
 
 import java.util.List;
@@ -26,6 +29,20 @@ public interface ComputerService {
      */
     List<ComputerDTO> getAllComputers();
 
+    /**
+     * Suggests makers and {@code maker/model} pairs starting with a prefix, ignoring case.
+     *
+     * @param prefix beginning of a maker, or of a maker, a slash and a model
+     * @param limit  maximum number of suggestions
+     * @return suggestions in alphabetical order
+     */
+    List<ComputerSuggestionDTO> suggestComputers(String prefix, int limit);
+
+    /**
+     * Loads the makers and models of all stored computers into the suggestion index.
+     */
+    void buildSuggestionIndex();
+
     /**
      * Creates a new computer record.
      *
@@ -44,6 +61,17 @@ public interface ComputerService {
      */
     ComputerDTO updateComputer(String maker, String model, ComputerDTO computerDTO);
 
+    /**
+     * Applies a JSON merge patch to a computer without loading it first.
+     *
+     * @param maker   manufacturer of the computer
+     * @param model   model name of computer
+     * @param patch   merge patch document
+     * @param version version the computer must still have, or {@code null} for any
+     * @return the patched {@link ComputerDTO} and its new version
+     */
+    VersionedDTO<ComputerDTO> patchComputer(String maker, String model, JsonNode patch, Long version);
+
     /**
      * Deletes computer by maker and model.
      *
@@ -0,0 +1,26 @@
+package org.ksa.service;
+
+import org.ksa.dto.SearchResultsDTO;
+import org.ksa.search.SearchDocumentType;
+
+/**
+ * Service interface for full-text search over computers and SSH keys.
+ */
+public interface SearchService {
+
+    /**
+     * Finds the computers and SSH keys containing every term of a query.
+     *
+     * @param query  search terms
+     * @param type   kind of records to return, or {@code null} for all
+     * @param offset number of results to skip
+     * @param limit  maximum number of results
+     * @return the page of results, most relevant first
+     */
+    SearchResultsDTO search(String query, SearchDocumentType type, int offset, int limit);
+
+    /**
+     * Rebuilds the search index from all stored computers and SSH keys.
+     */
+    void rebuildIndex();
+}
@@ -1,7 +1,9 @@
 package org.ksa.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import org.ksa.dto.SshKeyRequestDTO;
 import org.ksa.dto.SshKeyResponseDTO;
+import org.ksa.dto.VersionedDTO;
 import org.ksa.entity.SshKey;
 
 import java.util.List;
@@ -47,6 +49,16 @@ public interface SshKeyService {
      */
     SshKeyResponseDTO updateSshKey(Long id, SshKeyRequestDTO sshKeyRequestDTO);
 
+    /**
+     * Applies a JSON merge patch to an SSH key without loading it first.
+     *
+     * @param id      ID of the SSH key
+     * @param patch   merge patch document
+     * @param version version the key must still have, or {@code null} for any
+     * @return the patched {@link SshKeyResponseDTO} and its new version
+     */
+    VersionedDTO<SshKeyResponseDTO> patchSshKey(Long id, JsonNode patch, Long version);
+
     /**
      * Deletes an SSH key by its ID.
      *
@@ -0,0 +1,264 @@
+package org.ksa.service.impl;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.AllArgsConstructor;
+import org.ksa.dto.BatchOperationDTO;
+import org.ksa.dto.BatchRequestDTO;
+import org.ksa.dto.BatchResponseDTO;
+import org.ksa.dto.BatchResultDTO;
+import org.ksa.dto.SshKeyRequestDTO;
+import org.ksa.exception.ComputerNotFoundException;
+import org.ksa.exception.InvalidBatchException;
+import org.ksa.exception.InvalidMakerException;
+import org.ksa.exception.InvalidSshKeyException;
+import org.ksa.exception.SshKeyNotFoundException;
+import org.ksa.service.BatchService;
+import org.ksa.service.ComputerService;
+import org.ksa.service.SshKeyService;
+import org.ksa.shard.ShardContext;
+import org.ksa.shard.ShardRouter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.ksa.constants.ErrorMessages.*;
+
+/**
+ * Implementation of {@link BatchService} calling {@link ComputerService} and {@link SshKeyService} for each
+ * operation, so every business rule, audit record, outbox event and index update of the single endpoints
+ * applies unchanged.
+ * <p>
+ * An atomic batch runs in one transaction that the service methods join: the first failing operation
+ * rolls everything back, and nothing is audited, published or indexed. Each operation is flushed before the
+ * next one runs, so a constraint violation is reported against the operation that caused it instead of
+ * surfacing at commit. With sharding, all its operations must use the same shard; computers live on
+ * shard {@code 0}. A non-atomic batch applies each operation in its own transaction and carries on after
+ * failures.
+ */
+@Service
+@AllArgsConstructor
+@Timed(value = "service.invocations", extraTags = {"service", "batch"})
+public class BatchServiceImpl implements BatchService {
+
+    private ComputerService computerService;
+    private SshKeyService sshKeyService;
+    private ObjectProvider<PlatformTransactionManager> transactionManager;
+    private ObjectProvider<ShardRouter> shardRouter;
+
+    /**
+     * Runs the operations of a batch in order.
+     * <p>
+     * Business rules:
+     * <ul>
+     *     <li>400 if an operation lacks a field its type requires, before anything runs</li>
+     *     <li>400 if an atomic batch spans several shards, or the embedded store is used</li>
+     *     <li>each operation gets the status of the matching single endpoint</li>
+     *     <li>an atomic batch stops at the first failure and is reported as not committed</li>
+     * </ul>
+     *
+     * @param request operations and whether to apply all or none of them
+     * @return the outcome of each operation that ran
+     * @throws InvalidBatchException if the batch cannot be run as requested
+     */
+    @Override
+    public BatchResponseDTO execute(BatchRequestDTO request) {
+        List<BatchOperationDTO> operations = request.getOperations();
+        for (int index = 0; index < operations.size(); index++) {
+            validate(index, operations.get(index));
+        }
+
+        List<BatchResultDTO> results = new ArrayList<>(operations.size());
+        if (!request.isAtomic()) {
+            for (int index = 0; index < operations.size(); index++) {
+                try {
+                    results.add(apply(index, operations.get(index)));
+                } catch (RuntimeException ex) {
+                    results.add(failure(index, ex));
+                }
+            }
+            return new BatchResponseDTO(true, results);
+        }
+
+        PlatformTransactionManager manager = transactionManager.getIfAvailable();
+        if (manager == null) {
+            throw new InvalidBatchException(BATCH_ATOMIC_UNSUPPORTED);
+        }
+        Integer previous = ShardContext.set(shardOf(operations));
+        try {
+            new TransactionTemplate(manager).executeWithoutResult(status -> {
+                for (int index = 0; index < operations.size(); index++) {
+                    try {
+                        BatchResultDTO result = apply(index, operations.get(index));
+                        status.flush();
+                        results.add(result);
+                    } catch (RuntimeException ex) {
+                        results.add(failure(index, ex));
+                        throw new BatchAbortedException();
+                    }
+                }
+            });
+            return new BatchResponseDTO(true, results);
+        } catch (BatchAbortedException ex) {
+            return new BatchResponseDTO(false, results);
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    /**
+     * Runs one operation through the computer or SSH key service.
+     *
+     * @param index     position of the operation
+     * @param operation the operation
+     * @return the outcome of the operation
+     */
+    private BatchResultDTO apply(int index, BatchOperationDTO operation) {
+        BatchResultDTO.BatchResultDTOBuilder result = BatchResultDTO.builder().index(index);
+        switch (operation.getOp()) {
+            case CREATE_COMPUTER:
+                return result.status(HttpStatus.CREATED.value())
+                        .computer(computerService.createComputer(operation.getComputer()))
+                        .build();
+            case UPDATE_COMPUTER:
+                return result.status(HttpStatus.OK.value())
+                        .computer(computerService.updateComputer(operation.getMaker(), operation.getModel(),
+                                operation.getComputer()))
+                        .build();
+            case DELETE_COMPUTER:
+                computerService.deleteComputer(operation.getMaker(), operation.getModel());
+                return result.status(HttpStatus.NO_CONTENT.value()).build();
+            case ADD_SSH_KEY:
+                return result.status(HttpStatus.CREATED.value())
+                        .sshKey(sshKeyService.addSshKey(operation.getServerType(), operation.getServerName(),
+                                new SshKeyRequestDTO(operation.getSshKey())))
+                        .build();
+            case UPDATE_SSH_KEY:
+                return result.status(HttpStatus.OK.value())
+                        .sshKey(sshKeyService.updateSshKey(operation.getId(), new SshKeyRequestDTO(operation.getSshKey())))
+                        .build();
+            default:
+                sshKeyService.deleteSshKey(operation.getId());
+                return result.status(HttpStatus.NO_CONTENT.value()).build();
+        }
+    }
+
+    /**
+     * Reports a failed operation with the status its single endpoint would return.
+     *
+     * @param index position of the operation
+     * @param ex    exception thrown by the operation
+     * @return the outcome of the operation
+     * @throws RuntimeException {@code ex} itself if it is not a business rule violation
+     */
+    private static BatchResultDTO failure(int index, RuntimeException ex) {
+        HttpStatus status;
+        if (ex instanceof ComputerNotFoundException || ex instanceof SshKeyNotFoundException) {
+            status = HttpStatus.NOT_FOUND;
+        } else if (ex instanceof InvalidMakerException) {
+            status = HttpStatus.FORBIDDEN;
+        } else if (ex instanceof InvalidSshKeyException || ex instanceof IllegalArgumentException) {
+            status = HttpStatus.BAD_REQUEST;
+        } else if (ex instanceof DataIntegrityViolationException) {
+            status = HttpStatus.CONFLICT;
+        } else {
+            throw ex;
+        }
+        return BatchResultDTO.builder()
+                .index(index)
+                .status(status.value())
+                .error(ex instanceof DataIntegrityViolationException ? DATA_CONFLICT : ex.getMessage())
+                .build();
+    }
+
+    /**
+     * Checks that an operation has the fields its type requires.
+     *
+     * @param index     position of the operation
+     * @param operation the operation
+     * @throws InvalidBatchException if a field is missing
+     */
+    private static void validate(int index, BatchOperationDTO operation) {
+        switch (operation.getOp()) {
+            case CREATE_COMPUTER:
+                require(index, operation, operation.getComputer() != null, "computer");
+                break;
+            case UPDATE_COMPUTER:
+                require(index, operation, operation.getComputer() != null, "computer");
+                require(index, operation, operation.getMaker() != null && operation.getModel() != null, "maker and model");
+                break;
+            case DELETE_COMPUTER:
+                require(index, operation, operation.getMaker() != null && operation.getModel() != null, "maker and model");
+                break;
+            case ADD_SSH_KEY:
+                require(index, operation, operation.getSshKey() != null, "ssh-key");
+                require(index, operation, operation.getServerType() != null && operation.getServerName() != null,
+                        "serverType and serverName");
+                break;
+            case UPDATE_SSH_KEY:
+                require(index, operation, operation.getSshKey() != null, "ssh-key");
+                require(index, operation, operation.getId() != null, "id");
+                break;
+            default:
+                require(index, operation, operation.getId() != null, "id");
+        }
+    }
+
+    private static void require(int index, BatchOperationDTO operation, boolean present, String fields) {
+        if (!present) {
+            throw new InvalidBatchException(String.format(BATCH_OPERATION_INCOMPLETE, index, operation.getOp(), fields));
+        }
+    }
+
+    /**
+     * Finds the shard holding all operations of an atomic batch, since one transaction uses one connection.
+     * SSH key IDs found on no shard are ignored; their operations fail as not found wherever they run.
+     *
+     * @param operations operations of the batch
+     * @return the shard to select, or {@code null} without sharding
+     * @throws InvalidBatchException if the operations span several shards
+     */
+    private Integer shardOf(List<BatchOperationDTO> operations) {
+        ShardRouter router = shardRouter.getIfAvailable();
+        if (router == null) {
+            return null;
+        }
+        Integer shard = null;
+        for (BatchOperationDTO operation : operations) {
+            Integer current;
+            switch (operation.getOp()) {
+                case ADD_SSH_KEY:
+                    current = router.shardFor(operation.getServerType(), operation.getServerName());
+                    break;
+                case UPDATE_SSH_KEY:
+                case DELETE_SSH_KEY:
+                    current = router.locateSshKey(operation.getId());
+                    break;
+                default:
+                    current = 0;
+            }
+            if (current != null && shard != null && !current.equals(shard)) {
+                throw new InvalidBatchException(BATCH_SPANS_SHARDS);
+            }
+            if (current != null) {
+                shard = current;
+            }
+        }
+        return shard;
+    }
+
+    /**
+     * Thrown inside the transaction to roll an atomic batch back after a failed operation.
+     */
+    private static final class BatchAbortedException extends RuntimeException {
+
+        private BatchAbortedException() {
+            super(null, null, false, false);
+        }
+    }
+}
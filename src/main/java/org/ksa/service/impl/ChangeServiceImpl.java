@@ -0,0 +1,66 @@
+package org.ksa.service.impl;
+
+import lombok.AllArgsConstructor;
+import org.ksa.dto.ChangeBatchDTO;
+import org.ksa.dto.ChangeDTO;
+import org.ksa.exception.InvalidChangeOffsetException;
+import org.ksa.outbox.ChangeJournal;
+import org.ksa.outbox.JournalEntry;
+import org.ksa.service.ChangeService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.ksa.constants.ErrorMessages.CHANGE_OFFSET_INVALID;
+
+/**
+ * Implementation of {@link ChangeService} reading the {@link ChangeJournal}.
+ * <p>
+ * Reads go to the memory-mapped journal only and never touch the database. Only the instance relaying the
+ * outbox has a journal.
+ */
+@Service
+@AllArgsConstructor
+@ConditionalOnProperty(name = {"app.outbox.enabled", "app.outbox.relay.enabled"}, havingValue = "true")
+public class ChangeServiceImpl implements ChangeService {
+
+    private ChangeJournal changeJournal;
+
+    /**
+     * Retrieves journal entries starting at an offset.
+     * <p>
+     * Business rules:
+     * <ul>
+     *     <li>400 if the offset is not the start of an entry</li>
+     *     <li>200 with no entries if the offset is the end of the journal</li>
+     * </ul>
+     *
+     * @param offset offset of the first entry
+     * @param limit  maximum number of entries
+     * @return the entries and the offset to continue from
+     * @throws InvalidChangeOffsetException if the offset is not the start of an entry
+     */
+    @Override
+    public ChangeBatchDTO getChanges(long offset, int limit) {
+        List<JournalEntry> entries;
+        try {
+            entries = changeJournal.read(offset, limit);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidChangeOffsetException(String.format(CHANGE_OFFSET_INVALID, offset));
+        }
+
+        return ChangeBatchDTO.builder()
+                .changes(entries.stream()
+                        .map(entry -> ChangeDTO.builder()
+                                .offset(entry.getOffset())
+                                .event(new String(entry.getPayload(), StandardCharsets.UTF_8))
+                                .build())
+                        .collect(Collectors.toList()))
+                .nextOffset(entries.isEmpty() ? offset : entries.get(entries.size() - 1).getNextOffset())
+                .endOffset(changeJournal.getEndOffset())
+                .build();
+    }
+}
@@ -1,31 +1,74 @@
 package org.ksa.service.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
+import org.ksa.concurrent.Coalesced;
+import org.ksa.concurrent.InvalidatesCoalesced;
 import org.ksa.dto.ComputerDTO;
+import org.ksa.dto.ComputerSuggestionDTO;
+import org.ksa.dto.VersionedDTO;
 import org.ksa.entity.Computer;
 import org.ksa.exception.ComputerNotFoundException;
 import org.ksa.exception.InvalidMakerException;
+import org.ksa.exception.InvalidPatchException;
+import org.ksa.exception.VersionConflictException;
 import org.ksa.mapper.ComputerMapper;
+import org.ksa.outbox.AggregateType;
+import org.ksa.outbox.ChangeType;
+import org.ksa.outbox.OutboxWriter;
 import org.ksa.repository.ComputerRepository;
+import org.ksa.search.SearchDocumentType;
+import org.ksa.search.SearchIndex;
 import org.ksa.service.ComputerService;
+import org.ksa.suggest.ComputerSuggestionIndex;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.ksa.constants.ErrorMessages.*;
 
 /**
  * Implementation of {@link ComputerService} for managing {@link Computer} entities.
- * Provides CRUD operations for computers.
+ * Provides CRUD operations for computers. Every change is published through the transactional outbox and
+ * applied to the {@link ComputerSuggestionIndex} and the {@link SearchIndex}. Reads project rows straight
+ * into DTOs inside read-only transactions, which run with manual flush, so no entity is loaded. Patches are
+ * written by a single update of the changed columns, guarded by the version, and the row is then read back.
  */
 @Service
+@Profile("!embedded")
 @AllArgsConstructor
 @Transactional
+@Timed(value = "service.invocations", extraTags = {"service", "computer"})
 public class ComputerServiceImpl implements ComputerService {
 
     private ComputerRepository computerRepository;
+    private OutboxWriter outboxWriter;
+    private ComputerSuggestionIndex suggestionIndex;
+    private SearchIndex searchIndex;
+
+    /**
+     * Loads the makers and models of all computers into the suggestion index when the context starts,
+     * before the application reports itself ready. Skipped with {@code app.startup.build-indexes=false}, as in
+     * the database-less {@code cds} training run.
+     */
+    @Override
+    @EventListener(value = ContextRefreshedEvent.class,
+            condition = "@environment.getProperty('app.startup.build-indexes', 'true') == 'true'")
+    @Transactional(readOnly = true)
+    public void buildSuggestionIndex() {
+        suggestionIndex.rebuild(() -> computerRepository.findAllMakersAndModels()
+                .stream()
+                .map(row -> new String[]{(String) row[0], (String) row[1]})
+                .collect(Collectors.toList()));
+    }
 
     /**
      * Retrieves computer by maker and model.
@@ -44,6 +87,8 @@ public class ComputerServiceImpl implements ComputerService {
      * @throws ComputerNotFoundException if maker doesn't exist
      */
     @Override
+    @Transactional(readOnly = true)
+    @Coalesced
     public ComputerDTO getComputerByMakerAndModel(String maker, String model) {
         if (model == null || model.trim().isEmpty() || model.equals("/")) {
             if (computerRepository.existsByMaker(maker)) {
@@ -53,16 +98,13 @@ public class ComputerServiceImpl implements ComputerService {
             }
         }
 
-        if (!computerRepository.existsByMaker(maker)) {
+        List<ComputerDTO> computers = ComputerMapper.mapRowsToComputerDtos(
+                computerRepository.findRowsByMakerAndModel(maker, model));
+        if (computers.isEmpty()) {
             throw new ComputerNotFoundException(COMPUTER_NOT_FOUND_FOR_MAKER_AND_MODEL);
         }
 
-        Computer computer = computerRepository.findByMakerAndModel(maker, model)
-                .orElseThrow(() -> {
-                    return new ComputerNotFoundException(COMPUTER_NOT_FOUND_FOR_MAKER_AND_MODEL);
-                });
-
-        return ComputerMapper.mapToComputerDto(computer);
+        return computers.get(0);
     }
 
     /**
@@ -76,11 +118,22 @@ public class ComputerServiceImpl implements ComputerService {
      * @return list of {@link ComputerDTO} representing all computers
      */
     @Override
+    @Transactional(readOnly = true)
     public List<ComputerDTO> getAllComputers() {
-        return computerRepository.findAll()
-                .stream()
-                .map(ComputerMapper::mapToComputerDto)
-                .collect(Collectors.toList());
+        return ComputerMapper.mapRowsToComputerDtos(computerRepository.findAllRows());
+    }
+
+    /**
+     * Suggests makers and {@code maker/model} pairs from the in-memory index, without querying the database.
+     *
+     * @param prefix beginning of a maker, or of a maker, a slash and a model
+     * @param limit  maximum number of suggestions
+     * @return suggestions in alphabetical order
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<ComputerSuggestionDTO> suggestComputers(String prefix, int limit) {
+        return suggestionIndex.suggest(prefix, limit);
     }
 
     /**
@@ -97,6 +150,7 @@ public class ComputerServiceImpl implements ComputerService {
      * @throws IllegalArgumentException if computer with same maker and model already exists
      */
     @Override
+    @InvalidatesCoalesced
     public ComputerDTO createComputer(ComputerDTO computerDTO) {
         if (computerRepository.existsByMakerAndModel(computerDTO.getMaker(), computerDTO.getModel())) {
             throw new IllegalArgumentException(COMPUTER_ALREADY_EXISTS);
@@ -104,8 +158,12 @@ public class ComputerServiceImpl implements ComputerService {
 
         Computer computer = ComputerMapper.mapToComputer(computerDTO);
         Computer saved = computerRepository.save(computer);
+        ComputerDTO created = ComputerMapper.mapToComputerDto(saved);
+        outboxWriter.record(AggregateType.COMPUTER, aggregateId(saved), ChangeType.CREATED, created);
+        suggestionIndex.add(saved.getMaker(), saved.getModel());
+        searchIndex.indexComputer(saved);
 
-        return ComputerMapper.mapToComputerDto(saved);
+        return created;
     }
 
     /**
@@ -124,14 +182,68 @@ public class ComputerServiceImpl implements ComputerService {
      * @throws ComputerNotFoundException if computer does not exist
      */
     @Override
+    @InvalidatesCoalesced
     public ComputerDTO updateComputer(String maker, String model, ComputerDTO computerDTO) {
         Computer computer = computerRepository.findByMakerAndModel(maker, model)
                 .orElseThrow(() -> new ComputerNotFoundException(COMPUTER_NOT_FOUND));
 
+        String oldMaker = computer.getMaker();
+        String oldModel = computer.getModel();
         ComputerMapper.updateEntityFromDTO(computerDTO, computer);
         Computer updated = computerRepository.save(computer);
+        ComputerDTO result = ComputerMapper.mapToComputerDto(updated);
+        outboxWriter.record(AggregateType.COMPUTER, aggregateId(updated), ChangeType.UPDATED, result);
+        suggestionIndex.rename(oldMaker, oldModel, updated.getMaker(), updated.getModel());
+        searchIndex.indexComputer(updated);
+
+        return result;
+    }
+
+    /**
+     * Applies a JSON merge patch to a computer with one update statement, without loading the entity.
+     * <p>
+     * Business rules:
+     * <ul>
+     *     <li>400 if the patch sets a field it cannot</li>
+     *     <li>404 if computer does not exist</li>
+     *     <li>412 if a version is given and the computer has another one</li>
+     *     <li>200 if patched data is successful</li>
+     * </ul>
+     * The patched row is read back to publish the whole computer; a patch changing nothing only reads it.
+     *
+     * @param maker   manufacturer of the computer
+     * @param model   model name of computer
+     * @param patch   merge patch document
+     * @param version version the computer must still have, or {@code null} for any
+     * @return the patched {@link ComputerDTO} and its new version
+     * @throws InvalidPatchException     if the patch cannot be applied
+     * @throws ComputerNotFoundException if computer does not exist
+     * @throws VersionConflictException  if the computer has another version
+     */
+    @Override
+    @InvalidatesCoalesced
+    public VersionedDTO<ComputerDTO> patchComputer(String maker, String model, JsonNode patch, Long version) {
+        Map<String, Object> changes = ComputerMapper.mapPatchToChanges(patch);
+        if (changes.isEmpty()) {
+            Computer computer = findRow(maker, model);
+            checkVersion(computer, version);
+            return new VersionedDTO<>(ComputerMapper.mapToComputerDto(computer), computer.getVersion());
+        }
 
-        return ComputerMapper.mapToComputerDto(updated);
+        if (!computerRepository.patch(maker, model, changes, version)) {
+            // Nothing matched the key and version: tell a missing computer from a changed one
+            findRow(maker, model);
+            throw new VersionConflictException(String.format(VERSION_CONFLICT, version));
+        }
+
+        Computer patched = findRow((String) changes.getOrDefault("maker", maker),
+                (String) changes.getOrDefault("model", model));
+        ComputerDTO result = ComputerMapper.mapToComputerDto(patched);
+        outboxWriter.record(AggregateType.COMPUTER, aggregateId(patched), ChangeType.UPDATED, result);
+        suggestionIndex.rename(maker, model, patched.getMaker(), patched.getModel());
+        searchIndex.indexComputer(patched);
+
+        return new VersionedDTO<>(result, patched.getVersion());
     }
 
     /**
@@ -148,10 +260,54 @@ public class ComputerServiceImpl implements ComputerService {
      * @throws ComputerNotFoundException if the computer does not exist
      */
     @Override
+    @InvalidatesCoalesced
     public void deleteComputer(String maker, String model) {
         Computer computer = computerRepository.findByMakerAndModel(maker, model)
                 .orElseThrow(() -> new ComputerNotFoundException(COMPUTER_NOT_FOUND));
 
         computerRepository.delete(computer);
+        outboxWriter.record(AggregateType.COMPUTER, aggregateId(computer), ChangeType.DELETED,
+                ComputerMapper.mapToComputerDto(computer));
+        suggestionIndex.remove(computer.getMaker(), computer.getModel());
+        searchIndex.remove(SearchDocumentType.COMPUTER, computer.getId());
+    }
+
+    /**
+     * Reads a computer from its projected row.
+     *
+     * @param maker manufacturer of the computer
+     * @param model model name of computer
+     * @return a detached computer with its version
+     * @throws ComputerNotFoundException if the computer does not exist
+     */
+    private Computer findRow(String maker, String model) {
+        List<Object[]> rows = computerRepository.findRowsByMakerAndModel(maker, model);
+        if (rows.isEmpty()) {
+            throw new ComputerNotFoundException(COMPUTER_NOT_FOUND);
+        }
+        return ComputerMapper.mapRowToComputer(rows.get(0));
+    }
+
+    /**
+     * Checks that a computer has the expected version.
+     *
+     * @param computer the stored computer
+     * @param version  expected version, or {@code null} for any
+     * @throws VersionConflictException if the versions differ
+     */
+    private static void checkVersion(Computer computer, Long version) {
+        if (version != null && !version.equals(computer.getVersion())) {
+            throw new VersionConflictException(String.format(VERSION_CONFLICT, version));
+        }
+    }
+
+    /**
+     * Builds the outbox aggregate ID of a computer.
+     *
+     * @param computer the computer
+     * @return maker and model separated by a slash
+     */
+    private static String aggregateId(Computer computer) {
+        return computer.getMaker() + "/" + computer.getModel();
     }
 }
@@ -0,0 +1,215 @@
+package org.ksa.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.annotation.Timed;
+import lombok.AllArgsConstructor;
+import org.ksa.dto.ComputerDTO;
+import org.ksa.dto.ComputerSuggestionDTO;
+import org.ksa.dto.VersionedDTO;
+import org.ksa.embedded.EmbeddedStore;
+import org.ksa.entity.Computer;
+import org.ksa.exception.ComputerNotFoundException;
+import org.ksa.exception.InvalidMakerException;
+import org.ksa.exception.InvalidPatchException;
+import org.ksa.mapper.ComputerMapper;
+import org.ksa.search.SearchDocumentType;
+import org.ksa.search.SearchIndex;
+import org.ksa.service.ComputerService;
+import org.ksa.suggest.ComputerSuggestionIndex;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.ksa.constants.ErrorMessages.*;
+
+/**
+ * Implementation of {@link ComputerService} backed by the {@link EmbeddedStore} ({@code embedded} profile).
+ * Follows the same business rules as {@link ComputerServiceImpl}; changes are journaled by the store and
+ * applied to the {@link ComputerSuggestionIndex} and the {@link SearchIndex}. The store keeps no versions, so
+ * patches cannot be conditional.
+ */
+@Service
+@Profile("embedded")
+@AllArgsConstructor
+@Timed(value = "service.invocations", extraTags = {"service", "computer"})
+public class EmbeddedComputerServiceImpl implements ComputerService {
+
+    private EmbeddedStore embeddedStore;
+    private ComputerSuggestionIndex suggestionIndex;
+    private SearchIndex searchIndex;
+
+    /**
+     * Loads the makers and models of all computers into the suggestion index when the context starts.
+     */
+    @Override
+    @EventListener(ContextRefreshedEvent.class)
+    public void buildSuggestionIndex() {
+        suggestionIndex.rebuild(() -> embeddedStore.findAllComputers()
+                .stream()
+                .map(computer -> new String[]{computer.getMaker(), computer.getModel()})
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Retrieves computer by maker and model.
+     * <p>
+     * Business rules:
+     * <ul>
+     *     <li>404 if maker doesn't exist</li>
+     *     <li>403 if maker exists but model is missing</li>
+     *     <li>200 if data is found</li>
+     * </ul>
+     *
+     * @param maker manufacturer of the computer
+     * @param model model name of computer
+     * @return the matching {@link ComputerDTO}
+     * @throws InvalidMakerException     if maker exists but model is missing
+     * @throws ComputerNotFoundException if maker doesn't exist
+     */
+    @Override
+    public ComputerDTO getComputerByMakerAndModel(String maker, String model) {
+        if (model == null || model.trim().isEmpty() || model.equals("/")) {
+            if (embeddedStore.existsByMaker(maker)) {
+                throw new InvalidMakerException(MODEL_PARAMETER_REQUIRED);
+            } else {
+                throw new ComputerNotFoundException(COMPUTER_NOT_FOUND_FOR_MAKER);
+            }
+        }
+
+        Computer computer = embeddedStore.findComputer(maker, model);
+        if (computer == null) {
+            throw new ComputerNotFoundException(COMPUTER_NOT_FOUND_FOR_MAKER_AND_MODEL);
+        }
+
+        return ComputerMapper.mapToComputerDto(computer);
+    }
+
+    /**
+     * Retrieves all computer records.
+     *
+     * @return list of {@link ComputerDTO} representing all computers
+     */
+    @Override
+    public List<ComputerDTO> getAllComputers() {
+        return embeddedStore.findAllComputers()
+                .stream()
+                .map(ComputerMapper::mapToComputerDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Suggests makers and {@code maker/model} pairs from the in-memory index.
+     *
+     * @param prefix beginning of a maker, or of a maker, a slash and a model
+     * @param limit  maximum number of suggestions
+     * @return suggestions in alphabetical order
+     */
+    @Override
+    public List<ComputerSuggestionDTO> suggestComputers(String prefix, int limit) {
+        return suggestionIndex.suggest(prefix, limit);
+    }
+
+    /**
+     * Creates new computer record.
+     *
+     * @param computerDTO DTO containing computer details
+     * @return the created {@link ComputerDTO}
+     * @throws IllegalArgumentException if computer with same maker and model already exists
+     */
+    @Override
+    public ComputerDTO createComputer(ComputerDTO computerDTO) {
+        Computer saved = embeddedStore.insertComputer(ComputerMapper.mapToComputer(computerDTO));
+        if (saved == null) {
+            throw new IllegalArgumentException(COMPUTER_ALREADY_EXISTS);
+        }
+        suggestionIndex.add(saved.getMaker(), saved.getModel());
+        searchIndex.indexComputer(saved);
+
+        return ComputerMapper.mapToComputerDto(saved);
+    }
+
+    /**
+     * Updates an existing computer by maker and model.
+     *
+     * @param maker       manufacturer of the computer
+     * @param model       model name of computer
+     * @param computerDTO DTO containing computer details
+     * @return the updated {@link ComputerDTO}
+     * @throws ComputerNotFoundException if computer does not exist
+     */
+    @Override
+    public ComputerDTO updateComputer(String maker, String model, ComputerDTO computerDTO) {
+        Computer existing = embeddedStore.findComputer(maker, model);
+        if (existing == null) {
+            throw new ComputerNotFoundException(COMPUTER_NOT_FOUND);
+        }
+
+        Computer computer = EmbeddedStore.copyOf(existing);
+        ComputerMapper.updateEntityFromDTO(computerDTO, computer);
+
+        Computer updated = embeddedStore.updateComputer(computer);
+        suggestionIndex.rename(existing.getMaker(), existing.getModel(), updated.getMaker(), updated.getModel());
+        searchIndex.indexComputer(updated);
+
+        return ComputerMapper.mapToComputerDto(updated);
+    }
+
+    /**
+     * Applies a JSON merge patch to a computer.
+     *
+     * @param maker   manufacturer of the computer
+     * @param model   model name of computer
+     * @param patch   merge patch document
+     * @param version must be {@code null}, as the store keeps no versions
+     * @return the patched {@link ComputerDTO}, without a version
+     * @throws InvalidPatchException     if the patch cannot be applied or a version is given
+     * @throws ComputerNotFoundException if computer does not exist
+     */
+    @Override
+    public VersionedDTO<ComputerDTO> patchComputer(String maker, String model, JsonNode patch, Long version) {
+        if (version != null) {
+            throw new InvalidPatchException(PATCH_VERSIONS_UNSUPPORTED);
+        }
+        Map<String, Object> changes = ComputerMapper.mapPatchToChanges(patch);
+        Computer existing = embeddedStore.findComputer(maker, model);
+        if (existing == null) {
+            throw new ComputerNotFoundException(COMPUTER_NOT_FOUND);
+        }
+        if (changes.isEmpty()) {
+            return new VersionedDTO<>(ComputerMapper.mapToComputerDto(existing), null);
+        }
+
+        Computer computer = EmbeddedStore.copyOf(existing);
+        ComputerMapper.applyChanges(changes, computer);
+
+        Computer updated = embeddedStore.updateComputer(computer);
+        suggestionIndex.rename(existing.getMaker(), existing.getModel(), updated.getMaker(), updated.getModel());
+        searchIndex.indexComputer(updated);
+
+        return new VersionedDTO<>(ComputerMapper.mapToComputerDto(updated), null);
+    }
+
+    /**
+     * Deletes a computer identified by maker and model.
+     *
+     * @param maker manufacturer of the computer
+     * @param model model name of computer
+     * @throws ComputerNotFoundException if the computer does not exist
+     */
+    @Override
+    public void deleteComputer(String maker, String model) {
+        Computer computer = embeddedStore.findComputer(maker, model);
+        if (computer == null) {
+            throw new ComputerNotFoundException(COMPUTER_NOT_FOUND);
+        }
+
+        embeddedStore.deleteComputer(computer.getId());
+        suggestionIndex.remove(computer.getMaker(), computer.getModel());
+        searchIndex.remove(SearchDocumentType.COMPUTER, computer.getId());
+    }
+}
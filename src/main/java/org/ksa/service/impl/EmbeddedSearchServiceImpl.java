@@ -0,0 +1,53 @@
+package org.ksa.service.impl;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.AllArgsConstructor;
+import org.ksa.dto.SearchResultsDTO;
+import org.ksa.embedded.EmbeddedStore;
+import org.ksa.search.SearchDocumentType;
+import org.ksa.search.SearchIndex;
+import org.ksa.service.SearchService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementation of {@link SearchService} for the {@link EmbeddedStore} ({@code embedded} profile).
+ * The index is rebuilt from the store when the context starts.
+ */
+@Service
+@Profile("embedded")
+@AllArgsConstructor
+@Timed(value = "service.invocations", extraTags = {"service", "search"})
+public class EmbeddedSearchServiceImpl implements SearchService {
+
+    private SearchIndex searchIndex;
+    private EmbeddedStore embeddedStore;
+
+    /**
+     * Finds the computers and SSH keys containing every term of a query.
+     *
+     * @param query  search terms
+     * @param type   kind of records to return, or {@code null} for all
+     * @param offset number of results to skip
+     * @param limit  maximum number of results
+     * @return the page of results, most relevant first
+     */
+    @Override
+    public SearchResultsDTO search(String query, SearchDocumentType type, int offset, int limit) {
+        return searchIndex.search(query, type, offset, limit);
+    }
+
+    /**
+     * Rebuilds the search index from the store when the context starts.
+     */
+    @Override
+    @EventListener(ContextRefreshedEvent.class)
+    public void rebuildIndex() {
+        SearchIndex.Rebuild rebuild = searchIndex.startRebuild();
+        rebuild.addComputers(embeddedStore.findAllComputers());
+        rebuild.addSshKeys(embeddedStore.findAllSshKeys());
+        rebuild.finish();
+    }
+}
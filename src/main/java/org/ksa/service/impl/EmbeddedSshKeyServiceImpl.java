@@ -0,0 +1,181 @@
+package org.ksa.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.annotation.Timed;
+import lombok.AllArgsConstructor;
+import org.ksa.audit.AuditAction;
+import org.ksa.audit.AuditPublisher;
+import org.ksa.dto.SshKeyRequestDTO;
+import org.ksa.dto.SshKeyResponseDTO;
+import org.ksa.dto.VersionedDTO;
+import org.ksa.embedded.EmbeddedStore;
+import org.ksa.entity.SshKey;
+import org.ksa.exception.InvalidPatchException;
+import org.ksa.exception.InvalidSshKeyException;
+import org.ksa.exception.SshKeyNotFoundException;
+import org.ksa.mapper.SshKeyMapper;
+import org.ksa.search.SearchDocumentType;
+import org.ksa.search.SearchIndex;
+import org.ksa.service.SshKeyService;
+import org.ksa.validator.SshKeyTypeRegistry;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.ksa.constants.ErrorMessages.*;
+
+/**
+ * Implementation of {@link SshKeyService} backed by the {@link EmbeddedStore} ({@code embedded} profile).
+ * Follows the same business rules as {@link SshKeyServiceImpl}; every change is recorded through
+ * {@link AuditPublisher} once it is durable, journaled by the store and applied to the {@link SearchIndex}. The
+ * store keeps no versions, so patches cannot be conditional.
+ */
+@Service
+@Profile("embedded")
+@AllArgsConstructor
+@Timed(value = "service.invocations", extraTags = {"service", "ssh-key"})
+public class EmbeddedSshKeyServiceImpl implements SshKeyService {
+
+    private EmbeddedStore embeddedStore;
+    private SshKeyTypeRegistry sshKeyTypeRegistry;
+    private AuditPublisher auditPublisher;
+    private SearchIndex searchIndex;
+
+    /**
+     * Adds a new SSH key to the specific server.
+     *
+     * @param serverType type of the server
+     * @param serverName name of the server
+     * @param request    DTO containing SSH key details
+     * @return the created {@link SshKeyResponseDTO}
+     * @throws InvalidSshKeyException if the key is invalid or already exists
+     */
+    @Override
+    public SshKeyResponseDTO addSshKey(String serverType, String serverName, SshKeyRequestDTO request) {
+        SshKeyRequestDTO.SshKeyDTO keyDTO = request.getSshKey();
+
+        sshKeyTypeRegistry.validate(keyDTO.getType(), keyDTO.getPublicKey());
+
+        SshKey saved = embeddedStore.insertSshKey(SshKeyMapper.mapToSshKey(keyDTO, serverType, serverName));
+        if (saved == null) {
+            throw new InvalidSshKeyException(SSH_KEY_ALREADY_EXISTS);
+        }
+        auditPublisher.publish(AuditAction.ADD, saved);
+        searchIndex.indexSshKey(saved);
+
+        return SshKeyMapper.mapToResponseDto(saved);
+    }
+
+    /**
+     * Retrieves an SSH key by ID.
+     *
+     * @param id ID of the SSH key
+     * @return the matching {@link SshKeyResponseDTO}
+     * @throws SshKeyNotFoundException if the key is not found
+     */
+    @Override
+    public SshKeyResponseDTO getKeyById(Long id) {
+        return SshKeyMapper.mapToResponseDto(find(id));
+    }
+
+    /**
+     * Retrieves all SSH keys associated with specific server.
+     *
+     * @param serverType type of the server
+     * @param serverName name of the server
+     * @return a list of {@link SshKeyResponseDTO} objects
+     */
+    @Override
+    public List<SshKeyResponseDTO> getAllKeys(String serverType, String serverName) {
+        return embeddedStore.findSshKeys(serverType, serverName)
+                .stream()
+                .map(SshKeyMapper::mapToResponseDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Updates an existing SSH key by its ID.
+     *
+     * @param id               ID of the SSH key
+     * @param sshKeyRequestDTO DTO containing SSH key details
+     * @return the updated {@link SshKeyResponseDTO}
+     * @throws InvalidSshKeyException  if the key is invalid for its type
+     * @throws SshKeyNotFoundException if the key is not found
+     */
+    @Override
+    public SshKeyResponseDTO updateSshKey(Long id, SshKeyRequestDTO sshKeyRequestDTO) {
+        SshKeyRequestDTO.SshKeyDTO keyDTO = sshKeyRequestDTO.getSshKey();
+
+        sshKeyTypeRegistry.validate(keyDTO.getType(), keyDTO.getPublicKey());
+
+        SshKey sshKey = EmbeddedStore.copyOf(find(id));
+
+        SshKeyMapper.updateEntityFromDTO(keyDTO, sshKey);
+        SshKey updated = embeddedStore.updateSshKey(sshKey);
+        auditPublisher.publish(AuditAction.UPDATE, updated);
+        searchIndex.indexSshKey(updated);
+
+        return SshKeyMapper.mapToResponseDto(updated);
+    }
+
+    /**
+     * Applies a JSON merge patch to an SSH key.
+     *
+     * @param id      ID of the SSH key
+     * @param patch   merge patch document
+     * @param version must be {@code null}, as the store keeps no versions
+     * @return the patched {@link SshKeyResponseDTO}, without a version
+     * @throws InvalidPatchException   if the patch cannot be applied or a version is given
+     * @throws InvalidSshKeyException  if the new key is invalid for its type
+     * @throws SshKeyNotFoundException if the key is not found
+     */
+    @Override
+    public VersionedDTO<SshKeyResponseDTO> patchSshKey(Long id, JsonNode patch, Long version) {
+        if (version != null) {
+            throw new InvalidPatchException(PATCH_VERSIONS_UNSUPPORTED);
+        }
+        Map<String, Object> changes = SshKeyMapper.mapPatchToChanges(patch);
+        if (changes.containsKey("type")) {
+            sshKeyTypeRegistry.validate((String) changes.get("type"), (String) changes.get("publicKey"));
+        }
+        SshKey existing = find(id);
+        if (changes.isEmpty()) {
+            return new VersionedDTO<>(SshKeyMapper.mapToResponseDto(existing), null);
+        }
+
+        SshKey sshKey = EmbeddedStore.copyOf(existing);
+        SshKeyMapper.applyChanges(changes, sshKey);
+        SshKey updated = embeddedStore.updateSshKey(sshKey);
+        auditPublisher.publish(AuditAction.UPDATE, updated);
+        searchIndex.indexSshKey(updated);
+
+        return new VersionedDTO<>(SshKeyMapper.mapToResponseDto(updated), null);
+    }
+
+    /**
+     * Deletes an SSH key by its ID.
+     *
+     * @param id ID of the SSH key to delete
+     * @throws SshKeyNotFoundException if the key is not found
+     */
+    @Override
+    public void deleteSshKey(Long id) {
+        SshKey deleted = embeddedStore.deleteSshKey(id);
+        if (deleted == null) {
+            throw new SshKeyNotFoundException(SSH_KEY_NOT_FOUND);
+        }
+        auditPublisher.publish(AuditAction.DELETE, deleted);
+        searchIndex.remove(SearchDocumentType.SSH_KEY, deleted.getId());
+    }
+
+    private SshKey find(Long id) {
+        SshKey sshKey = embeddedStore.findSshKey(id);
+        if (sshKey == null) {
+            throw new SshKeyNotFoundException(SSH_KEY_NOT_FOUND);
+        }
+        return sshKey;
+    }
+}
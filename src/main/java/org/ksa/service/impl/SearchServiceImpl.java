@@ -0,0 +1,134 @@
+package org.ksa.service.impl;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ksa.dto.SearchResultsDTO;
+import org.ksa.entity.SshKey;
+import org.ksa.mapper.ComputerMapper;
+import org.ksa.mapper.SshKeyMapper;
+import org.ksa.repository.ComputerRepository;
+import org.ksa.repository.SshKeyRepository;
+import org.ksa.search.SearchDocumentType;
+import org.ksa.search.SearchIndex;
+import org.ksa.service.SearchService;
+import org.ksa.shard.ShardRouter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of {@link SearchService} answering from the in-process {@link SearchIndex}.
+ * <p>
+ * Searches never touch the database. The index is rebuilt when the context starts from projected rows read in
+ * pages of increasing ID, every shard in parallel, and kept up to date by the computer and SSH key services.
+ * Requests may already be served while it is rebuilt; their changes are replayed on the rebuilt index.
+ */
+@Slf4j
+@Service
+@Profile("!embedded")
+@AllArgsConstructor
+@Timed(value = "service.invocations", extraTags = {"service", "search"})
+public class SearchServiceImpl implements SearchService {
+
+    private static final int PAGE_SIZE = 1000;
+    private static final String SSH_KEYS_SQL = "SELECT id, server_type, server_name, key_type, public_key, comment,"
+            + " version FROM ssh_keys WHERE id > ? ORDER BY id";
+
+    private SearchIndex searchIndex;
+    private ComputerRepository computerRepository;
+    private SshKeyRepository sshKeyRepository;
+    private ObjectProvider<ShardRouter> shardRouter;
+
+    /**
+     * Finds the computers and SSH keys containing every term of a query.
+     *
+     * @param query  search terms
+     * @param type   kind of records to return, or {@code null} for all
+     * @param offset number of results to skip
+     * @param limit  maximum number of results
+     * @return the page of results, most relevant first
+     */
+    @Override
+    public SearchResultsDTO search(String query, SearchDocumentType type, int offset, int limit) {
+        return searchIndex.search(query, type, offset, limit);
+    }
+
+    /**
+     * Rebuilds the search index when the context starts, before the application reports itself ready. Skipped
+     * with {@code app.startup.build-indexes=false}, as in the database-less {@code cds} training run.
+     */
+    @Override
+    @EventListener(value = ContextRefreshedEvent.class,
+            condition = "@environment.getProperty('app.startup.build-indexes', 'true') == 'true'")
+    public void rebuildIndex() {
+        long start = System.nanoTime();
+        SearchIndex.Rebuild rebuild = searchIndex.startRebuild();
+
+        try {
+            ShardRouter router = shardRouter.getIfAvailable();
+            if (router == null) {
+                feed(afterId -> sshKeyRepository.findRowsAfter(afterId, PageRequest.of(0, PAGE_SIZE)),
+                        rows -> rebuild.addSshKeys(mapSshKeys(rows)));
+            } else {
+                router.scatter(shard -> feed(afterId -> shard.query(connection -> {
+                    PreparedStatement select = connection.prepareStatement(SSH_KEYS_SQL);
+                    select.setMaxRows(PAGE_SIZE);
+                    select.setLong(1, afterId);
+                    return select;
+                }, SearchServiceImpl::sshKeyRow), rows -> rebuild.addSshKeys(mapSshKeys(rows))));
+            }
+            feed(afterId -> computerRepository.findRowsAfter(afterId, PageRequest.of(0, PAGE_SIZE)),
+                    rows -> rebuild.addComputers(rows.stream().map(ComputerMapper::mapRowToComputer)
+                            .collect(Collectors.toList())));
+        } catch (RuntimeException ex) {
+            rebuild.cancel();
+            throw ex;
+        }
+
+        rebuild.finish();
+        log.info("Search index built with {} documents and {} terms in {} ms", searchIndex.getDocumentCount(),
+                searchIndex.getTermCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Reads rows page by page in ID order, keyed on the last ID read, and passes each page on.
+     *
+     * @return number of rows read
+     */
+    private static long feed(LongFunction<List<Object[]>> page, Consumer<List<Object[]>> consumer) {
+        long afterId = 0;
+        long count = 0;
+        while (true) {
+            List<Object[]> rows = page.apply(afterId);
+            if (!rows.isEmpty()) {
+                consumer.accept(rows);
+                count += rows.size();
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+            if (rows.size() < PAGE_SIZE) {
+                return count;
+            }
+        }
+    }
+
+    private static List<SshKey> mapSshKeys(List<Object[]> rows) {
+        return rows.stream().map(SshKeyMapper::mapRowToSshKey).collect(Collectors.toList());
+    }
+
+    private static Object[] sshKeyRow(ResultSet result, int rowNum) throws SQLException {
+        return new Object[]{result.getLong(1), result.getString(2), result.getString(3), result.getString(4),
+                result.getString(5), result.getString(6), result.getLong(7)};
+    }
+}
@@ -1,32 +1,59 @@
 package org.ksa.service.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
+import org.ksa.audit.AuditAction;
+import org.ksa.audit.AuditPublisher;
+import org.ksa.concurrent.Coalesced;
+import org.ksa.concurrent.InvalidatesCoalesced;
 import org.ksa.dto.SshKeyRequestDTO;
 import org.ksa.dto.SshKeyResponseDTO;
+import org.ksa.dto.VersionedDTO;
 import org.ksa.entity.SshKey;
+import org.ksa.exception.InvalidPatchException;
 import org.ksa.exception.InvalidSshKeyException;
 import org.ksa.exception.SshKeyNotFoundException;
+import org.ksa.exception.VersionConflictException;
 import org.ksa.mapper.SshKeyMapper;
+import org.ksa.outbox.AggregateType;
+import org.ksa.outbox.ChangeType;
+import org.ksa.outbox.OutboxWriter;
 import org.ksa.repository.SshKeyRepository;
+import org.ksa.search.SearchDocumentType;
+import org.ksa.search.SearchIndex;
 import org.ksa.service.SshKeyService;
+import org.ksa.shard.ShardRouted;
+import org.ksa.validator.SshKeyTypeRegistry;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 import static org.ksa.constants.ErrorMessages.*;
 
 /**
  * Implementation of {@link SshKeyService} for managing {@link SshKey} entities.
- * Provides CRUD operations for SSH keys.
+ * Provides CRUD operations for SSH keys. Every change is recorded through {@link AuditPublisher},
+ * published through the transactional outbox and applied to the {@link SearchIndex}. With sharding, each
+ * method runs on the shard of its server or key (see {@link ShardRouted}). Reads project straight into
+ * {@link SshKeyResponseDTO}s inside read-only transactions, so no entity is loaded. Patches are written by a
+ * single update of the changed columns, guarded by the version, and the row is then read back.
  */
 @Service
+@Profile("!embedded")
 @AllArgsConstructor
 @Transactional
+@Timed(value = "service.invocations", extraTags = {"service", "ssh-key"})
 public class SshKeyServiceImpl implements SshKeyService {
 
     private SshKeyRepository sshKeyRepository;
+    private SshKeyTypeRegistry sshKeyTypeRegistry;
+    private AuditPublisher auditPublisher;
+    private OutboxWriter outboxWriter;
+    private SearchIndex searchIndex;
 
     /**
      * Adds a new SSH key to the specific server.
@@ -45,6 +72,8 @@ public class SshKeyServiceImpl implements SshKeyService {
      * @throws InvalidSshKeyException if thet key is invalid or already exist
      */
     @Override
+    @InvalidatesCoalesced
+    @ShardRouted(ShardRouted.By.SERVER)
     public SshKeyResponseDTO addSshKey(String serverType, String serverName, SshKeyRequestDTO request) {
         SshKeyRequestDTO.SshKeyDTO keyDTO = request.getSshKey();
 
@@ -56,8 +85,12 @@ public class SshKeyServiceImpl implements SshKeyService {
 
         SshKey entity = SshKeyMapper.mapToSshKey(keyDTO, serverType, serverName);
         SshKey saved = sshKeyRepository.save(entity);
+        auditPublisher.publish(AuditAction.ADD, saved);
+        SshKeyResponseDTO created = SshKeyMapper.mapToResponseDto(saved);
+        outboxWriter.record(AggregateType.SSH_KEY, String.valueOf(saved.getId()), ChangeType.CREATED, created);
+        searchIndex.indexSshKey(saved);
 
-        return SshKeyMapper.mapToResponseDto(saved);
+        return created;
     }
 
     /**
@@ -74,11 +107,11 @@ public class SshKeyServiceImpl implements SshKeyService {
      * @throws SshKeyNotFoundException if the key is not found
      */
     @Override
+    @Transactional(readOnly = true)
+    @ShardRouted(ShardRouted.By.SSH_KEY_ID)
     public SshKeyResponseDTO getKeyById(Long id) {
-        SshKey sshKey = sshKeyRepository.findById(id)
+        return sshKeyRepository.findResponseById(id)
                 .orElseThrow(() -> new SshKeyNotFoundException(SSH_KEY_NOT_FOUND));
-
-        return SshKeyMapper.mapToResponseDto(sshKey);
     }
 
     /**
@@ -89,11 +122,11 @@ public class SshKeyServiceImpl implements SshKeyService {
      * @return a list of {@link SshKeyResponseDTO} objects
      */
     @Override
+    @Transactional(readOnly = true)
+    @Coalesced
+    @ShardRouted(ShardRouted.By.SERVER)
     public List<SshKeyResponseDTO> getAllKeys(String serverType, String serverName) {
-        return sshKeyRepository.findByServerTypeAndServerName(serverType, serverName)
-                .stream()
-                .map(SshKeyMapper::mapToResponseDto)
-                .collect(Collectors.toList());
+        return sshKeyRepository.findResponsesByServerTypeAndServerName(serverType, serverName);
     }
 
     /**
@@ -101,6 +134,7 @@ public class SshKeyServiceImpl implements SshKeyService {
      * <p>
      * Business rules:
      * <ul>
+     *     <li>400 if the key is invalid for its type</li>
      *     <li>404 if the key does not exist</li>
      *     <li>200 if the updated key is successful</li>
      * </ul>
@@ -108,19 +142,81 @@ public class SshKeyServiceImpl implements SshKeyService {
      * @param id               ID of the SSH key
      * @param sshKeyRequestDTO DTO containing SSH key details
      * @return the updated {@link SshKeyResponseDTO}
+     * @throws InvalidSshKeyException  if the key is invalid for its type
      * @throws SshKeyNotFoundException if the key is not found
      */
     @Override
+    @InvalidatesCoalesced
+    @ShardRouted(ShardRouted.By.SSH_KEY_ID)
     public SshKeyResponseDTO updateSshKey(Long id, SshKeyRequestDTO sshKeyRequestDTO) {
+        SshKeyRequestDTO.SshKeyDTO sshKeyDTO = sshKeyRequestDTO.getSshKey();
+
+        validateSshKey(sshKeyDTO);
+
         SshKey sshKey = sshKeyRepository.findById(id)
                 .orElseThrow(() -> new SshKeyNotFoundException(SSH_KEY_NOT_FOUND));
 
-        SshKeyRequestDTO.SshKeyDTO sshKeyDTO = sshKeyRequestDTO.getSshKey();
-
         SshKeyMapper.updateEntityFromDTO(sshKeyDTO, sshKey);
         SshKey updated = sshKeyRepository.save(sshKey);
+        auditPublisher.publish(AuditAction.UPDATE, updated);
+        SshKeyResponseDTO result = SshKeyMapper.mapToResponseDto(updated);
+        outboxWriter.record(AggregateType.SSH_KEY, String.valueOf(updated.getId()), ChangeType.UPDATED, result);
+        searchIndex.indexSshKey(updated);
 
-        return SshKeyMapper.mapToResponseDto(updated);
+        return result;
+    }
+
+    /**
+     * Applies a JSON merge patch to an SSH key with one update statement, without loading the entity.
+     * <p>
+     * Business rules:
+     * <ul>
+     *     <li>400 if the patch sets a field it cannot, or only one of the type and the public key</li>
+     *     <li>400 if the new key is invalid for its type</li>
+     *     <li>404 if the key does not exist</li>
+     *     <li>412 if a version is given and the key has another one</li>
+     *     <li>200 if the patched key is successful</li>
+     * </ul>
+     * The patched row is read back to publish the whole key; a patch changing nothing only reads it.
+     *
+     * @param id      ID of the SSH key
+     * @param patch   merge patch document
+     * @param version version the key must still have, or {@code null} for any
+     * @return the patched {@link SshKeyResponseDTO} and its new version
+     * @throws InvalidPatchException    if the patch cannot be applied
+     * @throws InvalidSshKeyException   if the new key is invalid for its type
+     * @throws SshKeyNotFoundException  if the key is not found
+     * @throws VersionConflictException if the key has another version
+     */
+    @Override
+    @InvalidatesCoalesced
+    @ShardRouted(ShardRouted.By.SSH_KEY_ID)
+    public VersionedDTO<SshKeyResponseDTO> patchSshKey(Long id, JsonNode patch, Long version) {
+        Map<String, Object> changes = SshKeyMapper.mapPatchToChanges(patch);
+        if (changes.containsKey("type")) {
+            sshKeyTypeRegistry.validate((String) changes.get("type"), (String) changes.get("publicKey"));
+        }
+        if (changes.isEmpty()) {
+            SshKey sshKey = findRow(id);
+            if (version != null && !version.equals(sshKey.getVersion())) {
+                throw new VersionConflictException(String.format(VERSION_CONFLICT, version));
+            }
+            return new VersionedDTO<>(SshKeyMapper.mapToResponseDto(sshKey), sshKey.getVersion());
+        }
+
+        if (!sshKeyRepository.patch(id, changes, version)) {
+            // Nothing matched the ID and version: tell a missing key from a changed one
+            findRow(id);
+            throw new VersionConflictException(String.format(VERSION_CONFLICT, version));
+        }
+
+        SshKey patched = findRow(id);
+        auditPublisher.publish(AuditAction.UPDATE, patched);
+        SshKeyResponseDTO result = SshKeyMapper.mapToResponseDto(patched);
+        outboxWriter.record(AggregateType.SSH_KEY, String.valueOf(patched.getId()), ChangeType.UPDATED, result);
+        searchIndex.indexSshKey(patched);
+
+        return new VersionedDTO<>(result, patched.getVersion());
     }
 
     /**
@@ -136,12 +232,32 @@ public class SshKeyServiceImpl implements SshKeyService {
      * @throws SshKeyNotFoundException if the key is not found
      */
     @Override
+    @InvalidatesCoalesced
+    @ShardRouted(ShardRouted.By.SSH_KEY_ID)
     public void deleteSshKey(Long id) {
-        if (!sshKeyRepository.existsById(id)) {
+        SshKey sshKey = sshKeyRepository.findById(id)
+                .orElseThrow(() -> new SshKeyNotFoundException(SSH_KEY_NOT_FOUND));
+
+        sshKeyRepository.delete(sshKey);
+        auditPublisher.publish(AuditAction.DELETE, sshKey);
+        outboxWriter.record(AggregateType.SSH_KEY, String.valueOf(sshKey.getId()), ChangeType.DELETED,
+                SshKeyMapper.mapToResponseDto(sshKey));
+        searchIndex.remove(SearchDocumentType.SSH_KEY, sshKey.getId());
+    }
+
+    /**
+     * Reads an SSH key from its projected row.
+     *
+     * @param id ID of the SSH key
+     * @return a detached key with its version
+     * @throws SshKeyNotFoundException if the key is not found
+     */
+    private SshKey findRow(Long id) {
+        List<Object[]> rows = sshKeyRepository.findRowById(id);
+        if (rows.isEmpty()) {
             throw new SshKeyNotFoundException(SSH_KEY_NOT_FOUND);
         }
-
-        sshKeyRepository.deleteById(id);
+        return SshKeyMapper.mapRowToSshKey(rows.get(0));
     }
 
     /**
@@ -149,28 +265,14 @@ public class SshKeyServiceImpl implements SshKeyService {
      * <p>
      * Business rules:
      * <ul>
-     *     <li>For {@code ssh-rsa}, key must be at least 300 characters</li>
-     *     <li>For {@code ssh-ed25519}, key must be between 40 and 100 characters</li>
+     *     <li>400 if the key type is not registered in {@link SshKeyTypeRegistry}</li>
+     *     <li>400 if the key content does not match the structure of its type</li>
      * </ul>
      *
      * @param sshKeyDTO SSH key DTO to validate
      * @throws InvalidSshKeyException if thet key fails validation.
-     * @implNote This validation is basic and should be improved
      */
     private void validateSshKey(SshKeyRequestDTO.SshKeyDTO sshKeyDTO) {
-        String type = sshKeyDTO.getType();
-        String publicKey = sshKeyDTO.getPublicKey();
-
-        if ("ssh-rsa".equals(type)) {
-            if (publicKey.length() < 300) {
-                throw new InvalidSshKeyException(SSH_KEY_INVALID_RSA);
-            }
-        }
-
-        if ("ssh-ed25519".equals(type)) {
-            if (publicKey.length() < 40 || publicKey.length() > 100) {
-                throw new InvalidSshKeyException(SSH_KEY_INVALID_ED25519);
-            }
-        }
+        sshKeyTypeRegistry.validate(sshKeyDTO.getType(), sshKeyDTO.getPublicKey());
     }
 }
@@ -0,0 +1,46 @@
+package org.ksa.shard;
+
+/**
+ * Shard used by the current thread, read by {@link ShardRoutingDataSource} when a connection is obtained.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * Returns the shard of the current thread.
+     *
+     * @return shard index, or {@code null} for the default shard
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Selects the shard of the current thread.
+     *
+     * @param shard shard index, or {@code null} for the default shard
+     * @return the previously selected shard, to be passed to {@link #restore(Integer)}
+     */
+    public static Integer set(Integer shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    /**
+     * Restores the shard selected before {@link #set(Integer)}.
+     *
+     * @param previous value returned by {@link #set(Integer)}
+     */
+    public static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
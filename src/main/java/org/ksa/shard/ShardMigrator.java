@@ -0,0 +1,300 @@
+package org.ksa.shard;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moves SSH keys between shards when the number of shards changes.
+ * <p>
+ * The migration runs while the application is stopped and its outbox rows have been relayed:
+ * <ol>
+ *     <li>Every source shard is scanned in ID order, in parallel with the other source shards. Keys whose
+ *     server belongs to another shard under the new ring are copied there with their ID and version, then
+ *     deleted from the source shard.</li>
+ *     <li>The identity counters of {@code ssh_keys} and {@code outbox_events} on every target shard are moved
+ *     past all IDs used on any shard and aligned to the shard's ID sequence, so new IDs are unique. This
+ *     happens last, as some databases move the counter when a row is inserted with an explicit ID.</li>
+ * </ol>
+ * Each batch is first removed from the target shard, so a migration interrupted between the copy and the
+ * delete can simply be run again.
+ */
+@Slf4j
+public class ShardMigrator {
+
+    private static final String[] TABLES = {"ssh_keys", "outbox_events"};
+    private static final String SELECT_SQL = "SELECT id, server_type, server_name, key_type, public_key, comment,"
+            + " version FROM ssh_keys WHERE id > ? ORDER BY id";
+    private static final String INSERT_SQL = "INSERT INTO ssh_keys (id, server_type, server_name, key_type, public_key,"
+            + " comment, version) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_SQL = "DELETE FROM ssh_keys WHERE id = ?";
+
+    private final List<DataSource> shards;
+    private final ShardRing from;
+    private final ShardRing to;
+    private final int idStride;
+    private final int batchSize;
+
+    /**
+     * Constructor for {@code ShardMigrator}.
+     *
+     * @param shards    data sources of all shards of both layouts, by shard index
+     * @param from      ring of the current layout
+     * @param to        ring of the new layout
+     * @param idStride  distance between two IDs generated by the same shard
+     * @param batchSize rows read, copied and deleted per statement batch
+     */
+    public ShardMigrator(List<? extends DataSource> shards, ShardRing from, ShardRing to, int idStride, int batchSize) {
+        if (shards.size() < Math.max(from.getShardCount(), to.getShardCount())) {
+            throw new IllegalArgumentException("Both layouts need a data source for each of their shards");
+        }
+        if (idStride < to.getShardCount()) {
+            throw new IllegalArgumentException("The ID stride must be at least the number of shards");
+        }
+        this.shards = new ArrayList<>(shards);
+        this.from = from;
+        this.to = to;
+        this.idStride = idStride;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Runs the migration.
+     *
+     * @return number of keys moved between each pair of shards
+     * @throws SQLException if a shard cannot be read or written
+     */
+    public List<ShardMoveStats> migrate() throws SQLException {
+        for (int shard = 0; shard < from.getShardCount(); shard++) {
+            long pending = count(shards.get(shard), "SELECT COUNT(*) FROM outbox_events");
+            if (pending > 0) {
+                throw new IllegalStateException("Shard " + shard + " has " + pending
+                        + " outbox events that are not relayed yet");
+            }
+        }
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(from.getShardCount(), runnable -> {
+            Thread thread = new Thread(runnable, "shard-migration-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int shard = 0; shard < from.getShardCount(); shard++) {
+                int source = shard;
+                futures.add(executor.submit(() -> moveFrom(source)));
+            }
+            List<ShardMoveStats> stats = new ArrayList<>();
+            for (int source = 0; source < futures.size(); source++) {
+                long[] moved = await(futures.get(source));
+                for (int target = 0; target < moved.length; target++) {
+                    if (moved[target] > 0) {
+                        stats.add(new ShardMoveStats(source, target, moved[target]));
+                    }
+                }
+            }
+            for (String table : TABLES) {
+                alignIdentities(table);
+            }
+            return stats;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the first ID at or after {@code minimum} generated by a shard.
+     *
+     * @param minimum  lowest acceptable ID
+     * @param shard    shard index
+     * @param idStride distance between two IDs generated by the same shard
+     * @return the aligned ID
+     */
+    static long nextId(long minimum, int shard, int idStride) {
+        long first = Math.max(minimum, 1);
+        return first + Math.floorMod(shard - ShardRouter.originShard(first, idStride), idStride);
+    }
+
+    private void alignIdentities(String table) throws SQLException {
+        long used = 0;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            try (Connection connection = shards.get(shard).getConnection()) {
+                used = Math.max(used, count(connection, "SELECT COALESCE(MAX(id), 0) FROM " + table));
+                Long next = identityCounter(connection, table);
+                if (next != null) {
+                    used = Math.max(used, next - 1);
+                }
+            }
+        }
+        for (int shard = 0; shard < to.getShardCount(); shard++) {
+            long next = nextId(used + 1, shard, idStride);
+            try (Connection connection = shards.get(shard).getConnection();
+                 Statement statement = connection.createStatement()) {
+                if (isMySql(connection)) {
+                    statement.execute("ALTER TABLE " + table + " AUTO_INCREMENT = " + next);
+                } else {
+                    statement.execute("ALTER TABLE " + table + " ALTER COLUMN id SET INCREMENT BY " + idStride
+                            + " RESTART WITH " + next);
+                }
+            }
+            log.info("Next {} ID on shard {} is {}", table, shard, next);
+        }
+    }
+
+    /**
+     * Returns the next value of the identity counter, or {@code null} if it cannot be read.
+     */
+    private static Long identityCounter(Connection connection, String table) throws SQLException {
+        String sql;
+        if (isMySql(connection)) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET SESSION information_schema_stats_expiry = 0");
+            } catch (SQLException ex) {
+                log.debug("Table statistics may be cached", ex);
+            }
+            sql = "SELECT AUTO_INCREMENT FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() "
+                    + "AND LOWER(TABLE_NAME) = ?";
+        } else if ("H2".equals(connection.getMetaData().getDatabaseProductName())) {
+            sql = "SELECT IDENTITY_BASE FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = CURRENT_SCHEMA "
+                    + "AND LOWER(TABLE_NAME) = ? AND LOWER(COLUMN_NAME) = 'id'";
+        } else {
+            return null;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, table);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getObject(1) != null ? result.getLong(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Moves the keys of a source shard that belong to other shards.
+     *
+     * @return number of keys moved, by target shard
+     */
+    private long[] moveFrom(int source) throws SQLException {
+        long[] moved = new long[to.getShardCount()];
+        long lastId = 0;
+        while (true) {
+            List<Object[]> page = new ArrayList<>(batchSize);
+            try (Connection connection = shards.get(source).getConnection();
+                 PreparedStatement select = connection.prepareStatement(SELECT_SQL)) {
+                select.setMaxRows(batchSize);
+                select.setLong(1, lastId);
+                try (ResultSet result = select.executeQuery()) {
+                    while (result.next()) {
+                        page.add(new Object[]{result.getLong(1), result.getString(2), result.getString(3),
+                                result.getString(4), result.getString(5), result.getString(6), result.getLong(7)});
+                    }
+                }
+            }
+            if (page.isEmpty()) {
+                return moved;
+            }
+            lastId = (Long) page.get(page.size() - 1)[0];
+
+            Map<Integer, List<Object[]>> byTarget = new TreeMap<>();
+            for (Object[] row : page) {
+                int target = to.shardFor((String) row[1], (String) row[2]);
+                if (target != source) {
+                    byTarget.computeIfAbsent(target, shard -> new ArrayList<>()).add(row);
+                }
+            }
+            for (Map.Entry<Integer, List<Object[]>> entry : byTarget.entrySet()) {
+                copy(shards.get(entry.getKey()), entry.getValue());
+                delete(shards.get(source), entry.getValue());
+                moved[entry.getKey()] += entry.getValue().size();
+            }
+        }
+    }
+
+    private static void copy(DataSource target, List<Object[]> rows) throws SQLException {
+        try (Connection connection = target.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement delete = connection.prepareStatement(DELETE_SQL);
+                 PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+                for (Object[] row : rows) {
+                    delete.setLong(1, (Long) row[0]);
+                    delete.addBatch();
+                    for (int i = 0; i < row.length; i++) {
+                        insert.setObject(i + 1, row[i]);
+                    }
+                    insert.addBatch();
+                }
+                delete.executeBatch();
+                insert.executeBatch();
+                connection.commit();
+            } catch (SQLException | RuntimeException ex) {
+                connection.rollback();
+                throw ex;
+            }
+        }
+    }
+
+    private static void delete(DataSource source, List<Object[]> rows) throws SQLException {
+        try (Connection connection = source.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement delete = connection.prepareStatement(DELETE_SQL)) {
+                for (Object[] row : rows) {
+                    delete.setLong(1, (Long) row[0]);
+                    delete.addBatch();
+                }
+                delete.executeBatch();
+                connection.commit();
+            } catch (SQLException | RuntimeException ex) {
+                connection.rollback();
+                throw ex;
+            }
+        }
+    }
+
+    private static long count(DataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return count(connection, sql);
+        }
+    }
+
+    private static long count(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    private static boolean isMySql(Connection connection) throws SQLException {
+        return "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+    }
+
+    private static <T> T await(Future<T> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while moving SSH keys", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
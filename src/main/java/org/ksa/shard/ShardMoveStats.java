@@ -0,0 +1,41 @@
+package org.ksa.shard;
+
+/**
+ * Number of SSH keys moved from one shard to another by {@link ShardMigrator}.
+ */
+public class ShardMoveStats {
+
+    private final int source;
+    private final int target;
+    private final long rows;
+
+    /**
+     * Constructor for {@code ShardMoveStats}.
+     *
+     * @param source shard the keys were moved from
+     * @param target shard the keys were moved to
+     * @param rows   number of keys moved
+     */
+    public ShardMoveStats(int source, int target, long rows) {
+        this.source = source;
+        this.target = target;
+        this.rows = rows;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public int getTarget() {
+        return target;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("shard %d -> shard %d: %d SSH keys", source, target, rows);
+    }
+}
@@ -0,0 +1,100 @@
+package org.ksa.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Consistent-hash ring assigning each server to a shard.
+ * <p>
+ * Every shard owns a fixed number of virtual nodes on a 64-bit ring; a server belongs to the shard owning the
+ * first node at or after the hash of {@code serverType/serverName}. When a shard is added, only the servers
+ * now closest to one of its nodes move (about {@code 1/n} of them), which keeps resharding cheap. Server types
+ * can also be pinned to a shard, for example to keep a large fleet on dedicated hardware.
+ */
+public final class ShardRing {
+
+    private final int shardCount;
+    private final long[] points;
+    private final int[] owners;
+    private final Map<String, Integer> pinnedServerTypes;
+
+    /**
+     * Constructor for {@code ShardRing}.
+     *
+     * @param shardCount        number of shards
+     * @param virtualNodes      virtual nodes per shard
+     * @param pinnedServerTypes shards of server types that are not hashed
+     */
+    public ShardRing(int shardCount, int virtualNodes, Map<String, Integer> pinnedServerTypes) {
+        if (shardCount < 1 || virtualNodes < 1) {
+            throw new IllegalArgumentException("At least one shard and one virtual node are required");
+        }
+        pinnedServerTypes.forEach((serverType, shard) -> {
+            if (shard < 0 || shard >= shardCount) {
+                throw new IllegalArgumentException("Server type " + serverType + " is pinned to unknown shard " + shard);
+            }
+        });
+        this.shardCount = shardCount;
+        this.pinnedServerTypes = Collections.unmodifiableMap(new HashMap<>(pinnedServerTypes));
+
+        long[] hashes = new long[shardCount * virtualNodes];
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                hashes[shard * virtualNodes + node] = hash("shard-" + shard + "#" + node);
+            }
+        }
+        long[] sorted = hashes.clone();
+        Arrays.sort(sorted);
+        points = sorted;
+        owners = new int[sorted.length];
+        for (int i = 0; i < hashes.length; i++) {
+            owners[Arrays.binarySearch(sorted, hashes[i])] = i / virtualNodes;
+        }
+    }
+
+    /**
+     * Returns the shard of a server.
+     *
+     * @param serverType type of the server
+     * @param serverName name of the server
+     * @return shard index between {@code 0} and {@code shardCount - 1}
+     */
+    public int shardFor(String serverType, String serverName) {
+        Integer pinned = pinnedServerTypes.get(serverType);
+        if (pinned != null) {
+            return pinned;
+        }
+        if (shardCount == 1) {
+            return 0;
+        }
+        int index = Arrays.binarySearch(points, hash(serverType + "/" + serverName));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, followed by the MurmurHash3 finalizer to spread similar names.
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,35 @@
+package org.ksa.shard;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method whose database work belongs to a single shard.
+ * <p>
+ * Handled by {@link ShardRoutingAspect}, which runs before the transaction is opened and selects the shard
+ * from the method arguments as described by {@link #value()}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardRouted {
+
+    /**
+     * Arguments identifying the shard.
+     */
+    enum By {
+        /**
+         * The first two arguments are the server type and server name.
+         */
+        SERVER,
+        /**
+         * The first argument is the ID of an SSH key, which is looked up on the shards.
+         */
+        SSH_KEY_ID
+    }
+
+    By value();
+}
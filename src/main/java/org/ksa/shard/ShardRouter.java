@@ -0,0 +1,191 @@
+package org.ksa.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Maps servers and SSH key IDs to shards and runs queries on all shards in parallel.
+ * <p>
+ * SSH key IDs are unique across shards: shard {@code i} generates IDs {@code i + 1 + k * idStride}. An ID is
+ * therefore first looked up on the shard that generated it; only keys moved by resharding (or created before
+ * sharding was enabled) need a scatter-gather over the other shards.
+ */
+@Slf4j
+public class ShardRouter implements Closeable {
+
+    private static final String EXISTS_SQL = "SELECT COUNT(*) FROM ssh_keys WHERE id = ?";
+
+    private final ShardRing ring;
+    private final List<DataSource> dataSources;
+    private final List<JdbcTemplate> shards;
+    private final int idStride;
+    private final ExecutorService executor;
+
+    private final LongAdder originLookups = new LongAdder();
+    private final LongAdder scatterLookups = new LongAdder();
+    private final LongAdder missedLookups = new LongAdder();
+
+    /**
+     * Constructor for {@code ShardRouter}.
+     *
+     * @param ring        ring assigning servers to shards
+     * @param dataSources data sources of the shards, by shard index; closed with the router
+     * @param idStride    distance between two IDs generated by the same shard
+     */
+    public ShardRouter(ShardRing ring, List<? extends DataSource> dataSources, int idStride) {
+        if (ring.getShardCount() != dataSources.size()) {
+            throw new IllegalArgumentException("The ring has " + ring.getShardCount() + " shards but "
+                    + dataSources.size() + " data sources are configured");
+        }
+        if (idStride < dataSources.size()) {
+            throw new IllegalArgumentException("The ID stride must be at least the number of shards");
+        }
+        this.ring = ring;
+        this.dataSources = new ArrayList<>(dataSources);
+        this.shards = new ArrayList<>(dataSources.size());
+        dataSources.forEach(dataSource -> shards.add(new JdbcTemplate(dataSource)));
+        this.idStride = idStride;
+
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, dataSources.size() - 1), runnable -> {
+            Thread thread = new Thread(runnable, "shard-scatter-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the shard holding the SSH keys of a server.
+     *
+     * @param serverType type of the server
+     * @param serverName name of the server
+     * @return shard index
+     */
+    public int shardFor(String serverType, String serverName) {
+        return ring.shardFor(serverType, serverName);
+    }
+
+    /**
+     * Finds the shard holding an SSH key, starting with the shard that generated its ID.
+     *
+     * @param id ID of the SSH key
+     * @return shard index, or {@code null} if no shard holds the key
+     */
+    public Integer locateSshKey(long id) {
+        int origin = originShard(id, idStride);
+        if (origin < shards.size() && exists(shards.get(origin), id)) {
+            originLookups.increment();
+            return origin;
+        }
+        List<Boolean> found = scatter(shard -> exists(shard, id));
+        for (int shard = 0; shard < found.size(); shard++) {
+            if (shard != origin && found.get(shard)) {
+                scatterLookups.increment();
+                return shard;
+            }
+        }
+        missedLookups.increment();
+        return null;
+    }
+
+    /**
+     * Runs a query on every shard in parallel, the first shard on the calling thread.
+     *
+     * @param query query to run on a shard
+     * @param <T>   result type
+     * @return results by shard index
+     */
+    public <T> List<T> scatter(Function<JdbcTemplate, T> query) {
+        List<Future<T>> futures = new ArrayList<>(shards.size() - 1);
+        for (int shard = 1; shard < shards.size(); shard++) {
+            JdbcTemplate template = shards.get(shard);
+            futures.add(executor.submit(() -> query.apply(template)));
+        }
+        List<T> results = new ArrayList<>(shards.size());
+        results.add(query.apply(shards.get(0)));
+        for (Future<T> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public List<DataSource> getDataSources() {
+        return Collections.unmodifiableList(dataSources);
+    }
+
+    public long getOriginLookups() {
+        return originLookups.sum();
+    }
+
+    public long getScatterLookups() {
+        return scatterLookups.sum();
+    }
+
+    public long getMissedLookups() {
+        return missedLookups.sum();
+    }
+
+    /**
+     * Stops the scatter-gather threads and closes the shard data sources.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) dataSource).close();
+                } catch (Exception ex) {
+                    log.warn("Could not close shard data source", ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the shard that generated an ID.
+     *
+     * @param id       generated ID
+     * @param idStride distance between two IDs generated by the same shard
+     * @return shard index
+     */
+    static int originShard(long id, int idStride) {
+        return (int) Math.floorMod(id - 1, (long) idStride);
+    }
+
+    private static boolean exists(JdbcTemplate shard, long id) {
+        Long count = shard.queryForObject(EXISTS_SQL, Long.class, id);
+        return count != null && count > 0;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shard", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+}
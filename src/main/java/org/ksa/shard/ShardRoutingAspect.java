@@ -0,0 +1,53 @@
+package org.ksa.shard;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Aspect selecting the shard of {@link ShardRouted} methods.
+ * <p>
+ * Ordered after {@link org.ksa.concurrent.CoalescingAspect} and before the transaction interceptor, so only
+ * leading invocations look up the shard and the transaction's first statement already goes to it. A key ID
+ * found on no shard leaves the default shard selected, where the method reports it as not found.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ShardRoutingAspect {
+
+    private final ShardRouter shardRouter;
+
+    /**
+     * Constructor for {@code ShardRoutingAspect}.
+     *
+     * @param shardRouter router mapping servers and SSH key IDs to shards
+     */
+    public ShardRoutingAspect(ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * Runs the invocation with its shard selected.
+     *
+     * @param joinPoint   intercepted invocation
+     * @param shardRouted routing of the intercepted method
+     * @return result of the invocation
+     * @throws Throwable exception thrown by the invocation
+     */
+    @Around("@annotation(shardRouted)")
+    public Object route(ProceedingJoinPoint joinPoint, ShardRouted shardRouted) throws Throwable {
+        Object[] args = joinPoint.getArgs();
+        Integer shard = shardRouted.value() == ShardRouted.By.SERVER
+                ? Integer.valueOf(shardRouter.shardFor((String) args[0], (String) args[1]))
+                : shardRouter.locateSshKey((Long) args[0]);
+
+        Integer previous = ShardContext.set(shard);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+}
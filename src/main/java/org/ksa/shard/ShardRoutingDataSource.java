@@ -0,0 +1,36 @@
+package org.ksa.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data source routing each connection to the shard selected in {@link ShardContext}, or to shard {@code 0}.
+ * <p>
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so a
+ * transaction obtains its connection on the first statement, after the shard has been selected.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Constructor for {@code ShardRoutingDataSource}.
+     *
+     * @param shards data sources of the shards, by shard index
+     */
+    public ShardRoutingDataSource(List<? extends DataSource> shards) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+    }
+
+    @Override
+    protected Integer determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
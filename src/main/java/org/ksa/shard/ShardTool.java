@@ -0,0 +1,112 @@
+package org.ksa.shard;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line tool moving SSH keys to their shards after the number of shards changed.
+ * <p>
+ * Stop the application once the outbox relay has drained all shards, run the tool with every shard of the
+ * current and the new layout, in shard order, then start the application with the new shard list:
+ * <pre>
+ * java -cp app.jar -Dloader.main=org.ksa.shard.ShardTool org.springframework.boot.loader.PropertiesLauncher \
+ *     --from 2 --to 3 --url jdbc:mysql://db0/keys --url jdbc:mysql://db1/keys --url jdbc:mysql://db2/keys
+ * </pre>
+ * Options: {@code --from}, {@code --to}, {@code --url} (repeated, shard 0 first), {@code --username},
+ * {@code --password}, {@code --pin serverType=shard} (repeated), {@code --virtual-nodes}, {@code --id-stride},
+ * {@code --batch-size}. The ring settings must match {@code app.sharding.*} of the application.
+ */
+public final class ShardTool {
+
+    private ShardTool() {
+    }
+
+    /**
+     * Entry point of the tool.
+     *
+     * @param args options
+     * @throws SQLException if a shard cannot be read or written
+     */
+    public static void main(String[] args) throws SQLException {
+        List<String> urls = new ArrayList<>();
+        Map<String, Integer> pinned = new HashMap<>();
+        String username = System.getenv("SPRING_DATASOURCE_USERNAME");
+        String password = System.getenv("SPRING_DATASOURCE_PASSWORD");
+        int from = 0;
+        int to = 0;
+        int virtualNodes = 128;
+        int idStride = 16;
+        int batchSize = 1000;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--from":
+                    from = Integer.parseInt(value);
+                    break;
+                case "--to":
+                    to = Integer.parseInt(value);
+                    break;
+                case "--url":
+                    urls.add(value);
+                    break;
+                case "--username":
+                    username = value;
+                    break;
+                case "--password":
+                    password = value;
+                    break;
+                case "--pin":
+                    String[] pin = value.split("=", 2);
+                    pinned.put(pin[0], Integer.parseInt(pin[1]));
+                    break;
+                case "--virtual-nodes":
+                    virtualNodes = Integer.parseInt(value);
+                    break;
+                case "--id-stride":
+                    idStride = Integer.parseInt(value);
+                    break;
+                case "--batch-size":
+                    batchSize = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (from < 1 || to < 1 || urls.size() < Math.max(from, to)) {
+            throw new IllegalArgumentException(
+                    "Usage: ShardTool --from <shards> --to <shards> --url <shard 0> [--url <shard 1> ...] [options]");
+        }
+
+        List<HikariDataSource> shards = new ArrayList<>();
+        long start = System.nanoTime();
+        try {
+            for (int shard = 0; shard < urls.size(); shard++) {
+                HikariConfig config = new HikariConfig();
+                config.setJdbcUrl(urls.get(shard));
+                config.setUsername(username);
+                config.setPassword(password);
+                config.setMaximumPoolSize(Math.max(from, to) + 1);
+                config.setPoolName("shard-" + shard);
+                if (urls.get(shard).startsWith("jdbc:mysql:")) {
+                    // Sends each insert batch as one multi-row statement
+                    config.addDataSourceProperty("rewriteBatchedStatements", "true");
+                }
+                shards.add(new HikariDataSource(config));
+            }
+            ShardMigrator migrator = new ShardMigrator(shards, new ShardRing(from, virtualNodes, pinned),
+                    new ShardRing(to, virtualNodes, pinned), idStride, batchSize);
+            migrator.migrate().forEach(System.out::println);
+        } finally {
+            shards.forEach(HikariDataSource::close);
+        }
+        System.out.println("Resharding from " + from + " to " + to + " shards took "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
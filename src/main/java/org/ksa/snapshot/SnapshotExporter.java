@@ -0,0 +1,254 @@
+package org.ksa.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+/**
+ * Streams all tables into a snapshot file.
+ * <p>
+ * Each table is read on its own connection and thread into a temporary section file, so the export runs as
+ * fast as the slowest table. The sections are then copied into the snapshot with
+ * {@link FileChannel#transferTo}, followed by the table of contents, and the file is moved into place.
+ * <p>
+ * Each table is read in a single transaction, but the tables are read in separate transactions. For a snapshot
+ * that is consistent across tables, stop writes or export from a paused replica.
+ */
+@Slf4j
+public class SnapshotExporter {
+
+    private final DataSource dataSource;
+    private final int blockBytes;
+
+    /**
+     * Constructor for {@code SnapshotExporter}.
+     *
+     * @param dataSource database to export
+     * @param blockBytes payload size after which a block is written
+     */
+    public SnapshotExporter(DataSource dataSource, int blockBytes) {
+        this.dataSource = dataSource;
+        this.blockBytes = blockBytes;
+    }
+
+    /**
+     * Exports all tables into the file, replacing it if it exists.
+     *
+     * @param file snapshot file to write
+     * @return statistics per table
+     * @throws IOException  if the file cannot be written
+     * @throws SQLException if a table cannot be read
+     */
+    public List<SnapshotTableStats> export(Path file) throws IOException, SQLException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+
+        ExecutorService executor = SnapshotTasks.newExecutor("snapshot-export");
+        Map<SnapshotTable, Path> parts = new EnumMap<>(SnapshotTable.class);
+        try {
+            Map<SnapshotTable, Future<Part>> futures = new EnumMap<>(SnapshotTable.class);
+            for (SnapshotTable table : SnapshotTable.values()) {
+                Path part = directory.resolve(file.getFileName() + "." + table.getTableName() + ".part");
+                parts.put(table, part);
+                futures.put(table, executor.submit(() -> exportTable(table, part)));
+            }
+
+            List<Part> written = new ArrayList<>();
+            for (Future<Part> future : futures.values()) {
+                written.add(SnapshotTasks.await(future));
+            }
+            return assemble(file, written);
+        } finally {
+            executor.shutdownNow();
+            for (Path part : parts.values()) {
+                Files.deleteIfExists(part);
+            }
+        }
+    }
+
+    private Part exportTable(SnapshotTable table, Path part) throws IOException, SQLException {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection();
+             FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            connection.setReadOnly(true);
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+
+            BlockWriter writer = new BlockWriter(channel, table.getTypes(), blockBytes);
+            try (PreparedStatement statement = connection.prepareStatement(table.selectSql(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                // MySQL streams the result row by row only with this fetch size
+                statement.setFetchSize(SnapshotTasks.isMySql(connection) ? Integer.MIN_VALUE : 1000);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        writer.add(resultSet);
+                    }
+                }
+            }
+            writer.finish();
+            connection.commit();
+
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            log.info("Exported {} rows of {} in {} ms", writer.rows, table.getTableName(), millis);
+            return new Part(table, part, writer.rows, writer.bytes, (int) writer.crc.getValue(), millis);
+        }
+    }
+
+    private List<SnapshotTableStats> assemble(Path file, List<Part> parts) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        List<SnapshotTableStats> stats = new ArrayList<>();
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            SnapshotFormat.writeFully(out, ByteBuffer.wrap(SnapshotFormat.MAGIC));
+
+            ByteBuffer toc = ByteBuffer.allocate(parts.size() * 256);
+            for (Part part : parts) {
+                long offset = out.position();
+                try (FileChannel in = FileChannel.open(part.path, StandardOpenOption.READ)) {
+                    long copied = 0;
+                    while (copied < part.bytes) {
+                        copied += in.transferTo(copied, part.bytes - copied, out);
+                    }
+                }
+                byte[] name = part.table.getTableName().getBytes(StandardCharsets.UTF_8);
+                toc.putShort((short) name.length).put(name)
+                        .putLong(offset).putLong(part.bytes).putLong(part.rows).putInt(part.crc);
+                stats.add(new SnapshotTableStats(part.table, part.rows, part.bytes, part.millis));
+            }
+            toc.flip();
+
+            CRC32 tocCrc = new CRC32();
+            tocCrc.update(toc.duplicate());
+            ByteBuffer footer = ByteBuffer.allocate(SnapshotFormat.FOOTER_BYTES);
+            footer.putLong(out.position()).putInt(toc.remaining()).putInt((int) tocCrc.getValue()).flip();
+            SnapshotFormat.writeFully(out, toc, footer);
+            out.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return stats;
+    }
+
+    private static final class Part {
+
+        private final SnapshotTable table;
+        private final Path path;
+        private final long rows;
+        private final long bytes;
+        private final int crc;
+        private final long millis;
+
+        private Part(SnapshotTable table, Path path, long rows, long bytes, int crc, long millis) {
+            this.table = table;
+            this.path = path;
+            this.rows = rows;
+            this.bytes = bytes;
+            this.crc = crc;
+            this.millis = millis;
+        }
+    }
+
+    /**
+     * Encodes rows into blocks and writes each full block with one gathering write.
+     */
+    private static final class BlockWriter {
+
+        private final FileChannel channel;
+        private final SnapshotTable.ColumnType[] types;
+        private final int blockBytes;
+        private final ByteBuffer header = ByteBuffer.allocate(SnapshotFormat.BLOCK_HEADER_BYTES);
+        private final CRC32 blockCrc = new CRC32();
+        private final CRC32 crc = new CRC32();
+
+        private ByteBuffer payload;
+        private int blockRows;
+        private long rows;
+        private long bytes;
+
+        private BlockWriter(FileChannel channel, SnapshotTable.ColumnType[] types, int blockBytes) {
+            this.channel = channel;
+            this.types = types;
+            this.blockBytes = blockBytes;
+            this.payload = ByteBuffer.allocate(blockBytes + 1024);
+        }
+
+        private void add(ResultSet resultSet) throws SQLException, IOException {
+            for (int i = 0; i < types.length; i++) {
+                if (types[i] == SnapshotTable.ColumnType.LONG) {
+                    ensureCapacity(10);
+                    SnapshotFormat.putVarLong(payload, resultSet.getLong(i + 1));
+                } else {
+                    byte[] encoded;
+                    if (types[i] == SnapshotTable.ColumnType.BYTES) {
+                        encoded = resultSet.getBytes(i + 1);
+                    } else {
+                        String value = resultSet.getString(i + 1);
+                        encoded = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+                    }
+                    if (encoded == null) {
+                        ensureCapacity(1);
+                        SnapshotFormat.putVarLong(payload, 0);
+                    } else {
+                        ensureCapacity(encoded.length + 5);
+                        SnapshotFormat.putVarLong(payload, encoded.length + 1L);
+                        payload.put(encoded);
+                    }
+                }
+            }
+            blockRows++;
+            rows++;
+            if (payload.position() >= blockBytes) {
+                flush();
+            }
+        }
+
+        private void finish() throws IOException {
+            if (blockRows > 0) {
+                flush();
+            }
+            channel.force(false);
+        }
+
+        private void flush() throws IOException {
+            payload.flip();
+            blockCrc.reset();
+            blockCrc.update(payload.duplicate());
+            header.clear();
+            header.putInt(blockRows).putInt(payload.remaining()).putInt((int) blockCrc.getValue()).flip();
+            crc.update(header.duplicate());
+            crc.update(payload.duplicate());
+            bytes += header.remaining() + payload.remaining();
+
+            SnapshotFormat.writeFully(channel, header, payload);
+            payload.clear();
+            blockRows = 0;
+        }
+
+        private void ensureCapacity(int needed) {
+            if (payload.remaining() < needed) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(payload.capacity() * 2, payload.position() + needed));
+                payload.flip();
+                payload = larger.put(payload);
+            }
+        }
+    }
+}
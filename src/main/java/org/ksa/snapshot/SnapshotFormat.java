@@ -0,0 +1,70 @@
+package org.ksa.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Layout of a snapshot file.
+ * <p>
+ * <pre>
+ * [magic "CKSNAP01"]
+ * [section of each table: blocks of [int rows][int payload bytes][int crc32 of payload][payload]]
+ * [table of contents: per section [short name length][name][long offset][long length][long rows][int crc32]]
+ * [footer: [long toc offset][int toc length][int toc crc32]]
+ * </pre>
+ * A row in a block payload is its column values in table order: numbers as unsigned variable-length integers,
+ * text and binary values as a variable-length byte count plus one (zero for {@code null}) followed by UTF-8 or
+ * the raw bytes. The CRC of a section covers all its blocks including their headers.
+ */
+final class SnapshotFormat {
+
+    static final byte[] MAGIC = "CKSNAP01".getBytes(StandardCharsets.US_ASCII);
+    static final int BLOCK_HEADER_BYTES = 3 * Integer.BYTES;
+    static final int FOOTER_BYTES = Long.BYTES + 2 * Integer.BYTES;
+
+    private SnapshotFormat() {
+    }
+
+    static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static long getVarLong(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed number in snapshot");
+    }
+
+    static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of snapshot");
+            }
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    static void writeFully(FileChannel channel, ByteBuffer... buffers) throws IOException {
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package org.ksa.snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Reads a snapshot file written by {@link SnapshotExporter}.
+ * <p>
+ * Sections are read with positional reads, so several threads can read different sections at the same time.
+ */
+public class SnapshotReader implements Closeable {
+
+    /**
+     * Receives the decoded rows of a section.
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+
+        /**
+         * Handles one row.
+         *
+         * @param values column values in table order; the array is reused for the next row
+         * @throws SQLException if the row cannot be stored
+         */
+        void row(Object[] values) throws SQLException;
+    }
+
+    private final FileChannel channel;
+    private final List<SnapshotSection> sections;
+
+    private SnapshotReader(FileChannel channel, List<SnapshotSection> sections) {
+        this.channel = channel;
+        this.sections = sections;
+    }
+
+    /**
+     * Opens a snapshot and reads its table of contents.
+     *
+     * @param file snapshot file
+     * @return reader of the snapshot
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static SnapshotReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < SnapshotFormat.MAGIC.length + SnapshotFormat.FOOTER_BYTES) {
+                throw new IOException("Snapshot " + file + " is truncated");
+            }
+            ByteBuffer magic = ByteBuffer.allocate(SnapshotFormat.MAGIC.length);
+            SnapshotFormat.readFully(channel, magic, 0);
+            if (!Arrays.equals(magic.array(), SnapshotFormat.MAGIC)) {
+                throw new IOException(file + " is not a snapshot");
+            }
+
+            ByteBuffer footer = ByteBuffer.allocate(SnapshotFormat.FOOTER_BYTES);
+            SnapshotFormat.readFully(channel, footer, size - SnapshotFormat.FOOTER_BYTES);
+            long tocOffset = footer.getLong();
+            int tocLength = footer.getInt();
+            int tocCrc = footer.getInt();
+            if (tocOffset + tocLength != size - SnapshotFormat.FOOTER_BYTES) {
+                throw new IOException("Snapshot " + file + " is truncated");
+            }
+
+            ByteBuffer toc = ByteBuffer.allocate(tocLength);
+            SnapshotFormat.readFully(channel, toc, tocOffset);
+            CRC32 crc = new CRC32();
+            crc.update(toc.duplicate());
+            if ((int) crc.getValue() != tocCrc) {
+                throw new IOException("Table of contents of snapshot " + file + " is corrupted");
+            }
+
+            List<SnapshotSection> sections = new ArrayList<>();
+            while (toc.hasRemaining()) {
+                byte[] name = new byte[toc.getShort()];
+                toc.get(name);
+                sections.add(new SnapshotSection(SnapshotTable.forTableName(new String(name, StandardCharsets.UTF_8)),
+                        toc.getLong(), toc.getLong(), toc.getLong(), toc.getInt()));
+            }
+            return new SnapshotReader(channel, Collections.unmodifiableList(sections));
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    public List<SnapshotSection> getSections() {
+        return sections;
+    }
+
+    /**
+     * Checks the checksums and row count of a section without decoding the rows.
+     *
+     * @param section section to check
+     * @throws IOException if the section is corrupted
+     */
+    public void verify(SnapshotSection section) throws IOException {
+        try {
+            read(section, null);
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Decodes the rows of a section, checking each block before its rows are handed over.
+     *
+     * @param section section to read
+     * @param handler receiver of the rows, or {@code null} to only check the section
+     * @return number of rows
+     * @throws IOException  if the section is corrupted
+     * @throws SQLException if the handler fails
+     */
+    public long read(SnapshotSection section, RowHandler handler) throws IOException, SQLException {
+        SnapshotTable.ColumnType[] types = section.getTable().getTypes();
+        Object[] values = new Object[types.length];
+        ByteBuffer header = ByteBuffer.allocate(SnapshotFormat.BLOCK_HEADER_BYTES);
+        ByteBuffer payload = ByteBuffer.allocate(0);
+        CRC32 blockCrc = new CRC32();
+        CRC32 sectionCrc = new CRC32();
+
+        long position = section.getOffset();
+        long end = section.getOffset() + section.getLength();
+        long rows = 0;
+        while (position < end) {
+            header.clear();
+            SnapshotFormat.readFully(channel, header, position);
+            int blockRows = header.getInt();
+            int length = header.getInt();
+            int expectedCrc = header.getInt();
+            if (blockRows <= 0 || length < 0 || position + SnapshotFormat.BLOCK_HEADER_BYTES + length > end) {
+                throw corrupted(section, position);
+            }
+            if (payload.capacity() < length) {
+                payload = ByteBuffer.allocate(length);
+            }
+            payload.clear().limit(length);
+            SnapshotFormat.readFully(channel, payload, position + SnapshotFormat.BLOCK_HEADER_BYTES);
+
+            blockCrc.reset();
+            blockCrc.update(payload.duplicate());
+            if ((int) blockCrc.getValue() != expectedCrc) {
+                throw corrupted(section, position);
+            }
+            header.rewind();
+            sectionCrc.update(header);
+            sectionCrc.update(payload.duplicate());
+
+            if (handler != null) {
+                try {
+                    for (int row = 0; row < blockRows; row++) {
+                        decode(payload, types, values);
+                        handler.row(values);
+                    }
+                } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException ex) {
+                    throw corrupted(section, position);
+                }
+                if (payload.hasRemaining()) {
+                    throw corrupted(section, position);
+                }
+            }
+            rows += blockRows;
+            position += SnapshotFormat.BLOCK_HEADER_BYTES + length;
+        }
+
+        if (rows != section.getRows() || (int) sectionCrc.getValue() != section.getCrc()) {
+            throw new IOException("Section " + section.getTable().getTableName() + " of the snapshot is corrupted");
+        }
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static void decode(ByteBuffer payload, SnapshotTable.ColumnType[] types, Object[] values)
+            throws IOException {
+        for (int i = 0; i < types.length; i++) {
+            long number = SnapshotFormat.getVarLong(payload);
+            if (types[i] == SnapshotTable.ColumnType.LONG) {
+                values[i] = number;
+            } else if (number == 0) {
+                values[i] = null;
+            } else {
+                int length = (int) (number - 1);
+                int offset = payload.arrayOffset() + payload.position();
+                values[i] = types[i] == SnapshotTable.ColumnType.BYTES
+                        ? Arrays.copyOfRange(payload.array(), offset, offset + length)
+                        : new String(payload.array(), offset, length, StandardCharsets.UTF_8);
+                payload.position(payload.position() + length);
+            }
+        }
+    }
+
+    private static IOException corrupted(SnapshotSection section, long position) {
+        return new IOException("Block at " + position + " in section " + section.getTable().getTableName()
+                + " of the snapshot is corrupted");
+    }
+}
@@ -0,0 +1,218 @@
+package org.ksa.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk-loads a snapshot file into empty tables.
+ * <p>
+ * The whole file is checked first, so a corrupted snapshot is rejected before any row is written. The
+ * secondary indexes are then dropped, each table is loaded on its own connection and thread with batched
+ * inserts, and the indexes are built once at the end. No table references another, so all tables load at
+ * the same time. On MySQL, foreign key and unique checks are switched off for the loading sessions.
+ * <p>
+ * Rows are committed batch by batch. If a restore fails, empty the tables before trying again.
+ */
+@Slf4j
+public class SnapshotRestorer {
+
+    private final DataSource dataSource;
+    private final int batchSize;
+
+    /**
+     * Constructor for {@code SnapshotRestorer}.
+     *
+     * @param dataSource database to restore into
+     * @param batchSize  rows per insert batch and commit
+     */
+    public SnapshotRestorer(DataSource dataSource, int batchSize) {
+        this.dataSource = dataSource;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Restores all tables of the snapshot.
+     *
+     * @param file snapshot file to read
+     * @return statistics per table
+     * @throws IOException           if the file cannot be read or is corrupted
+     * @throws SQLException          if the rows cannot be written
+     * @throws IllegalStateException if a table is not empty
+     */
+    public List<SnapshotTableStats> restore(Path file) throws IOException, SQLException {
+        ExecutorService executor = SnapshotTasks.newExecutor("snapshot-restore");
+        try (SnapshotReader reader = SnapshotReader.open(file);
+             Connection connection = dataSource.getConnection()) {
+            List<Future<Void>> checks = new ArrayList<>();
+            for (SnapshotSection section : reader.getSections()) {
+                checks.add(executor.submit(() -> {
+                    reader.verify(section);
+                    return null;
+                }));
+            }
+            for (Future<Void> check : checks) {
+                SnapshotTasks.await(check);
+            }
+
+            for (SnapshotSection section : reader.getSections()) {
+                requireEmpty(connection, section.getTable());
+            }
+            boolean mySql = SnapshotTasks.isMySql(connection);
+            Map<String, SnapshotTable> droppedIndexes = dropSecondaryIndexes(connection);
+
+            Map<SnapshotTable, Future<SnapshotTableStats>> loads = new EnumMap<>(SnapshotTable.class);
+            for (SnapshotSection section : reader.getSections()) {
+                loads.put(section.getTable(), executor.submit(() -> load(reader, section, mySql)));
+            }
+            List<SnapshotTableStats> stats = new ArrayList<>();
+            for (Future<SnapshotTableStats> load : loads.values()) {
+                stats.add(SnapshotTasks.await(load));
+            }
+
+            createIndexes(connection, droppedIndexes);
+            if (!mySql) {
+                restartIdentities(connection, loads.keySet());
+            }
+            return stats;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private SnapshotTableStats load(SnapshotReader reader, SnapshotSection section, boolean mySql)
+            throws IOException, SQLException {
+        long start = System.nanoTime();
+        SnapshotTable table = section.getTable();
+        SnapshotTable.ColumnType[] types = table.getTypes();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            if (mySql) {
+                setChecks(connection, 0);
+            }
+            try (PreparedStatement insert = connection.prepareStatement(table.insertSql())) {
+                int[] pending = new int[1];
+                long rows = reader.read(section, values -> {
+                    for (int i = 0; i < types.length; i++) {
+                        if (types[i] == SnapshotTable.ColumnType.LONG) {
+                            insert.setLong(i + 1, (Long) values[i]);
+                        } else if (values[i] == null) {
+                            insert.setNull(i + 1,
+                                    types[i] == SnapshotTable.ColumnType.BYTES ? Types.VARBINARY : Types.VARCHAR);
+                        } else if (types[i] == SnapshotTable.ColumnType.BYTES) {
+                            insert.setBytes(i + 1, (byte[]) values[i]);
+                        } else {
+                            insert.setString(i + 1, (String) values[i]);
+                        }
+                    }
+                    insert.addBatch();
+                    if (++pending[0] == batchSize) {
+                        insert.executeBatch();
+                        connection.commit();
+                        pending[0] = 0;
+                    }
+                });
+                if (pending[0] > 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                log.info("Restored {} rows of {} in {} ms", rows, table.getTableName(), millis);
+                return new SnapshotTableStats(table, rows, section.getLength(), millis);
+            } finally {
+                connection.rollback();
+                if (mySql) {
+                    setChecks(connection, 1);
+                }
+            }
+        }
+    }
+
+    private static void setChecks(Connection connection, int value) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET foreign_key_checks = " + value);
+            statement.execute("SET unique_checks = " + value);
+        }
+    }
+
+    private static void requireEmpty(Connection connection, SnapshotTable table) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.setMaxRows(1);
+            try (ResultSet resultSet = statement.executeQuery("SELECT 1 FROM " + table.getTableName())) {
+                if (resultSet.next()) {
+                    throw new IllegalStateException("Table " + table.getTableName() + " is not empty");
+                }
+            }
+        }
+    }
+
+    private static Map<String, SnapshotTable> dropSecondaryIndexes(Connection connection) throws SQLException {
+        Map<String, SnapshotTable> dropped = new LinkedHashMap<>();
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (SnapshotTable table : SnapshotTable.values()) {
+            List<String> existing = new ArrayList<>();
+            try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(),
+                    table.getTableName(), false, true)) {
+                while (indexes.next()) {
+                    existing.add(indexes.getString("INDEX_NAME"));
+                }
+            }
+            for (String index : table.getSecondaryIndexes().keySet()) {
+                if (existing.stream().anyMatch(index::equalsIgnoreCase)) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("ALTER TABLE " + table.getTableName() + " DROP INDEX " + index);
+                    }
+                    dropped.put(index, table);
+                }
+            }
+        }
+        return dropped;
+    }
+
+    private static void createIndexes(Connection connection, Map<String, SnapshotTable> indexes) throws SQLException {
+        for (Map.Entry<String, SnapshotTable> index : indexes.entrySet()) {
+            long start = System.nanoTime();
+            SnapshotTable table = index.getValue();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE INDEX " + index.getKey() + " ON " + table.getTableName()
+                        + " (" + table.getSecondaryIndexes().get(index.getKey()) + ")");
+            }
+            log.info("Built index {} in {} ms", index.getKey(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Moves identity columns past the restored IDs; MySQL does this on its own for explicit values.
+     */
+    private static void restartIdentities(Connection connection, Iterable<SnapshotTable> tables) throws SQLException {
+        for (SnapshotTable table : tables) {
+            String column = table.getIdentityColumn();
+            if (column == null) {
+                continue;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet max = statement.executeQuery("SELECT MAX(" + column + ") FROM " + table.getTableName())) {
+                max.next();
+                statement.execute("ALTER TABLE " + table.getTableName() + " ALTER COLUMN " + column
+                        + " RESTART WITH " + (max.getLong(1) + 1));
+            }
+        }
+    }
+}
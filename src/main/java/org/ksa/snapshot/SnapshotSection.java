@@ -0,0 +1,50 @@
+package org.ksa.snapshot;
+
+/**
+ * Location and checksum of the rows of one table in a snapshot file.
+ */
+public class SnapshotSection {
+
+    private final SnapshotTable table;
+    private final long offset;
+    private final long length;
+    private final long rows;
+    private final int crc;
+
+    /**
+     * Constructor for {@code SnapshotSection}.
+     *
+     * @param table  table of the rows
+     * @param offset file position of the first block
+     * @param length total size of the blocks
+     * @param rows   number of rows
+     * @param crc    CRC-32 of the blocks
+     */
+    public SnapshotSection(SnapshotTable table, long offset, long length, long rows, int crc) {
+        this.table = table;
+        this.offset = offset;
+        this.length = length;
+        this.rows = rows;
+        this.crc = crc;
+    }
+
+    public SnapshotTable getTable() {
+        return table;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public int getCrc() {
+        return crc;
+    }
+}
@@ -0,0 +1,113 @@
+package org.ksa.snapshot;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tables contained in a snapshot, in the order they are written to the file.
+ */
+public enum SnapshotTable {
+
+    COMPUTERS("computers", "id",
+            new String[]{"id", "type", "maker", "model", "language", "color_codes", "version"},
+            new ColumnType[]{ColumnType.LONG, ColumnType.STRING, ColumnType.STRING, ColumnType.STRING, ColumnType.STRING,
+                    ColumnType.BYTES, ColumnType.LONG},
+            "id", Map.of("idx_maker_model", "maker, model")),
+
+    COLORS("colors", "id",
+            new String[]{"id", "name"},
+            new ColumnType[]{ColumnType.LONG, ColumnType.STRING},
+            "id", Collections.emptyMap()),
+
+    SSH_KEYS("ssh_keys", "id",
+            new String[]{"id", "server_type", "server_name", "key_type", "public_key", "comment", "version"},
+            new ColumnType[]{ColumnType.LONG, ColumnType.STRING, ColumnType.STRING, ColumnType.STRING, ColumnType.STRING,
+                    ColumnType.STRING, ColumnType.LONG},
+            "id", Map.of("idx_server_type_name", "server_type, server_name"));
+
+    /**
+     * Encoding of a column value.
+     */
+    public enum ColumnType {
+        /** Non-null integer, written as a variable-length number. */
+        LONG,
+        /** Nullable text, written as a variable-length byte count followed by UTF-8. */
+        STRING,
+        /** Nullable binary value, written as a variable-length byte count followed by the bytes. */
+        BYTES
+    }
+
+    private final String tableName;
+    private final String identityColumn;
+    private final String[] columns;
+    private final ColumnType[] types;
+    private final String orderBy;
+    private final Map<String, String> secondaryIndexes;
+
+    SnapshotTable(String tableName, String identityColumn, String[] columns, ColumnType[] types, String orderBy,
+                  Map<String, String> secondaryIndexes) {
+        this.tableName = tableName;
+        this.identityColumn = identityColumn;
+        this.columns = columns;
+        this.types = types;
+        this.orderBy = orderBy;
+        this.secondaryIndexes = Collections.unmodifiableMap(new LinkedHashMap<>(secondaryIndexes));
+    }
+
+    /**
+     * Finds a table by its name in the database.
+     *
+     * @param tableName name of the table
+     * @return the matching table
+     * @throws IllegalArgumentException if the table is not part of a snapshot
+     */
+    public static SnapshotTable forTableName(String tableName) {
+        for (SnapshotTable table : values()) {
+            if (table.tableName.equals(tableName)) {
+                return table;
+            }
+        }
+        throw new IllegalArgumentException("Unknown snapshot table " + tableName);
+    }
+
+    /**
+     * Returns the query reading the rows in primary key order, so they are inserted in that order on restore.
+     *
+     * @return select statement
+     */
+    public String selectSql() {
+        return "SELECT " + String.join(", ", columns) + " FROM " + tableName + " ORDER BY " + orderBy;
+    }
+
+    /**
+     * Returns the statement inserting one row.
+     *
+     * @return insert statement with one parameter per column
+     */
+    public String insertSql() {
+        return "INSERT INTO " + tableName + " (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columns.length, "?")) + ")";
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getIdentityColumn() {
+        return identityColumn;
+    }
+
+    public ColumnType[] getTypes() {
+        return types.clone();
+    }
+
+    /**
+     * Returns the non-unique indexes, by name, that are dropped during a restore and built afterwards.
+     *
+     * @return column lists by index name
+     */
+    public Map<String, String> getSecondaryIndexes() {
+        return secondaryIndexes;
+    }
+}
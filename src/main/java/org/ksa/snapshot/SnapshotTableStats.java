@@ -0,0 +1,48 @@
+package org.ksa.snapshot;
+
+/**
+ * Result of exporting or restoring one table.
+ */
+public class SnapshotTableStats {
+
+    private final SnapshotTable table;
+    private final long rows;
+    private final long bytes;
+    private final long millis;
+
+    /**
+     * Constructor for {@code SnapshotTableStats}.
+     *
+     * @param table  table that was processed
+     * @param rows   number of rows
+     * @param bytes  size of the table section in the snapshot
+     * @param millis elapsed time
+     */
+    public SnapshotTableStats(SnapshotTable table, long rows, long bytes, long millis) {
+        this.table = table;
+        this.rows = rows;
+        this.bytes = bytes;
+        this.millis = millis;
+    }
+
+    public SnapshotTable getTable() {
+        return table;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d rows, %d bytes, %d ms", table.getTableName(), rows, bytes, millis);
+    }
+}
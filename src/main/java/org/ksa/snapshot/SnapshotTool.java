@@ -0,0 +1,96 @@
+package org.ksa.snapshot;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Command line tool to export the whole dataset into a snapshot file and to restore it into empty tables.
+ * <p>
+ * The database is taken from {@code SPRING_DATASOURCE_URL}, {@code SPRING_DATASOURCE_USERNAME} and
+ * {@code SPRING_DATASOURCE_PASSWORD}, or from the matching options:
+ * <pre>
+ * java -cp app.jar -Dloader.main=org.ksa.snapshot.SnapshotTool org.springframework.boot.loader.PropertiesLauncher \
+ *     export --file computers-and-keys.snap
+ * </pre>
+ * Options: {@code --file}, {@code --url}, {@code --username}, {@code --password}, {@code --batch-size} (restore),
+ * {@code --block-bytes} (export).
+ */
+public final class SnapshotTool {
+
+    private SnapshotTool() {
+    }
+
+    /**
+     * Entry point of the tool.
+     *
+     * @param args {@code export} or {@code restore}, followed by options
+     * @throws IOException  if the snapshot cannot be written or read
+     * @throws SQLException if the database cannot be read or written
+     */
+    public static void main(String[] args) throws IOException, SQLException {
+        if (args.length == 0 || !("export".equals(args[0]) || "restore".equals(args[0]))) {
+            throw new IllegalArgumentException("Usage: SnapshotTool export|restore --file <file> [options]");
+        }
+        Path file = Paths.get("snapshot.snap");
+        String url = System.getenv("SPRING_DATASOURCE_URL");
+        String username = System.getenv("SPRING_DATASOURCE_USERNAME");
+        String password = System.getenv("SPRING_DATASOURCE_PASSWORD");
+        int batchSize = 1000;
+        int blockBytes = 1 << 20;
+
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--file":
+                    file = Paths.get(value);
+                    break;
+                case "--url":
+                    url = value;
+                    break;
+                case "--username":
+                    username = value;
+                    break;
+                case "--password":
+                    password = value;
+                    break;
+                case "--batch-size":
+                    batchSize = Integer.parseInt(value);
+                    break;
+                case "--block-bytes":
+                    blockBytes = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (url == null) {
+            throw new IllegalArgumentException("Set SPRING_DATASOURCE_URL or --url");
+        }
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(SnapshotTable.values().length + 1);
+        config.setPoolName("snapshot");
+        if (url.startsWith("jdbc:mysql:")) {
+            // Sends each insert batch as one multi-row statement
+            config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        }
+
+        long start = System.nanoTime();
+        try (HikariDataSource dataSource = new HikariDataSource(config)) {
+            List<SnapshotTableStats> stats = "export".equals(args[0])
+                    ? new SnapshotExporter(dataSource, blockBytes).export(file)
+                    : new SnapshotRestorer(dataSource, batchSize).restore(file);
+            stats.forEach(System.out::println);
+        }
+        System.out.println(args[0] + " of " + file + " took " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
@@ -0,0 +1,28 @@
+package org.ksa.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stops the application as soon as it is ready.
+ * <p>
+ * Used for the training run that records the loaded classes for the class data sharing archive.
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "app.startup", name = "exit-on-ready", havingValue = "true")
+public class ExitOnReadyListener implements ApplicationListener<ApplicationReadyEvent> {
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        log.info("Exiting after startup (app.startup.exit-on-ready)");
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
@@ -0,0 +1,132 @@
+package org.ksa.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reports the duration of the startup phases once the application is ready.
+ * <p>
+ * Phases are the top-level steps recorded by {@link BufferingApplicationStartup}; the slowest bean
+ * instantiations are listed as well, including the time spent creating their dependencies. The report is
+ * logged and, if {@code app.startup.report-file} is set, appended to that file as one JSON line per start.
+ * The full timeline stays available at {@code /actuator/startup}. Runs before {@link ExitOnReadyListener}.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class StartupTimingReporter implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final ObjectMapper objectMapper;
+    private final String version;
+    private final String reportFile;
+    private final int slowestBeans;
+
+    /**
+     * Constructor for {@code StartupTimingReporter}.
+     *
+     * @param objectMapper mapper writing the report file
+     * @param version      application version recorded in the report
+     * @param reportFile   file the report is appended to, empty to only log it
+     * @param slowestBeans number of slowest bean instantiations to report
+     */
+    public StartupTimingReporter(ObjectMapper objectMapper,
+                                 @Value("${app.version:}") String version,
+                                 @Value("${app.startup.report-file:}") String reportFile,
+                                 @Value("${app.startup.slowest-beans:10}") int slowestBeans) {
+        this.objectMapper = objectMapper;
+        this.version = version;
+        this.reportFile = reportFile;
+        this.slowestBeans = slowestBeans;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup)) {
+            return;
+        }
+        StartupTimeline timeline = ((BufferingApplicationStartup) startup).getBufferedTimeline();
+
+        Map<String, Long> phases = new LinkedHashMap<>();
+        List<StartupTimeline.TimelineEvent> beans = new ArrayList<>();
+        for (StartupTimeline.TimelineEvent timelineEvent : timeline.getEvents()) {
+            StartupStep step = timelineEvent.getStartupStep();
+            if (step.getParentId() == null) {
+                phases.merge(step.getName(), timelineEvent.getDuration().toMillis(), Long::sum);
+            } else if ("spring.beans.instantiate".equals(step.getName())) {
+                beans.add(timelineEvent);
+            }
+        }
+        Map<String, Long> slowest = beans.stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(slowestBeans)
+                .collect(Collectors.toMap(StartupTimingReporter::beanName, e -> e.getDuration().toMillis(),
+                        Long::sum, LinkedHashMap::new));
+
+        long readyMillis = event.getTimeTaken() != null
+                ? event.getTimeTaken().toMillis()
+                : Duration.between(timeline.getStartTime(), Instant.now()).toMillis();
+
+        log.info("Application ready in {} ms, phases (ms): {}", readyMillis, phases);
+        log.info("Slowest bean instantiations (ms): {}", slowest);
+
+        if (!reportFile.isEmpty()) {
+            writeReport(readyMillis, phases, slowest);
+        }
+    }
+
+    private void writeReport(long readyMillis, Map<String, Long> phases, Map<String, Long> slowest) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("version", version);
+        report.put("readyMillis", readyMillis);
+        report.put("phases", phases);
+        report.put("slowestBeans", slowest);
+
+        Path path = Paths.get(reportFile);
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.write(path, (objectMapper.writeValueAsString(report) + System.lineSeparator())
+                            .getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+            log.warn("Could not write startup report to {}: {}", path, ex.getMessage());
+        }
+    }
+
+    private static String beanName(StartupTimeline.TimelineEvent timelineEvent) {
+        for (StartupStep.Tag tag : timelineEvent.getStartupStep().getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return String.valueOf(timelineEvent.getStartupStep().getId());
+    }
+}
@@ -0,0 +1,257 @@
+package org.ksa.suggest;
+
+import org.ksa.dto.ComputerSuggestionDTO;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * In-memory index of makers and {@code maker/model} pairs for type-ahead suggestions.
+ * <p>
+ * Entries are kept in one array sorted by their case-folded text, so all entries starting with a prefix are
+ * adjacent: a suggestion is a binary search followed by a scan of at most {@code limit} entries. Readers use
+ * the current array without locking; writers build a new array and publish it, which suits an inventory that
+ * is read far more often than it changes. A maker stays indexed while at least one of its models is.
+ * Inside a transaction, changes are applied after commit. Changes applied while a rebuild loads the computers
+ * are replayed on the loaded ones, so none is lost when the rebuilt array replaces the current one.
+ */
+@Component
+public class ComputerSuggestionIndex {
+
+    private static final Entry[] EMPTY = new Entry[0];
+    private static final Comparator<Entry> ORDER = Comparator.comparing((Entry entry) -> entry.key)
+            .thenComparing(entry -> entry.maker)
+            .thenComparing(entry -> entry.model, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private volatile Entry[] entries = EMPTY;
+    private final List<List<Change>> rebuilds = new ArrayList<>();
+
+    /**
+     * Replaces the indexed computers.
+     *
+     * @param makersAndModels maker and model of every computer
+     */
+    public void rebuild(List<String[]> makersAndModels) {
+        rebuild(() -> makersAndModels);
+    }
+
+    /**
+     * Replaces the indexed computers with the ones loaded by a query, replaying the adds and removes applied
+     * while it runs. A maker and model identify one computer, so replaying a change the query already saw is
+     * harmless.
+     *
+     * @param loader query returning the maker and model of every computer
+     */
+    public void rebuild(Supplier<List<String[]>> loader) {
+        List<Change> changes = new ArrayList<>();
+        synchronized (this) {
+            rebuilds.add(changes);
+        }
+        try {
+            List<String[]> makersAndModels = loader.get();
+            synchronized (this) {
+                Set<List<String>> computers = new LinkedHashSet<>();
+                for (String[] makerAndModel : makersAndModels) {
+                    computers.add(Arrays.asList(makerAndModel[0], makerAndModel[1]));
+                }
+                for (Change change : changes) {
+                    if (change.added) {
+                        computers.add(Arrays.asList(change.maker, change.model));
+                    } else {
+                        computers.remove(Arrays.asList(change.maker, change.model));
+                    }
+                }
+                entries = build(computers);
+            }
+        } finally {
+            synchronized (this) {
+                rebuilds.removeIf(pending -> pending == changes);
+            }
+        }
+    }
+
+    private static Entry[] build(Set<List<String>> computers) {
+        List<Entry> all = new ArrayList<>(computers.size() * 2);
+        for (List<String> makerAndModel : computers) {
+            all.add(new Entry(makerAndModel.get(0), null, 1));
+            all.add(new Entry(makerAndModel.get(0), makerAndModel.get(1), 1));
+        }
+        all.sort(ORDER);
+
+        List<Entry> merged = new ArrayList<>(all.size());
+        for (Entry entry : all) {
+            Entry last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && ORDER.compare(last, entry) == 0) {
+                merged.set(merged.size() - 1, last.withCount(last.count + 1));
+            } else {
+                merged.add(entry);
+            }
+        }
+        return merged.toArray(EMPTY);
+    }
+
+    /**
+     * Indexes a computer, after commit when called inside a transaction.
+     *
+     * @param maker manufacturer of the computer
+     * @param model model name of the computer
+     */
+    public void add(String maker, String model) {
+        afterCommit(() -> apply(new Change(maker, model, true)));
+    }
+
+    /**
+     * Removes a computer, after commit when called inside a transaction.
+     *
+     * @param maker manufacturer of the computer
+     * @param model model name of the computer
+     */
+    public void remove(String maker, String model) {
+        afterCommit(() -> apply(new Change(maker, model, false)));
+    }
+
+    /**
+     * Replaces the maker and model of a computer, after commit when called inside a transaction.
+     *
+     * @param oldMaker manufacturer before the change
+     * @param oldModel model name before the change
+     * @param maker    manufacturer after the change
+     * @param model    model name after the change
+     */
+    public void rename(String oldMaker, String oldModel, String maker, String model) {
+        if (!Objects.equals(oldMaker, maker) || !Objects.equals(oldModel, model)) {
+            remove(oldMaker, oldModel);
+            add(maker, model);
+        }
+    }
+
+    /**
+     * Returns the first indexed makers and {@code maker/model} pairs starting with a prefix, ignoring case.
+     *
+     * @param prefix beginning of a maker, or of a maker, a slash and a model
+     * @param limit  maximum number of suggestions
+     * @return suggestions in alphabetical order
+     */
+    public List<ComputerSuggestionDTO> suggest(String prefix, int limit) {
+        Entry[] current = entries;
+        String folded = fold(prefix == null ? "" : prefix);
+        int low = 0;
+        int high = current.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (current[mid].key.compareTo(folded) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        List<ComputerSuggestionDTO> suggestions = new ArrayList<>(Math.min(limit, current.length - low));
+        for (int i = low; i < current.length && suggestions.size() < limit && current[i].key.startsWith(folded); i++) {
+            suggestions.add(new ComputerSuggestionDTO(current[i].maker, current[i].model));
+        }
+        return Collections.unmodifiableList(suggestions);
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    private synchronized void apply(Change change) {
+        int delta = change.added ? 1 : -1;
+        adjust(new Entry(change.maker, change.model, 0), delta);
+        adjust(new Entry(change.maker, null, 0), delta);
+        rebuilds.forEach(pending -> pending.add(change));
+    }
+
+    private synchronized void adjust(Entry target, int delta) {
+        Entry[] current = entries;
+        int index = Arrays.binarySearch(current, target, ORDER);
+        if (index >= 0) {
+            int count = current[index].count + delta;
+            Entry[] next;
+            if (count > 0) {
+                next = current.clone();
+                next[index] = current[index].withCount(count);
+            } else {
+                next = new Entry[current.length - 1];
+                System.arraycopy(current, 0, next, 0, index);
+                System.arraycopy(current, index + 1, next, index, next.length - index);
+            }
+            entries = next;
+        } else if (delta > 0) {
+            int insertion = -index - 1;
+            Entry[] next = new Entry[current.length + 1];
+            System.arraycopy(current, 0, next, 0, insertion);
+            next[insertion] = target.withCount(delta);
+            System.arraycopy(current, insertion, next, insertion + 1, current.length - insertion);
+            entries = next;
+        }
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private static String fold(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Computer added or removed after commit.
+     */
+    private static final class Change {
+
+        private final String maker;
+        private final String model;
+        private final boolean added;
+
+        private Change(String maker, String model, boolean added) {
+            this.maker = maker;
+            this.model = model;
+            this.added = added;
+        }
+    }
+
+    /**
+     * Indexed maker ({@code model} is {@code null}) or {@code maker/model} pair, with the number of computers.
+     */
+    private static final class Entry {
+
+        private final String key;
+        private final String maker;
+        private final String model;
+        private final int count;
+
+        private Entry(String maker, String model, int count) {
+            this.key = model == null ? fold(maker) : fold(maker) + "/" + fold(model);
+            this.maker = maker;
+            this.model = model;
+            this.count = count;
+        }
+
+        private Entry withCount(int count) {
+            return new Entry(maker, model, count);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.ksa.validator;
+
+import org.ksa.exception.InvalidSshKeyException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.ksa.constants.ErrorMessages.SSH_KEY_INVALID_FOR_TYPE;
+
+/**
+ * Base class for validators that decode the public key blob and check its structure.
+ * <p>
+ * The blob must start with the key type name and must not contain trailing data.
+ * Subclasses only validate the type-specific fields that follow.
+ */
+public abstract class AbstractSshKeyTypeValidator implements SshKeyTypeValidator {
+
+    private final String type;
+    private final byte[] typeBytes;
+
+    protected AbstractSshKeyTypeValidator(String type) {
+        this.type = type;
+        this.typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public void validate(String publicKey) {
+        if (publicKey == null || !isValidContent(publicKey)) {
+            throw new InvalidSshKeyException(getInvalidMessage());
+        }
+    }
+
+    /**
+     * Validates the fields following the key type name.
+     *
+     * @param reader reader positioned after the key type name
+     * @return {@code true} if the fields are valid
+     */
+    protected abstract boolean validateFields(SshKeyBlobReader reader);
+
+    /**
+     * Returns the error message used when the key content is invalid.
+     *
+     * @return error message
+     */
+    protected String getInvalidMessage() {
+        return String.format(SSH_KEY_INVALID_FOR_TYPE, type);
+    }
+
+    private boolean isValidContent(String publicKey) {
+        try {
+            SshKeyBlobReader reader = new SshKeyBlobReader(Base64.getDecoder().decode(publicKey));
+            return reader.fieldEquals(typeBytes)
+                    && validateFields(reader)
+                    && !reader.hasRemaining();
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+}
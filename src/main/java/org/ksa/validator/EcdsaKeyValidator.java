@@ -0,0 +1,39 @@
+package org.ksa.validator;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Validator for {@code ecdsa-sha2-nistp*} keys.
+ * <p>
+ * The blob must contain the curve identifier matching the key type and an uncompressed curve point.
+ */
+public class EcdsaKeyValidator extends AbstractSshKeyTypeValidator {
+
+    private static final int UNCOMPRESSED_POINT = 0x04;
+
+    private final byte[] curve;
+    private final int pointLength;
+
+    /**
+     * Constructor for {@code EcdsaKeyValidator}.
+     *
+     * @param curve      curve identifier (e.g., {@code nistp256})
+     * @param fieldBytes size in bytes of a field element of the curve
+     */
+    public EcdsaKeyValidator(String curve, int fieldBytes) {
+        this("ecdsa-sha2-" + curve, curve, fieldBytes);
+    }
+
+    protected EcdsaKeyValidator(String type, String curve, int fieldBytes) {
+        super(type);
+        this.curve = curve.getBytes(StandardCharsets.US_ASCII);
+        this.pointLength = 1 + 2 * fieldBytes;
+    }
+
+    @Override
+    protected boolean validateFields(SshKeyBlobReader reader) {
+        return reader.fieldEquals(curve)
+                && reader.peekFieldFirstByte() == UNCOMPRESSED_POINT
+                && reader.skipField() == pointLength;
+    }
+}
@@ -0,0 +1,27 @@
+package org.ksa.validator;
+
+import static org.ksa.constants.ErrorMessages.SSH_KEY_INVALID_ED25519;
+
+/**
+ * Validator for {@code ssh-ed25519} keys.
+ * <p>
+ * The blob must contain a single 32-byte public key.
+ */
+public class Ed25519KeyValidator extends AbstractSshKeyTypeValidator {
+
+    static final int KEY_LENGTH = 32;
+
+    public Ed25519KeyValidator() {
+        super("ssh-ed25519");
+    }
+
+    @Override
+    protected boolean validateFields(SshKeyBlobReader reader) {
+        return reader.skipField() == KEY_LENGTH;
+    }
+
+    @Override
+    protected String getInvalidMessage() {
+        return SSH_KEY_INVALID_ED25519;
+    }
+}
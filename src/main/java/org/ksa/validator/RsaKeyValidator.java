@@ -0,0 +1,40 @@
+package org.ksa.validator;
+
+import org.ksa.exception.InvalidSshKeyException;
+
+import static org.ksa.constants.ErrorMessages.SSH_KEY_INVALID_RSA;
+
+/**
+ * Validator for {@code ssh-rsa} keys.
+ * <p>
+ * The key must be at least 300 characters long and carry a public exponent and a modulus of
+ * at least 2048 bits.
+ */
+public class RsaKeyValidator extends AbstractSshKeyTypeValidator {
+
+    private static final int MIN_LENGTH = 300;
+    private static final int MIN_MODULUS_BITS = 2048;
+
+    public RsaKeyValidator() {
+        super("ssh-rsa");
+    }
+
+    @Override
+    public void validate(String publicKey) {
+        if (publicKey == null || publicKey.length() < MIN_LENGTH) {
+            throw new InvalidSshKeyException(SSH_KEY_INVALID_RSA);
+        }
+        super.validate(publicKey);
+    }
+
+    @Override
+    protected boolean validateFields(SshKeyBlobReader reader) {
+        return reader.readMpintBitLength() > 0
+                && reader.readMpintBitLength() >= MIN_MODULUS_BITS;
+    }
+
+    @Override
+    protected String getInvalidMessage() {
+        return SSH_KEY_INVALID_RSA;
+    }
+}
@@ -0,0 +1,19 @@
+package org.ksa.validator;
+
+/**
+ * Validator for {@code sk-ecdsa-sha2-nistp256@openssh.com} FIDO/U2F security keys.
+ * <p>
+ * The blob carries the ECDSA fields followed by the FIDO application string.
+ */
+public class SkEcdsaKeyValidator extends EcdsaKeyValidator {
+
+    public SkEcdsaKeyValidator() {
+        super("sk-ecdsa-sha2-nistp256@openssh.com", "nistp256", 32);
+    }
+
+    @Override
+    protected boolean validateFields(SshKeyBlobReader reader) {
+        return super.validateFields(reader)
+                && reader.fieldStartsWith(SkEd25519KeyValidator.APPLICATION_PREFIX);
+    }
+}
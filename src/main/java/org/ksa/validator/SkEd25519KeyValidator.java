@@ -0,0 +1,23 @@
+package org.ksa.validator;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Validator for {@code sk-ssh-ed25519@openssh.com} FIDO/U2F security keys.
+ * <p>
+ * The blob carries a 32-byte public key followed by the FIDO application string.
+ */
+public class SkEd25519KeyValidator extends AbstractSshKeyTypeValidator {
+
+    static final byte[] APPLICATION_PREFIX = "ssh:".getBytes(StandardCharsets.US_ASCII);
+
+    public SkEd25519KeyValidator() {
+        super("sk-ssh-ed25519@openssh.com");
+    }
+
+    @Override
+    protected boolean validateFields(SshKeyBlobReader reader) {
+        return reader.skipField() == Ed25519KeyValidator.KEY_LENGTH
+                && reader.fieldStartsWith(APPLICATION_PREFIX);
+    }
+}
@@ -0,0 +1,117 @@
+package org.ksa.validator;
+
+import java.util.Arrays;
+
+/**
+ * Sequential reader for the SSH wire format used by public key blobs (RFC 4253, section 6.6).
+ * <p>
+ * Every field is a {@code uint32} length followed by that many bytes.
+ */
+public class SshKeyBlobReader {
+
+    private final byte[] blob;
+    private int position;
+
+    public SshKeyBlobReader(byte[] blob) {
+        this.blob = blob;
+    }
+
+    /**
+     * Reads the length prefix of the next field and advances past it.
+     *
+     * @return length of the next field
+     * @throws IllegalArgumentException if the blob is truncated
+     */
+    public int readLength() {
+        if (blob.length - position < 4) {
+            throw new IllegalArgumentException("Truncated key blob");
+        }
+
+        int length = ((blob[position] & 0xFF) << 24)
+                | ((blob[position + 1] & 0xFF) << 16)
+                | ((blob[position + 2] & 0xFF) << 8)
+                | (blob[position + 3] & 0xFF);
+        position += 4;
+
+        if (length < 0 || length > blob.length - position) {
+            throw new IllegalArgumentException("Truncated key blob");
+        }
+        return length;
+    }
+
+    /**
+     * Skips the next field.
+     *
+     * @return length of the skipped field
+     */
+    public int skipField() {
+        int length = readLength();
+        position += length;
+        return length;
+    }
+
+    /**
+     * Reads the next field and compares it to the expected bytes without copying.
+     *
+     * @param expected expected field content
+     * @return {@code true} if the field matches
+     */
+    public boolean fieldEquals(byte[] expected) {
+        int length = readLength();
+        int start = position;
+        position += length;
+        return length == expected.length
+                && Arrays.equals(blob, start, start + length, expected, 0, expected.length);
+    }
+
+    /**
+     * Reads the next field and checks whether it starts with the given prefix.
+     *
+     * @param prefix expected prefix
+     * @return {@code true} if the field starts with the prefix
+     */
+    public boolean fieldStartsWith(byte[] prefix) {
+        int length = readLength();
+        int start = position;
+        position += length;
+        return length >= prefix.length
+                && Arrays.equals(blob, start, start + prefix.length, prefix, 0, prefix.length);
+    }
+
+    /**
+     * Reads the next field as an unsigned big-endian integer (mpint) and returns its bit length.
+     *
+     * @return number of significant bits
+     */
+    public int readMpintBitLength() {
+        int length = readLength();
+        int start = position;
+        position += length;
+
+        int i = start;
+        int end = start + length;
+        while (i < end && blob[i] == 0) {
+            i++;
+        }
+        if (i == end) {
+            return 0;
+        }
+        return (end - i - 1) * 8 + (32 - Integer.numberOfLeadingZeros(blob[i] & 0xFF));
+    }
+
+    /**
+     * Reads the first byte of the next field.
+     *
+     * @return first byte, or {@code -1} if the field is empty
+     */
+    public int peekFieldFirstByte() {
+        if (blob.length - position < 5) {
+            return -1;
+        }
+        return blob[position + 4] & 0xFF;
+    }
+
+    public boolean hasRemaining() {
+        return position < blob.length;
+    }
+}
@@ -0,0 +1,73 @@
+package org.ksa.validator;
+
+import org.ksa.exception.InvalidSshKeyException;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.ksa.constants.ErrorMessages.SSH_KEY_TYPE_UNSUPPORTED;
+
+/**
+ * Registry of {@link SshKeyTypeValidator} beans indexed by key type.
+ * <p>
+ * The registry is immutable after construction, so lookups are lock-free and constant time.
+ */
+@Component
+public class SshKeyTypeRegistry {
+
+    private final Map<String, SshKeyTypeValidator> validators;
+
+    /**
+     * Constructor for {@code SshKeyTypeRegistry}.
+     *
+     * @param validators validators for all supported key types
+     * @throws IllegalStateException if two validators handle the same key type
+     */
+    public SshKeyTypeRegistry(List<SshKeyTypeValidator> validators) {
+        Map<String, SshKeyTypeValidator> byType = new HashMap<>();
+        for (SshKeyTypeValidator validator : validators) {
+            if (byType.putIfAbsent(validator.getType(), validator) != null) {
+                throw new IllegalStateException("Duplicate SSH key type validator: " + validator.getType());
+            }
+        }
+        this.validators = Collections.unmodifiableMap(byType);
+    }
+
+    /**
+     * Checks if the key type is supported.
+     *
+     * @param type key type name
+     * @return {@code true} if a validator is registered for the type
+     */
+    public boolean isSupported(String type) {
+        return type != null && validators.containsKey(type);
+    }
+
+    /**
+     * Returns all supported key types.
+     *
+     * @return unmodifiable set of key type names
+     */
+    public Set<String> getSupportedTypes() {
+        return validators.keySet();
+    }
+
+    /**
+     * Validates the public key content against the validator registered for its type.
+     *
+     * @param type      key type name
+     * @param publicKey base64 encoded public key
+     * @throws InvalidSshKeyException if the type is unsupported or the key is invalid
+     */
+    public void validate(String type, String publicKey) {
+        SshKeyTypeValidator validator = type != null ? validators.get(type) : null;
+        if (validator == null) {
+            throw new InvalidSshKeyException(String.format(SSH_KEY_TYPE_UNSUPPORTED, type));
+        }
+        validator.validate(publicKey);
+    }
+}
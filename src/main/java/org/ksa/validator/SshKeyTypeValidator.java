@@ -0,0 +1,28 @@
+package org.ksa.validator;
+
+import org.ksa.exception.InvalidSshKeyException;
+
+/**
+ * Validator for the public key content of a single SSH key type.
+ * <p>
+ * Implementations are registered as Spring beans and picked up by {@link SshKeyTypeRegistry},
+ * so supporting a new key type only requires declaring a new bean.
+ * Implementations must be stateless and thread-safe.
+ */
+public interface SshKeyTypeValidator {
+
+    /**
+     * Returns the key type handled by this validator, as it appears in {@code authorized_keys}.
+     *
+     * @return key type name (e.g., {@code ssh-ed25519})
+     */
+    String getType();
+
+    /**
+     * Validates the base64 encoded public key content for this key type.
+     *
+     * @param publicKey base64 encoded public key
+     * @throws InvalidSshKeyException if the key content is invalid for this type
+     */
+    void validate(String publicKey);
+}
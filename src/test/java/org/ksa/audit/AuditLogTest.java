@@ -0,0 +1,224 @@
+package org.ksa.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ksa.entity.SshKey;
+import org.ksa.exception.ServiceOverloadedException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link AuditLog} and {@link AuditLogReader}.
+ * <p>
+ * Test coverage includes:
+ * <ul>
+ *     <li>Writing events in order with consecutive sequence numbers</li>
+ *     <li>Rotating segments by size and replaying from a sequence number</li>
+ *     <li>Truncating a partially written event and continuing the numbering on restart</li>
+ *     <li>Failing the commit of a change whose event finds the buffer full, and releasing rolled back room</li>
+ *     <li>Retrying failed writes until they succeed, reported as unhealthy meanwhile</li>
+ *     <li>Computing OpenSSH fingerprints</li>
+ * </ul>
+ */
+public class AuditLogTest {
+
+    private static final String ED25519_KEY = "AAAAC3NzaC1lZDI1NTE5AAAAIOiKKC7lLUcyvJMo1gjvMr56XvOq814Hhin0OCYFDqT4";
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that all appended events are written in order once the log is stopped.
+     */
+    @Test
+    void append_ThenStop_AllEventsWritten() throws Exception {
+        AuditLog auditLog = start(1024 * 1024);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(auditLog.append(event(AuditAction.ADD, "jenkins-" + i)));
+        }
+        auditLog.stop();
+
+        List<AuditEvent> events = readAll(0);
+        assertEquals(100, events.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(i + 1, events.get(i).getSeq());
+            assertEquals("jenkins-" + i, events.get(i).getServerName());
+        }
+        assertEquals(100, auditLog.getWritten());
+        assertTrue(auditLog.getSyncs() <= 100);
+    }
+
+    /**
+     * Tests that segments are rotated by size and that replay skips earlier events.
+     */
+    @Test
+    void append_AboveSegmentSize_RotatesAndReplaysFromSeq() throws Exception {
+        AuditLog auditLog = start(1024);
+        for (int i = 0; i < 50; i++) {
+            auditLog.append(event(AuditAction.UPDATE, "jenkins"));
+        }
+        auditLog.stop();
+
+        assertTrue(AuditLog.listSegments(directory).size() > 1);
+        List<AuditEvent> replayed = readAll(40);
+        assertEquals(11, replayed.size());
+        assertEquals(40, replayed.get(0).getSeq());
+    }
+
+    /**
+     * Tests that a torn last line is truncated and numbering continues after the last complete event.
+     */
+    @Test
+    void start_TornLastLine_TruncatesAndContinues() throws Exception {
+        AuditLog auditLog = start(1024 * 1024);
+        auditLog.append(event(AuditAction.ADD, "jenkins"));
+        auditLog.append(event(AuditAction.DELETE, "jenkins"));
+        auditLog.stop();
+
+        Path segment = AuditLog.listSegments(directory).get(0);
+        Files.write(segment, "{\"seq\":3,\"act".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        AuditLog restarted = start(1024 * 1024);
+        restarted.append(event(AuditAction.ADD, "jenkins"));
+        restarted.stop();
+
+        List<AuditEvent> events = readAll(0);
+        assertEquals(3, events.size());
+        assertEquals(3, events.get(2).getSeq());
+        assertEquals(AuditAction.DELETE, events.get(1).getAction());
+    }
+
+    /**
+     * Tests that disabled logs drop events without creating files.
+     */
+    @Test
+    void append_Disabled_NotRecorded() throws Exception {
+        AuditLog auditLog = new AuditLog(directory.resolve("off"), 16, 16, 1024, 0, false);
+        auditLog.start();
+
+        assertFalse(auditLog.append(event(AuditAction.ADD, "jenkins")));
+        auditLog.stop();
+        assertFalse(Files.exists(directory.resolve("off")));
+    }
+
+    /**
+     * Tests that a change is refused at commit while the buffer is full, and that a rollback frees its room.
+     */
+    @Test
+    void publish_BufferFull_FailsCommit() {
+        AuditLog auditLog = new AuditLog(directory, 1, 16, 1024, 0, true);
+        AuditPublisher publisher = new AuditPublisher(auditLog, "X-API-Key");
+        SshKey sshKey = SshKey.builder().id(1L).serverType("build-server").serverName("jenkins")
+                .type("ssh-ed25519").publicKey(ED25519_KEY).build();
+        assertTrue(auditLog.tryReserve());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            publisher.publish(AuditAction.ADD, sshKey);
+            assertThrows(ServiceOverloadedException.class, () -> TransactionSynchronizationUtils.triggerBeforeCommit(false));
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        auditLog.release();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            publisher.publish(AuditAction.ADD, sshKey);
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+            assertEquals(0, auditLog.getBuffered());
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(1, auditLog.getBuffered());
+        assertFalse(auditLog.tryReserve());
+        assertEquals(0, auditLog.getDropped());
+    }
+
+    /**
+     * Tests that events survive a failing write: the writer retries until the directory is back.
+     */
+    @Test
+    void write_Failing_RetriesUntilWritten() throws Exception {
+        AuditLog auditLog = start(1);
+        auditLog.append(event(AuditAction.ADD, "jenkins"));
+        await(() -> auditLog.getWritten() == 1);
+        assertTrue(auditLog.isHealthy());
+
+        for (Path segment : AuditLog.listSegments(directory)) {
+            Files.delete(segment);
+        }
+        Files.delete(directory);
+        auditLog.append(event(AuditAction.UPDATE, "jenkins"));
+        auditLog.append(event(AuditAction.DELETE, "jenkins"));
+        await(() -> !auditLog.isHealthy());
+
+        Files.createDirectories(directory);
+        await(() -> auditLog.getWritten() == 3);
+        assertTrue(auditLog.isHealthy());
+        auditLog.stop();
+
+        List<AuditEvent> events = readAll(0);
+        assertEquals(2, events.size());
+        assertEquals(2, events.get(0).getSeq());
+        assertEquals(AuditAction.DELETE, events.get(1).getAction());
+        assertEquals(0, auditLog.getDropped());
+    }
+
+    /**
+     * Tests that fingerprints match the output of {@code ssh-keygen -l}.
+     */
+    @Test
+    void fingerprint_Ed25519Key_OpenSshFormat() {
+        String fingerprint = AuditPublisher.fingerprint(ED25519_KEY);
+
+        assertEquals("SHA256:Pf/B2cWAzlf5STOw1b20vvbOxTQ2BM7+NKRucRwvuJA", fingerprint);
+        assertEquals("SHA256:invalid", AuditPublisher.fingerprint("not base64!"));
+    }
+
+    private AuditLog start(long segmentBytes) throws Exception {
+        AuditLog auditLog = new AuditLog(directory, 1024, 64, segmentBytes, 1000, true);
+        auditLog.start();
+        return auditLog;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition not met in time");
+            Thread.sleep(20);
+        }
+    }
+
+    private List<AuditEvent> readAll(long fromSeq) throws Exception {
+        List<AuditEvent> events = new ArrayList<>();
+        new AuditLogReader(directory).read(fromSeq, event -> true, events::add);
+        return events;
+    }
+
+    private static AuditEvent event(AuditAction action, String serverName) {
+        return AuditEvent.builder()
+                .timestamp(Instant.now())
+                .action(action)
+                .actor("system")
+                .serverType("build-server")
+                .serverName(serverName)
+                .keyId(1L)
+                .keyType("ssh-ed25519")
+                .fingerprint(AuditPublisher.fingerprint(ED25519_KEY))
+                .build();
+    }
+}
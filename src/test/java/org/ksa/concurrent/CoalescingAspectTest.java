@@ -0,0 +1,119 @@
+package org.ksa.concurrent;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.ksa.dto.SshKeyResponseDTO;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link CoalescingAspect}.
+ * <p>
+ * Test coverage includes:
+ * <ul>
+ *     <li>Handing each waiting caller its own copy of the shared result</li>
+ *     <li>Not letting a reader join a load that started before its own write</li>
+ * </ul>
+ */
+public class CoalescingAspectTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final KeyStore target = new KeyStore();
+    private final CoalescingAspect aspect = new CoalescingAspect(new ObjectMapper(), 5_000);
+    private final KeyStore keys = proxy(target, aspect);
+
+    @AfterEach
+    void tearDown() {
+        target.release.countDown();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tests that a caller joining an in-flight load gets an equal but separate list and DTOs.
+     */
+    @Test
+    void coalesce_WaitingCaller_GetsCopy() throws Exception {
+        Future<List<SshKeyResponseDTO>> leader = executor.submit(() -> keys.getKeys("jenkins"));
+        target.started.await(5, TimeUnit.SECONDS);
+        Future<List<SshKeyResponseDTO>> follower = executor.submit(() -> keys.getKeys("jenkins"));
+        while (aspect.waitingCount() == 0) {
+            Thread.sleep(1);
+        }
+        target.release.countDown();
+
+        List<SshKeyResponseDTO> leaderKeys = leader.get(5, TimeUnit.SECONDS);
+        List<SshKeyResponseDTO> followerKeys = follower.get(5, TimeUnit.SECONDS);
+        assertEquals(leaderKeys, followerKeys);
+        assertNotSame(leaderKeys, followerKeys);
+        assertNotSame(leaderKeys.get(0), followerKeys.get(0));
+        assertEquals(1, target.loads.get());
+    }
+
+    /**
+     * Tests that a read after a write starts a new load instead of joining the one already in flight.
+     */
+    @Test
+    void invalidate_AfterWrite_ReadLoadsAgain() throws Exception {
+        Future<List<SshKeyResponseDTO>> stale = executor.submit(() -> keys.getKeys("jenkins"));
+        target.started.await(5, TimeUnit.SECONDS);
+
+        keys.addKey("jenkins", "added");
+        List<SshKeyResponseDTO> fresh = keys.getKeys("jenkins");
+        target.release.countDown();
+
+        assertEquals(2, fresh.size());
+        assertEquals(1, stale.get(5, TimeUnit.SECONDS).size());
+        assertEquals(2, target.loads.get());
+    }
+
+    private static KeyStore proxy(KeyStore target, CoalescingAspect aspect) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    /**
+     * Store whose first load blocks until released.
+     */
+    static class KeyStore {
+
+        final List<String> comments = new ArrayList<>(List.of("first"));
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Coalesced
+        public List<SshKeyResponseDTO> getKeys(String serverName) throws InterruptedException {
+            List<SshKeyResponseDTO> keys = new ArrayList<>();
+            synchronized (this) {
+                comments.forEach(comment -> keys.add(SshKeyResponseDTO.builder()
+                        .id((long) keys.size() + 1)
+                        .comment(comment)
+                        .serverName(serverName)
+                        .build()));
+            }
+            if (loads.incrementAndGet() == 1) {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return keys;
+        }
+
+        @InvalidatesCoalesced
+        public synchronized void addKey(String serverName, String comment) {
+            comments.add(comment);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.ksa.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ksa.exception.ComputerNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SingleFlight}.
+ * <p>
+ * Test coverage includes:
+ * <ul>
+ *     <li>Sharing one load between concurrent callers of the same key</li>
+ *     <li>Propagating the leader's exception to every waiting caller</li>
+ *     <li>Falling back to a local load when waiting exceeds the limit</li>
+ *     <li>Handing waiting callers copies, and starting a new load after invalidation</li>
+ * </ul>
+ */
+public class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private ExecutorService executor;
+    private CountDownLatch arrived;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(CALLERS);
+        arrived = new CountDownLatch(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tests that concurrent callers of the same key trigger a single load and receive its result.
+     */
+    @Test
+    void execute_ConcurrentSameKey_LoadsOnce() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(5_000);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submit(() -> singleFlight.execute("ASUS/X507UA", () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "computer";
+        }));
+        waitForFollowers(singleFlight, loads);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("computer", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    /**
+     * Tests that an exception thrown by the leader is rethrown to every waiting caller.
+     * Expects {@link ComputerNotFoundException} for all callers.
+     */
+    @Test
+    void execute_LoaderFails_PropagatesToAllCallers() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(5_000);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submit(() -> singleFlight.execute("HP/Victus", () -> {
+            loads.incrementAndGet();
+            await(release);
+            throw new ComputerNotFoundException("Computer not found");
+        }));
+        waitForFollowers(singleFlight, loads);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            Exception ex = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ComputerNotFoundException.class, ex.getCause());
+        }
+        assertEquals(1, loads.get());
+    }
+
+    /**
+     * Tests that a caller waiting longer than the limit loads the value itself.
+     */
+    @Test
+    void execute_WaitExceeded_LoadsLocally() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(50);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            await(release);
+            return "leader";
+        }));
+        while (singleFlight.inFlightCount() == 0) {
+            Thread.sleep(1);
+        }
+
+        assertEquals("follower", singleFlight.execute("key", () -> "follower"));
+        release.countDown();
+        assertEquals("leader", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that waiting callers get their own copy of the result, and that a caller arriving after an
+     * invalidation does not join the load already in flight.
+     */
+    @Test
+    void execute_CopiesAndInvalidate_KeepCallersApart() throws Exception {
+        SingleFlight<String, List<String>> singleFlight = new SingleFlight<>(5_000);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<List<String>> leader = executor.submit(() -> singleFlight.execute("jenkins", () -> {
+            loads.incrementAndGet();
+            await(release);
+            return new ArrayList<>(List.of("old"));
+        }, ArrayList::new));
+        while (singleFlight.inFlightCount() == 0) {
+            Thread.sleep(1);
+        }
+        Future<List<String>> follower = executor.submit(() -> singleFlight.execute("jenkins",
+                () -> List.of("unexpected"), ArrayList::new));
+        while (singleFlight.waitingCount() == 0) {
+            Thread.sleep(1);
+        }
+
+        singleFlight.invalidate();
+        assertEquals(List.of("new"), singleFlight.execute("jenkins", () -> {
+            loads.incrementAndGet();
+            return List.of("new");
+        }, ArrayList::new));
+        release.countDown();
+
+        List<String> leaderResult = leader.get(5, TimeUnit.SECONDS);
+        List<String> followerResult = follower.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("old"), followerResult);
+        assertNotSame(leaderResult, followerResult);
+        assertEquals(2, loads.get());
+        assertEquals(0, singleFlight.waitingCount());
+    }
+
+    private List<Future<String>> submit(Callable<String> call) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> {
+                arrived.countDown();
+                return call.call();
+            }));
+        }
+        return results;
+    }
+
+    private void waitForFollowers(SingleFlight<?, ?> singleFlight, AtomicInteger loads) throws InterruptedException {
+        assertTrue(arrived.await(5, TimeUnit.SECONDS));
+        while (loads.get() == 0 || singleFlight.waitingCount() < CALLERS - 1) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.ksa.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ReadWriteRoutingDataSource}.
+ * <p>
+ * Uses two embedded H2 databases standing in for the MySQL primary and replica.
+ * Test coverage includes:
+ * <ul>
+ *     <li>Routing read-only transactions to the replica</li>
+ *     <li>Routing read-write transactions and non-transactional access to the primary</li>
+ *     <li>Falling back to the primary when the replica lags behind</li>
+ * </ul>
+ */
+public class ReadWriteRoutingDataSourceTest {
+
+    private JdbcTemplate primaryJdbc;
+    private JdbcTemplate replicaJdbc;
+    private ReplicaLagMonitor replicaLagMonitor;
+    private JdbcTemplate routedJdbc;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = h2("primary");
+        DataSource replica = h2("replica");
+        primaryJdbc = new JdbcTemplate(primary);
+        replicaJdbc = new JdbcTemplate(replica);
+
+        for (JdbcTemplate jdbc : new JdbcTemplate[]{primaryJdbc, replicaJdbc}) {
+            jdbc.execute("DROP TABLE IF EXISTS node");
+            jdbc.execute("CREATE TABLE node (name VARCHAR(16))");
+        }
+        primaryJdbc.update("INSERT INTO node VALUES ('primary')");
+        replicaJdbc.update("INSERT INTO node VALUES ('replica')");
+        replicaJdbc.execute("DROP TABLE IF EXISTS replica_status");
+        replicaJdbc.execute("CREATE TABLE replica_status (seconds_behind BIGINT)");
+        replicaJdbc.update("INSERT INTO replica_status VALUES (0)");
+
+        replicaLagMonitor = new ReplicaLagMonitor(replica, "SELECT seconds_behind FROM replica_status",
+                "seconds_behind", 5, 1000);
+        replicaLagMonitor.check();
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, replicaLagMonitor);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        routedJdbc = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    /**
+     * Tests that a read-only transaction is served by the replica.
+     */
+    @Test
+    void readOnlyTransaction_RoutedToReplica() {
+        transactionTemplate.setReadOnly(true);
+
+        assertEquals("replica", transactionTemplate.execute(status -> currentNode()));
+    }
+
+    /**
+     * Tests that read-write transactions and calls outside transactions are served by the primary.
+     */
+    @Test
+    void readWriteTransaction_RoutedToPrimary() {
+        assertEquals("primary", transactionTemplate.execute(status -> currentNode()));
+        assertEquals("primary", currentNode());
+    }
+
+    /**
+     * Tests that read-only transactions fall back to the primary when the replica lag exceeds the limit,
+     * and return to the replica once it has caught up.
+     */
+    @Test
+    void readOnlyTransaction_ReplicaLagging_RoutedToPrimary() {
+        transactionTemplate.setReadOnly(true);
+
+        replicaJdbc.update("UPDATE replica_status SET seconds_behind = 30");
+        replicaLagMonitor.check();
+        assertFalse(replicaLagMonitor.isReplicaAvailable());
+        assertEquals("primary", transactionTemplate.execute(status -> currentNode()));
+
+        replicaJdbc.update("UPDATE replica_status SET seconds_behind = NULL");
+        replicaLagMonitor.check();
+        assertEquals("primary", transactionTemplate.execute(status -> currentNode()));
+
+        replicaJdbc.update("UPDATE replica_status SET seconds_behind = 1");
+        replicaLagMonitor.check();
+        assertTrue(replicaLagMonitor.isReplicaAvailable());
+        assertEquals("replica", transactionTemplate.execute(status -> currentNode()));
+    }
+
+    private String currentNode() {
+        return routedJdbc.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource h2(String name) {
+        return new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
@@ -0,0 +1,120 @@
+package org.ksa.datasource;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Assertions on the SQL statements run by a piece of code, for tests whose data source is wrapped by
+ * {@link StatementTrackingPostProcessor} (import it into a {@code @DataJpaTest}).
+ * <p>
+ * Failure messages list the statements that ran, so an unexpected query or an N+1 loop is visible at once.
+ */
+public final class StatementAssertions {
+
+    private StatementAssertions() {
+    }
+
+    /**
+     * Runs code in a detailed scope of its own.
+     *
+     * @param work code to run
+     * @return the statements it ran
+     */
+    public static StatementStats capture(Runnable work) {
+        return capture(() -> {
+            work.run();
+            return null;
+        }).stats;
+    }
+
+    /**
+     * Runs code returning a value in a detailed scope of its own.
+     *
+     * @param work code to run
+     * @param <T>  type of the value
+     * @return the value together with the statements it ran
+     */
+    public static <T> Captured<T> capture(Supplier<T> work) {
+        StatementStats stats = StatementStats.begin(true);
+        try {
+            return new Captured<>(work.get(), stats);
+        } finally {
+            stats.end();
+        }
+    }
+
+    /**
+     * Asserts the exact number of statements.
+     *
+     * @param expected statements expected
+     * @param stats    statements that ran
+     */
+    public static void assertStatementCount(int expected, StatementStats stats) {
+        assertEquals(expected, stats.getCount(), () -> describe(stats));
+    }
+
+    /**
+     * Asserts that the statements stay within a budget, overall and per statement shape.
+     *
+     * @param budget limits to respect
+     * @param stats  statements that ran
+     */
+    public static void assertWithinBudget(StatementBudget budget, StatementStats stats) {
+        List<String> violations = budget.violations(stats);
+        if (!violations.isEmpty()) {
+            fail(String.join("; ", violations) + "\n" + describe(stats));
+        }
+    }
+
+    /**
+     * Asserts that no statement shape ran more than once, the N+1 check for code loading a fixed set of rows.
+     *
+     * @param stats statements that ran
+     */
+    public static void assertNoRepeatedStatements(StatementStats stats) {
+        assertWithinBudget(new StatementBudget(Integer.MAX_VALUE, 1), stats);
+    }
+
+    /**
+     * Returns the statements starting with a prefix, such as {@code "update"}.
+     *
+     * @param stats  statements that ran
+     * @param prefix lower-case start of the statements to keep
+     * @return the matching statements, lower-cased, in the order they ran
+     */
+    public static List<String> statements(StatementStats stats, String prefix) {
+        return stats.getStatements().stream().filter(sql -> sql.startsWith(prefix)).collect(Collectors.toList());
+    }
+
+    private static String describe(StatementStats stats) {
+        return stats.getCount() + " statements ran:\n  " + String.join("\n  ", stats.getStatements());
+    }
+
+    /**
+     * Value returned by captured code, with the statements it ran.
+     *
+     * @param <T> type of the value
+     */
+    public static final class Captured<T> {
+
+        private final T value;
+        private final StatementStats stats;
+
+        private Captured(T value, StatementStats stats) {
+            this.value = value;
+            this.stats = stats;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public StatementStats getStats() {
+            return stats;
+        }
+    }
+}
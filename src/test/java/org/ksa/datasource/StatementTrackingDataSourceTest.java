@@ -0,0 +1,189 @@
+package org.ksa.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.ksa.datasource.StatementAssertions.*;
+
+/**
+ * Unit tests for {@link StatementTrackingDataSource}, {@link StatementBudget} and {@link StatementTimingFilter}.
+ * <p>
+ * Test coverage includes:
+ * <ul>
+ *     <li>Counting each execution, and a JDBC batch once, in every open scope</li>
+ *     <li>Recording nothing outside a scope</li>
+ *     <li>Grouping statements that only differ in their values into one shape</li>
+ *     <li>Reporting the statements of a request in the {@code Server-Timing} header and request attributes</li>
+ *     <li>Flagging requests over the statement budget or repeating a statement shape</li>
+ * </ul>
+ */
+public class StatementTrackingDataSourceTest {
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE computers (id INT PRIMARY KEY, maker VARCHAR(255))");
+        }
+        dataSource = (DataSource) new StatementTrackingPostProcessor().postProcessAfterInitialization(h2, "dataSource");
+    }
+
+    /**
+     * Tests that executions and batches are counted in nested scopes, and only the outer one sees later statements.
+     */
+    @Test
+    void execute_NestedScopes_CountsInEach() throws Exception {
+        StatementStats outer = StatementStats.begin(true);
+        StatementStats inner;
+        try (Connection connection = dataSource.getConnection()) {
+            inner = StatementStats.begin(false);
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO computers VALUES (?, ?)")) {
+                for (int id = 1; id <= 3; id++) {
+                    insert.setInt(1, id);
+                    insert.setString(2, "ASUS");
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            } finally {
+                inner.end();
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM computers")) {
+                assertTrue(resultSet.next());
+                assertEquals(3, resultSet.getInt(1));
+            }
+        } finally {
+            outer.end();
+        }
+
+        assertNull(StatementStats.current());
+        assertStatementCount(1, inner);
+        assertTrue(inner.getStatements().isEmpty());
+        assertStatementCount(2, outer);
+        assertEquals(List.of("insert into computers values (?, ?)", "select count(*) from computers"),
+                outer.getStatements());
+        assertTrue(outer.getNanos() > 0);
+    }
+
+    /**
+     * Tests that statements run outside a scope are neither wrapped nor recorded.
+     */
+    @Test
+    void execute_OutsideScope_RecordsNothing() throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement("SELECT maker FROM computers")) {
+            select.executeQuery().close();
+            assertFalse(Proxy.isProxyClass(select.getClass()));
+            assertEquals(connection, connection);
+            assertNotEquals(connection.unwrap(Connection.class), connection);
+        }
+        assertNull(StatementStats.current());
+        assertSame(dataSource, new StatementTrackingPostProcessor().postProcessAfterInitialization(dataSource, "dataSource"));
+    }
+
+    /**
+     * Tests that statements differing in their literals and {@code IN} lists share a shape, and are flagged when
+     * repeated too often.
+     */
+    @Test
+    void shape_RepeatedQuery_ViolatesBudget() {
+        assertEquals("select * from computers c where c.id = ? and c.maker in (?) and c.model = ?",
+                StatementStats.shapeOf("SELECT *  FROM computers c\n WHERE c.id = 42 AND c.maker IN (?, ?,?) "
+                        + "AND c.model = 'X''507'"));
+        assertEquals("select computer0_.id from computers computer0_ limit ?",
+                StatementStats.shapeOf("select computer0_.id from computers computer0_ limit 10"));
+
+        StatementStats stats = capture(() -> {
+            for (int id = 1; id <= 4; id++) {
+                query("SELECT maker FROM computers WHERE id = " + id);
+            }
+        });
+
+        assertEquals(1, stats.getShapes().size());
+        assertEquals(List.of("4 runs of: select maker from computers where id = ?"),
+                new StatementBudget(10, 3).violations(stats));
+        assertEquals(2, new StatementBudget(3, 3).violations(stats).size());
+        assertWithinBudget(new StatementBudget(4, 4), stats);
+        assertThrows(AssertionError.class, () -> assertNoRepeatedStatements(stats));
+    }
+
+    /**
+     * Tests that a request gets its statement count and time in the header and attributes, and is not flagged
+     * without a budget.
+     */
+    @Test
+    void filter_ReportsStatements() throws Exception {
+        StatementTimingFilter filter = new StatementTimingFilter(null);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/computers");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            query("SELECT maker FROM computers");
+            query("SELECT maker FROM computers WHERE id = 1");
+            res.getOutputStream().write("[]".getBytes(StandardCharsets.UTF_8));
+            // After the body started, so only in the attributes
+            query("SELECT maker FROM computers WHERE id = 2");
+        });
+
+        String serverTiming = response.getHeader(StatementTimingFilter.SERVER_TIMING_HEADER);
+        assertNotNull(serverTiming);
+        assertTrue(serverTiming.matches("db;dur=\\d+\\.\\d;desc=\"2 statements\""), serverTiming);
+        assertEquals(3, request.getAttribute(StatementTimingFilter.STATEMENTS_ATTRIBUTE));
+        assertNotNull(request.getAttribute(StatementTimingFilter.MILLIS_ATTRIBUTE));
+        assertEquals(3, filter.getStatements());
+        assertEquals(0, filter.getOverBudget() + filter.getRepeated());
+        assertNull(StatementStats.current());
+    }
+
+    /**
+     * Tests that requests exceeding the budget or repeating a statement shape are counted by reason.
+     */
+    @Test
+    void filter_WithBudget_FlagsRequests() throws Exception {
+        StatementTimingFilter filter = new StatementTimingFilter(new StatementBudget(3, 2));
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/computers"), new MockHttpServletResponse(),
+                (req, res) -> {
+                    query("SELECT maker FROM computers WHERE id = 1");
+                    query("SELECT maker FROM computers WHERE id = 2");
+                });
+        assertEquals(0, filter.getOverBudget() + filter.getRepeated());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/computers"), response, (req, res) -> {
+            for (int id = 1; id <= 4; id++) {
+                query("SELECT maker FROM computers WHERE id = " + id);
+            }
+        });
+        assertEquals(1, filter.getOverBudget());
+        assertEquals(1, filter.getRepeated());
+        assertTrue(response.getHeader(StatementTimingFilter.SERVER_TIMING_HEADER).endsWith("\"4 statements\""));
+    }
+
+    private void query(String sql) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeQuery(sql).close();
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package org.ksa.embedded;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ksa.entity.Computer;
+import org.ksa.entity.SshKey;
+import org.ksa.outbox.ChangeJournal;
+import org.ksa.outbox.JournalEntry;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link EmbeddedStore}.
+ * <p>
+ * Test coverage includes:
+ * <ul>
+ *     <li>Recovering records from the write-ahead log</li>
+ *     <li>Recovering records from a snapshot followed by the log</li>
+ *     <li>Discarding a partially written record at the end of the log</li>
+ *     <li>Journaling changes and appending missing ones during recovery</li>
+ *     <li>Rejecting duplicates</li>
+ * </ul>
+ */
+public class EmbeddedStoreTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that inserts, updates and deletes are recovered from the log alone.
+     */
+    @Test
+    void open_AfterCrash_ReplaysWriteAheadLog() throws Exception {
+        EmbeddedStore store = open(null);
+        Computer computer = store.insertComputer(computer("Dell", "XPS"));
+        store.insertComputer(computer("HP", "Envy"));
+        Computer update = EmbeddedStore.copyOf(computer);
+        update.setLanguage("fr");
+        store.updateComputer(update);
+        store.deleteComputer(store.findComputer("HP", "Envy").getId());
+        store.insertSshKey(sshKey("AAAA1"));
+
+        EmbeddedStore recovered = open(null);
+
+        assertEquals(1, recovered.getComputerCount());
+        assertEquals("fr", recovered.findComputer("Dell", "XPS").getLanguage());
+        assertEquals(List.of("red", "blue"), recovered.findComputer("Dell", "XPS").getColors());
+        assertNull(recovered.findComputer("HP", "Envy"));
+        assertEquals(1, recovered.findSshKeys("dev", "alpha").size());
+        assertEquals(store.getLsn(), recovered.getLsn());
+        assertEquals(3L, recovered.insertComputer(computer("Acer", "Swift")).getId());
+    }
+
+    /**
+     * Tests that a snapshot and the records logged after it are both recovered.
+     */
+    @Test
+    void open_AfterSnapshot_LoadsSnapshotAndLogTail() throws Exception {
+        EmbeddedStore store = open(null);
+        store.insertComputer(computer("Dell", "XPS"));
+        store.insertSshKey(sshKey("AAAA1"));
+        store.snapshot();
+        store.insertSshKey(sshKey("AAAA2"));
+        SshKey removed = store.findSshKeys("dev", "alpha").get(0);
+        store.deleteSshKey(removed.getId());
+
+        EmbeddedStore recovered = open(null);
+
+        assertEquals(1, store.getSnapshots());
+        assertEquals(1, recovered.getComputerCount());
+        List<SshKey> keys = recovered.findSshKeys("dev", "alpha");
+        assertEquals(1, keys.size());
+        assertEquals("AAAA2", keys.get(0).getPublicKey());
+        assertNull(recovered.findSshKey(removed.getId()));
+    }
+
+    /**
+     * Tests that a record cut off by a crash is discarded and the log remains writable.
+     */
+    @Test
+    void open_WithTornRecord_TruncatesLog() throws Exception {
+        EmbeddedStore store = open(null);
+        store.insertComputer(computer("Dell", "XPS"));
+        store.insertComputer(computer("HP", "Envy"));
+        Path log = walFile();
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        EmbeddedStore recovered = open(null);
+        assertEquals(1, recovered.getComputerCount());
+        assertNotNull(recovered.insertComputer(computer("HP", "Envy")));
+
+        assertEquals(2, open(null).getComputerCount());
+    }
+
+    /**
+     * Tests that changes are journaled with their LSN and that changes missing from the journal are appended
+     * on the next start.
+     */
+    @Test
+    void open_WithJournalBehind_AppendsMissingChanges() throws Exception {
+        EmbeddedStore store = open(null);
+        store.insertComputer(computer("Dell", "XPS"));
+        store.insertComputer(computer("HP", "Envy"));
+
+        ChangeJournal journal = new ChangeJournal(directory.resolve("journal"), 4096);
+        journal.open();
+        EmbeddedStore recovered = open(journal);
+        recovered.insertSshKey(sshKey("AAAA1"));
+
+        List<JournalEntry> entries = journal.read(0, 10);
+        assertEquals(3, entries.size());
+        assertEquals(1, entries.get(0).getOutboxId());
+        assertEquals(3, entries.get(2).getOutboxId());
+
+        open(journal);
+        assertEquals(3, journal.read(0, 10).size());
+        journal.close();
+    }
+
+    /**
+     * Tests that duplicate computers and public keys are rejected.
+     */
+    @Test
+    void insertAndUpdate_Duplicates_AreRejected() throws Exception {
+        EmbeddedStore store = open(null);
+        store.insertComputer(computer("Dell", "XPS"));
+        Computer other = store.insertComputer(computer("Dell", "Inspiron"));
+        SshKey key = store.insertSshKey(sshKey("AAAA1"));
+        store.insertSshKey(sshKey("AAAA2"));
+
+        assertNull(store.insertComputer(computer("Dell", "XPS")));
+        assertNull(store.insertSshKey(sshKey("AAAA1")));
+
+        Computer renamed = EmbeddedStore.copyOf(other);
+        renamed.setModel("XPS");
+        assertThrows(DataIntegrityViolationException.class, () -> store.updateComputer(renamed));
+
+        SshKey changed = EmbeddedStore.copyOf(key);
+        changed.setPublicKey("AAAA2");
+        assertThrows(DataIntegrityViolationException.class, () -> store.updateSshKey(changed));
+        assertEquals("AAAA1", store.findSshKey(key.getId()).getPublicKey());
+    }
+
+    private EmbeddedStore open(ChangeJournal journal) throws IOException {
+        EmbeddedStore store = new EmbeddedStore(directory, false, 3600, Long.MAX_VALUE, journal, objectMapper);
+        store.open();
+        return store;
+    }
+
+    private Path walFile() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "wal-*.log")) {
+            return files.iterator().next();
+        }
+    }
+
+    private static Computer computer(String maker, String model) {
+        return Computer.builder()
+                .type("laptop")
+                .maker(maker)
+                .model(model)
+                .language("en")
+                .colors(List.of("red", "blue"))
+                .build();
+    }
+
+    private static SshKey sshKey(String publicKey) {
+        return SshKey.builder()
+                .serverType("dev")
+                .serverName("alpha")
+                .type("ssh-ed25519")
+                .publicKey(publicKey)
+                .comment("test")
+                .build();
+    }
+}
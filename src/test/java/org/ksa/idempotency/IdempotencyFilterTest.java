@@ -0,0 +1,264 @@
+package org.ksa.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link IdempotencyFilter} and {@link IdempotencyStore}.
+ * <p>
+ * Test coverage includes:
+ * <ul>
+ *     <li>Replaying the recorded status and body without running the request again</li>
+ *     <li>Rejecting a key reused for a different request</li>
+ *     <li>Running concurrent duplicates only once</li>
+ *     <li>Not recording server errors, and dropping keys after the TTL or when the store is full</li>
+ *     <li>Rejecting oversized request bodies, and serving the buffered body to non-blocking readers</li>
+ * </ul>
+ */
+public class IdempotencyFilterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final AtomicInteger executions = new AtomicInteger();
+    private IdempotencyStore store;
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        store = new IdempotencyStore(3, 60_000, now::get);
+        filter = new IdempotencyFilter(store, Arrays.asList("/computers", "/*/*/authorized_keys"),
+                "Idempotency-Key", "X-API-Key", 5_000, 1024, 256, new ObjectMapper().findAndRegisterModules());
+    }
+
+    /**
+     * Tests that a retry gets the original status and body back without reaching the controller.
+     */
+    @Test
+    void retry_ReplaysRecordedResponse() throws Exception {
+        MockHttpServletResponse first = send("/computers", "k1", "{\"maker\":\"ASUS\"}", created());
+        MockHttpServletResponse retry = send("/computers", "k1", "{\"maker\":\"ASUS\"}", created());
+
+        assertEquals(1, executions.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("application/json", retry.getContentType());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(1, filter.getReplayed());
+
+        send("/computers", "k2", "{\"maker\":\"ASUS\"}", created());
+        send("/computers", null, "{\"maker\":\"ASUS\"}", created());
+        assertEquals(3, executions.get());
+    }
+
+    /**
+     * Tests that a key reused for another body is rejected, and that other clients have their own keys.
+     */
+    @Test
+    void reusedKey_WithDifferentBody_Returns422() throws Exception {
+        send("/office/jenkins/authorized_keys", "k1", "{\"type\":\"ssh-rsa\"}", created());
+
+        MockHttpServletResponse reused = send("/office/jenkins/authorized_keys", "k1", "{\"type\":\"ed25519\"}",
+                created());
+        assertEquals(422, reused.getStatus());
+        assertTrue(reused.getContentAsString().contains("different request"));
+
+        MockHttpServletRequest otherClient = request("/office/jenkins/authorized_keys", "k1", "{\"type\":\"ed25519\"}");
+        otherClient.addHeader("X-API-Key", "other");
+        filter.doFilter(otherClient, new MockHttpServletResponse(), created());
+        assertEquals(2, executions.get());
+        assertEquals(1, filter.getRejected());
+    }
+
+    /**
+     * Tests that duplicates arriving while the first request runs wait for its response instead of running.
+     */
+    @Test
+    void concurrentDuplicates_RunOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                throw new ServletException(ex);
+            }
+            created().doFilter(request, response);
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<MockHttpServletResponse> owner = executor.submit(() -> send("/computers", "k1", "{}", slow));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<?>[] duplicates = new Future<?>[3];
+            for (int i = 0; i < duplicates.length; i++) {
+                duplicates[i] = executor.submit(() -> send("/computers", "k1", "{}", slow));
+            }
+            release.countDown();
+
+            assertEquals(201, owner.get(5, TimeUnit.SECONDS).getStatus());
+            for (Future<?> duplicate : duplicates) {
+                assertEquals(201, ((MockHttpServletResponse) duplicate.get(5, TimeUnit.SECONDS)).getStatus());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, executions.get());
+        assertEquals(3, filter.getReplayed());
+    }
+
+    /**
+     * Tests that server errors are not recorded, so the retry runs again.
+     */
+    @Test
+    void serverError_IsNotRecorded() throws Exception {
+        FilterChain failing = (request, response) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(503);
+        };
+        assertEquals(503, send("/computers", "k1", "{}", failing).getStatus());
+        assertEquals(0, store.size());
+
+        assertEquals(201, send("/computers", "k1", "{}", created()).getStatus());
+        assertEquals(2, executions.get());
+    }
+
+    /**
+     * Tests that keys are dropped after the TTL and when the store is full.
+     */
+    @Test
+    void keys_ExpireAndAreBounded() throws Exception {
+        send("/computers", "k1", "{}", created());
+        now.addAndGet(60_001);
+        send("/computers", "k1", "{}", created());
+        assertEquals(2, executions.get());
+
+        for (int i = 2; i <= 5; i++) {
+            send("/computers", "k" + i, "{}", created());
+        }
+        assertEquals(3, store.size());
+        send("/computers", "k1", "{}", created());
+        assertEquals(7, executions.get());
+    }
+
+    /**
+     * Tests that an over-long key is rejected before the request runs.
+     */
+    @Test
+    void tooLongKey_Returns400() throws Exception {
+        char[] key = new char[256];
+        Arrays.fill(key, 'k');
+        assertEquals(400, send("/computers", new String(key), "{}", created()).getStatus());
+        assertEquals(0, executions.get());
+    }
+
+    /**
+     * Tests that a body over the cap is rejected with 413 before the request runs, whether or not its length
+     * is declared, and that a body at the cap is accepted.
+     */
+    @Test
+    void oversizedBody_Returns413() throws Exception {
+        char[] body = new char[257];
+        Arrays.fill(body, 'b');
+        MockHttpServletResponse declared = send("/computers", "k1", new String(body), created());
+        assertEquals(413, declared.getStatus());
+        assertTrue(declared.getContentAsString().contains("256 bytes"));
+
+        MockHttpServletRequest undeclared = new MockHttpServletRequest("POST", "/computers") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        undeclared.setContent(new String(body).getBytes(StandardCharsets.UTF_8));
+        undeclared.addHeader("Idempotency-Key", "k2");
+        MockHttpServletResponse chunked = new MockHttpServletResponse();
+        filter.doFilter(undeclared, chunked, created());
+        assertEquals(413, chunked.getStatus());
+        assertEquals(0, executions.get());
+
+        assertEquals(201, send("/computers", "k3", new String(body, 0, 256), created()).getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    /**
+     * Tests that a read listener is told the buffered body is available.
+     */
+    @Test
+    void readListener_GetsWholeBody() throws Exception {
+        StringBuilder read = new StringBuilder();
+        AtomicInteger allRead = new AtomicInteger();
+        send("/computers", "k1", "{\"maker\":\"ASUS\"}", (request, response) -> {
+            ServletInputStream input = request.getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (input.isReady() && !input.isFinished()) {
+                        read.append((char) input.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allRead.incrementAndGet();
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    fail(throwable);
+                }
+            });
+        });
+
+        assertEquals("{\"maker\":\"ASUS\"}", read.toString());
+        assertEquals(1, allRead.get());
+    }
+
+    private MockHttpServletResponse send(String path, String key, String body, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path, key, body), response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        request.setContentType("application/json");
+        if (key != null) {
+            request.addHeader("Idempotency-Key", key);
+        }
+        return request;
+    }
+
+    private FilterChain created() {
+        return (request, response) -> {
+            int id = executions.incrementAndGet();
+            String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            response.setContentType("application/json");
+            ((HttpServletResponse) response).setStatus(201);
+            response.getWriter().write("{\"id\":" + id + ",\"echo\":" + body + "}");
+            response.getWriter().flush();
+        };
+    }
+}
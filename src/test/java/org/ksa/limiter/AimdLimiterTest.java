@@ -0,0 +1,86 @@
+package org.ksa.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link AimdLimiter}.
+ * <p>
+ * Test coverage includes:
+ * <ul>
+ *     <li>Rejecting requests above the limit</li>
+ *     <li>Increasing the limit on fast responses under load</li>
+ *     <li>Backing off on slow or failed responses down to the minimum</li>
+ * </ul>
+ */
+public class AimdLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    /**
+     * Tests that requests above the limit are rejected and counted.
+     */
+    @Test
+    void tryAcquire_AboveLimit_Rejected() {
+        AimdLimiter limiter = new AimdLimiter("read", 2, 1, 10, 100, 0.5);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(1, limiter.getRejected());
+    }
+
+    /**
+     * Tests that fast responses at full utilization raise the limit up to the maximum.
+     */
+    @Test
+    void release_FastResponses_IncreasesLimit() {
+        AimdLimiter limiter = new AimdLimiter("read", 2, 1, 3, 100, 0.5);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire());
+            assertTrue(limiter.tryAcquire());
+            limiter.release(FAST, false);
+            limiter.release(FAST, false);
+        }
+
+        assertEquals(3, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    /**
+     * Tests that slow and failed responses shrink the limit, never below the minimum.
+     */
+    @Test
+    void release_SlowOrFailedResponses_DecreasesLimit() {
+        AimdLimiter limiter = new AimdLimiter("write", 8, 2, 10, 100, 0.5);
+
+        assertTrue(limiter.tryAcquire());
+        limiter.release(SLOW, false);
+        assertEquals(4, limiter.getLimit());
+
+        assertTrue(limiter.tryAcquire());
+        limiter.release(FAST, true);
+        assertEquals(2, limiter.getLimit());
+
+        assertTrue(limiter.tryAcquire());
+        limiter.release(SLOW, false);
+        assertEquals(2, limiter.getLimit());
+    }
+
+    /**
+     * Tests that invalid limits are rejected.
+     * Expects {@link IllegalArgumentException}.
+     */
+    @Test
+    void constructor_InvalidLimits_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new AimdLimiter("read", 10, 0, 10, 100, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AimdLimiter("read", 10, 5, 1, 100, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AimdLimiter("read", 10, 1, 10, 100, 1.0));
+    }
+}
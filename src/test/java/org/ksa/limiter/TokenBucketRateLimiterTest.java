@@ -0,0 +1,96 @@
+package org.ksa.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link TokenBucketRateLimiter}.
+ * <p>
+ * Test coverage includes:
+ * <ul>
+ *     <li>Allowing a burst up to the capacity and rejecting beyond it</li>
+ *     <li>Keeping separate buckets per client</li>
+ *     <li>Refilling tokens over time</li>
+ *     <li>Evicting idle clients and bounding the number of tracked clients</li>
+ * </ul>
+ */
+public class TokenBucketRateLimiterTest {
+
+    /**
+     * Tests that a burst up to the capacity is allowed and the next request is rejected with a wait time.
+     */
+    @Test
+    void tryAcquire_BurstAboveCapacity_Rejected() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("computers", 3, 0.001, 10);
+
+        assertEquals(2, limiter.tryAcquire("client").getRemaining());
+        assertEquals(1, limiter.tryAcquire("client").getRemaining());
+        assertEquals(0, limiter.tryAcquire("client").getRemaining());
+
+        TokenBucketRateLimiter.Decision decision = limiter.tryAcquire("client");
+        assertFalse(decision.isAllowed());
+        assertTrue(decision.getWaitNanos() > 0);
+        assertEquals(1, limiter.getRejected());
+    }
+
+    /**
+     * Tests that an exhausted bucket does not affect other clients.
+     */
+    @Test
+    void tryAcquire_OtherClient_HasOwnBucket() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("computers", 1, 0.001, 10);
+
+        assertTrue(limiter.tryAcquire("first").isAllowed());
+        assertFalse(limiter.tryAcquire("first").isAllowed());
+        assertTrue(limiter.tryAcquire("second").isAllowed());
+        assertEquals(2, limiter.getClientCount());
+    }
+
+    /**
+     * Tests that tokens are added back after the refill interval.
+     */
+    @Test
+    void tryAcquire_AfterRefillInterval_Allowed() throws InterruptedException {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("ssh-keys", 1, 100, 10);
+
+        assertTrue(limiter.tryAcquire("client").isAllowed());
+        assertFalse(limiter.tryAcquire("client").isAllowed());
+
+        Thread.sleep(20);
+
+        assertTrue(limiter.tryAcquire("client").isAllowed());
+    }
+
+    /**
+     * Tests that only refilled buckets are evicted.
+     */
+    @Test
+    void evictIdle_RefilledBuckets_Removed() throws InterruptedException {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("ssh-keys", 1, 100, 10);
+        TokenBucketRateLimiter slowLimiter = new TokenBucketRateLimiter("computers", 1, 0.001, 10);
+
+        limiter.tryAcquire("client");
+        slowLimiter.tryAcquire("client");
+        Thread.sleep(20);
+
+        assertEquals(1, limiter.evictIdle());
+        assertEquals(0, limiter.getClientCount());
+        assertEquals(0, slowLimiter.evictIdle());
+        assertEquals(1, slowLimiter.getClientCount());
+    }
+
+    /**
+     * Tests that clients beyond the maximum share overflow buckets instead of growing the map.
+     */
+    @Test
+    void tryAcquire_AboveMaxClients_NotTracked() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("computers", 5, 0.001, 2);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire("client-" + i).isAllowed());
+        }
+
+        assertEquals(2, limiter.getClientCount());
+    }
+}
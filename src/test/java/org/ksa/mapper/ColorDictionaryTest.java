@@ -0,0 +1,117 @@
+package org.ksa.mapper;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link ColorDictionary}.
+ * <p>
+ * Test coverage includes:
+ * <ul>
+ *     <li>Encoding colors in order, with duplicates and {@code null}, into one byte per code</li>
+ *     <li>Sharing one instance per color name across decoded lists</li>
+ *     <li>Decoding codes added by another instance</li>
+ *     <li>Reading and writing the table on the primary when a replica is configured</li>
+ * </ul>
+ */
+public class ColorDictionaryTest {
+
+    private DataSource dataSource;
+    private ColorDictionary dictionary;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE colors (id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+                    + " name VARCHAR(255) NOT NULL, CONSTRAINT uk_color_name UNIQUE (name))");
+        }
+        dataSource = h2;
+        dictionary = new ColorDictionary(dataSource);
+    }
+
+    /**
+     * Tests that colors survive a round trip in order and take one byte each.
+     */
+    @Test
+    void encodeThenDecode_KeepsOrder() {
+        List<String> colors = Arrays.asList("black", "silver", null, "black");
+
+        byte[] encoded = dictionary.encode(colors);
+
+        assertArrayEquals(new byte[]{1, 2, 0, 1}, encoded);
+        assertEquals(colors, dictionary.decode(encoded));
+        assertEquals(2, dictionary.size());
+        assertNull(dictionary.encode(List.of()));
+        assertTrue(dictionary.decode(null).isEmpty());
+    }
+
+    /**
+     * Tests that decoded lists share the dictionary's instance of each name.
+     */
+    @Test
+    void decode_SharesNameInstances() {
+        byte[] encoded = dictionary.encode(List.of(new String("black")));
+
+        assertSame(dictionary.decode(encoded).get(0), dictionary.decode(encoded).get(0));
+    }
+
+    /**
+     * Tests that a name added by another instance gets the same code and is decoded after a reload.
+     */
+    @Test
+    void decode_CodeFromOtherInstance_ReloadsDictionary() {
+        ColorDictionary other = new ColorDictionary(dataSource);
+        dictionary.encode(List.of("black"));
+        byte[] encoded = other.encode(List.of("white", "black"));
+
+        assertArrayEquals(new byte[]{2, 1}, encoded);
+        assertEquals(List.of("white", "black"), dictionary.decode(encoded));
+        assertArrayEquals(encoded, dictionary.encode(List.of("white", "black")));
+    }
+
+    /**
+     * Tests that the primary pool is used instead of the routing data source when it exists.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void constructor_PrimaryDataSource_BypassesRouting() {
+        DataSource routing = mock(DataSource.class);
+        ObjectProvider<DataSource> primary = mock(ObjectProvider.class);
+        when(primary.getIfAvailable(any())).thenReturn(dataSource);
+        ColorDictionary onPrimary = new ColorDictionary(routing, primary);
+        byte[] encoded = dictionary.encode(List.of("black"));
+
+        assertEquals(List.of("black"), onPrimary.decode(encoded));
+        assertArrayEquals(encoded, onPrimary.encode(List.of("black")));
+        verifyNoInteractions(routing);
+    }
+
+    /**
+     * Tests that codes from 128 up take several bytes and unknown codes are rejected.
+     */
+    @Test
+    void pack_LargeCodes_RoundTrip() {
+        int[] codes = {0, 127, 128, 300, Integer.MAX_VALUE};
+
+        assertArrayEquals(codes, ColorDictionary.unpack(ColorDictionary.pack(codes)));
+        assertEquals(3, ColorDictionary.pack(16_384).length);
+        assertThrows(IllegalStateException.class, () -> dictionary.decode(ColorDictionary.pack(5)));
+    }
+}
@@ -0,0 +1,109 @@
+package org.ksa.outbox;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ChangeJournal}.
+ * <p>
+ * Test coverage includes:
+ * <ul>
+ *     <li>Reading entries from any returned offset</li>
+ *     <li>Continuing offsets across segments</li>
+ *     <li>Recovering the end of the journal after reopening</li>
+ *     <li>Rejecting offsets that are not the start of an entry</li>
+ * </ul>
+ */
+public class ChangeJournalTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that entries can be read from the beginning and from an intermediate offset.
+     */
+    @Test
+    void read_FromOffset_ReturnsFollowingEntries() throws Exception {
+        ChangeJournal journal = open(4096);
+        long first = journal.append(1, bytes("first"));
+        long second = journal.append(2, bytes("second"));
+        journal.append(3, bytes("third"));
+
+        List<JournalEntry> all = journal.read(first, 10);
+        assertEquals(3, all.size());
+        assertEquals("second", new String(all.get(1).getPayload(), StandardCharsets.UTF_8));
+        assertEquals(journal.getEndOffset(), all.get(2).getNextOffset());
+
+        List<JournalEntry> tail = journal.read(second, 1);
+        assertEquals(1, tail.size());
+        assertEquals(2, tail.get(0).getOutboxId());
+        assertTrue(journal.read(journal.getEndOffset(), 10).isEmpty());
+    }
+
+    /**
+     * Tests that offsets continue across segments and readers cross segment boundaries.
+     */
+    @Test
+    void append_BeyondSegment_RollsOverWithContinuousOffsets() throws Exception {
+        ChangeJournal journal = open(128);
+        for (int i = 0; i < 20; i++) {
+            journal.append(i, bytes("change-" + i));
+        }
+
+        assertTrue(journal.getSegmentCount() > 1);
+        List<JournalEntry> entries = journal.read(0, 100);
+        assertEquals(20, entries.size());
+        for (int i = 1; i < entries.size(); i++) {
+            assertEquals(entries.get(i - 1).getNextOffset(), entries.get(i).getOffset());
+            assertEquals(i, entries.get(i).getOutboxId());
+        }
+    }
+
+    /**
+     * Tests that reopening the journal continues after the last entry.
+     */
+    @Test
+    void open_Existing_ContinuesAtEnd() throws Exception {
+        ChangeJournal journal = open(256);
+        for (int i = 0; i < 10; i++) {
+            journal.append(i, bytes("change-" + i));
+        }
+        long end = journal.getEndOffset();
+        journal.close();
+
+        ChangeJournal reopened = open(256);
+        assertEquals(end, reopened.getEndOffset());
+        assertEquals(end, reopened.append(10, bytes("change-10")));
+        assertEquals(11, reopened.read(0, 100).size());
+        assertEquals(List.of(10L), reopened.lastOutboxIds(1));
+    }
+
+    /**
+     * Tests that an offset inside an entry is rejected.
+     */
+    @Test
+    void read_OffsetInsideEntry_ThrowsException() throws Exception {
+        ChangeJournal journal = open(4096);
+        journal.append(1, bytes("first"));
+        journal.append(2, bytes("second"));
+
+        assertThrows(IllegalArgumentException.class, () -> journal.read(3, 10));
+        assertThrows(IllegalArgumentException.class, () -> journal.read(journal.getEndOffset() + 1, 10));
+    }
+
+    private ChangeJournal open(int segmentBytes) throws Exception {
+        ChangeJournal journal = new ChangeJournal(directory, segmentBytes);
+        journal.open();
+        return journal;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
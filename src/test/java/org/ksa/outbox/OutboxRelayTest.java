@@ -0,0 +1,117 @@
+package org.ksa.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ksa.entity.OutboxEvent;
+import org.ksa.repository.OutboxEventRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link OutboxRelay}.
+ * <p>
+ * Test coverage includes:
+ * <ul>
+ *     <li>Appending outbox rows to the journal and deleting them</li>
+ *     <li>Not journaling rows again after a failed delete or a restart</li>
+ * </ul>
+ */
+public class OutboxRelayTest {
+
+    @TempDir
+    Path directory;
+
+    private OutboxEventRepository repository;
+    private TransactionTemplate transactionTemplate;
+    private ChangeJournal journal;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = mock(OutboxEventRepository.class);
+        transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        journal = new ChangeJournal(directory, 4096);
+        journal.open();
+    }
+
+    /**
+     * Tests that relayed rows are journaled in order and deleted.
+     */
+    @Test
+    void relayOnce_PendingRows_JournaledAndDeleted() throws Exception {
+        when(repository.findAllByOrderByIdAsc(any(Pageable.class))).thenReturn(List.of(event(1), event(2)));
+
+        assertEquals(2, relay().relayOnce());
+
+        List<JournalEntry> entries = journal.read(0, 10);
+        assertEquals(2, entries.size());
+        assertEquals(1, entries.get(0).getOutboxId());
+        assertTrue(new String(entries.get(1).getPayload(), StandardCharsets.UTF_8)
+                .contains("\"payload\":{\"maker\":\"ASUS\"}"));
+        verify(repository).deleteAllByIdInBatch(List.of(1L, 2L));
+    }
+
+    /**
+     * Tests that rows journaled before a failed delete are deleted without being journaled again.
+     */
+    @Test
+    void relayOnce_AfterFailedDelete_NotJournaledTwice() throws Exception {
+        when(repository.findAllByOrderByIdAsc(any(Pageable.class))).thenReturn(List.of(event(1)));
+        doThrow(new IllegalStateException("connection lost")).doNothing()
+                .when(repository).deleteAllByIdInBatch(any());
+        OutboxRelay relay = relay();
+
+        assertThrows(IllegalStateException.class, relay::relayOnce);
+        relay.relayOnce();
+
+        assertEquals(1, journal.read(0, 10).size());
+        verify(repository, times(2)).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    /**
+     * Tests that a restarted relay skips rows already at the end of the journal.
+     */
+    @Test
+    void start_RowsAlreadyJournaled_NotJournaledTwice() throws Exception {
+        journal.append(1, "{}".getBytes(StandardCharsets.UTF_8));
+        List<OutboxEvent> rows = new ArrayList<>(List.of(event(1), event(2)));
+        when(repository.findAllByOrderByIdAsc(any(Pageable.class))).thenReturn(rows, Collections.emptyList());
+
+        OutboxRelay relay = relay();
+        relay.start();
+        verify(repository, timeout(5000)).deleteAllByIdInBatch(List.of(1L, 2L));
+        relay.stop();
+
+        List<JournalEntry> entries = journal.read(0, 10);
+        assertEquals(2, entries.size());
+        assertEquals(2, entries.get(1).getOutboxId());
+    }
+
+    private OutboxRelay relay() {
+        return new OutboxRelay(repository, transactionTemplate, journal, new ObjectMapper(), 1, 100, 10);
+    }
+
+    private static OutboxEvent event(long id) {
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateType(AggregateType.COMPUTER)
+                .aggregateId("ASUS/X507UA")
+                .changeType(ChangeType.CREATED)
+                .payload("{\"maker\":\"ASUS\"}")
+                .createdAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+package org.ksa.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.ksa.entity.OutboxEvent;
+import org.ksa.repository.OutboxEventRepository;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link OutboxWriter}.
+ * <p>
+ * Test coverage includes:
+ * <ul>
+ *     <li>Storing the encoded change while the outbox is enabled</li>
+ *     <li>Storing nothing while it is disabled</li>
+ * </ul>
+ */
+public class OutboxWriterTest {
+
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<OutboxRelay> outboxRelay = mock(ObjectProvider.class);
+
+    /**
+     * Tests that an enabled outbox stores the change with its JSON payload.
+     */
+    @Test
+    void record_Enabled_StoresEvent() {
+        new OutboxWriter(repository, new ObjectMapper(), outboxRelay, true)
+                .record(AggregateType.COMPUTER, "ASUS/X507UA", ChangeType.CREATED, Map.of("maker", "ASUS"));
+
+        verify(repository).save(argThat((OutboxEvent event) -> event.getAggregateId().equals("ASUS/X507UA")
+                && event.getChangeType() == ChangeType.CREATED
+                && event.getPayload().equals("{\"maker\":\"ASUS\"}")));
+    }
+
+    /**
+     * Tests that a disabled outbox stores no rows, which no relay would ever delete.
+     */
+    @Test
+    void record_Disabled_StoresNothing() {
+        new OutboxWriter(repository, new ObjectMapper(), outboxRelay, false)
+                .record(AggregateType.COMPUTER, "ASUS/X507UA", ChangeType.CREATED, Map.of("maker", "ASUS"));
+
+        verify(repository, never()).save(any());
+        assertTrue(mockingDetails(outboxRelay).getInvocations().isEmpty());
+    }
+}
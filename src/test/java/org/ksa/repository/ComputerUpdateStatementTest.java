@@ -0,0 +1,167 @@
+package org.ksa.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ksa.datasource.StatementStats;
+import org.ksa.datasource.StatementTrackingPostProcessor;
+import org.ksa.dto.ComputerDTO;
+import org.ksa.entity.Computer;
+import org.ksa.mapper.ColorDictionary;
+import org.ksa.mapper.ComputerMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.ksa.datasource.StatementAssertions.*;
+
+/**
+ * Statement-count tests for updating a {@link Computer} through {@link ComputerMapper#updateEntityFromDTO} and
+ * {@link ComputerRepository#patch}, counted by the {@link StatementTrackingPostProcessor} wrapping the data source.
+ * <p>
+ * Test coverage includes:
+ * <ul>
+ *     <li>Writing nothing when a PUT repeats the stored values</li>
+ *     <li>Leaving the colors column out of an update that keeps the colors</li>
+ *     <li>Writing changed colors with the row update, without any extra statement</li>
+ *     <li>Patching the changed columns and the version with a single statement and no read</li>
+ *     <li>Leaving the row alone when a patch names a stale version</li>
+ * </ul>
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"})
+@Import({ColorDictionary.class, StatementTrackingPostProcessor.class})
+public class ComputerUpdateStatementTest {
+
+    @Autowired
+    private ComputerRepository computerRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ColorDictionary colorDictionary;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persist(Computer.builder()
+                .type("laptop")
+                .maker("ASUS")
+                .model("X507UA")
+                .language("English")
+                .colors(new ArrayList<>(Arrays.asList("black", "silver")))
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+        // Colors are known in steady state, so encoding them runs no statement of its own
+        colorDictionary.encode(Arrays.asList("black", "silver", "white"));
+    }
+
+    /**
+     * Tests that a PUT repeating the stored values only reads the computer.
+     */
+    @Test
+    void update_Unchanged_WritesNothing() {
+        StatementStats stats = update(dto("English", "black", "silver"));
+
+        assertStatementCount(1, stats);
+        assertTrue(stats.getStatements().get(0).startsWith("select"));
+    }
+
+    /**
+     * Tests that an update keeping the colors does not write their column.
+     */
+    @Test
+    void update_OtherFieldChanged_LeavesColorsAlone() {
+        StatementStats stats = update(dto("日本語", "black", "silver"));
+
+        List<String> updates = statements(stats, "update");
+        assertEquals(1, updates.size());
+        assertTrue(updates.get(0).contains("language"));
+        assertFalse(updates.get(0).contains("color_codes"));
+        assertStatementCount(2, stats);
+    }
+
+    /**
+     * Tests that changed colors are written by the row update alone, and read back in order.
+     */
+    @Test
+    void update_ColorsChanged_WritesOneColumn() {
+        StatementStats stats = update(dto("English", "white", "black"));
+
+        List<String> updates = statements(stats, "update");
+        assertEquals(1, updates.size());
+        assertTrue(updates.get(0).contains("color_codes"));
+        assertFalse(updates.get(0).contains("language"));
+        assertStatementCount(2, stats);
+
+        entityManager.clear();
+        assertEquals(Arrays.asList("white", "black"),
+                computerRepository.findByMakerAndModel("ASUS", "X507UA").orElseThrow().getColors());
+    }
+
+    /**
+     * Tests that a patch is one update of the patched columns and the version, with the colors encoded.
+     */
+    @Test
+    void patch_ChangedColumns_WritesOneStatement() {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("language", "日本語");
+        changes.put("colors", Arrays.asList("white", "black"));
+
+        Captured<Boolean> patched = capture(() -> computerRepository.patch("ASUS", "X507UA", changes, 0L));
+
+        assertTrue(patched.getValue());
+        assertStatementCount(1, patched.getStats());
+        String update = patched.getStats().getStatements().get(0);
+        assertTrue(update.startsWith("update"));
+        assertTrue(update.contains("language") && update.contains("color_codes") && update.contains("version"));
+        assertFalse(update.contains("maker=?,") || update.contains("type=?"));
+
+        entityManager.clear();
+        Computer computer = computerRepository.findByMakerAndModel("ASUS", "X507UA").orElseThrow();
+        assertEquals("日本語", computer.getLanguage());
+        assertEquals(Arrays.asList("white", "black"), computer.getColors());
+        assertEquals(1L, computer.getVersion());
+    }
+
+    /**
+     * Tests that a patch naming a stale version updates nothing.
+     */
+    @Test
+    void patch_StaleVersion_UpdatesNothing() {
+        assertFalse(computerRepository.patch("ASUS", "X507UA", Map.of("language", "日本語"), 4L));
+
+        entityManager.clear();
+        Computer computer = computerRepository.findByMakerAndModel("ASUS", "X507UA").orElseThrow();
+        assertEquals("English", computer.getLanguage());
+        assertEquals(0L, computer.getVersion());
+    }
+
+    private StatementStats update(ComputerDTO computerDTO) {
+        return capture(() -> {
+            Computer computer = computerRepository.findByMakerAndModel("ASUS", "X507UA").orElseThrow();
+            ComputerMapper.updateEntityFromDTO(computerDTO, computer);
+            computerRepository.save(computer);
+            entityManager.flush();
+        });
+    }
+
+    private static ComputerDTO dto(String language, String... colors) {
+        return ComputerDTO.builder()
+                .type("laptop")
+                .maker("ASUS")
+                .model("X507UA")
+                .language(language)
+                .colors(ComputerDTO.ColorsWrapper.builder().color(Arrays.asList(colors)).build())
+                .build();
+    }
+}
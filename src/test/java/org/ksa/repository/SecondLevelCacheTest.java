@@ -0,0 +1,188 @@
+package org.ksa.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ksa.config.HibernateCacheConfig;
+import org.ksa.dto.SshKeyResponseDTO;
+import org.ksa.entity.Computer;
+import org.ksa.entity.SshKey;
+import org.ksa.mapper.ColorDictionary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of the Hibernate second-level and query caches, checking that every kind of write is visible through the
+ * cached reads that serve GET requests.
+ * <p>
+ * Each step commits on its own, as a request does, so the caches are filled and invalidated as in production.
+ * <p>
+ * Test coverage includes:
+ * <ul>
+ *     <li>Serving repeated computer and SSH key reads from the query cache</li>
+ *     <li>Seeing a PUT, a bulk JPQL patch and a DELETE of a computer through the entity and row queries</li>
+ *     <li>Seeing a PUT, a bulk JPQL patch and a DELETE of an SSH key through the response projections</li>
+ * </ul>
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Import({ColorDictionary.class, HibernateCacheConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private ComputerRepository computerRepository;
+
+    @Autowired
+    private SshKeyRepository sshKeyRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager platformTransactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private Long sshKeyId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(platformTransactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        computerRepository.save(Computer.builder()
+                .type("laptop")
+                .maker("ASUS")
+                .model("X507UA")
+                .language("English")
+                .colors(new ArrayList<>(Arrays.asList("black", "silver")))
+                .build());
+        sshKeyId = sshKeyRepository.save(SshKey.builder()
+                .serverType("build-server")
+                .serverName("jenkins")
+                .type("ssh-ed25519")
+                .publicKey("AAAA")
+                .comment("happy@isr")
+                .build()).getId();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        computerRepository.deleteAll();
+        sshKeyRepository.deleteAll();
+    }
+
+    /**
+     * Tests that repeated reads are cache hits, and that they see a PUT, a patch and a delete of the computer.
+     */
+    @Test
+    void computerWrites_VisibleThroughCachedReads() {
+        assertEquals("English", findComputer().getLanguage());
+        assertEquals("English", findComputerRow()[4]);
+        long queryHits = statistics.getQueryCacheHitCount();
+        assertEquals("English", findComputer().getLanguage());
+        assertEquals("English", findComputerRow()[4]);
+        assertEquals(queryHits + 2, statistics.getQueryCacheHitCount());
+        assertTrue(region(HibernateCacheConfig.COMPUTER_REGION).getHitCount() > 0);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Computer computer = computerRepository.findByMakerAndModel("ASUS", "X507UA").orElseThrow();
+            computer.setLanguage("Deutsch");
+            computer.setColors(new ArrayList<>(List.of("white")));
+        });
+        assertEquals("Deutsch", findComputer().getLanguage());
+        assertEquals(List.of("white"), findComputer().getColors());
+        assertEquals("Deutsch", findComputerRow()[4]);
+        assertEquals(List.of("white"), findComputerRow()[5]);
+
+        long queryMisses = statistics.getQueryCacheMissCount();
+        Boolean patched = transactionTemplate.execute(status ->
+                computerRepository.patch("ASUS", "X507UA", Map.of("language", "日本語"), null));
+        assertEquals(Boolean.TRUE, patched);
+        assertEquals("日本語", findComputer().getLanguage());
+        assertEquals("日本語", findComputerRow()[4]);
+        assertEquals(2L, findComputer().getVersion());
+        assertTrue(statistics.getQueryCacheMissCount() > queryMisses);
+
+        transactionTemplate.executeWithoutResult(status ->
+                computerRepository.delete(computerRepository.findByMakerAndModel("ASUS", "X507UA").orElseThrow()));
+        assertTrue(computerRepository.findByMakerAndModel("ASUS", "X507UA").isEmpty());
+        assertTrue(computerRepository.findRowsByMakerAndModel("ASUS", "X507UA").isEmpty());
+        assertFalse(computerRepository.existsByMakerAndModel("ASUS", "X507UA"));
+    }
+
+    /**
+     * Tests that repeated reads are cache hits, and that they see a PUT, a patch and a delete of the SSH key.
+     */
+    @Test
+    void sshKeyWrites_VisibleThroughCachedProjections() {
+        assertEquals("happy@isr", findSshKey().getComment());
+        assertEquals("happy@isr", findServerKeys().get(0).getComment());
+        long queryHits = statistics.getQueryCacheHitCount();
+        assertEquals("happy@isr", findSshKey().getComment());
+        assertEquals("happy@isr", findServerKeys().get(0).getComment());
+        assertEquals(queryHits + 2, statistics.getQueryCacheHitCount());
+
+        transactionTemplate.executeWithoutResult(status ->
+                sshKeyRepository.findById(sshKeyId).orElseThrow().setComment("sad@isr"));
+        assertEquals("sad@isr", findSshKey().getComment());
+        assertEquals("sad@isr", findServerKeys().get(0).getComment());
+        assertTrue(region(HibernateCacheConfig.SSH_KEY_REGION).getPutCount() > 0);
+
+        long queryMisses = statistics.getQueryCacheMissCount();
+        Boolean patched = transactionTemplate.execute(status ->
+                sshKeyRepository.patch(sshKeyId, Map.of("comment", "calm@isr"), null));
+        assertEquals(Boolean.TRUE, patched);
+        assertEquals("calm@isr", findSshKey().getComment());
+        assertEquals("calm@isr", findServerKeys().get(0).getComment());
+        assertEquals("calm@isr", sshKeyRepository.findById(sshKeyId).orElseThrow().getComment());
+        assertTrue(statistics.getQueryCacheMissCount() > queryMisses);
+
+        sshKeyRepository.deleteById(sshKeyId);
+        assertTrue(sshKeyRepository.findResponseById(sshKeyId).isEmpty());
+        assertTrue(findServerKeys().isEmpty());
+        assertFalse(sshKeyRepository.existsByServerTypeAndServerNameAndPublicKey("build-server", "jenkins", "AAAA"));
+    }
+
+    private Computer findComputer() {
+        return computerRepository.findByMakerAndModel("ASUS", "X507UA").orElseThrow();
+    }
+
+    private Object[] findComputerRow() {
+        List<Object[]> rows = computerRepository.findRowsByMakerAndModel("ASUS", "X507UA");
+        assertEquals(1, rows.size());
+        return rows.get(0);
+    }
+
+    private SshKeyResponseDTO findSshKey() {
+        return sshKeyRepository.findResponseById(sshKeyId).orElseThrow();
+    }
+
+    private List<SshKeyResponseDTO> findServerKeys() {
+        return sshKeyRepository.findResponsesByServerTypeAndServerName("build-server", "jenkins");
+    }
+
+    private CacheRegionStatistics region(String name) {
+        return statistics.getDomainDataRegionStatistics(name);
+    }
+}
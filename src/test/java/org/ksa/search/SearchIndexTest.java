@@ -0,0 +1,215 @@
+package org.ksa.search;
+
+import org.junit.jupiter.api.Test;
+import org.ksa.dto.SearchHitDTO;
+import org.ksa.dto.SearchResultsDTO;
+import org.ksa.entity.Computer;
+import org.ksa.entity.SshKey;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SearchIndex}.
+ * <p>
+ * Test coverage includes:
+ * <ul>
+ *     <li>Matching every query term, ignoring case and punctuation</li>
+ *     <li>Ranking, filtering by kind and paging</li>
+ *     <li>Incremental updates, removals and compaction</li>
+ *     <li>Parallel rebuilds spanning several chunks</li>
+ *     <li>Rebuilds fed in chunks from several threads</li>
+ *     <li>Replaying changes applied while a rebuild runs</li>
+ * </ul>
+ */
+public class SearchIndexTest {
+
+    /**
+     * Tests that a comment is found by its terms, and that only documents with every term match.
+     */
+    @Test
+    void search_MatchesAllTermsIgnoringCase() {
+        SearchIndex index = new SearchIndex();
+        index.rebuild(Collections.singletonList(computer(1L, "ASUS", "X507UA", "laptop", "black", "silver")),
+                Arrays.asList(sshKey(1L, "happy@isr", "jenkins"), sshKey(2L, "Happy builds", "gitlab")));
+
+        assertEquals(Arrays.asList(1L), sshKeyIds(index.search("happy@ISR", null, 0, 10)));
+        assertEquals(2, index.search("happy", null, 0, 10).getTotal());
+        assertEquals(0, index.search("happy nobody", null, 0, 10).getTotal());
+        assertEquals(0, index.search("  @@ ", null, 0, 10).getTotal());
+
+        SearchHitDTO computer = index.search("asus silver", null, 0, 10).getHits().get(0);
+        assertEquals(SearchDocumentType.COMPUTER, computer.getType());
+        assertEquals("X507UA", computer.getComputer().getModel());
+        assertNull(computer.getSshKey());
+    }
+
+    /**
+     * Tests that rarer and more frequent terms rank higher, and that pages and kinds are respected.
+     */
+    @Test
+    void search_RanksFiltersAndPages() {
+        SearchIndex index = new SearchIndex();
+        List<SshKey> sshKeys = new ArrayList<>();
+        for (long id = 1; id <= 30; id++) {
+            sshKeys.add(sshKey(id, "team platform", "build-" + id));
+        }
+        sshKeys.add(sshKey(31L, "platform platform", "platform"));
+        index.rebuild(Collections.singletonList(computer(1L, "Platform", "P1", "desktop")), sshKeys);
+
+        SearchResultsDTO first = index.search("platform", SearchDocumentType.SSH_KEY, 0, 10);
+        assertEquals(31, first.getTotal());
+        assertEquals(10, first.getHits().size());
+        assertEquals(31L, first.getHits().get(0).getSshKey().getId());
+        assertTrue(first.getHits().get(0).getScore() > first.getHits().get(1).getScore());
+
+        SearchResultsDTO last = index.search("platform", SearchDocumentType.SSH_KEY, 30, 10);
+        assertEquals(1, last.getHits().size());
+        assertEquals(30L, last.getHits().get(0).getSshKey().getId());
+        assertTrue(index.search("platform", null, 40, 10).getHits().isEmpty());
+        assertEquals(1, index.search("platform", SearchDocumentType.COMPUTER, 0, 10).getTotal());
+    }
+
+    /**
+     * Tests that updates replace the indexed terms, removals drop them and compaction keeps results intact.
+     */
+    @Test
+    void indexAndRemove_UpdateIncrementally() {
+        SearchIndex index = new SearchIndex();
+        index.indexSshKey(sshKey(1L, "alice@laptop", "jenkins"));
+        index.indexSshKey(sshKey(1L, "bob@laptop", "jenkins"));
+
+        assertEquals(0, index.search("alice", null, 0, 10).getTotal());
+        assertEquals(Arrays.asList(1L), sshKeyIds(index.search("bob jenkins", null, 0, 10)));
+
+        for (long id = 2; id <= 3000; id++) {
+            index.indexSshKey(sshKey(id, "churn", "temp"));
+            index.remove(SearchDocumentType.SSH_KEY, id);
+        }
+        index.remove(SearchDocumentType.COMPUTER, 1L);
+
+        assertEquals(1, index.getDocumentCount());
+        assertEquals(0, index.search("churn", null, 0, 10).getTotal());
+        assertEquals(Arrays.asList(1L), sshKeyIds(index.search("laptop", null, 0, 10)));
+        assertEquals(3, index.getTermCount());
+    }
+
+    /**
+     * Tests that a rebuild over several chunks finds documents from every chunk in order.
+     */
+    @Test
+    void rebuild_SpanningChunks_KeepsPostingsOrdered() {
+        SearchIndex index = new SearchIndex();
+        List<SshKey> sshKeys = new ArrayList<>();
+        for (long id = 1; id <= 20_000; id++) {
+            sshKeys.add(sshKey(id, id % 1000 == 0 ? "rare team" : "common team", "server-" + id));
+        }
+        index.rebuild(Collections.emptyList(), sshKeys);
+
+        SearchResultsDTO rare = index.search("team rare", null, 0, 100);
+        assertEquals(20, rare.getTotal());
+        assertEquals(20, rare.getHits().stream().map(hit -> hit.getSshKey().getId()).distinct().count());
+        assertEquals(Arrays.asList(19_000L), sshKeyIds(index.search("server 19000", null, 0, 1)));
+        assertEquals(20_000, index.search("team", null, 0, 1).getTotal());
+
+        index.indexSshKey(sshKey(20_001L, "rare team", "late"));
+        assertEquals(21, index.search("rare", null, 0, 100).getTotal());
+    }
+
+    /**
+     * Tests that chunks added from several threads all get indexed, and that searches see the previous index
+     * until the rebuild finishes.
+     */
+    @Test
+    void startRebuild_ChunksFromThreads_ReplaceOnFinish() throws Exception {
+        SearchIndex index = new SearchIndex();
+        index.rebuild(Collections.emptyList(), Collections.singletonList(sshKey(1L, "old", "jenkins")));
+
+        SearchIndex.Rebuild rebuild = index.startRebuild();
+        List<Thread> threads = new ArrayList<>();
+        for (int shard = 0; shard < 4; shard++) {
+            long first = shard * 5_000L + 1;
+            threads.add(new Thread(() -> {
+                for (long id = first; id < first + 5_000; id += 1_000) {
+                    List<SshKey> chunk = new ArrayList<>();
+                    for (long key = id; key < id + 1_000; key++) {
+                        chunk.add(sshKey(key, key % 1000 == 0 ? "rare team" : "common team", "server-" + key));
+                    }
+                    rebuild.addSshKeys(chunk);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        rebuild.addComputers(Collections.singletonList(computer(1L, "ASUS", "X507UA", "laptop")));
+
+        assertEquals(1, index.search("old", null, 0, 10).getTotal());
+        rebuild.finish();
+
+        assertEquals(0, index.search("old", null, 0, 10).getTotal());
+        assertEquals(20_001, index.getDocumentCount());
+        assertEquals(20, index.search("rare team", null, 0, 100).getTotal());
+        assertEquals(Arrays.asList(12_345L), sshKeyIds(index.search("server 12345", null, 0, 1)));
+        assertEquals(1, index.search("asus", SearchDocumentType.COMPUTER, 0, 10).getTotal());
+    }
+
+    /**
+     * Tests that changes applied while a rebuild reads its records are replayed on the rebuilt index, and that
+     * a cancelled rebuild leaves the current index in place.
+     */
+    @Test
+    void startRebuild_ChangesDuringRebuild_Replayed() {
+        SearchIndex index = new SearchIndex();
+        SearchIndex.Rebuild rebuild = index.startRebuild();
+        rebuild.addSshKeys(Arrays.asList(sshKey(1L, "alice@laptop", "jenkins"), sshKey(2L, "bob@laptop", "jenkins")));
+
+        index.remove(SearchDocumentType.SSH_KEY, 1L);
+        index.indexSshKey(sshKey(2L, "bob@desktop", "jenkins"));
+        index.indexSshKey(sshKey(3L, "carol@laptop", "gitlab"));
+        rebuild.finish();
+
+        assertEquals(Arrays.asList(3L), sshKeyIds(index.search("laptop", null, 0, 10)));
+        assertEquals(Arrays.asList(2L), sshKeyIds(index.search("bob desktop", null, 0, 10)));
+        assertEquals(2, index.getDocumentCount());
+
+        SearchIndex.Rebuild cancelled = index.startRebuild();
+        cancelled.addSshKeys(Collections.singletonList(sshKey(9L, "dave@laptop", "jenkins")));
+        cancelled.cancel();
+        cancelled.finish();
+        index.indexSshKey(sshKey(4L, "erin@laptop", "gitlab"));
+
+        assertEquals(Arrays.asList(3L, 4L), sshKeyIds(index.search("laptop", null, 0, 10)));
+    }
+
+    private static List<Long> sshKeyIds(SearchResultsDTO results) {
+        return results.getHits().stream().map(hit -> hit.getSshKey().getId()).collect(Collectors.toList());
+    }
+
+    private static SshKey sshKey(long id, String comment, String serverName) {
+        return SshKey.builder()
+                .id(id)
+                .type("ssh-ed25519")
+                .publicKey("AAAA" + id)
+                .comment(comment)
+                .serverType("build-server")
+                .serverName(serverName)
+                .build();
+    }
+
+    private static Computer computer(long id, String maker, String model, String type, String... colors) {
+        return Computer.builder()
+                .id(id)
+                .maker(maker)
+                .model(model)
+                .type(type)
+                .colors(Arrays.asList(colors))
+                .build();
+    }
+}
@@ -0,0 +1,235 @@
+package org.ksa.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.ksa.dto.BatchOperationDTO;
+import org.ksa.dto.BatchRequestDTO;
+import org.ksa.dto.BatchResponseDTO;
+import org.ksa.dto.BatchResultDTO;
+import org.ksa.dto.ComputerDTO;
+import org.ksa.dto.SshKeyRequestDTO;
+import org.ksa.dto.SshKeyResponseDTO;
+import org.ksa.exception.InvalidBatchException;
+import org.ksa.exception.SshKeyNotFoundException;
+import org.ksa.service.impl.BatchServiceImpl;
+import org.ksa.shard.ShardContext;
+import org.ksa.shard.ShardRouter;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link BatchServiceImpl}.
+ * <p>
+ * Test coverage includes:
+ * <ul>
+ *     <li>Running the operations of an atomic batch in order within one transaction</li>
+ *     <li>Rolling an atomic batch back at the first failed operation</li>
+ *     <li>Flushing each atomic operation so a constraint violation is reported against it</li>
+ *     <li>Carrying on after failures in a non-atomic batch</li>
+ *     <li>Rejecting incomplete operations, batches spanning shards and atomic batches without transactions</li>
+ * </ul>
+ */
+@ExtendWith(MockitoExtension.class)
+public class BatchServiceImplTest {
+
+    @Mock
+    private ComputerService computerService;
+
+    @Mock
+    private SshKeyService sshKeyService;
+
+    @Mock
+    private PlatformTransactionManager platformTransactionManager;
+
+    @Mock
+    private ObjectProvider<PlatformTransactionManager> transactionManager;
+
+    @Mock
+    private ObjectProvider<ShardRouter> shardRouter;
+
+    private BatchServiceImpl batchService;
+    private ComputerDTO computer;
+    private SshKeyRequestDTO.SshKeyDTO sshKey;
+
+    @BeforeEach
+    void setUp() {
+        batchService = new BatchServiceImpl(computerService, sshKeyService, transactionManager, shardRouter);
+        computer = ComputerDTO.builder().type("laptop").maker("ASUS").model("X507UA").build();
+        sshKey = SshKeyRequestDTO.SshKeyDTO.builder().type("ssh-ed25519").publicKey("AAAA").comment("happy@isr").build();
+    }
+
+    /**
+     * Tests that an atomic batch runs every operation in order and commits once.
+     */
+    @Test
+    void execute_Atomic_CommitsAllOperations() {
+        when(transactionManager.getIfAvailable()).thenReturn(platformTransactionManager);
+        when(platformTransactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(computerService.createComputer(computer)).thenReturn(computer);
+        when(sshKeyService.addSshKey(eq("build-server"), eq("jenkins"), any(SshKeyRequestDTO.class)))
+                .thenReturn(SshKeyResponseDTO.builder().id(7L).build());
+
+        BatchResponseDTO response = batchService.execute(request(true,
+                BatchOperationDTO.builder().op(BatchOperationDTO.Type.CREATE_COMPUTER).computer(computer).build(),
+                BatchOperationDTO.builder().op(BatchOperationDTO.Type.ADD_SSH_KEY)
+                        .serverType("build-server").serverName("jenkins").sshKey(sshKey).build(),
+                BatchOperationDTO.builder().op(BatchOperationDTO.Type.DELETE_SSH_KEY).id(3L).build()));
+
+        assertTrue(response.isCommitted());
+        assertEquals(Arrays.asList(201, 201, 204), statuses(response));
+        assertEquals(7L, response.getResults().get(1).getSshKey().getId());
+        InOrder order = inOrder(computerService, sshKeyService, platformTransactionManager);
+        order.verify(platformTransactionManager).getTransaction(any());
+        order.verify(computerService).createComputer(computer);
+        order.verify(sshKeyService).addSshKey(eq("build-server"), eq("jenkins"), any(SshKeyRequestDTO.class));
+        order.verify(sshKeyService).deleteSshKey(3L);
+        order.verify(platformTransactionManager).commit(any());
+        verify(platformTransactionManager, never()).rollback(any());
+    }
+
+    /**
+     * Tests that an atomic batch stops at the first failure and rolls back.
+     */
+    @Test
+    void execute_AtomicWithFailure_RollsBack() {
+        when(transactionManager.getIfAvailable()).thenReturn(platformTransactionManager);
+        when(platformTransactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        doThrow(new SshKeyNotFoundException("SSH key not found")).when(sshKeyService).deleteSshKey(9L);
+
+        BatchResponseDTO response = batchService.execute(request(true,
+                BatchOperationDTO.builder().op(BatchOperationDTO.Type.DELETE_COMPUTER).maker("ASUS").model("X507UA").build(),
+                BatchOperationDTO.builder().op(BatchOperationDTO.Type.DELETE_SSH_KEY).id(9L).build(),
+                BatchOperationDTO.builder().op(BatchOperationDTO.Type.DELETE_SSH_KEY).id(10L).build()));
+
+        assertFalse(response.isCommitted());
+        assertEquals(Arrays.asList(204, 404), statuses(response));
+        assertEquals("SSH key not found", response.getResults().get(1).getError());
+        verify(sshKeyService, never()).deleteSshKey(10L);
+        verify(platformTransactionManager).rollback(any());
+        verify(platformTransactionManager, never()).commit(any());
+    }
+
+    /**
+     * Tests that an atomic batch flushes after each operation and reports a violation found by the flush as 409.
+     */
+    @Test
+    void execute_AtomicFlushFails_ReportsConflict() {
+        TransactionStatus status = mock(TransactionStatus.class);
+        when(transactionManager.getIfAvailable()).thenReturn(platformTransactionManager);
+        when(platformTransactionManager.getTransaction(any())).thenReturn(status);
+        doNothing().doThrow(new DataIntegrityViolationException("Duplicate maker and model")).when(status).flush();
+
+        BatchResponseDTO response = batchService.execute(request(true,
+                BatchOperationDTO.builder().op(BatchOperationDTO.Type.UPDATE_COMPUTER).maker("ASUS").model("X507UA")
+                        .computer(computer).build(),
+                BatchOperationDTO.builder().op(BatchOperationDTO.Type.UPDATE_COMPUTER).maker("ASUS").model("X409FA")
+                        .computer(computer).build(),
+                BatchOperationDTO.builder().op(BatchOperationDTO.Type.DELETE_SSH_KEY).id(10L).build()));
+
+        assertFalse(response.isCommitted());
+        assertEquals(Arrays.asList(200, 409), statuses(response));
+        assertEquals("The change conflicts with existing data", response.getResults().get(1).getError());
+        verify(status, times(2)).flush();
+        verify(sshKeyService, never()).deleteSshKey(10L);
+        verify(platformTransactionManager).rollback(status);
+        verify(platformTransactionManager, never()).commit(any());
+    }
+
+    /**
+     * Tests that a non-atomic batch reports failures and runs the remaining operations without a transaction.
+     */
+    @Test
+    void execute_NonAtomic_ContinuesAfterFailure() {
+        when(computerService.createComputer(computer)).thenThrow(new IllegalArgumentException("Computer already exists"));
+        when(sshKeyService.updateSshKey(eq(3L), any(SshKeyRequestDTO.class)))
+                .thenReturn(SshKeyResponseDTO.builder().id(3L).build());
+
+        BatchResponseDTO response = batchService.execute(request(false,
+                BatchOperationDTO.builder().op(BatchOperationDTO.Type.CREATE_COMPUTER).computer(computer).build(),
+                BatchOperationDTO.builder().op(BatchOperationDTO.Type.UPDATE_SSH_KEY).id(3L).sshKey(sshKey).build()));
+
+        assertTrue(response.isCommitted());
+        assertEquals(Arrays.asList(400, 200), statuses(response));
+        verifyNoInteractions(transactionManager);
+    }
+
+    /**
+     * Tests that an operation missing a required field rejects the batch before anything runs.
+     */
+    @Test
+    void execute_IncompleteOperation_ThrowsException() {
+        BatchRequestDTO request = request(true,
+                BatchOperationDTO.builder().op(BatchOperationDTO.Type.CREATE_COMPUTER).computer(computer).build(),
+                BatchOperationDTO.builder().op(BatchOperationDTO.Type.UPDATE_COMPUTER).maker("ASUS").computer(computer).build());
+
+        InvalidBatchException ex = assertThrows(InvalidBatchException.class, () -> batchService.execute(request));
+        assertEquals("Operation 1 (UPDATE_COMPUTER) requires maker and model", ex.getMessage());
+        verifyNoInteractions(computerService, transactionManager);
+    }
+
+    /**
+     * Tests that an atomic batch runs on the shard of its SSH keys, and is rejected if they span shards.
+     */
+    @Test
+    void execute_AtomicWithSharding_UsesSingleShard() {
+        ShardRouter router = mock(ShardRouter.class);
+        when(shardRouter.getIfAvailable()).thenReturn(router);
+        when(transactionManager.getIfAvailable()).thenReturn(platformTransactionManager);
+        when(router.shardFor("build-server", "jenkins")).thenReturn(2);
+        when(router.locateSshKey(5L)).thenReturn(2);
+        when(router.locateSshKey(6L)).thenReturn(1);
+
+        AtomicReference<Integer> shard = new AtomicReference<>();
+        when(platformTransactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            shard.set(ShardContext.current());
+            return new SimpleTransactionStatus();
+        });
+        BatchOperationDTO add = BatchOperationDTO.builder().op(BatchOperationDTO.Type.ADD_SSH_KEY)
+                .serverType("build-server").serverName("jenkins").sshKey(sshKey).build();
+        batchService.execute(request(true, add, BatchOperationDTO.builder().op(BatchOperationDTO.Type.DELETE_SSH_KEY).id(5L).build()));
+        assertEquals(2, shard.get());
+        assertNull(ShardContext.current());
+
+        BatchRequestDTO spanning = request(true, add, BatchOperationDTO.builder().op(BatchOperationDTO.Type.DELETE_SSH_KEY).id(6L).build());
+        assertThrows(InvalidBatchException.class, () -> batchService.execute(spanning));
+        BatchRequestDTO withComputer = request(true, add, BatchOperationDTO.builder().op(BatchOperationDTO.Type.CREATE_COMPUTER).computer(computer).build());
+        assertThrows(InvalidBatchException.class, () -> batchService.execute(withComputer));
+    }
+
+    /**
+     * Tests that atomic batches are rejected without a transaction manager, as with the embedded store.
+     */
+    @Test
+    void execute_AtomicWithoutTransactions_ThrowsException() {
+        BatchRequestDTO request = request(true,
+                BatchOperationDTO.builder().op(BatchOperationDTO.Type.DELETE_SSH_KEY).id(1L).build());
+
+        assertThrows(InvalidBatchException.class, () -> batchService.execute(request));
+        verifyNoInteractions(sshKeyService);
+    }
+
+    private static BatchRequestDTO request(boolean atomic, BatchOperationDTO... operations) {
+        return BatchRequestDTO.builder().atomic(atomic).operations(Arrays.asList(operations)).build();
+    }
+
+    private static List<Integer> statuses(BatchResponseDTO response) {
+        return response.getResults().stream().map(BatchResultDTO::getStatus).collect(Collectors.toList());
+    }
+}
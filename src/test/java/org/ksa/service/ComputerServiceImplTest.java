@@ -1,21 +1,35 @@
 package org.ksa.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.ksa.dto.ComputerDTO;
+import org.ksa.dto.VersionedDTO;
 import org.ksa.entity.Computer;
 import org.ksa.exception.ComputerNotFoundException;
 import org.ksa.exception.InvalidMakerException;
+import org.ksa.exception.InvalidPatchException;
+import org.ksa.exception.VersionConflictException;
+import org.ksa.mapper.ComputerMapper;
+import org.ksa.outbox.AggregateType;
+import org.ksa.outbox.ChangeType;
+import org.ksa.outbox.OutboxWriter;
 import org.ksa.repository.ComputerRepository;
+import org.ksa.search.SearchIndex;
 import org.ksa.service.impl.ComputerServiceImpl;
+import org.ksa.suggest.ComputerSuggestionIndex;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,8 +44,11 @@ import static org.mockito.Mockito.*;
  *     <li>Retrieving computers by maker and model</li>
  *     <li>Creating new computers</li>
  *     <li>Updating existing computers</li>
+ *     <li>Patching computers with one update, guarded by their version</li>
  *     <li>Deleting computers</li>
  *     <li>Handling invalid inputs and missing records</li>
+ *     <li>Publishing changes to the outbox</li>
+ *     <li>Keeping the suggestion index in step with writes</li>
  * </ul>
  */
 @ExtendWith(MockitoExtension.class)
@@ -40,9 +57,20 @@ public class ComputerServiceImplTest {
     @Mock
     private ComputerRepository computerRepository;
 
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private SearchIndex searchIndex;
+
+    @Spy
+    private ComputerSuggestionIndex suggestionIndex = new ComputerSuggestionIndex();
+
     @InjectMocks
     private ComputerServiceImpl computerService;
 
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
     private Computer testComputer;
     private ComputerDTO testComputerDTO;
 
@@ -55,6 +83,7 @@ public class ComputerServiceImplTest {
                 .model("X507UA")
                 .language("日本語")
                 .colors(Arrays.asList("black", "silver"))
+                .version(3L)
                 .build();
 
         testComputerDTO = ComputerDTO.builder()
@@ -74,16 +103,14 @@ public class ComputerServiceImplTest {
      */
     @Test
     void getComputerByMakerAndModel_Success() {
-        when(computerRepository.existsByMaker("ASUS")).thenReturn(true);
-        when(computerRepository.findByMakerAndModel("ASUS", "X507UA"))
-                .thenReturn(Optional.of(testComputer));
+        when(computerRepository.findRowsByMakerAndModel("ASUS", "X507UA")).thenReturn(rows(testComputer));
 
         ComputerDTO result = computerService.getComputerByMakerAndModel("ASUS", "X507UA");
 
-        assertNotNull(result);
-        assertEquals("ASUS", result.getMaker());
-        assertEquals("X507UA", result.getModel());
-        verify(computerRepository, times(1)).findByMakerAndModel("ASUS", "X507UA");
+        assertEquals(testComputerDTO, result);
+        verify(computerRepository, times(1)).findRowsByMakerAndModel("ASUS", "X507UA");
+        verify(computerRepository, never()).existsByMaker(anyString());
+        verify(computerRepository, never()).findByMakerAndModel(anyString(), anyString());
     }
 
     /**
@@ -92,7 +119,7 @@ public class ComputerServiceImplTest {
      */
     @Test
     void getComputerByMakerAndModel_MakerNotFound_ThrowsException() {
-        when(computerRepository.existsByMaker("HP")).thenReturn(false);
+        when(computerRepository.findRowsByMakerAndModel("HP", "Victus")).thenReturn(Collections.emptyList());
 
         assertThrows(ComputerNotFoundException.class, () -> computerService.getComputerByMakerAndModel("HP", "Victus"));
     }
@@ -114,14 +141,16 @@ public class ComputerServiceImplTest {
      */
     @Test
     void getAllComputers_Success() {
-        List<Computer> computers = Collections.singletonList(testComputer);
-        when(computerRepository.findAll()).thenReturn(computers);
+        Computer colorless = Computer.builder().id(2L).type("desktop").maker("HP").model("Victus").build();
+        List<Object[]> rows = new ArrayList<>(rows(testComputer));
+        rows.addAll(rows(colorless));
+        when(computerRepository.findAllRows()).thenReturn(rows);
 
         List<ComputerDTO> result = computerService.getAllComputers();
 
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals("ASUS", result.get(0).getMaker());
+        assertEquals(Arrays.asList(testComputerDTO, ComputerMapper.mapToComputerDto(colorless)), result);
+        assertTrue(result.get(1).getColors().getColor().isEmpty());
+        verify(computerRepository, never()).findAll();
     }
 
     /**
@@ -138,6 +167,7 @@ public class ComputerServiceImplTest {
         assertNotNull(result);
         assertEquals("ASUS", result.getMaker());
         verify(computerRepository, times(1)).save(any(Computer.class));
+        verify(outboxWriter, times(1)).record(eq(AggregateType.COMPUTER), eq("ASUS/X507UA"), eq(ChangeType.CREATED), any());
     }
 
     /**
@@ -177,6 +207,61 @@ public class ComputerServiceImplTest {
         assertThrows(ComputerNotFoundException.class, () -> computerService.updateComputer("ASUS", "X507UA", testComputerDTO));
     }
 
+    /**
+     * Tests that a patch is written by the repository's single update and the row is read back,
+     * without loading or saving the entity.
+     */
+    @Test
+    void patchComputer_Success() throws Exception {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("model", "X509");
+        changes.put("colors", new ArrayList<>());
+        Computer patched = Computer.builder().id(1L).type("laptop").maker("ASUS").model("X509")
+                .language("日本語").version(4L).build();
+        when(computerRepository.patch("ASUS", "X507UA", changes, 3L)).thenReturn(true);
+        when(computerRepository.findRowsByMakerAndModel("ASUS", "X509")).thenReturn(rows(patched));
+
+        VersionedDTO<ComputerDTO> result = computerService.patchComputer("ASUS", "X507UA",
+                objectMapper.readTree("{\"model\": \"X509\", \"colors\": null}"), 3L);
+
+        assertEquals(4L, result.getVersion());
+        assertEquals("X509", result.getBody().getModel());
+        assertTrue(result.getBody().getColors().getColor().isEmpty());
+        verify(outboxWriter, times(1)).record(AggregateType.COMPUTER, "ASUS/X509", ChangeType.UPDATED, result.getBody());
+        verify(searchIndex, times(1)).indexComputer(patched);
+        verify(computerRepository, never()).findByMakerAndModel(anyString(), anyString());
+        verify(computerRepository, never()).save(any(Computer.class));
+    }
+
+    /**
+     * Tests that a patch matching no row is reported as a conflict if the computer exists, otherwise as missing.
+     */
+    @Test
+    void patchComputer_NoRowUpdated_ThrowsException() throws Exception {
+        when(computerRepository.patch(eq("ASUS"), eq("X507UA"), anyMap(), eq(2L))).thenReturn(false);
+        when(computerRepository.findRowsByMakerAndModel("ASUS", "X507UA"))
+                .thenReturn(rows(testComputer))
+                .thenReturn(Collections.emptyList());
+
+        assertThrows(VersionConflictException.class, () -> computerService.patchComputer("ASUS", "X507UA",
+                objectMapper.readTree("{\"language\": null}"), 2L));
+        assertThrows(ComputerNotFoundException.class, () -> computerService.patchComputer("ASUS", "X507UA",
+                objectMapper.readTree("{\"language\": null}"), 2L));
+        verifyNoInteractions(outboxWriter, searchIndex);
+    }
+
+    /**
+     * Tests that patches removing a required field or naming an unknown one are rejected before any statement.
+     */
+    @Test
+    void patchComputer_InvalidPatch_ThrowsException() throws Exception {
+        for (String patch : Arrays.asList("{\"maker\": null}", "{\"id\": 5}", "{\"colors\": {\"colour\": []}}", "[]")) {
+            assertThrows(InvalidPatchException.class, () -> computerService.patchComputer("ASUS", "X507UA",
+                    objectMapper.readTree(patch), null));
+        }
+        verifyNoInteractions(computerRepository);
+    }
+
     /**
      * Tests successful deletion of an existing computer record.
      * Verifies that the repository finds the computer and deletes it.
@@ -188,6 +273,7 @@ public class ComputerServiceImplTest {
         computerService.deleteComputer("ASUS", "X507UA");
 
         verify(computerRepository, times(1)).delete(testComputer);
+        verify(outboxWriter, times(1)).record(eq(AggregateType.COMPUTER), eq("ASUS/X507UA"), eq(ChangeType.DELETED), any());
     }
 
     /**
@@ -200,4 +286,40 @@ public class ComputerServiceImplTest {
 
         assertThrows(ComputerNotFoundException.class, () -> computerService.deleteComputer("ASUS", "X507UA"));
     }
+
+    /**
+     * Tests that the suggestion index is loaded at startup and follows creates, renames and deletes.
+     */
+    @Test
+    void suggestComputers_FollowsWrites() {
+        when(computerRepository.findAllMakersAndModels())
+                .thenReturn(Collections.singletonList(new Object[]{"HP", "Victus"}));
+        computerService.buildSuggestionIndex();
+
+        when(computerRepository.existsByMakerAndModel("ASUS", "X507UA")).thenReturn(false);
+        when(computerRepository.save(any(Computer.class))).thenReturn(testComputer);
+        computerService.createComputer(testComputerDTO);
+        assertEquals(2, computerService.suggestComputers("as", 10).size());
+
+        Computer renamed = Computer.builder().id(1L).maker("ASUS").model("X507UA").build();
+        when(computerRepository.findByMakerAndModel("ASUS", "X507UA")).thenReturn(Optional.of(renamed));
+        when(computerRepository.save(renamed)).thenReturn(renamed);
+        computerService.updateComputer("ASUS", "X507UA", ComputerDTO.builder().model("X509").build());
+        assertEquals("X509", computerService.suggestComputers("asus/", 10).get(0).getModel());
+
+        when(computerRepository.findByMakerAndModel("ASUS", "X509")).thenReturn(Optional.of(renamed));
+        computerService.deleteComputer("ASUS", "X509");
+        assertTrue(computerService.suggestComputers("a", 10).isEmpty());
+        assertEquals(2, computerService.suggestComputers("", 10).size());
+    }
+
+    /**
+     * Builds the row projected for a computer.
+     */
+    private static List<Object[]> rows(Computer computer) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{computer.getId(), computer.getType(), computer.getMaker(), computer.getModel(),
+                computer.getLanguage(), computer.getColors(), computer.getVersion()});
+        return rows;
+    }
 }
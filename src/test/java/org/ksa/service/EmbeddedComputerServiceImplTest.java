@@ -0,0 +1,143 @@
+package org.ksa.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.ksa.dto.ComputerDTO;
+import org.ksa.embedded.EmbeddedStore;
+import org.ksa.entity.Computer;
+import org.ksa.exception.ComputerNotFoundException;
+import org.ksa.exception.InvalidMakerException;
+import org.ksa.search.SearchIndex;
+import org.ksa.service.impl.EmbeddedComputerServiceImpl;
+import org.ksa.suggest.ComputerSuggestionIndex;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link EmbeddedComputerServiceImpl}
+ * <p>
+ * Verifies that the business rules of {@link org.ksa.service.impl.ComputerServiceImpl} hold with a mocked
+ * {@link EmbeddedStore}. Test coverage includes:
+ * <ul>
+ *     <li>Retrieving computers and handling missing makers and models</li>
+ *     <li>Creating computers and rejecting duplicates</li>
+ *     <li>Updating a copy of the stored computer</li>
+ *     <li>Deleting computers by maker and model</li>
+ * </ul>
+ */
+@ExtendWith(MockitoExtension.class)
+public class EmbeddedComputerServiceImplTest {
+
+    @Mock
+    private EmbeddedStore embeddedStore;
+
+    @Mock
+    private SearchIndex searchIndex;
+
+    @Spy
+    private ComputerSuggestionIndex suggestionIndex = new ComputerSuggestionIndex();
+
+    @InjectMocks
+    private EmbeddedComputerServiceImpl computerService;
+
+    private Computer testComputer;
+    private ComputerDTO testComputerDTO;
+
+    @BeforeEach
+    void setUp() {
+        testComputer = Computer.builder()
+                .id(1L)
+                .type("laptop")
+                .maker("ASUS")
+                .model("X507UA")
+                .language("日本語")
+                .colors(Arrays.asList("black", "silver"))
+                .build();
+
+        testComputerDTO = ComputerDTO.builder()
+                .type("laptop")
+                .maker("ASUS")
+                .model("X507UA")
+                .language("English")
+                .colors(ComputerDTO.ColorsWrapper.builder()
+                        .color(Arrays.asList("white"))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Tests that a missing model is rejected with 403 for a known maker and 404 for an unknown one.
+     */
+    @Test
+    void getComputerByMakerAndModel_ModelMissing_ThrowsException() {
+        when(embeddedStore.existsByMaker("ASUS")).thenReturn(true);
+        when(embeddedStore.existsByMaker("Unknown")).thenReturn(false);
+
+        assertThrows(InvalidMakerException.class, () -> computerService.getComputerByMakerAndModel("ASUS", ""));
+        assertThrows(ComputerNotFoundException.class,
+                () -> computerService.getComputerByMakerAndModel("Unknown", null));
+    }
+
+    /**
+     * Tests that an existing computer is returned and a missing one is reported.
+     */
+    @Test
+    void getComputerByMakerAndModel_Lookup() {
+        when(embeddedStore.findComputer("ASUS", "X507UA")).thenReturn(testComputer);
+
+        assertEquals("日本語", computerService.getComputerByMakerAndModel("ASUS", "X507UA").getLanguage());
+        assertThrows(ComputerNotFoundException.class,
+                () -> computerService.getComputerByMakerAndModel("ASUS", "Other"));
+    }
+
+    /**
+     * Tests that a duplicate computer is rejected.
+     */
+    @Test
+    void createComputer_Duplicate_ThrowsException() {
+        when(embeddedStore.insertComputer(any(Computer.class))).thenReturn(null);
+
+        assertThrows(IllegalArgumentException.class, () -> computerService.createComputer(testComputerDTO));
+    }
+
+    /**
+     * Tests that an update is applied to a copy and the stored computer is left unchanged.
+     */
+    @Test
+    void updateComputer_Success() {
+        when(embeddedStore.findComputer("ASUS", "X507UA")).thenReturn(testComputer);
+        when(embeddedStore.updateComputer(any(Computer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ComputerDTO result = computerService.updateComputer("ASUS", "X507UA", testComputerDTO);
+
+        ArgumentCaptor<Computer> captor = ArgumentCaptor.forClass(Computer.class);
+        verify(embeddedStore).updateComputer(captor.capture());
+        assertNotSame(testComputer, captor.getValue());
+        assertEquals(1L, captor.getValue().getId());
+        assertEquals("English", result.getLanguage());
+        assertEquals("日本語", testComputer.getLanguage());
+    }
+
+    /**
+     * Tests deletion by ID and the not found case.
+     */
+    @Test
+    void deleteComputer_Success() {
+        when(embeddedStore.findComputer("ASUS", "X507UA")).thenReturn(testComputer);
+
+        computerService.deleteComputer("ASUS", "X507UA");
+
+        verify(embeddedStore, times(1)).deleteComputer(1L);
+        assertThrows(ComputerNotFoundException.class, () -> computerService.deleteComputer("ASUS", "Other"));
+    }
+}
@@ -0,0 +1,120 @@
+package org.ksa.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.ksa.audit.AuditAction;
+import org.ksa.audit.AuditPublisher;
+import org.ksa.dto.SshKeyRequestDTO;
+import org.ksa.dto.SshKeyResponseDTO;
+import org.ksa.embedded.EmbeddedStore;
+import org.ksa.entity.SshKey;
+import org.ksa.exception.InvalidSshKeyException;
+import org.ksa.exception.SshKeyNotFoundException;
+import org.ksa.search.SearchIndex;
+import org.ksa.service.impl.EmbeddedSshKeyServiceImpl;
+import org.ksa.validator.Ed25519KeyValidator;
+import org.ksa.validator.RsaKeyValidator;
+import org.ksa.validator.SshKeyTypeRegistry;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link EmbeddedSshKeyServiceImpl}
+ * <p>
+ * Verifies that the business rules of {@link org.ksa.service.impl.SshKeyServiceImpl} hold with a mocked
+ * {@link EmbeddedStore}. Test coverage includes:
+ * <ul>
+ *     <li>Adding SSH keys and rejecting duplicates</li>
+ *     <li>Deleting SSH keys and handling missing records</li>
+ *     <li>Publishing audit events for changes</li>
+ * </ul>
+ */
+@ExtendWith(MockitoExtension.class)
+public class EmbeddedSshKeyServiceImplTest {
+
+    @Mock
+    private EmbeddedStore embeddedStore;
+
+    @Mock
+    private AuditPublisher auditPublisher;
+
+    @Spy
+    private SshKeyTypeRegistry sshKeyTypeRegistry = new SshKeyTypeRegistry(
+            Arrays.asList(new RsaKeyValidator(), new Ed25519KeyValidator()));
+
+    @Mock
+    private SearchIndex searchIndex;
+
+    @InjectMocks
+    private EmbeddedSshKeyServiceImpl sshKeyService;
+
+    private SshKey testSshKey;
+    private SshKeyRequestDTO testSshKeyRequestDTO;
+
+    @BeforeEach
+    void setUp() {
+        testSshKey = SshKey.builder()
+                .id(1L)
+                .serverType("build-server")
+                .serverName("jenkins")
+                .type("ssh-ed25519")
+                .publicKey("AAAAC3NzaC1lZDI1NTE5AAAAIOiKKC7lLUcyvJMo1gjvMr56XvOq814Hhin0OCYFDqT4")
+                .comment("test@example.com")
+                .build();
+
+        testSshKeyRequestDTO = SshKeyRequestDTO.builder()
+                .sshKey(SshKeyRequestDTO.SshKeyDTO.builder()
+                        .type("ssh-ed25519")
+                        .publicKey("AAAAC3NzaC1lZDI1NTE5AAAAIOiKKC7lLUcyvJMo1gjvMr56XvOq814Hhin0OCYFDqT4")
+                        .comment("test@example.com")
+                        .build())
+                .build();
+    }
+
+    /**
+     * Tests that a valid key is stored and audited.
+     */
+    @Test
+    void addSshKey_ValidType_Success() {
+        when(embeddedStore.insertSshKey(any(SshKey.class))).thenReturn(testSshKey);
+
+        SshKeyResponseDTO result = sshKeyService.addSshKey("build-server", "jenkins", testSshKeyRequestDTO);
+
+        assertEquals(1L, result.getId());
+        verify(auditPublisher, times(1)).publish(AuditAction.ADD, testSshKey);
+    }
+
+    /**
+     * Tests that a key already present on the server is rejected without an audit event.
+     */
+    @Test
+    void addSshKey_Duplicate_ThrowsException() {
+        when(embeddedStore.insertSshKey(any(SshKey.class))).thenReturn(null);
+
+        assertThrows(InvalidSshKeyException.class,
+                () -> sshKeyService.addSshKey("build-server", "jenkins", testSshKeyRequestDTO));
+        verifyNoInteractions(auditPublisher);
+    }
+
+    /**
+     * Tests that a deleted key is audited and a missing key is reported.
+     */
+    @Test
+    void deleteSshKey_AuditsOrThrows() {
+        when(embeddedStore.deleteSshKey(1L)).thenReturn(testSshKey);
+
+        sshKeyService.deleteSshKey(1L);
+
+        verify(auditPublisher, times(1)).publish(AuditAction.DELETE, testSshKey);
+        assertThrows(SshKeyNotFoundException.class, () -> sshKeyService.deleteSshKey(2L));
+    }
+}
@@ -1,21 +1,39 @@
 package org.ksa.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.ksa.audit.AuditAction;
+import org.ksa.audit.AuditPublisher;
 import org.ksa.dto.SshKeyRequestDTO;
 import org.ksa.dto.SshKeyResponseDTO;
+import org.ksa.dto.VersionedDTO;
 import org.ksa.entity.SshKey;
+import org.ksa.exception.InvalidPatchException;
 import org.ksa.exception.InvalidSshKeyException;
 import org.ksa.exception.SshKeyNotFoundException;
+import org.ksa.exception.VersionConflictException;
+import org.ksa.mapper.SshKeyMapper;
+import org.ksa.outbox.AggregateType;
+import org.ksa.outbox.ChangeType;
+import org.ksa.outbox.OutboxWriter;
 import org.ksa.repository.SshKeyRepository;
+import org.ksa.search.SearchDocumentType;
+import org.ksa.search.SearchIndex;
 import org.ksa.service.impl.SshKeyServiceImpl;
+import org.ksa.validator.Ed25519KeyValidator;
+import org.ksa.validator.RsaKeyValidator;
+import org.ksa.validator.SshKeyTypeRegistry;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,8 +50,11 @@ import static org.mockito.Mockito.*;
  *     <li>Retrieving SSH keys by id</li>
  *     <li>Creating new SSH keys</li>
  *     <li>Updating existing SSH keys by id</li>
+ *     <li>Patching SSH keys with one update, guarded by their version</li>
  *     <li>Deleting SSH keys by id</li>
  *     <li>Handling invalid inputs and missing records</li>
+ *     <li>Publishing audit events for changes</li>
+ *     <li>Publishing changes to the outbox</li>
  * </ul>
  */
 @ExtendWith(MockitoExtension.class)
@@ -42,9 +63,24 @@ public class SshKeyServiceImplTest {
     @Mock
     private SshKeyRepository sshKeyRepository;
 
+    @Mock
+    private AuditPublisher auditPublisher;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Spy
+    private SshKeyTypeRegistry sshKeyTypeRegistry = new SshKeyTypeRegistry(
+            Arrays.asList(new RsaKeyValidator(), new Ed25519KeyValidator()));
+
+    @Mock
+    private SearchIndex searchIndex;
+
     @InjectMocks
     private SshKeyServiceImpl sshKeyService;
 
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
     private SshKey testSshKey;
     private SshKeyRequestDTO testSshKeyRequestDTO;
 
@@ -72,7 +108,7 @@ public class SshKeyServiceImplTest {
 
     /**
      * Tests successful addition of a valid SSH key.
-     * Verifies that the key is saved and the response contains correct attributes.
+     * Verifies that the key is saved, audited and the response contains correct attributes.
      */
     @Test
     void addSshKey_ValidType_Success() {
@@ -85,6 +121,9 @@ public class SshKeyServiceImplTest {
         assertEquals("ssh-ed25519", result.getType());
         assertEquals("build-server", result.getServerType());
         verify(sshKeyRepository, times(1)).save(any(SshKey.class));
+        verify(auditPublisher, times(1)).publish(AuditAction.ADD, testSshKey);
+        verify(outboxWriter, times(1)).record(eq(AggregateType.SSH_KEY), eq("1"), eq(ChangeType.CREATED), any());
+        verify(searchIndex, times(1)).indexSshKey(testSshKey);
     }
 
     /**
@@ -119,6 +158,23 @@ public class SshKeyServiceImplTest {
         assertThrows(InvalidSshKeyException.class, () -> sshKeyService.addSshKey("build-server", "jenkins", request));
     }
 
+    /**
+     * Tests addition of a key with a type that is not registered.
+     * Expects {@link InvalidSshKeyException} before the repository is queried.
+     */
+    @Test
+    void addSshKey_UnsupportedType_ThrowsException() {
+        SshKeyRequestDTO.SshKeyDTO invalidKey = SshKeyRequestDTO.SshKeyDTO.builder()
+                .type("ssh-dss")
+                .publicKey("AAAAB3NzaC1kc3MAAACBAP")
+                .comment("Testing123")
+                .build();
+        SshKeyRequestDTO request = SshKeyRequestDTO.builder().sshKey(invalidKey).build();
+
+        assertThrows(InvalidSshKeyException.class, () -> sshKeyService.addSshKey("build-server", "jenkins", request));
+        verifyNoInteractions(sshKeyRepository);
+    }
+
     /**
      * Tests addition of a duplicate SSH key.
      * Expects {@link InvalidSshKeyException} when the key already exists.
@@ -136,14 +192,15 @@ public class SshKeyServiceImplTest {
      */
     @Test
     void getKeyById_Success() {
-        when(sshKeyRepository.findById(1L)).thenReturn(Optional.of(testSshKey));
+        when(sshKeyRepository.findResponseById(1L)).thenReturn(Optional.of(SshKeyMapper.mapToResponseDto(testSshKey)));
 
         SshKeyResponseDTO result = sshKeyService.getKeyById(1L);
 
         assertNotNull(result);
         assertEquals(1L, result.getId());
         assertEquals("ssh-ed25519", result.getType());
-        verify(sshKeyRepository, times(1)).findById(1L);
+        verify(sshKeyRepository, times(1)).findResponseById(1L);
+        verify(sshKeyRepository, never()).findById(anyLong());
     }
 
     /**
@@ -152,7 +209,7 @@ public class SshKeyServiceImplTest {
      */
     @Test
     void getKeyById_NotFound_ThrowsException() {
-        when(sshKeyRepository.findById(10L)).thenReturn(Optional.empty());
+        when(sshKeyRepository.findResponseById(10L)).thenReturn(Optional.empty());
 
         assertThrows(SshKeyNotFoundException.class, () -> sshKeyService.getKeyById(10L));
     }
@@ -163,8 +220,8 @@ public class SshKeyServiceImplTest {
      */
     @Test
     void getAllKeys_Success() {
-        List<SshKey> keys = Collections.singletonList(testSshKey);
-        when(sshKeyRepository.findByServerTypeAndServerName("build-server", "jenkins")).thenReturn(keys);
+        List<SshKeyResponseDTO> keys = Collections.singletonList(SshKeyMapper.mapToResponseDto(testSshKey));
+        when(sshKeyRepository.findResponsesByServerTypeAndServerName("build-server", "jenkins")).thenReturn(keys);
 
         List<SshKeyResponseDTO> result = sshKeyService.getAllKeys("build-server", "jenkins");
 
@@ -175,7 +232,7 @@ public class SshKeyServiceImplTest {
 
     /**
      * Tests successful update of an existing SSH key.
-     * Verifies that the repository finds and saves the updated key.
+     * Verifies that the repository finds and saves the updated key and the update is audited.
      */
     @Test
     void updateSshKey_Success() {
@@ -193,6 +250,7 @@ public class SshKeyServiceImplTest {
 
         assertNotNull(result);
         verify(sshKeyRepository, times(1)).save(any(SshKey.class));
+        verify(auditPublisher, times(1)).publish(AuditAction.UPDATE, testSshKey);
     }
 
     /**
@@ -206,17 +264,90 @@ public class SshKeyServiceImplTest {
         assertThrows(SshKeyNotFoundException.class, () -> sshKeyService.updateSshKey(12L, testSshKeyRequestDTO));
     }
 
+    /**
+     * Tests update with a type that is not registered or a key that does not match its type.
+     * Expects {@link InvalidSshKeyException} (400) before the key is looked up.
+     */
+    @Test
+    void updateSshKey_InvalidKey_ThrowsException() {
+        SshKeyRequestDTO unknownType = SshKeyRequestDTO.builder().sshKey(SshKeyRequestDTO.SshKeyDTO.builder()
+                .type("ssh-dss")
+                .publicKey("AAAAB3NzaC1kc3MAAACBAP")
+                .comment("Testing123")
+                .build()).build();
+        SshKeyRequestDTO malformedKey = SshKeyRequestDTO.builder().sshKey(SshKeyRequestDTO.SshKeyDTO.builder()
+                .type("ssh-ed25519")
+                .publicKey("TEST-ED25519")
+                .comment("Testing123")
+                .build()).build();
+
+        assertThrows(InvalidSshKeyException.class, () -> sshKeyService.updateSshKey(1L, unknownType));
+        assertThrows(InvalidSshKeyException.class, () -> sshKeyService.updateSshKey(1L, malformedKey));
+        verifyNoInteractions(sshKeyRepository, auditPublisher, outboxWriter);
+    }
+
+    /**
+     * Tests that a patch is written by the repository's single update, then read back and audited.
+     */
+    @Test
+    void patchSshKey_Success() throws Exception {
+        SshKey patched = SshKey.builder().id(1L).serverType("build-server").serverName("jenkins")
+                .type("ssh-ed25519").publicKey(testSshKey.getPublicKey()).comment(null).version(8L).build();
+        Map<String, Object> changes = Collections.singletonMap("comment", null);
+        when(sshKeyRepository.patch(1L, changes, null)).thenReturn(true);
+        when(sshKeyRepository.findRowById(1L)).thenReturn(row(patched));
+
+        VersionedDTO<SshKeyResponseDTO> result = sshKeyService.patchSshKey(1L,
+                objectMapper.readTree("{\"comment\": null}"), null);
+
+        assertEquals(8L, result.getVersion());
+        assertNull(result.getBody().getComment());
+        verify(auditPublisher, times(1)).publish(AuditAction.UPDATE, patched);
+        verify(outboxWriter, times(1)).record(AggregateType.SSH_KEY, "1", ChangeType.UPDATED, result.getBody());
+        verify(sshKeyRepository, never()).findById(anyLong());
+        verify(sshKeyRepository, never()).save(any(SshKey.class));
+    }
+
+    /**
+     * Tests that a patch naming another version than the stored one is rejected without side effects.
+     */
+    @Test
+    void patchSshKey_VersionChanged_ThrowsException() throws Exception {
+        when(sshKeyRepository.patch(eq(1L), anyMap(), eq(7L))).thenReturn(false);
+        when(sshKeyRepository.findRowById(1L)).thenReturn(row(testSshKey));
+
+        assertThrows(VersionConflictException.class, () -> sshKeyService.patchSshKey(1L,
+                objectMapper.readTree("{\"comment\": \"x\"}"), 7L));
+        verifyNoInteractions(auditPublisher, outboxWriter, searchIndex);
+    }
+
+    /**
+     * Tests that a new key must come with its type and be valid for it, and that the server cannot be patched.
+     */
+    @Test
+    void patchSshKey_InvalidPatch_ThrowsException() throws Exception {
+        assertThrows(InvalidPatchException.class, () -> sshKeyService.patchSshKey(1L,
+                objectMapper.readTree("{\"public\": \"AAAA\"}"), null));
+        assertThrows(InvalidPatchException.class, () -> sshKeyService.patchSshKey(1L,
+                objectMapper.readTree("{\"serverName\": \"nexus\"}"), null));
+        assertThrows(InvalidSshKeyException.class, () -> sshKeyService.patchSshKey(1L,
+                objectMapper.readTree("{\"type\": \"ssh-ed25519\", \"public\": \"AAAA\"}"), null));
+        verifyNoInteractions(sshKeyRepository);
+    }
+
     /**
      * Tests successful deletion of an existing SSH key.
-     * Verifies that the repository checks existence and deletes the key.
+     * Verifies that the repository finds and deletes the key and the deletion is audited.
      */
     @Test
     void deleteSshKey_Success() {
-        when(sshKeyRepository.existsById(1L)).thenReturn(true);
+        when(sshKeyRepository.findById(1L)).thenReturn(Optional.of(testSshKey));
 
         sshKeyService.deleteSshKey(1L);
 
-        verify(sshKeyRepository, times(1)).deleteById(1L);
+        verify(sshKeyRepository, times(1)).delete(testSshKey);
+        verify(auditPublisher, times(1)).publish(AuditAction.DELETE, testSshKey);
+        verify(searchIndex, times(1)).remove(SearchDocumentType.SSH_KEY, 1L);
     }
 
     /**
@@ -225,8 +356,17 @@ public class SshKeyServiceImplTest {
      */
     @Test
     void deleteSshKey_NotFound_ThrowsException() {
-        when(sshKeyRepository.existsById(45L)).thenReturn(false);
+        when(sshKeyRepository.findById(45L)).thenReturn(Optional.empty());
 
         assertThrows(SshKeyNotFoundException.class, () -> sshKeyService.deleteSshKey(45L));
+        verifyNoInteractions(auditPublisher, outboxWriter);
+    }
+
+    /**
+     * Builds the row projected for an SSH key.
+     */
+    private static List<Object[]> row(SshKey sshKey) {
+        return Collections.singletonList(new Object[]{sshKey.getId(), sshKey.getServerType(), sshKey.getServerName(),
+                sshKey.getType(), sshKey.getPublicKey(), sshKey.getComment(), sshKey.getVersion()});
     }
 }
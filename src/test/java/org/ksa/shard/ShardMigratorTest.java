@@ -0,0 +1,165 @@
+package org.ksa.shard;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ShardMigrator} and {@link ShardRouter} on several H2 databases.
+ * <p>
+ * Test coverage includes:
+ * <ul>
+ *     <li>Moving every SSH key to the shard of its server, keeping its ID</li>
+ *     <li>Generating unique IDs on every shard after the migration</li>
+ *     <li>Running an interrupted migration again</li>
+ *     <li>Refusing to migrate while outbox events are pending</li>
+ *     <li>Locating SSH keys by ID and routing connections by shard</li>
+ * </ul>
+ */
+public class ShardMigratorTest {
+
+    private static final int ID_STRIDE = 16;
+    private static final int KEYS = 600;
+
+    private final ShardRing single = new ShardRing(1, 128, Collections.emptyMap());
+    private final ShardRing three = new ShardRing(3, 128, Collections.emptyMap());
+    private final List<DataSource> shards = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            shards.add(database());
+        }
+        JdbcTemplate shard0 = new JdbcTemplate(shards.get(0));
+        for (int i = 0; i < KEYS; i++) {
+            shard0.update("INSERT INTO ssh_keys (server_type, server_name, key_type, public_key, comment) "
+                    + "VALUES (?, ?, 'ssh-ed25519', ?, ?)", "web", "server-" + i % 200, "AAAA" + i, i % 2 == 0 ? null : "c");
+        }
+    }
+
+    /**
+     * Tests that every key ends up on the shard of its server with its ID and that new IDs are unique.
+     */
+    @Test
+    void migrate_OneToThreeShards_MovesKeysToTheirShard() throws Exception {
+        List<ShardMoveStats> stats = new ShardMigrator(shards, single, three, ID_STRIDE, 64).migrate();
+
+        Set<Long> ids = new HashSet<>();
+        long moved = 0;
+        for (int shard = 0; shard < 3; shard++) {
+            for (var row : new JdbcTemplate(shards.get(shard)).queryForList("SELECT id, server_name FROM ssh_keys")) {
+                assertEquals(shard, three.shardFor("web", (String) row.get("server_name")));
+                ids.add(((Number) row.get("id")).longValue());
+                moved += shard == 0 ? 0 : 1;
+            }
+        }
+        assertEquals(KEYS, ids.size());
+        assertTrue(ids.contains(1L) && ids.contains((long) KEYS));
+        assertEquals(moved, stats.stream().mapToLong(ShardMoveStats::getRows).sum());
+        assertTrue(moved > 0 && stats.stream().allMatch(stat -> stat.getSource() == 0));
+
+        for (int shard = 0; shard < 3; shard++) {
+            JdbcTemplate template = new JdbcTemplate(shards.get(shard));
+            template.update("INSERT INTO ssh_keys (server_type, server_name, key_type, public_key) "
+                    + "VALUES ('new', 'server', 'ssh-ed25519', 'BBBB')");
+            long id = template.queryForObject("SELECT id FROM ssh_keys WHERE server_type = 'new'", Long.class);
+            assertTrue(id > KEYS);
+            assertEquals(shard, ShardRouter.originShard(id, ID_STRIDE));
+        }
+    }
+
+    /**
+     * Tests that a migration interrupted after copying a key completes when run again, and that a further run
+     * finds nothing to move.
+     */
+    @Test
+    void migrate_AfterInterruptedCopy_Completes() throws Exception {
+        int server = 0;
+        while (three.shardFor("web", "server-" + server) == 0) {
+            server++;
+        }
+        JdbcTemplate target = new JdbcTemplate(shards.get(three.shardFor("web", "server-" + server)));
+        for (var row : new JdbcTemplate(shards.get(0)).queryForList(
+                "SELECT id, public_key FROM ssh_keys WHERE server_name = ?", "server-" + server)) {
+            target.update("INSERT INTO ssh_keys (id, server_type, server_name, key_type, public_key) "
+                    + "VALUES (?, 'web', ?, 'ssh-ed25519', ?)", row.get("id"), "server-" + server, row.get("public_key"));
+        }
+
+        new ShardMigrator(shards, single, three, ID_STRIDE, 64).migrate();
+
+        assertTrue(new ShardMigrator(shards, three, three, ID_STRIDE, 64).migrate().isEmpty());
+        long total = 0;
+        for (DataSource shard : shards) {
+            total += new JdbcTemplate(shard).queryForObject("SELECT COUNT(*) FROM ssh_keys", Long.class);
+        }
+        assertEquals(KEYS, total);
+    }
+
+    /**
+     * Tests that the migration refuses to start while a shard has outbox rows.
+     */
+    @Test
+    void migrate_PendingOutboxEvents_ThrowsException() {
+        new JdbcTemplate(shards.get(0)).update("INSERT INTO outbox_events (payload) VALUES ('{}')");
+
+        assertThrows(IllegalStateException.class,
+                () -> new ShardMigrator(shards, single, three, ID_STRIDE, 64).migrate());
+        assertEquals(KEYS, new JdbcTemplate(shards.get(0)).queryForObject("SELECT COUNT(*) FROM ssh_keys", Long.class));
+    }
+
+    /**
+     * Tests that moved keys are found by scatter-gather and that connections follow {@link ShardContext}.
+     */
+    @Test
+    void router_AfterMigration_LocatesKeysAndRoutesConnections() throws Exception {
+        new ShardMigrator(shards, single, three, ID_STRIDE, 64).migrate();
+        ShardRouter router = new ShardRouter(three, shards, ID_STRIDE);
+        long id = new JdbcTemplate(shards.get(2)).queryForObject(
+                "SELECT MIN(id) FROM ssh_keys WHERE MOD(id - 1, ?) <> 2", Long.class, ID_STRIDE);
+
+        assertEquals(2, router.locateSshKey(id));
+        assertNull(router.locateSshKey(100_000));
+        assertEquals(1, router.getScatterLookups());
+        assertEquals(1, router.getMissedLookups());
+        assertEquals(KEYS, router.scatter(shard -> shard.queryForObject("SELECT COUNT(*) FROM ssh_keys", Long.class))
+                .stream().mapToLong(Long::longValue).sum());
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(shards);
+        routing.afterPropertiesSet();
+        Integer previous = ShardContext.set(2);
+        try {
+            assertEquals(1, new JdbcTemplate(routing).queryForObject(
+                    "SELECT COUNT(*) FROM ssh_keys WHERE id = ?", Long.class, id));
+        } finally {
+            ShardContext.restore(previous);
+        }
+        assertEquals(0, new JdbcTemplate(routing).queryForObject(
+                "SELECT COUNT(*) FROM ssh_keys WHERE id = ?", Long.class, id));
+        router.close();
+    }
+
+    private static DataSource database() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE ssh_keys (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "server_type VARCHAR(255) NOT NULL, server_name VARCHAR(255) NOT NULL, "
+                + "key_type VARCHAR(255) NOT NULL, public_key VARCHAR(255) NOT NULL, comment VARCHAR(255), "
+                + "version BIGINT DEFAULT 0 NOT NULL, "
+                + "CONSTRAINT uk_server_type_name_public UNIQUE (server_type, server_name, public_key))");
+        template.execute("CREATE TABLE outbox_events (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "payload VARCHAR(255))");
+        return dataSource;
+    }
+}
@@ -0,0 +1,74 @@
+package org.ksa.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ShardRing}.
+ * <p>
+ * Test coverage includes:
+ * <ul>
+ *     <li>Spreading servers evenly over the shards</li>
+ *     <li>Moving only servers of the new shard when a shard is added</li>
+ *     <li>Pinning server types to a shard</li>
+ * </ul>
+ */
+public class ShardRingTest {
+
+    private static final int SERVERS = 40000;
+
+    /**
+     * Tests that every shard receives a similar share of the servers.
+     */
+    @Test
+    void shardFor_ManyServers_SpreadsEvenly() {
+        ShardRing ring = new ShardRing(4, 128, Collections.emptyMap());
+        int[] servers = new int[4];
+        for (int i = 0; i < SERVERS; i++) {
+            servers[ring.shardFor("web", "server-" + i)]++;
+        }
+
+        for (int count : servers) {
+            assertTrue(Math.abs(count - SERVERS / 4) < SERVERS / 4 / 5, "Unbalanced shard: " + count);
+        }
+        assertEquals(ring.shardFor("web", "server-1"), new ShardRing(4, 128, Collections.emptyMap())
+                .shardFor("web", "server-1"));
+    }
+
+    /**
+     * Tests that adding a shard only moves servers onto the new shard, about a fifth of them.
+     */
+    @Test
+    void shardFor_ShardAdded_MovesOnlyToNewShard() {
+        ShardRing before = new ShardRing(4, 128, Collections.emptyMap());
+        ShardRing after = new ShardRing(5, 128, Collections.emptyMap());
+        int moved = 0;
+        for (int i = 0; i < SERVERS; i++) {
+            int from = before.shardFor("db", "server-" + i);
+            int to = after.shardFor("db", "server-" + i);
+            if (from != to) {
+                assertEquals(4, to);
+                moved++;
+            }
+        }
+
+        assertTrue(moved > SERVERS / 5 * 0.8 && moved < SERVERS / 5 * 1.2, "Moved " + moved);
+    }
+
+    /**
+     * Tests that pinned server types bypass the ring and that unknown shards are rejected.
+     */
+    @Test
+    void shardFor_PinnedServerType_UsesPinnedShard() {
+        ShardRing ring = new ShardRing(3, 16, Map.of("build-server", 2));
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(2, ring.shardFor("build-server", "jenkins-" + i));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ShardRing(3, 16, Map.of("build-server", 3)));
+    }
+}
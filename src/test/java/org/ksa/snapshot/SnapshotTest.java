@@ -0,0 +1,165 @@
+package org.ksa.snapshot;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ksa.mapper.ColorDictionary;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SnapshotExporter} and {@link SnapshotRestorer}.
+ * <p>
+ * Test coverage includes:
+ * <ul>
+ *     <li>Exporting and restoring all tables with their rows, null values and indexes</li>
+ *     <li>Rejecting a corrupted snapshot before writing any row</li>
+ *     <li>Refusing to restore into tables that are not empty</li>
+ * </ul>
+ */
+public class SnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that a restored database contains the same rows and accepts new rows afterwards.
+     */
+    @Test
+    void exportThenRestore_AllRowsCopied() throws Exception {
+        DataSource source = database();
+        seed(source, 500);
+        Path file = directory.resolve("data.snap");
+
+        List<SnapshotTableStats> exported = new SnapshotExporter(source, 1024).export(file);
+        assertEquals(500, exported.get(0).getRows());
+        assertEquals(2, exported.get(1).getRows());
+        assertEquals(500, exported.get(2).getRows());
+
+        DataSource target = database();
+        new SnapshotRestorer(target, 64).restore(file);
+
+        for (SnapshotTable table : SnapshotTable.values()) {
+            assertEquals(dump(source, table), dump(target, table));
+        }
+        try (Connection connection = target.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO computers (type, maker, model) VALUES ('laptop', 'ASUS', 'new')");
+            ResultSet id = statement.executeQuery("SELECT id FROM computers WHERE model = 'new'");
+            id.next();
+            assertEquals(501, id.getLong(1));
+            ResultSet index = connection.getMetaData().getIndexInfo(null, null, "ssh_keys", false, true);
+            List<String> names = new ArrayList<>();
+            while (index.next()) {
+                names.add(index.getString("INDEX_NAME").toLowerCase());
+            }
+            assertTrue(names.contains("idx_server_type_name"));
+        }
+    }
+
+    /**
+     * Tests that a damaged block is detected before any row is restored.
+     */
+    @Test
+    void restore_CorruptedBlock_ThrowsException() throws Exception {
+        DataSource source = database();
+        seed(source, 100);
+        Path file = directory.resolve("data.snap");
+        new SnapshotExporter(source, 1024).export(file);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, 100);
+            b.put(0, (byte) ~b.get(0)).rewind();
+            channel.write(b, 100);
+        }
+
+        DataSource target = database();
+        assertThrows(IOException.class, () -> new SnapshotRestorer(target, 64).restore(file));
+        assertTrue(dump(target, SnapshotTable.COMPUTERS).isEmpty());
+    }
+
+    /**
+     * Tests that existing rows are not mixed with the snapshot.
+     */
+    @Test
+    void restore_TableNotEmpty_ThrowsException() throws Exception {
+        DataSource source = database();
+        seed(source, 10);
+        Path file = directory.resolve("data.snap");
+        new SnapshotExporter(source, 1024).export(file);
+
+        assertThrows(IllegalStateException.class, () -> new SnapshotRestorer(source, 64).restore(file));
+    }
+
+    private static DataSource database() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE computers (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+                    + " type VARCHAR(255) NOT NULL, maker VARCHAR(255) NOT NULL, model VARCHAR(255) NOT NULL,"
+                    + " language VARCHAR(255), color_codes VARBINARY(1024), version BIGINT DEFAULT 0 NOT NULL,"
+                    + " CONSTRAINT uk_maker_model UNIQUE (maker, model))");
+            statement.execute("CREATE INDEX idx_maker_model ON computers (maker, model)");
+            statement.execute("CREATE TABLE colors (id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+                    + " name VARCHAR(255) NOT NULL, CONSTRAINT uk_color_name UNIQUE (name))");
+            statement.execute("CREATE TABLE ssh_keys (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+                    + " server_type VARCHAR(255) NOT NULL, server_name VARCHAR(255) NOT NULL,"
+                    + " key_type VARCHAR(255) NOT NULL, public_key VARCHAR(1024) NOT NULL, comment VARCHAR(255),"
+                    + " version BIGINT DEFAULT 0 NOT NULL)");
+            statement.execute("CREATE INDEX idx_server_type_name ON ssh_keys (server_type, server_name)");
+        }
+        return dataSource;
+    }
+
+    private static void seed(DataSource dataSource, int count) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             Statement colors = connection.createStatement();
+             PreparedStatement computer = connection.prepareStatement(
+                     "INSERT INTO computers (type, maker, model, language, color_codes) VALUES ('laptop', ?, ?, ?, ?)");
+             PreparedStatement key = connection.prepareStatement("INSERT INTO ssh_keys"
+                     + " (server_type, server_name, key_type, public_key, comment) VALUES ('build', ?, 'ssh-ed25519', ?, ?)")) {
+            colors.execute("INSERT INTO colors (name) VALUES ('red'), ('black')");
+            for (int i = 1; i <= count; i++) {
+                computer.setString(1, i % 2 == 0 ? "ASUS" : "Lenovo");
+                computer.setString(2, "Model " + i);
+                computer.setString(3, i % 3 == 0 ? null : "日本語");
+                computer.setBytes(4, i % 4 == 0 ? null : ColorDictionary.pack(1, 2));
+                computer.executeUpdate();
+                key.setString(1, "server-" + (i % 7));
+                key.setString(2, "AAAA" + i);
+                key.setString(3, i % 5 == 0 ? null : "user" + i + "@host");
+                key.executeUpdate();
+            }
+        }
+    }
+
+    private static List<String> dump(DataSource dataSource, SnapshotTable table) throws Exception {
+        List<String> rows = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(table.selectSql())) {
+            int columns = resultSet.getMetaData().getColumnCount();
+            while (resultSet.next()) {
+                StringBuilder row = new StringBuilder();
+                for (int i = 1; i <= columns; i++) {
+                    row.append(resultSet.getString(i)).append('|');
+                }
+                rows.add(row.toString());
+            }
+        }
+        return rows;
+    }
+}
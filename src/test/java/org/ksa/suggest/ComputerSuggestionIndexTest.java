@@ -0,0 +1,117 @@
+package org.ksa.suggest;
+
+import org.junit.jupiter.api.Test;
+import org.ksa.dto.ComputerSuggestionDTO;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ComputerSuggestionIndex}.
+ * <p>
+ * Test coverage includes:
+ * <ul>
+ *     <li>Case-insensitive prefix matches on makers and {@code maker/model} pairs</li>
+ *     <li>Keeping a maker while one of its models remains</li>
+ *     <li>Applying changes made inside a transaction only after commit</li>
+ *     <li>Replaying changes applied while a rebuild loads the computers</li>
+ * </ul>
+ */
+public class ComputerSuggestionIndexTest {
+
+    /**
+     * Tests that makers and pairs are returned in alphabetical order, limited and without case sensitivity.
+     */
+    @Test
+    void suggest_MatchesPrefixIgnoringCase() {
+        ComputerSuggestionIndex index = new ComputerSuggestionIndex();
+        index.rebuild(Arrays.asList(
+                new String[]{"ASUS", "X507UA"},
+                new String[]{"ASUS", "Zenbook"},
+                new String[]{"Acer", "Aspire 5"},
+                new String[]{"HP", "Victus"}));
+
+        assertEquals(Arrays.asList("Acer", "Acer/Aspire 5", "ASUS", "ASUS/X507UA", "ASUS/Zenbook"),
+                names(index.suggest("a", 10)));
+        assertEquals(Arrays.asList("ASUS/X507UA", "ASUS/Zenbook"), names(index.suggest("asus/", 10)));
+        assertEquals(Arrays.asList("Acer", "Acer/Aspire 5"), names(index.suggest("A", 2)));
+        assertEquals(Arrays.asList("ASUS/Zenbook"), names(index.suggest("Asus/zen", 10)));
+        assertTrue(index.suggest("dell", 10).isEmpty());
+        assertTrue(index.suggest("zz", 10).isEmpty());
+        assertEquals(7, index.size());
+    }
+
+    /**
+     * Tests that a maker is suggested until its last model is removed.
+     */
+    @Test
+    void remove_KeepsMakerWhileModelsRemain() {
+        ComputerSuggestionIndex index = new ComputerSuggestionIndex();
+        index.add("HP", "Victus");
+        index.add("HP", "Pavilion");
+
+        index.remove("HP", "Victus");
+        assertEquals(Arrays.asList("HP", "HP/Pavilion"), names(index.suggest("hp", 10)));
+
+        index.rename("HP", "Pavilion", "Dell", "XPS 13");
+        assertTrue(index.suggest("hp", 10).isEmpty());
+        assertEquals(Arrays.asList("Dell", "Dell/XPS 13"), names(index.suggest("", 10)));
+    }
+
+    /**
+     * Tests that a change made inside a transaction is invisible until the transaction commits.
+     */
+    @Test
+    void add_InsideTransaction_AppliedAfterCommit() {
+        ComputerSuggestionIndex index = new ComputerSuggestionIndex();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.add("Lenovo", "ThinkPad X1");
+            assertTrue(index.suggest("len", 10).isEmpty());
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(Arrays.asList("Lenovo", "Lenovo/ThinkPad X1"), names(index.suggest("len", 10)));
+    }
+
+    /**
+     * Tests that adds, renames and removes applied while the computers are loaded survive the rebuild, whether
+     * or not the load already saw them.
+     */
+    @Test
+    void rebuild_ChangesDuringLoad_Replayed() {
+        ComputerSuggestionIndex index = new ComputerSuggestionIndex();
+        index.rebuild(() -> {
+            List<String[]> loaded = Arrays.asList(
+                    new String[]{"HP", "Victus"},
+                    new String[]{"HP", "Pavilion"},
+                    new String[]{"ASUS", "X507UA"});
+            index.remove("HP", "Victus");
+            index.rename("HP", "Pavilion", "Dell", "XPS 13");
+            index.add("ASUS", "X507UA");
+            index.add("Acer", "Aspire 5");
+            return loaded;
+        });
+
+        assertEquals(Arrays.asList("Acer", "Acer/Aspire 5", "ASUS", "ASUS/X507UA", "Dell", "Dell/XPS 13"),
+                names(index.suggest("", 10)));
+
+        index.remove("ASUS", "X507UA");
+        assertTrue(index.suggest("asus", 10).isEmpty());
+    }
+
+    private static List<String> names(List<ComputerSuggestionDTO> suggestions) {
+        return suggestions.stream()
+                .map(s -> s.getModel() == null ? s.getMaker() : s.getMaker() + "/" + s.getModel())
+                .collect(Collectors.toList());
+    }
+}
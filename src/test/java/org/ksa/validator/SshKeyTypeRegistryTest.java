@@ -0,0 +1,106 @@
+package org.ksa.validator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ksa.config.SshKeyTypeConfig;
+import org.ksa.exception.InvalidSshKeyException;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SshKeyTypeRegistry}.
+ * <p>
+ * Verifies key type lookup and structural validation of public keys.
+ * Test coverage includes:
+ * <ul>
+ *     <li>Accepting valid keys of every supported type</li>
+ *     <li>Rejecting unsupported key types</li>
+ *     <li>Rejecting malformed or mismatched key content</li>
+ * </ul>
+ */
+public class SshKeyTypeRegistryTest {
+
+    private static final String RSA_KEY = "AAAAB3NzaC1yc2EAAAADAQABAAABAQCpX5CN1iSWYvTOxp/XyEWEo6twAMMOJGtwk+1rHkWcxb3WuTSEXOByPAn7pwMrhxPv0fjcF4dKUCH3FhRNOfJkeG3C4cB7A2uGGfTdUUCDrIZY4XsLY9fV2mi/R1rRaS8so/Z3MrTUOZl/T818oEouqinFL7HH4asMVJcw6zV4xpby0gd7vfLlsmP4AEZvaoPpSa5d165bsjsPU8fvljDeHun4E+RqLsJ5Wgtgv3QyQim13VKT/5mGHHlezLonXabJdrxoiM7QT6nKl8dhTaqN52VLYjeIs4vDB+RaFk1F5Vz+YxhRAXqlnm+DDCYPQ/HKI92WPbUb2bzpuXFmx0XL";
+    private static final String ED25519_KEY = "AAAAC3NzaC1lZDI1NTE5AAAAIOiKKC7lLUcyvJMo1gjvMr56XvOq814Hhin0OCYFDqT4";
+    private static final String ECDSA_256_KEY = "AAAAE2VjZHNhLXNoYTItbmlzdHAyNTYAAAAIbmlzdHAyNTYAAABBBBuBOTczC4UBkpNrsl6kySgw/NgH5TM7Qv7vcprJkaNfTspaJtLwstkYtZcVUhdXoBZ6F70UKzoOMw1sPTx4iOo=";
+    private static final String ECDSA_384_KEY = "AAAAE2VjZHNhLXNoYTItbmlzdHAzODQAAAAIbmlzdHAzODQAAABhBJZL4sqBk9CXRcvYUBMTLy7U86LNyQvNqc6xx01dyEVng+IHlGVu7UkR2nKUHB1+ZxMo5kvadaWJSQSfhqgnsHPjh0CD4darmyRGC0FSqg9shhJRUZCSraNsFHpnk48mKA==";
+    private static final String ECDSA_521_KEY = "AAAAE2VjZHNhLXNoYTItbmlzdHA1MjEAAAAIbmlzdHA1MjEAAACFBAAD+h76VGLLrjS6xrUfTBOYjs0moek/7xvKb93ZMRY3Sy4eyXk6PGlaJQ0kXrHGH1wsKLbNxbd9B6llwWTdZpAD1gB82UZ17mnn0cLKyx9j+RewCCUo3QBWBMSYgwqB9FCGdVuelgOx4GaxI+sFsG8AIzjT4/QrhJO1XNB1cEZ6tWAVdg==";
+    private static final String SK_ED25519_KEY = "AAAAGnNrLXNzaC1lZDI1NTE5QG9wZW5zc2guY29tAAAAIAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8gAAAABHNzaDo=";
+    private static final String SK_ECDSA_KEY = "AAAAInNrLWVjZHNhLXNoYTItbmlzdHAyNTZAb3BlbnNzaC5jb20AAAAIbmlzdHAyNTYAAABBBAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8gISIjJCUmJygpKissLS4vMDEyMzQ1Njc4OTo7PD0+P0AAAAAEc3NoOg==";
+
+    private SshKeyTypeRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        SshKeyTypeConfig config = new SshKeyTypeConfig();
+        registry = new SshKeyTypeRegistry(Arrays.asList(
+                config.rsaKeyValidator(),
+                config.ed25519KeyValidator(),
+                config.ecdsaNistp256KeyValidator(),
+                config.ecdsaNistp384KeyValidator(),
+                config.ecdsaNistp521KeyValidator(),
+                config.skEd25519KeyValidator(),
+                config.skEcdsaKeyValidator()));
+    }
+
+    /**
+     * Tests that a valid key of every supported type passes validation.
+     */
+    @Test
+    void validate_AllSupportedTypes_Success() {
+        assertDoesNotThrow(() -> registry.validate("ssh-rsa", RSA_KEY));
+        assertDoesNotThrow(() -> registry.validate("ssh-ed25519", ED25519_KEY));
+        assertDoesNotThrow(() -> registry.validate("ecdsa-sha2-nistp256", ECDSA_256_KEY));
+        assertDoesNotThrow(() -> registry.validate("ecdsa-sha2-nistp384", ECDSA_384_KEY));
+        assertDoesNotThrow(() -> registry.validate("ecdsa-sha2-nistp521", ECDSA_521_KEY));
+        assertDoesNotThrow(() -> registry.validate("sk-ssh-ed25519@openssh.com", SK_ED25519_KEY));
+        assertDoesNotThrow(() -> registry.validate("sk-ecdsa-sha2-nistp256@openssh.com", SK_ECDSA_KEY));
+        assertEquals(7, registry.getSupportedTypes().size());
+    }
+
+    /**
+     * Tests validation of a key type that has no registered validator.
+     * Expects {@link InvalidSshKeyException}.
+     */
+    @Test
+    void validate_UnsupportedType_ThrowsException() {
+        assertFalse(registry.isSupported("ssh-dss"));
+        assertThrows(InvalidSshKeyException.class, () -> registry.validate("ssh-dss", ED25519_KEY));
+        assertThrows(InvalidSshKeyException.class, () -> registry.validate(null, ED25519_KEY));
+    }
+
+    /**
+     * Tests validation of a key whose embedded type does not match the declared type.
+     * Expects {@link InvalidSshKeyException}.
+     */
+    @Test
+    void validate_MismatchedType_ThrowsException() {
+        assertThrows(InvalidSshKeyException.class, () -> registry.validate("ecdsa-sha2-nistp384", ECDSA_256_KEY));
+        assertThrows(InvalidSshKeyException.class, () -> registry.validate("ssh-ed25519", SK_ED25519_KEY));
+    }
+
+    /**
+     * Tests validation of truncated and non-base64 key content.
+     * Expects {@link InvalidSshKeyException}.
+     */
+    @Test
+    void validate_MalformedContent_ThrowsException() {
+        assertThrows(InvalidSshKeyException.class, () -> registry.validate("ssh-ed25519", ED25519_KEY.substring(0, 60)));
+        assertThrows(InvalidSshKeyException.class, () -> registry.validate("ecdsa-sha2-nistp256", "not base64!"));
+        assertThrows(InvalidSshKeyException.class, () -> registry.validate("ssh-rsa", RSA_KEY.substring(0, 320)));
+    }
+
+    /**
+     * Tests that registering two validators for the same type fails fast.
+     * Expects {@link IllegalStateException}.
+     */
+    @Test
+    void constructor_DuplicateType_ThrowsException() {
+        assertThrows(IllegalStateException.class, () -> new SshKeyTypeRegistry(
+                Arrays.asList(new Ed25519KeyValidator(), new Ed25519KeyValidator())));
+        assertTrue(new SshKeyTypeRegistry(Collections.emptyList()).getSupportedTypes().isEmpty());
+    }
+}